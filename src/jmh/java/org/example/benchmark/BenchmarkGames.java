@@ -0,0 +1,35 @@
+package org.example.benchmark;
+
+import org.example.model.Game;
+import org.example.model.MoveStrategyType;
+import org.example.model.Player;
+import org.example.model.PlayerType;
+import org.example.service.GameService;
+
+/**
+ * Game fixtures shared by the benchmarks
+ */
+public final class BenchmarkGames {
+
+    private BenchmarkGames() {
+    }
+
+    /**
+     * Plays the cells of the top half of the board in order, alternating X and O, which never completes a line
+     * so the game stays ongoing with half of the cells still empty
+     * @param gameService
+     * @param numberOfCellsPerRow
+     * @param moveStrategyType strategy of the computer player, who moves second
+     * @return the half filled game
+     */
+    public static Game halfFilledGame(GameService gameService, int numberOfCellsPerRow, MoveStrategyType moveStrategyType) {
+        Player human = gameService.addPlayer("Human", PlayerType.HUMAN, MoveStrategyType.CONSOLE);
+        Player computer = gameService.addPlayer("Computer", PlayerType.COMPUTER, moveStrategyType);
+        Game game = gameService.initialiseGame(human, computer, numberOfCellsPerRow, human);
+        int filledCells = numberOfCellsPerRow / 2 * numberOfCellsPerRow;
+        for (int cellIndex = 0; cellIndex < filledCells; cellIndex++) {
+            gameService.playMove(game.getId(), cellIndex);
+        }
+        return game;
+    }
+}
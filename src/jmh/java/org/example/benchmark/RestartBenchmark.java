@@ -0,0 +1,97 @@
+package org.example.benchmark;
+
+import org.example.model.Game;
+import org.example.model.MoveStrategyType;
+import org.example.model.Player;
+import org.example.model.PlayerType;
+import org.example.repository.ConcurrentGameRepositoryImpl;
+import org.example.repository.GameJournal;
+import org.example.repository.GameRepository;
+import org.example.repository.GameSnapshotter;
+import org.example.repository.JournaledGameRepository;
+import org.example.service.GameService;
+import org.example.service.GameServiceImpl;
+import org.example.service.JournalRecovery;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Compares restart time of a full journal replay with loading a snapshot and replaying the journal tail written after it
+ * Plays the opening moves of numberOfGames 3x3 games (default 1,000,000), then restarts both ways
+ * Run with: gradle restartBenchmark [-PnumberOfGames=N]
+ */
+public class RestartBenchmark {
+    private static final int DEFAULT_NUMBER_OF_GAMES = 1_000_000;
+    private static final int[] OPENING = {4, 0, 8};
+    private static final int TAIL_GAMES_DIVISOR = 100;
+
+    public static void main(String[] args) throws IOException {
+        int numberOfGames = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_NUMBER_OF_GAMES;
+        Path directory = Files.createTempDirectory("restart-benchmark");
+        try {
+            try (JournaledGameRepository repository = open(directory, new ConcurrentGameRepositoryImpl())) {
+                GameService gameService = new GameServiceImpl(repository);
+                play(gameService, numberOfGames);
+            }
+            long fullReplayNanos = restartFromJournal(directory);
+
+            try (JournaledGameRepository repository = open(directory, new ConcurrentGameRepositoryImpl());
+                 GameSnapshotter snapshotter = new GameSnapshotter(directory, repository)) {
+                GameService gameService = new GameServiceImpl(repository);
+                new JournalRecovery(repository).recover();
+                snapshotter.snapshot();
+                play(gameService, numberOfGames / TAIL_GAMES_DIVISOR);
+            }
+            long snapshotNanos = restartFromSnapshot(directory);
+
+            System.out.printf("games=%d full journal replay=%d ms snapshot + tail replay=%d ms%n", numberOfGames,
+                    TimeUnit.NANOSECONDS.toMillis(fullReplayNanos), TimeUnit.NANOSECONDS.toMillis(snapshotNanos));
+        } finally {
+            delete(directory);
+        }
+    }
+
+    private static JournaledGameRepository open(Path directory, GameRepository gameRepository) throws IOException {
+        return new JournaledGameRepository(gameRepository, new GameJournal(directory));
+    }
+
+    private static void play(GameService gameService, int numberOfGames) {
+        Player human = gameService.addPlayer("Human", PlayerType.HUMAN, MoveStrategyType.CONSOLE);
+        Player computer = gameService.addPlayer("Computer", PlayerType.COMPUTER, MoveStrategyType.LOOKUP_TABLE);
+        for (int index = 0; index < numberOfGames; index++) {
+            Game game = gameService.initialiseGame(human, computer, 3, human);
+            for (int cell : OPENING) {
+                gameService.playMove(game.getId(), cell);
+            }
+        }
+    }
+
+    private static long restartFromJournal(Path directory) throws IOException {
+        long startNanos = System.nanoTime();
+        try (JournaledGameRepository repository = open(directory, new ConcurrentGameRepositoryImpl())) {
+            new JournalRecovery(repository).recover();
+        }
+        return System.nanoTime() - startNanos;
+    }
+
+    private static long restartFromSnapshot(Path directory) throws IOException {
+        long startNanos = System.nanoTime();
+        GameRepository gameRepository = new ConcurrentGameRepositoryImpl();
+        long fromSegmentId = GameSnapshotter.loadLatest(directory, gameRepository);
+        try (JournaledGameRepository repository = open(directory, gameRepository)) {
+            new JournalRecovery(repository).recover(fromSegmentId);
+        }
+        return System.nanoTime() - startNanos;
+    }
+
+    private static void delete(Path directory) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package org.example.repository;
+
+import org.example.benchmark.BenchmarkGames;
+import org.example.model.Game;
+import org.example.model.Move;
+import org.example.model.MoveStrategyType;
+import org.example.service.GameServiceImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Marking a cell on packed (up to 8x8) and bitset boards
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GameRepositoryBenchmark {
+
+    @Param({"3", "10", "100", "1000"})
+    int numberOfCellsPerRow;
+
+    private GameRepositoryImpl gameRepository;
+    private Game game;
+    private Move move;
+
+    @Setup
+    public void setUp() {
+        gameRepository = new GameRepositoryImpl();
+        game = BenchmarkGames.halfFilledGame(new GameServiceImpl(gameRepository), numberOfCellsPerRow, MoveStrategyType.HEURISTIC);
+        move = gameRepository.createMove(game.getPlayers().get(1), numberOfCellsPerRow - 1, numberOfCellsPerRow - 1);
+    }
+
+    @Benchmark
+    public boolean updateGameBoardWithMove() {
+        return gameRepository.updateGameBoardWithMove(move, game.getBoard());
+    }
+}
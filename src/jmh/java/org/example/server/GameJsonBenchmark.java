@@ -0,0 +1,61 @@
+package org.example.server;
+
+import org.example.benchmark.BenchmarkGames;
+import org.example.model.Game;
+import org.example.model.MoveStrategyType;
+import org.example.repository.GameRepositoryImpl;
+import org.example.service.GameServiceImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encoding of the per-move documents of the web API on a half filled board: the two move diff a move request answers with,
+ * the same diff framed for WebSocket subscribers, and the full game a new subscriber receives
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GameJsonBenchmark {
+
+    @Param({"3", "15", "100"})
+    int numberOfCellsPerRow;
+
+    private Game game;
+    private int fromMove;
+
+    @Setup
+    public void setUp() {
+        game = BenchmarkGames.halfFilledGame(new GameServiceImpl(new GameRepositoryImpl()), numberOfCellsPerRow, MoveStrategyType.RANDOM);
+        fromMove = Math.max(0, game.getMoveHistory().size() - 2);
+    }
+
+    @Benchmark
+    public String moveResponse() {
+        return GameJson.moves(game, fromMove);
+    }
+
+    @Benchmark
+    public ByteBuffer movePush() {
+        return WebConnection.textFrame(GameJson.moves(game, fromMove));
+    }
+
+    @Benchmark
+    public String game() {
+        return GameJson.game(game);
+    }
+}
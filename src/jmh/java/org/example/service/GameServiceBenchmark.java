@@ -0,0 +1,66 @@
+package org.example.service;
+
+import org.example.benchmark.BenchmarkGames;
+import org.example.model.Game;
+import org.example.model.MoveStrategyType;
+import org.example.model.Player;
+import org.example.repository.GameRepositoryImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Win detection and the computer move path on a half filled board
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GameServiceBenchmark {
+
+    @Param({"3", "10", "100", "1000"})
+    int numberOfCellsPerRow;
+
+    @Param({"LOOKUP_TABLE", "HEURISTIC", "RANDOM"})
+    MoveStrategyType moveStrategyType;
+
+    private GameServiceImpl gameService;
+    private Game game;
+    private Player computer;
+    private int lastCell;
+
+    @Setup
+    public void setUp() {
+        gameService = new GameServiceImpl(new GameRepositoryImpl());
+        game = BenchmarkGames.halfFilledGame(gameService, numberOfCellsPerRow, moveStrategyType);
+        computer = game.getPlayers().get(1);
+        lastCell = numberOfCellsPerRow - 1;
+    }
+
+    /**
+     * Boards above 8x8 record the move on the game's win tracker, whose counts drift across invocations,
+     * the work per call does not
+     */
+    @Benchmark
+    public boolean determineWinner() {
+        return gameService.determineWinner(game, lastCell, lastCell, computer.getSymbol());
+    }
+
+    @Benchmark
+    public int computerMove() throws IOException {
+        return gameService.getCurrentPlayerPosition(computer, game);
+    }
+}
@@ -0,0 +1,88 @@
+package org.example.service;
+
+import org.example.model.Game;
+import org.example.model.MoveStrategyType;
+import org.example.model.Player;
+import org.example.model.PlayerType;
+import org.example.repository.GameRepository;
+import org.example.repository.GameRepositoryImpl;
+import org.example.strategy.MinimaxMoveStrategy;
+import org.example.strategy.MoveStrategyRegistry;
+import org.example.strategy.NegamaxSearch;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Allocation of the engine's move loop, run with -prof gc
+ * Each iteration plays a batch of MOVES_PER_ITERATION moves on its own 100x100 game, too few to finish it,
+ * so scores and gc.alloc.rate.norm are per batch; the games are created before the first iteration
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = MoveLoopBenchmark.WARMUP_ITERATIONS, batchSize = MoveLoopBenchmark.MOVES_PER_ITERATION)
+@Measurement(iterations = MoveLoopBenchmark.MEASUREMENT_ITERATIONS, batchSize = MoveLoopBenchmark.MOVES_PER_ITERATION)
+@Fork(1)
+public class MoveLoopBenchmark {
+    static final int MOVES_PER_ITERATION = 2000;
+    static final int WARMUP_ITERATIONS = 5;
+    static final int MEASUREMENT_ITERATIONS = 10;
+    private static final int ITERATIONS = WARMUP_ITERATIONS + MEASUREMENT_ITERATIONS;
+    private static final int NUMBER_OF_CELLS_PER_ROW = 100;
+    private static final String GAME_ID_PREFIX = "move-loop-";
+    private static final long MINIMAX_BUDGET_MICROS = 500;
+
+    /**
+     * CONSOLE stands for externally supplied moves, which are played on the cells in order
+     */
+    @Param({"CONSOLE", "RANDOM", "HEURISTIC", "MINIMAX"})
+    MoveStrategyType moveStrategyType;
+
+    private GameServiceImpl gameService;
+    private Game[] games;
+    private int iteration;
+    private Game game;
+    private int nextCellIndex;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        GameRepository gameRepository = new GameRepositoryImpl();
+        MoveStrategyRegistry moveStrategyRegistry = MoveStrategyRegistry.withDefaults()
+                .register(MoveStrategyType.MINIMAX, new MinimaxMoveStrategy(new NegamaxSearch(MINIMAX_BUDGET_MICROS, TimeUnit.MICROSECONDS)));
+        gameService = new GameServiceImpl(gameRepository, moveStrategyRegistry);
+        PlayerType playerType = moveStrategyType == MoveStrategyType.CONSOLE ? PlayerType.HUMAN : PlayerType.COMPUTER;
+        Player player1 = gameService.addPlayer("Player 1", playerType, moveStrategyType);
+        Player player2 = gameService.addPlayer("Player 2", playerType, moveStrategyType);
+        games = new Game[ITERATIONS];
+        for (int index = 0; index < ITERATIONS; index++) {
+            games[index] = gameRepository.initialiseGame(GAME_ID_PREFIX + index, player1, player2, NUMBER_OF_CELLS_PER_ROW, player1);
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void nextGame() {
+        game = games[iteration++];
+        nextCellIndex = 0;
+    }
+
+    @Benchmark
+    public Game playMove() throws IOException {
+        int cellIndex = moveStrategyType == MoveStrategyType.CONSOLE
+                ? nextCellIndex++
+                : gameService.getCurrentPlayerPosition(game.getPlayers().get(game.getCurrentPlayerIndex()), game);
+        return gameService.playMove(game.getId(), cellIndex);
+    }
+}
@@ -0,0 +1,75 @@
+package org.example.service;
+
+import org.example.model.Game;
+import org.example.model.MoveStrategyType;
+import org.example.model.Player;
+import org.example.model.PlayerType;
+import org.example.repository.GameRepository;
+import org.example.repository.GameRepositoryImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A whole computer vs computer game through startGameFromId, with its console output discarded
+ * startGameFromId prints the board every turn, so a game costs O(N^4) and 1000x1000 is left out
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SelfPlayBenchmark {
+    private static final String GAME_ID = "self-play";
+
+    @Param({"3", "10", "100"})
+    int numberOfCellsPerRow;
+
+    @Param({"LOOKUP_TABLE", "RANDOM"})
+    MoveStrategyType moveStrategyType;
+
+    private GameRepository gameRepository;
+    private GameService gameService;
+    private Player player1;
+    private Player player2;
+    private PrintStream console;
+
+    @Setup
+    public void setUp() {
+        console = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        gameRepository = new GameRepositoryImpl();
+        gameService = new GameServiceImpl(gameRepository);
+        player1 = gameService.addPlayer("Computer 1", PlayerType.COMPUTER, moveStrategyType);
+        player2 = gameService.addPlayer("Computer 2", PlayerType.COMPUTER, moveStrategyType);
+    }
+
+    @TearDown
+    public void tearDown() {
+        System.setOut(console);
+    }
+
+    /**
+     * Every game reuses one id, so finished games replace each other instead of piling up in the repository
+     */
+    @Benchmark
+    public Game selfPlay() throws IOException {
+        gameRepository.initialiseGame(GAME_ID, player1, player2, numberOfCellsPerRow, player1);
+        return gameService.startGameFromId(GAME_ID);
+    }
+}
@@ -0,0 +1,49 @@
+package org.example.strategy;
+
+import org.example.benchmark.BenchmarkGames;
+import org.example.model.CellValue;
+import org.example.model.Game;
+import org.example.model.MoveStrategyType;
+import org.example.repository.GameRepositoryImpl;
+import org.example.service.GameServiceImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * findWinningMove on a half filled board without a winning move, so every empty cell is checked
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HeuristicMoveStrategyBenchmark {
+
+    @Param({"3", "10", "100", "1000"})
+    int numberOfCellsPerRow;
+
+    private final HeuristicMoveStrategy heuristicMoveStrategy = new HeuristicMoveStrategy();
+    private Game game;
+
+    @Setup
+    public void setUp() {
+        game = BenchmarkGames.halfFilledGame(new GameServiceImpl(new GameRepositoryImpl()), numberOfCellsPerRow, MoveStrategyType.HEURISTIC);
+    }
+
+    @Benchmark
+    public int findWinningMove() {
+        return heuristicMoveStrategy.findWinningMove(game.getBoard(), game.getWinTracker(), CellValue.X.getSymbol());
+    }
+}
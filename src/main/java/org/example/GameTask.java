@@ -5,12 +5,19 @@ import org.example.model.Game;
 import org.example.model.Player;
 import org.example.model.PlayerType;
 import org.example.service.GameService;
+import org.example.util.LoggerConfig;
 
+import java.util.Objects;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 public class GameTask implements Runnable {
     private static final Logger logger = Logger.getLogger(GameTask.class.getName());
+
+    static {
+        LoggerConfig.configureLogger(logger);
+    }
+
     private final int gameNumber;
     private final GameService gameService;
 
@@ -24,7 +31,7 @@ public class GameTask implements Runnable {
         try {
             GameController gameController = new GameController(gameService);
 
-            logger.log(Level.INFO, "Starting game " + gameNumber);
+            logger.log(Level.INFO, "Starting game {0}", gameNumber);
 
             // Simulated inputs
             String playerName1 = "Player" + gameNumber;
@@ -36,17 +43,17 @@ public class GameTask implements Runnable {
             int numberOfCellsPerRow = 3;
 
             Player tossWinner = gameController.conductTossToDecideWhoGoesFirst(player1, player2);
-            logger.log(Level.INFO, "Player who won the toss in game " + gameNumber + " is: " + tossWinner.getName());
+            logger.log(Level.INFO, "Player who won the toss in game {0} is: {1}", new Object[]{gameNumber, tossWinner.getName()});
 
             Game gameObj = gameController.initialiseGame(player1, player2, numberOfCellsPerRow, tossWinner);
             String gameId = gameObj.getId();
-            logger.log(Level.INFO, "Game " + gameNumber + " initialized: " + gameObj);
+            logger.log(Level.INFO, "Game {0} initialized with id {1}", new Object[]{gameNumber, gameId});
 
             gameObj = gameController.startGameFromId(gameId);
-            logger.log(Level.INFO, "Game State for game " + gameNumber + ": " + gameObj.getGameState() + "\nGame result: " + gameObj);
+            String winnerName = Objects.isNull(gameObj.getWinner()) ? "none" : gameObj.getWinner().getName();
+            logger.log(Level.INFO, "Game State for game {0}: {1}, winner: {2}", new Object[]{gameNumber, gameObj.getGameState(), winnerName});
         } catch (Exception e) {
-            logger.log(Level.SEVERE, "Error in game execution: " + e.getMessage());
-            e.printStackTrace();
+            logger.log(Level.SEVERE, "Error in game execution", e);
         }
     }
 }
@@ -1,66 +1,362 @@
 package org.example;
 
+import org.example.archive.ArchivedGame;
+import org.example.archive.ColumnarGameArchive;
+import org.example.archive.GameQuery;
+import org.example.cluster.ClusterNode;
 import org.example.controller.GameController;
+import org.example.metrics.GameMetrics;
+import org.example.model.CellValue;
 import org.example.model.Game;
+import org.example.model.LoadTestResult;
+import org.example.model.Move;
+import org.example.model.MoveStrategyType;
 import org.example.model.Player;
 import org.example.model.PlayerType;
+import org.example.model.SimulationResult;
+import org.example.repository.ConcurrentGameRepositoryImpl;
+import org.example.repository.ExpiringGameRepository;
+import org.example.repository.GameArchive;
+import org.example.repository.GameLifecyclePolicy;
 import org.example.repository.GameRepository;
 import org.example.repository.GameRepositoryImpl;
+import org.example.repository.MeteredGameRepository;
+import org.example.service.GameHost;
 import org.example.service.GameService;
 import org.example.service.GameServiceImpl;
+import org.example.server.GameServer;
+import org.example.server.LoadGenerator;
+import org.example.server.WebServer;
+import org.example.service.SelfPlaySimulator;
+import org.example.strategy.ConsoleMoveStrategy;
+import org.example.strategy.MoveStrategyRegistry;
 import org.example.util.LoggerConfig;
 
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.stream.Stream;
 
 public class Main {
+    private static final long DEFAULT_GAMES_PER_PAIRING = 1_000_000;
+    private static final String ARCHIVE_DIRECTORY_PROPERTY = "tictactoe.archive.dir";
+    private static final String ANY = "-";
     private static final Logger logger = Logger.getLogger(Main.class.getName());
 
     public static void main(String[] args) {
         LoggerConfig.configureLogger(logger);
+        if (args.length > 0 && Objects.equals(args[0], "simulate")) {
+            runSimulation(args);
+            return;
+        }
+        if (args.length > 0 && Objects.equals(args[0], "serve")) {
+            try {
+                runServer(args);
+            } catch (IOException e) {
+                logger.log(Level.SEVERE, "Game server failed", e);
+            }
+            return;
+        }
+        if (args.length > 0 && Objects.equals(args[0], "web")) {
+            try {
+                runWebServer(args);
+            } catch (IOException e) {
+                logger.log(Level.SEVERE, "Web server failed", e);
+            }
+            return;
+        }
+        if (args.length > 0 && Objects.equals(args[0], "load")) {
+            try {
+                runLoadTest(args);
+            } catch (IOException e) {
+                logger.log(Level.SEVERE, "Load test failed", e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return;
+        }
+        if (args.length > 0 && Objects.equals(args[0], "node")) {
+            try {
+                runClusterNode(args);
+            } catch (IOException e) {
+                logger.log(Level.SEVERE, "Cluster node failed", e);
+            }
+            return;
+        }
+        if (args.length > 1 && Objects.equals(args[0], "history")) {
+            try {
+                runHistoryQuery(args);
+            } catch (IOException e) {
+                logger.log(Level.SEVERE, "History query failed", e);
+            }
+            return;
+        }
+        if (args.length > 2 && Objects.equals(args[0], "replay")) {
+            try {
+                runReplay(args);
+            } catch (IOException e) {
+                logger.log(Level.SEVERE, "Replay failed", e);
+            }
+            return;
+        }
         logger.log(Level.INFO,"Game started");
 
         try {
             runGame();
         } catch (IOException e) {
-            logger.log(Level.SEVERE, "Error reading input: " + e.getMessage());
+            logger.log(Level.SEVERE, "Error reading input", e);
         } catch (Exception e) {
-            e.printStackTrace();
-            logger.log(Level.SEVERE, "Error: " + e.getMessage());
+            logger.log(Level.SEVERE, "Error", e);
+        }
+    }
+
+    /**
+     * Headless self-play of every pairing of the computer strategies
+     * Usage: simulate [gamesPerPairing] [numberOfCellsPerRow...], defaults to 1,000,000 games on 3x3
+     * @param args
+     */
+    private static void runSimulation(String[] args) {
+        long gamesPerPairing = args.length > 1 ? Long.parseLong(args[1]) : DEFAULT_GAMES_PER_PAIRING;
+        List<Integer> boardSizes = new ArrayList<>();
+        for (int index = 2; index < args.length; index++) {
+            boardSizes.add(Integer.parseInt(args[index]));
+        }
+        if (boardSizes.isEmpty()) {
+            boardSizes.add(3);
+        }
+        List<MoveStrategyType> moveStrategyTypes = Arrays.asList(MoveStrategyType.RANDOM, MoveStrategyType.HEURISTIC, MoveStrategyType.LOOKUP_TABLE);
+
+        for (SimulationResult result : new SelfPlaySimulator().simulate(moveStrategyTypes, boardSizes, gamesPerPairing)) {
+            System.out.printf("%dx%d %s vs %s: %d games, %d/%d/%d (wins/wins/draws), %.0f games/s%n",
+                    result.getNumberOfCellsPerRow(), result.getNumberOfCellsPerRow(), result.getStrategyType1(), result.getStrategyType2(),
+                    result.getGames(), result.getStrategyType1Wins(), result.getStrategyType2Wins(), result.getDraws(), result.getGamesPerSecond());
+        }
+    }
+
+    /**
+     * Serves remote players over TCP until standard input ends
+     * Usage: serve [port] [numberOfEventLoops], defaults to port 7070 and one event loop per core
+     * @param args
+     * @throws IOException
+     */
+    private static void runServer(String[] args) throws IOException {
+        int port = args.length > 1 ? Integer.parseInt(args[1]) : GameServer.DEFAULT_PORT;
+        int numberOfEventLoops = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        enableMetrics();
+        try (ColumnarGameArchive gameArchive = openGameArchive();
+             ExpiringGameRepository gameRepository = newExpiringGameRepository(gameArchive);
+             GameServer gameServer = new GameServer(newHostingGameController(gameRepository), new InetSocketAddress(port), numberOfEventLoops)) {
+            System.out.println(gameServer.getAddress().getPort());
+            BufferedReader input = new BufferedReader(new InputStreamReader(System.in));
+            while (Objects.nonNull(input.readLine())) {
+                // serve until standard input is closed
+            }
+        }
+    }
+
+    /**
+     * Serves browser clients over HTTP and WebSocket until standard input ends
+     * Usage: web [port] [numberOfEventLoops], defaults to port 8080 and one event loop per core
+     * @param args
+     * @throws IOException
+     */
+    private static void runWebServer(String[] args) throws IOException {
+        int port = args.length > 1 ? Integer.parseInt(args[1]) : WebServer.DEFAULT_PORT;
+        int numberOfEventLoops = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        enableMetrics();
+        try (ColumnarGameArchive gameArchive = openGameArchive();
+             ExpiringGameRepository gameRepository = newExpiringGameRepository(gameArchive);
+             WebServer webServer = new WebServer(newHostingGameController(gameRepository), new InetSocketAddress(port), numberOfEventLoops)) {
+            gameRepository.addPlayerEvictionListener(webServer::removePlayer);
+            System.out.println(webServer.getAddress().getPort());
+            BufferedReader input = new BufferedReader(new InputStreamReader(System.in));
+            while (Objects.nonNull(input.readLine())) {
+                // serve until standard input is closed
+            }
+        }
+    }
+
+    /**
+     * Plays games against a game server over many loopback connections held open at once
+     * Usage: load [port] [connections] [gamesPerConnection] [sourceAddresses], defaults to 7070, 10,000, 10 and 4
+     * 100k connections need a raised file descriptor limit and at least 4 source addresses
+     * @param args
+     * @throws IOException
+     * @throws InterruptedException
+     */
+    private static void runLoadTest(String[] args) throws IOException, InterruptedException {
+        int port = args.length > 1 ? Integer.parseInt(args[1]) : GameServer.DEFAULT_PORT;
+        int numberOfConnections = args.length > 2 ? Integer.parseInt(args[2]) : 10_000;
+        int gamesPerConnection = args.length > 3 ? Integer.parseInt(args[3]) : 10;
+        int numberOfSourceAddresses = args.length > 4 ? Integer.parseInt(args[4]) : 4;
+        LoadTestResult result = new LoadGenerator(new InetSocketAddress(InetAddress.getLoopbackAddress(), port),
+                numberOfConnections, gamesPerConnection, numberOfSourceAddresses, 3, MoveStrategyType.RANDOM).run(10, TimeUnit.MINUTES);
+        System.out.printf("%d connections (%d open at once), %d games, %d errors, %.0f games/s, %.0f us mean and %d us max move round trip%n",
+                result.getConnections(), result.getPeakOpenConnections(), result.getGames(), result.getErrors(), result.getGamesPerSecond(),
+                result.getMeanMoveLatencyMicros(), TimeUnit.NANOSECONDS.toMicros(result.getMaxMoveLatencyNanos()));
+    }
+
+    /**
+     * Runs one cluster node on the loopback interface until standard input ends, or leaves the cluster on a "leave" line
+     * Usage: node [port] [seedNodeId], port 0 picks a free port and seedNodeId is host:port of any member to join
+     * @param args
+     * @throws IOException
+     */
+    private static void runClusterNode(String[] args) throws IOException {
+        int port = args.length > 1 ? Integer.parseInt(args[1]) : 0;
+        enableMetrics();
+        try (ColumnarGameArchive gameArchive = openGameArchive();
+             ExpiringGameRepository gameRepository = newExpiringGameRepository(gameArchive);
+             ClusterNode clusterNode = new ClusterNode(gameRepository, port)) {
+            if (args.length > 2) {
+                clusterNode.join(args[2]);
+            }
+            System.out.println(clusterNode.getNodeId());
+            BufferedReader input = new BufferedReader(new InputStreamReader(System.in));
+            String line;
+            while (Objects.nonNull(line = input.readLine())) {
+                if (Objects.equals(line.trim(), "leave")) {
+                    clusterNode.leave();
+                    return;
+                }
+            }
         }
     }
 
+    /**
+     * Turns on GameMetrics for the long running modes and publishes them over JMX
+     */
+    private static void enableMetrics() {
+        GameMetrics.get().setEnabled(true);
+        GameMetrics.get().registerMBean();
+    }
+
+    /**
+     * @return the archive in the directory named by tictactoe.archive.dir, null if it is not set
+     * @throws IOException
+     */
+    private static ColumnarGameArchive openGameArchive() throws IOException {
+        String archiveDirectory = System.getProperty(ARCHIVE_DIRECTORY_PROPERTY);
+        return Objects.isNull(archiveDirectory) ? null : new ColumnarGameArchive(Paths.get(archiveDirectory));
+    }
+
+    /**
+     * Repository of the long running modes, evicting finished and abandoned games as GameLifecyclePolicy.fromSystemProperties says
+     * @param gameArchive receives finished games before they are evicted, null to evict them without archiving
+     * @return the started repository
+     */
+    private static ExpiringGameRepository newExpiringGameRepository(GameArchive gameArchive) {
+        ExpiringGameRepository gameRepository = new ExpiringGameRepository(new MeteredGameRepository(new ConcurrentGameRepositoryImpl()),
+                GameLifecyclePolicy.fromSystemProperties(), gameArchive);
+        gameRepository.start();
+        return gameRepository;
+    }
+
+    /**
+     * Controller of the server modes, whose GameHost stops hosting the games the repository evicts
+     * @param gameRepository
+     * @return controller hosting the games of gameRepository
+     */
+    private static GameController newHostingGameController(ExpiringGameRepository gameRepository) {
+        GameService gameService = new GameServiceImpl(gameRepository);
+        GameHost gameHost = new GameHost(gameService);
+        gameRepository.addGameEvictionListener(gameHost::endGame);
+        return new GameController(gameService, gameHost);
+    }
+
+    /**
+     * Prints the archived games matching a query
+     * Usage: history archiveDirectory [playerId] [numberOfRows] [numberOfColumns] [WON|LOST|DREW], - matches anything
+     * @param args
+     * @throws IOException
+     */
+    private static void runHistoryQuery(String[] args) throws IOException {
+        GameQuery gameQuery = GameQuery.builder()
+                .playerId(argument(args, 2))
+                .numberOfRows(Objects.isNull(argument(args, 3)) ? null : Integer.valueOf(args[3]))
+                .numberOfColumns(Objects.isNull(argument(args, 4)) ? null : Integer.valueOf(args[4]))
+                .playerResult(Objects.isNull(argument(args, 5)) ? null : GameQuery.PlayerResult.valueOf(args[5]))
+                .build();
+        try (ColumnarGameArchive gameArchive = new ColumnarGameArchive(Paths.get(args[1]));
+             Stream<ArchivedGame> archivedGames = gameArchive.query(gameQuery)) {
+            archivedGames.forEach(archivedGame -> System.out.printf("%s %dx%d %s %d moves, finished at %d%n",
+                    archivedGame.getGameId(), archivedGame.getNumberOfRows(), archivedGame.getNumberOfColumns(),
+                    archivedGame.getGameState(), archivedGame.getNumberOfMoves(), archivedGame.getFinishedAtMillis()));
+        }
+    }
+
+    /**
+     * Prints the moves of an archived game
+     * Usage: replay archiveDirectory gameId
+     * @param args
+     * @throws IOException
+     */
+    private static void runReplay(String[] args) throws IOException {
+        try (ColumnarGameArchive gameArchive = new ColumnarGameArchive(Paths.get(args[1]));
+             Stream<Move> moves = gameArchive.replay(args[2])) {
+            moves.forEach(move -> System.out.println(move.getPlayer().getName() + " " + CellValue.getSymbolName(move.getPlayer().getSymbol())
+                    + " " + move.getRowValue() + "," + move.getColumnValue()));
+        }
+    }
+
+    private static String argument(String[] args, int index) {
+        return args.length > index && !Objects.equals(args[index], ANY) ? args[index] : null;
+    }
+
     private static void runGame() throws IOException {
         BufferedReader input = new BufferedReader(new InputStreamReader(System.in));
 
         GameRepository gameRepository = new GameRepositoryImpl();
-        GameService gameService = new GameServiceImpl(gameRepository);
+        MoveStrategyRegistry moveStrategyRegistry = MoveStrategyRegistry.withDefaults()
+                .register(MoveStrategyType.CONSOLE, new ConsoleMoveStrategy(input));
+        GameService gameService = new GameServiceImpl(gameRepository, moveStrategyRegistry);
         GameController gameController = new GameController(gameService);
 
         logger.log(Level.INFO,"Enter player name");
         String playerName1 = input.readLine();
         Player player1 = gameController.addPlayer(playerName1, PlayerType.HUMAN);
 
-        String playerName2 = "Computer";
-        Player player2 = gameController.addPlayer(playerName2, PlayerType.COMPUTER);
+        logger.log(Level.INFO,"Enter number of computer opponents, or press enter for 1");
+        String numberOfOpponentsInput = input.readLine().trim();
+        int numberOfOpponents = numberOfOpponentsInput.isEmpty() ? 1 : Integer.parseInt(numberOfOpponentsInput);
+        List<Player> players = new ArrayList<>();
+        players.add(player1);
+        for (int opponent = 1; opponent <= numberOfOpponents; opponent++) {
+            players.add(gameController.addPlayer(numberOfOpponents == 1 ? "Computer" : "Computer " + opponent, PlayerType.COMPUTER));
+        }
 //        Player player2 = gameController.addPlayer(playerName2, PlayerType.HUMAN);
 
-        logger.log(Level.INFO,"Enter number of cells per row/column");
-        int numberOfCellsPerRow = Integer.parseInt(input.readLine());
-
-        Player tossWinner = gameController.conductTossToDecideWhoGoesFirst(player1, player2);
-        logger.log(Level.INFO,"Player name who won the toss is: " + tossWinner.getName());
+        logger.log(Level.INFO,"Enter number of cells per row/column, or rows, columns and marks in a row to win (for example 15 15 5)");
+        String[] boardShape = input.readLine().trim().split("\\s+");
+        int numberOfRows = Integer.parseInt(boardShape[0]);
+        int numberOfColumns = boardShape.length > 1 ? Integer.parseInt(boardShape[1]) : numberOfRows;
+        int winLength = boardShape.length > 2 ? Integer.parseInt(boardShape[2]) : numberOfColumns;
 
-
-        Game gameObj = gameController.initialiseGame(player1, player2, numberOfCellsPerRow, tossWinner);
+        Game gameObj;
+        if (players.size() == 2) {
+            Player player2 = players.get(1);
+            Player tossWinner = gameController.conductTossToDecideWhoGoesFirst(player1, player2);
+            logger.log(Level.INFO, "Player name who won the toss is: {0}", tossWinner.getName());
+            gameObj = gameController.initialiseGame(player1, player2, numberOfRows, numberOfColumns, winLength, tossWinner);
+        } else {
+            List<Player> playersInTurnOrder = gameController.conductTossToDecideTurnOrder(players);
+            gameObj = gameController.initialiseGame(playersInTurnOrder, numberOfRows, numberOfColumns, winLength);
+        }
         String gameId = gameObj.getId();
-        logger.log(Level.INFO, gameObj.toString());
+        logger.log(Level.INFO, gameObj::toString);
 
-        gameObj = gameController.startGameFromId(gameId);
-        logger.log(Level.INFO,"Game State: " + gameObj.getGameState() + "\ngame result: " + gameObj);
+        Game finishedGame = gameController.startGameFromId(gameId);
+        logger.log(Level.INFO, () -> "Game State: " + finishedGame.getGameState() + "\ngame result: " + finishedGame);
     }
 }
 
@@ -0,0 +1,501 @@
+package org.example.archive;
+
+import org.example.model.Game;
+import org.example.model.MoveHistory;
+import org.example.model.MoveStrategyType;
+import org.example.model.Player;
+import org.example.model.PlayerType;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * One immutable file of the archive, holding up to gamesPerBlock games column by column, each column deflated on its own
+ * so a query only inflates the columns it reads
+ * The header is the block's index: its finish time range, the board shapes and outcomes it holds, and bloom filters of
+ * its player and game ids, read once when the archive opens so blocks that cannot match a query are never opened
+ * Inside a block, the PLAYER_POSTINGS column lists the games of each player of the block's player dictionary
+ * Integers are unsigned LEB128 varints, finish times are zigzag deltas from the previous game's
+ */
+final class ArchiveBlock {
+    static final int MAGIC = 0x54544143;
+    static final int VERSION = 1;
+    static final byte NONE = -1;
+
+    /**
+     * Columns in file order
+     */
+    enum Column {
+        GAME_IDS, FINISHED_AT, SHAPES, PLAYERS, OUTCOMES, MOVE_COUNTS, MOVES, PLAYER_POSTINGS
+    }
+
+    final Path path;
+    final long blockId;
+    final int numberOfGames;
+    final long minFinishedAtMillis;
+    final long maxFinishedAtMillis;
+    /**
+     * Bit per GameState ordinal of the games in the block
+     */
+    final int outcomeMask;
+    /**
+     * numberOfRows << 32 | numberOfColumns of each board shape in the block
+     */
+    final long[] shapes;
+    final BloomFilter playerIds;
+    final BloomFilter gameIds;
+    final long[] columnOffsets;
+
+    private ArchiveBlock(Path path, long blockId, int numberOfGames, long minFinishedAtMillis, long maxFinishedAtMillis, int outcomeMask,
+                         long[] shapes, BloomFilter playerIds, BloomFilter gameIds, long[] columnOffsets) {
+        this.path = path;
+        this.blockId = blockId;
+        this.numberOfGames = numberOfGames;
+        this.minFinishedAtMillis = minFinishedAtMillis;
+        this.maxFinishedAtMillis = maxFinishedAtMillis;
+        this.outcomeMask = outcomeMask;
+        this.shapes = shapes;
+        this.playerIds = playerIds;
+        this.gameIds = gameIds;
+        this.columnOffsets = columnOffsets;
+    }
+
+    static long shape(int numberOfRows, int numberOfColumns) {
+        return (long) numberOfRows << 32 | numberOfColumns;
+    }
+
+    boolean hasShape(long shape) {
+        return Arrays.binarySearch(shapes, shape) >= 0;
+    }
+
+    /**
+     * Reads the header of a block file, the columns stay on disk
+     * @param path
+     * @param blockId
+     * @return the block
+     * @throws IOException
+     */
+    static ArchiveBlock open(Path path, long blockId) throws IOException {
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            if (input.readInt() != MAGIC || input.readInt() != VERSION) {
+                throw new IOException("Not an archive block: " + path);
+            }
+            int numberOfGames = input.readInt();
+            long minFinishedAtMillis = input.readLong();
+            long maxFinishedAtMillis = input.readLong();
+            int outcomeMask = input.readInt();
+            long[] shapes = new long[input.readInt()];
+            for (int index = 0; index < shapes.length; index++) {
+                shapes[index] = input.readLong();
+            }
+            BloomFilter playerIds = BloomFilter.read(input);
+            BloomFilter gameIds = BloomFilter.read(input);
+            int numberOfColumns = input.readByte();
+            int[] columnLengths = new int[numberOfColumns];
+            for (int column = 0; column < numberOfColumns; column++) {
+                columnLengths[column] = input.readInt();
+            }
+            long offset = headerLength(shapes.length, playerIds, gameIds, numberOfColumns);
+            long[] columnOffsets = new long[numberOfColumns];
+            for (int column = 0; column < numberOfColumns; column++) {
+                columnOffsets[column] = offset;
+                offset += columnLengths[column];
+            }
+            return new ArchiveBlock(path, blockId, numberOfGames, minFinishedAtMillis, maxFinishedAtMillis, outcomeMask, shapes,
+                    playerIds, gameIds, columnOffsets);
+        }
+    }
+
+    private static long headerLength(int numberOfShapes, BloomFilter playerIds, BloomFilter gameIds, int numberOfColumns) {
+        return 4 + 4 + 4 + 8 + 8 + 4 + 4 + 8L * numberOfShapes + playerIds.serializedLength() + gameIds.serializedLength() + 1 + 4L * numberOfColumns;
+    }
+
+    /**
+     * @param column
+     * @return stream inflating the column, close it to close the file
+     * @throws IOException
+     */
+    InputStream openColumn(Column column) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            channel.position(columnOffsets[column.ordinal()]);
+            return new BufferedInputStream(new InflaterInputStream(Channels.newInputStream(channel)));
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    static void writeVarint(OutputStream output, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            output.write((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        output.write((int) value);
+    }
+
+    static long readVarint(InputStream input) throws IOException {
+        long value = 0;
+        for (int shift = 0; ; shift += 7) {
+            int next = input.read();
+            if (next < 0) {
+                throw new EOFException("Archive column ended inside a varint");
+            }
+            value |= (long) (next & 0x7F) << shift;
+            if ((next & 0x80) == 0) {
+                return value;
+            }
+        }
+    }
+
+    static int readInt(InputStream input) throws IOException {
+        return (int) readVarint(input);
+    }
+
+    /**
+     * Collects games column by column and writes them as one block file
+     */
+    static final class Writer {
+        private final ColumnOutput[] columns = new ColumnOutput[Column.values().length];
+        private final Map<String, Integer> playerDictionary = new LinkedHashMap<>();
+        private final List<Player> dictionaryPlayers = new ArrayList<>();
+        private final List<List<Integer>> postings = new ArrayList<>();
+        private final ByteArrayOutputStream gamePlayers = new ByteArrayOutputStream();
+        private final List<String> gameIds = new ArrayList<>();
+        private final List<Long> shapes = new ArrayList<>();
+        private int numberOfGames;
+        private long previousFinishedAtMillis;
+        private long minFinishedAtMillis = Long.MAX_VALUE;
+        private long maxFinishedAtMillis = Long.MIN_VALUE;
+        private int outcomeMask;
+
+        Writer() {
+            for (int column = 0; column < columns.length; column++) {
+                columns[column] = new ColumnOutput();
+            }
+        }
+
+        int size() {
+            return numberOfGames;
+        }
+
+        void add(Game game, long finishedAtMillis) throws IOException {
+            List<Player> players = game.getPlayers();
+            MoveHistory moveHistory = game.getMoveHistory();
+            int numberOfColumns = game.getBoard().getNumberOfCellsPerRow();
+            int numberOfRows = game.getBoard().getNumberOfRows();
+
+            columns[Column.GAME_IDS.ordinal()].data.writeUTF(game.getId());
+            gameIds.add(game.getId());
+            long delta = finishedAtMillis - previousFinishedAtMillis;
+            writeVarint(columns[Column.FINISHED_AT.ordinal()].data, delta << 1 ^ delta >> 63);
+            previousFinishedAtMillis = finishedAtMillis;
+            minFinishedAtMillis = Math.min(minFinishedAtMillis, finishedAtMillis);
+            maxFinishedAtMillis = Math.max(maxFinishedAtMillis, finishedAtMillis);
+
+            DataOutputStream shapeColumn = columns[Column.SHAPES.ordinal()].data;
+            writeVarint(shapeColumn, numberOfRows);
+            writeVarint(shapeColumn, numberOfColumns);
+            writeVarint(shapeColumn, game.getBoard().getWinLength());
+            long shape = shape(numberOfRows, numberOfColumns);
+            if (!shapes.contains(shape)) {
+                shapes.add(shape);
+            }
+
+            writeVarint(gamePlayers, players.size());
+            writeVarint(gamePlayers, moveHistory.getFirstPlayerIndex());
+            int winnerSlot = NONE;
+            for (int slot = 0; slot < players.size(); slot++) {
+                Player player = players.get(slot);
+                Integer dictionaryIndex = playerDictionary.get(player.getId());
+                if (Objects.isNull(dictionaryIndex)) {
+                    dictionaryIndex = dictionaryPlayers.size();
+                    playerDictionary.put(player.getId(), dictionaryIndex);
+                    dictionaryPlayers.add(player);
+                    postings.add(new ArrayList<>());
+                }
+                List<Integer> posting = postings.get(dictionaryIndex);
+                if (posting.isEmpty() || posting.get(posting.size() - 1) != numberOfGames) {
+                    posting.add(numberOfGames);
+                }
+                writeVarint(gamePlayers, dictionaryIndex);
+                if (Objects.nonNull(game.getWinner()) && Objects.equals(game.getWinner().getId(), player.getId())) {
+                    winnerSlot = slot;
+                }
+            }
+
+            DataOutputStream outcomeColumn = columns[Column.OUTCOMES.ordinal()].data;
+            outcomeColumn.writeByte(game.getGameState().ordinal());
+            outcomeColumn.writeByte(winnerSlot);
+            outcomeMask |= 1 << game.getGameState().ordinal();
+
+            writeVarint(columns[Column.MOVE_COUNTS.ordinal()].data, moveHistory.size());
+            DataOutputStream moveColumn = columns[Column.MOVES.ordinal()].data;
+            for (int index = 0; index < moveHistory.size(); index++) {
+                writeVarint(moveColumn, moveHistory.getCellIndex(index));
+            }
+            numberOfGames++;
+        }
+
+        /**
+         * Writes the block to a temporary file and moves it into place, so a block file is either complete or absent
+         * @param path
+         * @param blockId
+         * @return the written block
+         * @throws IOException
+         */
+        ArchiveBlock write(Path path, long blockId) throws IOException {
+            DataOutputStream playerColumn = columns[Column.PLAYERS.ordinal()].data;
+            writeVarint(playerColumn, dictionaryPlayers.size());
+            for (Player player : dictionaryPlayers) {
+                playerColumn.writeUTF(player.getId());
+                playerColumn.writeUTF(Objects.isNull(player.getName()) ? "" : player.getName());
+                playerColumn.writeByte(player.getPlayerType().ordinal());
+                playerColumn.writeByte(Objects.isNull(player.getMoveStrategyType()) ? NONE : player.getMoveStrategyType().ordinal());
+            }
+            gamePlayers.writeTo(playerColumn);
+            DataOutputStream postingColumn = columns[Column.PLAYER_POSTINGS.ordinal()].data;
+            for (List<Integer> posting : postings) {
+                writeVarint(postingColumn, posting.size());
+                int previous = 0;
+                for (int ordinal : posting) {
+                    writeVarint(postingColumn, ordinal - previous);
+                    previous = ordinal;
+                }
+            }
+
+            BloomFilter playerIds = new BloomFilter(dictionaryPlayers.size());
+            playerDictionary.keySet().forEach(playerIds::add);
+            BloomFilter gameIdFilter = new BloomFilter(gameIds.size());
+            gameIds.forEach(gameIdFilter::add);
+            long[] sortedShapes = shapes.stream().mapToLong(Long::longValue).sorted().toArray();
+
+            Path temporaryPath = path.resolveSibling(path.getFileName() + ".tmp");
+            try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporaryPath)))) {
+                output.writeInt(MAGIC);
+                output.writeInt(VERSION);
+                output.writeInt(numberOfGames);
+                output.writeLong(minFinishedAtMillis);
+                output.writeLong(maxFinishedAtMillis);
+                output.writeInt(outcomeMask);
+                output.writeInt(sortedShapes.length);
+                for (long shape : sortedShapes) {
+                    output.writeLong(shape);
+                }
+                playerIds.write(output);
+                gameIdFilter.write(output);
+                byte[][] compressedColumns = new byte[columns.length][];
+                for (int column = 0; column < columns.length; column++) {
+                    compressedColumns[column] = columns[column].compress();
+                }
+                output.writeByte(columns.length);
+                for (byte[] compressedColumn : compressedColumns) {
+                    output.writeInt(compressedColumn.length);
+                }
+                for (byte[] compressedColumn : compressedColumns) {
+                    output.write(compressedColumn);
+                }
+            }
+            try (FileChannel channel = FileChannel.open(temporaryPath, StandardOpenOption.WRITE)) {
+                channel.force(true);
+            }
+            Files.move(temporaryPath, path, StandardCopyOption.ATOMIC_MOVE);
+            return open(path, blockId);
+        }
+    }
+
+    private static final class ColumnOutput {
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        private final DataOutputStream data = new DataOutputStream(bytes);
+
+        private byte[] compress() throws IOException {
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream(bytes.size() / 4 + 64);
+            Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+            try (DeflaterOutputStream output = new DeflaterOutputStream(compressed, deflater)) {
+                bytes.writeTo(output);
+            } finally {
+                deflater.end();
+            }
+            return compressed.toByteArray();
+        }
+    }
+
+    /**
+     * Decoded players of a block: the dictionary, then each game's players as dictionary indices in turn order
+     */
+    static final class Players {
+        final List<String> playerIds;
+        final Map<String, Integer> dictionaryIndices;
+        private final List<Player> dictionary;
+        private final int[] firstPlayerIndices;
+        private final int[][] gamePlayers;
+
+        private Players(List<Player> dictionary, int[] firstPlayerIndices, int[][] gamePlayers) {
+            this.dictionary = dictionary;
+            this.firstPlayerIndices = firstPlayerIndices;
+            this.gamePlayers = gamePlayers;
+            this.playerIds = new ArrayList<>(dictionary.size());
+            this.dictionaryIndices = new HashMap<>();
+            for (Player player : dictionary) {
+                dictionaryIndices.put(player.getId(), playerIds.size());
+                playerIds.add(player.getId());
+            }
+        }
+
+        static Players read(InputStream input, int numberOfGames) throws IOException {
+            DataInputStream data = new DataInputStream(input);
+            int dictionarySize = readInt(data);
+            List<Player> dictionary = new ArrayList<>(dictionarySize);
+            for (int index = 0; index < dictionarySize; index++) {
+                String id = data.readUTF();
+                String name = data.readUTF();
+                PlayerType playerType = PlayerType.values()[data.readByte()];
+                byte moveStrategyType = data.readByte();
+                dictionary.add(Player.builder()
+                        .id(id)
+                        .name(name)
+                        .playerType(playerType)
+                        .moveStrategyType(moveStrategyType == NONE ? null : MoveStrategyType.values()[moveStrategyType])
+                        .build());
+            }
+            int[] firstPlayerIndices = new int[numberOfGames];
+            int[][] gamePlayers = new int[numberOfGames][];
+            for (int game = 0; game < numberOfGames; game++) {
+                gamePlayers[game] = new int[readInt(data)];
+                firstPlayerIndices[game] = readInt(data);
+                for (int slot = 0; slot < gamePlayers[game].length; slot++) {
+                    gamePlayers[game][slot] = readInt(data);
+                }
+            }
+            return new Players(dictionary, firstPlayerIndices, gamePlayers);
+        }
+
+        boolean plays(int game, int dictionaryIndex) {
+            for (int player : gamePlayers[game]) {
+                if (player == dictionaryIndex) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        int getDictionaryIndex(int game, int slot) {
+            return gamePlayers[game][slot];
+        }
+
+        int getFirstPlayerIndex(int game) {
+            return firstPlayerIndices[game];
+        }
+
+        /**
+         * @return new Player objects of the game in turn order, each with its symbol in that game
+         */
+        List<Player> getPlayers(int game) {
+            int[] slots = gamePlayers[game];
+            List<Player> players = new ArrayList<>(slots.length);
+            for (int slot = 0; slot < slots.length; slot++) {
+                Player player = dictionary.get(slots[slot]);
+                players.add(Player.builder()
+                        .id(player.getId())
+                        .name(player.getName())
+                        .playerType(player.getPlayerType())
+                        .moveStrategyType(player.getMoveStrategyType())
+                        .symbol((slot - firstPlayerIndices[game] + slots.length) % slots.length)
+                        .build());
+            }
+            return players;
+        }
+    }
+
+    /**
+     * Bloom filter of ids with 3 probes and about 10 bits per id, about 1% false positives
+     */
+    static final class BloomFilter {
+        private static final int NUMBER_OF_PROBES = 3;
+
+        private final long[] bits;
+
+        BloomFilter(int expectedIds) {
+            this(new long[Math.max(1, Integer.highestOneBit(Math.max(1, expectedIds * 10 / 64)) << 1)]);
+        }
+
+        private BloomFilter(long[] bits) {
+            this.bits = bits;
+        }
+
+        void add(String id) {
+            long hash = hash(id);
+            for (int probe = 0; probe < NUMBER_OF_PROBES; probe++) {
+                int bit = bit(hash, probe);
+                bits[bit >>> 6] |= 1L << bit;
+            }
+        }
+
+        boolean mightContain(String id) {
+            long hash = hash(id);
+            for (int probe = 0; probe < NUMBER_OF_PROBES; probe++) {
+                int bit = bit(hash, probe);
+                if ((bits[bit >>> 6] & 1L << bit) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private int bit(long hash, int probe) {
+            int combined = (int) hash + probe * (int) (hash >>> 32);
+            return combined & (bits.length * 64 - 1);
+        }
+
+        private static long hash(String id) {
+            long hash = 0x9E3779B97F4A7C15L;
+            for (int index = 0; index < id.length(); index++) {
+                hash = (hash ^ id.charAt(index)) * 0xBF58476D1CE4E5B9L;
+            }
+            hash ^= hash >>> 31;
+            return hash | 1L << 32;
+        }
+
+        int serializedLength() {
+            return 4 + 8 * bits.length;
+        }
+
+        void write(DataOutputStream output) throws IOException {
+            output.writeInt(bits.length);
+            for (long word : bits) {
+                output.writeLong(word);
+            }
+        }
+
+        static BloomFilter read(DataInputStream input) throws IOException {
+            long[] bits = new long[input.readInt()];
+            for (int index = 0; index < bits.length; index++) {
+                bits[index] = input.readLong();
+            }
+            return new BloomFilter(bits);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package org.example.archive;
+
+import lombok.Builder;
+import lombok.Data;
+import org.example.model.GameState;
+import org.example.model.Player;
+
+import java.util.List;
+
+/**
+ * Summary of a game in a ColumnarGameArchive, its moves are streamed with ColumnarGameArchive.replay
+ */
+@Data
+@Builder
+public class ArchivedGame {
+    String gameId;
+    /**
+     * Players in the game's player order, each with its symbol in the game
+     */
+    List<Player> players;
+    int firstPlayerIndex;
+    int numberOfRows;
+    int numberOfColumns;
+    int winLength;
+    GameState gameState;
+    /**
+     * null for a draw
+     */
+    Player winner;
+    long finishedAtMillis;
+    int numberOfMoves;
+    /**
+     * Block holding the game, and the number of moves before the game's first move in the block
+     */
+    long blockId;
+    long moveOffset;
+}
@@ -0,0 +1,517 @@
+package org.example.archive;
+
+import org.example.exception.UserException;
+import org.example.model.Game;
+import org.example.model.GameState;
+import org.example.model.Move;
+import org.example.model.Player;
+import org.example.repository.FileGameArchive;
+import org.example.repository.GameArchive;
+import org.example.util.LoggerConfig;
+
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * GameArchive storing finished games in a directory of immutable, column-oriented and compressed blocks, see ArchiveBlock
+ * Games are collected gamesPerBlock at a time and sealed into a block; until then they are also appended to a pending
+ * file, from which they are collected again after a restart
+ * Queries prune blocks on the indexes of their headers, kept in memory, then read only the games' small columns of the
+ * remaining blocks; the moves of a game are streamed from its block on replay, so no query holds whole games in the heap
+ * Queries and replays see sealed blocks only, flush seals the games collected so far
+ */
+public class ColumnarGameArchive implements GameArchive, Closeable {
+    public static final int DEFAULT_GAMES_PER_BLOCK = 4096;
+
+    private static final String BLOCK_PREFIX = "block-";
+    private static final String BLOCK_SUFFIX = ".col";
+    private static final String TEMPORARY_SUFFIX = ".tmp";
+    private static final String PENDING_FILE = "pending.bin";
+
+    private static final Logger logger = Logger.getLogger(ColumnarGameArchive.class.getName());
+
+    static {
+        LoggerConfig.configureLogger(logger);
+    }
+
+    private final Path directory;
+    private final int gamesPerBlock;
+    /**
+     * Sealed blocks in block id order
+     */
+    private final List<ArchiveBlock> blocks = new CopyOnWriteArrayList<>();
+    private ArchiveBlock.Writer writer = new ArchiveBlock.Writer();
+    private FileGameArchive pending;
+    private long nextBlockId;
+    private boolean closed;
+
+    public ColumnarGameArchive(Path directory) throws IOException {
+        this(directory, DEFAULT_GAMES_PER_BLOCK);
+    }
+
+    /**
+     * Opens the archive in directory, creating it if missing, and collects the games left pending by the last run
+     * @param directory
+     * @param gamesPerBlock games sealed together, larger blocks compress better and prune more coarsely
+     * @throws IOException
+     */
+    public ColumnarGameArchive(Path directory, int gamesPerBlock) throws IOException {
+        if (gamesPerBlock < 1) {
+            throw new IllegalArgumentException("gamesPerBlock must be positive");
+        }
+        this.directory = Files.createDirectories(directory);
+        this.gamesPerBlock = gamesPerBlock;
+        List<Long> blockIds;
+        try (Stream<Path> files = Files.list(directory)) {
+            blockIds = files.map(this::parseBlockId).filter(Objects::nonNull).sorted().collect(Collectors.toList());
+        }
+        for (long blockId : blockIds) {
+            blocks.add(ArchiveBlock.open(blockPath(blockId), blockId));
+        }
+        nextBlockId = blockIds.isEmpty() ? 0 : blockIds.get(blockIds.size() - 1) + 1;
+        collectPendingGames();
+        pending = new FileGameArchive(directory.resolve(PENDING_FILE));
+        logger.log(Level.INFO, "Opened game archive {0} with {1} blocks and {2} pending games",
+                new Object[]{directory, blocks.size(), writer.size()});
+    }
+
+    /**
+     * The game is archived once it is appended to the pending file; if sealing the full block then fails, the collected
+     * games are kept and sealed by a later archive or flush, so a caller never hands the same game over twice
+     * @param game
+     * @param finishedAtMillis
+     * @throws IOException if the game could not be appended to the pending file
+     */
+    @Override
+    public synchronized void archive(Game game, long finishedAtMillis) throws IOException {
+        if (closed) {
+            throw new IllegalStateException("Archive is closed");
+        }
+        if (game.getGameState() == GameState.ONGOING) {
+            throw new IllegalArgumentException("Only finished games are archived: " + game.getId());
+        }
+        pending.archive(game, finishedAtMillis);
+        writer.add(game, finishedAtMillis);
+        if (writer.size() >= gamesPerBlock) {
+            try {
+                seal();
+            } catch (IOException e) {
+                logger.log(Level.WARNING, e, () -> "Could not seal archive block " + nextBlockId + ", keeping its games pending");
+            }
+        }
+    }
+
+    /**
+     * Seals the games collected so far into a block, making them visible to queries
+     * @throws IOException
+     */
+    public synchronized void flush() throws IOException {
+        if (writer.size() > 0) {
+            seal();
+        }
+    }
+
+    /**
+     * Streams the games matching the query, in the order they were archived
+     * Blocks are read one at a time as the stream is consumed
+     * @param gameQuery
+     * @return the matching games
+     * @throws UncheckedIOException from the stream if a block cannot be read
+     */
+    public Stream<ArchivedGame> query(GameQuery gameQuery) {
+        return blocks.stream()
+                .filter(block -> mayMatch(block, gameQuery))
+                .flatMap(block -> {
+                    try {
+                        return matches(block, gameQuery).stream();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+    }
+
+    /**
+     * @param gameId
+     * @return the archived game, read from the blocks whose game id filter may hold it
+     * @throws IOException
+     */
+    public Optional<ArchivedGame> find(String gameId) throws IOException {
+        for (ArchiveBlock block : blocks) {
+            if (!block.gameIds.mightContain(gameId)) {
+                continue;
+            }
+            String[] gameIds = readGameIds(block);
+            for (int game = 0; game < gameIds.length; game++) {
+                if (Objects.equals(gameIds[game], gameId)) {
+                    return Optional.of(new BlockColumns(block, gameIds).archivedGame(game));
+                }
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Streams the moves of a game in the order they were played, decoding them from its block as they are consumed
+     * Close the stream to close the block file
+     * @param archivedGame as returned by query or find
+     * @return the moves, each with its player in the game
+     * @throws IOException
+     */
+    public Stream<Move> replay(ArchivedGame archivedGame) throws IOException {
+        ArchiveBlock block = getBlock(archivedGame.getBlockId());
+        InputStream input = block.openColumn(ArchiveBlock.Column.MOVES);
+        try {
+            for (long skipped = 0; skipped < archivedGame.getMoveOffset(); skipped++) {
+                ArchiveBlock.readVarint(input);
+            }
+        } catch (IOException | RuntimeException e) {
+            input.close();
+            throw e;
+        }
+        List<Player> players = archivedGame.getPlayers();
+        int numberOfColumns = archivedGame.getNumberOfColumns();
+        Spliterator<Move> moves = new Spliterators.AbstractSpliterator<Move>(archivedGame.getNumberOfMoves(),
+                Spliterator.ORDERED | Spliterator.NONNULL | Spliterator.SIZED) {
+            private int index;
+
+            @Override
+            public boolean tryAdvance(Consumer<? super Move> action) {
+                if (index == archivedGame.getNumberOfMoves()) {
+                    return false;
+                }
+                int cellIndex;
+                try {
+                    cellIndex = ArchiveBlock.readInt(input);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                Player player = players.get((archivedGame.getFirstPlayerIndex() + index) % players.size());
+                index++;
+                action.accept(new Move(player, cellIndex / numberOfColumns, cellIndex % numberOfColumns));
+                return true;
+            }
+        };
+        return StreamSupport.stream(moves, false).onClose(() -> {
+            try {
+                input.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    /**
+     * @param gameId
+     * @return the moves of the game, see replay(ArchivedGame)
+     * @throws IOException
+     */
+    public Stream<Move> replay(String gameId) throws IOException {
+        Optional<ArchivedGame> archivedGame = find(gameId);
+        if (!archivedGame.isPresent()) {
+            throw new UserException("Game id not found in archive: " + gameId);
+        }
+        return replay(archivedGame.get());
+    }
+
+    /**
+     * @return games in sealed blocks
+     */
+    public long getNumberOfArchivedGames() {
+        return blocks.stream().mapToLong(block -> block.numberOfGames).sum();
+    }
+
+    public int getNumberOfBlocks() {
+        return blocks.size();
+    }
+
+    /**
+     * Seals the collected games, later archive calls fail
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        flush();
+        pending.close();
+        closed = true;
+    }
+
+    private void seal() throws IOException {
+        ArchiveBlock block = writer.write(blockPath(nextBlockId), nextBlockId);
+        blocks.add(block);
+        nextBlockId++;
+        writer = new ArchiveBlock.Writer();
+        pending.close();
+        Files.delete(directory.resolve(PENDING_FILE));
+        pending = new FileGameArchive(directory.resolve(PENDING_FILE));
+    }
+
+    /**
+     * Pending games already sealed into the last block, by a run that stopped before deleting the pending file, are skipped,
+     * as are games appended to the pending file more than once
+     */
+    private void collectPendingGames() throws IOException {
+        Path pendingPath = directory.resolve(PENDING_FILE);
+        if (!Files.exists(pendingPath)) {
+            return;
+        }
+        Set<String> sealedGameIds = new HashSet<>();
+        if (!blocks.isEmpty()) {
+            Collections.addAll(sealedGameIds, readGameIds(blocks.get(blocks.size() - 1)));
+        }
+        try {
+            FileGameArchive.forEachGame(pendingPath, (game, finishedAtMillis) -> {
+                if (sealedGameIds.add(game.getId())) {
+                    try {
+                        writer.add(game, finishedAtMillis);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private boolean mayMatch(ArchiveBlock block, GameQuery gameQuery) {
+        if (Objects.nonNull(gameQuery.getFinishedFromMillis()) && block.maxFinishedAtMillis < gameQuery.getFinishedFromMillis()) {
+            return false;
+        }
+        if (Objects.nonNull(gameQuery.getFinishedToMillis()) && block.minFinishedAtMillis >= gameQuery.getFinishedToMillis()) {
+            return false;
+        }
+        if (Objects.nonNull(gameQuery.getGameState()) && (block.outcomeMask & 1 << gameQuery.getGameState().ordinal()) == 0) {
+            return false;
+        }
+        if (Objects.nonNull(gameQuery.getPlayerId()) && !block.playerIds.mightContain(gameQuery.getPlayerId())) {
+            return false;
+        }
+        for (long shape : block.shapes) {
+            if (matchesShape(gameQuery, (int) (shape >>> 32), (int) shape)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean matchesShape(GameQuery gameQuery, int numberOfRows, int numberOfColumns) {
+        return (Objects.isNull(gameQuery.getNumberOfRows()) || gameQuery.getNumberOfRows() == numberOfRows)
+                && (Objects.isNull(gameQuery.getNumberOfColumns()) || gameQuery.getNumberOfColumns() == numberOfColumns);
+    }
+
+    private List<ArchivedGame> matches(ArchiveBlock block, GameQuery gameQuery) throws IOException {
+        BlockColumns columns = new BlockColumns(block, null);
+        int[] candidates;
+        int dictionaryIndex = -1;
+        if (Objects.nonNull(gameQuery.getPlayerId())) {
+            Integer index = columns.players.dictionaryIndices.get(gameQuery.getPlayerId());
+            if (Objects.isNull(index)) {
+                return Collections.emptyList();
+            }
+            dictionaryIndex = index;
+            candidates = readPosting(block, dictionaryIndex);
+        } else {
+            candidates = new int[block.numberOfGames];
+            for (int game = 0; game < candidates.length; game++) {
+                candidates[game] = game;
+            }
+        }
+
+        List<ArchivedGame> archivedGames = new ArrayList<>();
+        for (int game : candidates) {
+            if (columns.matches(game, gameQuery, dictionaryIndex)) {
+                archivedGames.add(columns.archivedGame(game));
+            }
+        }
+        return archivedGames;
+    }
+
+    private static int[] readPosting(ArchiveBlock block, int dictionaryIndex) throws IOException {
+        try (InputStream input = block.openColumn(ArchiveBlock.Column.PLAYER_POSTINGS)) {
+            for (int index = 0; index < dictionaryIndex; index++) {
+                int size = ArchiveBlock.readInt(input);
+                for (int entry = 0; entry < size; entry++) {
+                    ArchiveBlock.readVarint(input);
+                }
+            }
+            int[] posting = new int[ArchiveBlock.readInt(input)];
+            int game = 0;
+            for (int entry = 0; entry < posting.length; entry++) {
+                game += ArchiveBlock.readInt(input);
+                posting[entry] = game;
+            }
+            return posting;
+        }
+    }
+
+    private static String[] readGameIds(ArchiveBlock block) throws IOException {
+        try (DataInputStream input = new DataInputStream(block.openColumn(ArchiveBlock.Column.GAME_IDS))) {
+            String[] gameIds = new String[block.numberOfGames];
+            for (int game = 0; game < gameIds.length; game++) {
+                gameIds[game] = input.readUTF();
+            }
+            return gameIds;
+        }
+    }
+
+    private ArchiveBlock getBlock(long blockId) {
+        int low = 0;
+        int high = blocks.size() - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            ArchiveBlock block = blocks.get(middle);
+            if (block.blockId == blockId) {
+                return block;
+            } else if (block.blockId < blockId) {
+                low = middle + 1;
+            } else {
+                high = middle - 1;
+            }
+        }
+        throw new UserException("Block not found in archive: " + blockId);
+    }
+
+    private Path blockPath(long blockId) {
+        return directory.resolve(String.format("%s%020d%s", BLOCK_PREFIX, blockId, BLOCK_SUFFIX));
+    }
+
+    private Long parseBlockId(Path file) {
+        String name = file.getFileName().toString();
+        if (name.endsWith(BLOCK_SUFFIX + TEMPORARY_SUFFIX)) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                logger.log(Level.WARNING, e, () -> "Could not delete unfinished block " + file);
+            }
+            return null;
+        }
+        if (!name.startsWith(BLOCK_PREFIX) || !name.endsWith(BLOCK_SUFFIX)) {
+            return null;
+        }
+        try {
+            return Long.parseLong(name.substring(BLOCK_PREFIX.length(), name.length() - BLOCK_SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Every column of a block but its moves, decoded into arrays of one entry per game
+     */
+    private static final class BlockColumns {
+        private final ArchiveBlock block;
+        private final ArchiveBlock.Players players;
+        private final long[] finishedAtMillis;
+        private final int[] shapes;
+        private final byte[] outcomes;
+        private final long[] moveOffsets;
+        private String[] gameIds;
+
+        private BlockColumns(ArchiveBlock block, String[] gameIds) throws IOException {
+            int numberOfGames = block.numberOfGames;
+            this.block = block;
+            this.gameIds = gameIds;
+            try (InputStream input = block.openColumn(ArchiveBlock.Column.PLAYERS)) {
+                players = ArchiveBlock.Players.read(input, numberOfGames);
+            }
+            finishedAtMillis = new long[numberOfGames];
+            try (InputStream input = block.openColumn(ArchiveBlock.Column.FINISHED_AT)) {
+                long previous = 0;
+                for (int game = 0; game < numberOfGames; game++) {
+                    long zigzag = ArchiveBlock.readVarint(input);
+                    previous += zigzag >>> 1 ^ -(zigzag & 1);
+                    finishedAtMillis[game] = previous;
+                }
+            }
+            shapes = new int[3 * numberOfGames];
+            try (InputStream input = block.openColumn(ArchiveBlock.Column.SHAPES)) {
+                for (int index = 0; index < shapes.length; index++) {
+                    shapes[index] = ArchiveBlock.readInt(input);
+                }
+            }
+            outcomes = new byte[2 * numberOfGames];
+            try (DataInputStream input = new DataInputStream(block.openColumn(ArchiveBlock.Column.OUTCOMES))) {
+                input.readFully(outcomes);
+            }
+            moveOffsets = new long[numberOfGames + 1];
+            try (InputStream input = block.openColumn(ArchiveBlock.Column.MOVE_COUNTS)) {
+                for (int game = 0; game < numberOfGames; game++) {
+                    moveOffsets[game + 1] = moveOffsets[game] + ArchiveBlock.readVarint(input);
+                }
+            }
+        }
+
+        private boolean matches(int game, GameQuery gameQuery, int dictionaryIndex) {
+            if (Objects.nonNull(gameQuery.getFinishedFromMillis()) && finishedAtMillis[game] < gameQuery.getFinishedFromMillis()) {
+                return false;
+            }
+            if (Objects.nonNull(gameQuery.getFinishedToMillis()) && finishedAtMillis[game] >= gameQuery.getFinishedToMillis()) {
+                return false;
+            }
+            if (!matchesShape(gameQuery, shapes[3 * game], shapes[3 * game + 1])) {
+                return false;
+            }
+            GameState gameState = GameState.values()[outcomes[2 * game]];
+            if (Objects.nonNull(gameQuery.getGameState()) && gameState != gameQuery.getGameState()) {
+                return false;
+            }
+            if (dictionaryIndex < 0 || Objects.isNull(gameQuery.getPlayerResult())) {
+                return true;
+            }
+            int winnerSlot = outcomes[2 * game + 1];
+            switch (gameQuery.getPlayerResult()) {
+                case WON:
+                    return winnerSlot >= 0 && players.getDictionaryIndex(game, winnerSlot) == dictionaryIndex;
+                case LOST:
+                    return winnerSlot >= 0 && players.getDictionaryIndex(game, winnerSlot) != dictionaryIndex;
+                default:
+                    return gameState == GameState.DRAW;
+            }
+        }
+
+        private ArchivedGame archivedGame(int game) throws IOException {
+            if (Objects.isNull(gameIds)) {
+                gameIds = readGameIds(block);
+            }
+            List<Player> gamePlayers = players.getPlayers(game);
+            int winnerSlot = outcomes[2 * game + 1];
+            return ArchivedGame.builder()
+                    .gameId(gameIds[game])
+                    .players(gamePlayers)
+                    .firstPlayerIndex(players.getFirstPlayerIndex(game))
+                    .numberOfRows(shapes[3 * game])
+                    .numberOfColumns(shapes[3 * game + 1])
+                    .winLength(shapes[3 * game + 2])
+                    .gameState(GameState.values()[outcomes[2 * game]])
+                    .winner(winnerSlot >= 0 ? gamePlayers.get(winnerSlot) : null)
+                    .finishedAtMillis(finishedAtMillis[game])
+                    .numberOfMoves((int) (moveOffsets[game + 1] - moveOffsets[game]))
+                    .blockId(block.blockId)
+                    .moveOffset(moveOffsets[game])
+                    .build();
+        }
+    }
+}
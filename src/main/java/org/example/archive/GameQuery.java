@@ -0,0 +1,34 @@
+package org.example.archive;
+
+import lombok.Builder;
+import lombok.Data;
+import org.example.model.GameState;
+
+/**
+ * Filter of archived games, every field left null matches any game
+ * For example all games player P lost on 4x4: playerId P, playerResult LOST, numberOfRows 4 and numberOfColumns 4
+ */
+@Data
+@Builder
+public class GameQuery {
+    String playerId;
+    /**
+     * Result of playerId in the game, ignored without playerId
+     */
+    PlayerResult playerResult;
+    Integer numberOfRows;
+    Integer numberOfColumns;
+    GameState gameState;
+    /**
+     * Games finished at or after this time
+     */
+    Long finishedFromMillis;
+    /**
+     * Games finished before this time
+     */
+    Long finishedToMillis;
+
+    public enum PlayerResult {
+        WON, LOST, DREW
+    }
+}
@@ -0,0 +1,510 @@
+package org.example.cluster;
+
+import org.example.exception.UserException;
+import org.example.metrics.GameMetrics;
+import org.example.model.Game;
+import org.example.model.GameState;
+import org.example.model.MoveStrategyType;
+import org.example.model.Player;
+import org.example.model.PlayerType;
+import org.example.repository.ConcurrentGameRepositoryImpl;
+import org.example.repository.GameRepository;
+import org.example.repository.GameRepositoryImpl;
+import org.example.repository.GameSnapshotter;
+import org.example.service.GameService;
+import org.example.service.GameServiceImpl;
+import org.example.util.LoggerConfig;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * One node of a game cluster, serving the games that a consistent hash of their id assigns to it
+ * Any node accepts requests for any game and forwards them to the game's owner, which applies moves with its local
+ * engine and repository, so moves of a game are always processed on one node and nodes never lock each other
+ * When a node joins, every member hands it the games it now owns; a leaving node hands all its games to their new owners
+ * A request reaching a new owner before its game has been handed over is forwarded to the previous owner,
+ * which either still holds the game or has handed it over by the time it answers
+ * Membership changes one node at a time, and a node that stops without leaving loses its games
+ */
+public class ClusterNode implements Closeable {
+    private static final int MAX_HOPS = 4;
+    private static final byte NONE = -1;
+
+    private static final Logger logger = Logger.getLogger(ClusterNode.class.getName());
+
+    static {
+        LoggerConfig.configureLogger(logger);
+    }
+
+    private final GameRepository gameRepository;
+    private final GameService gameService;
+    private final GameMetrics gameMetrics = GameMetrics.get();
+    private final ServerSocket serverSocket;
+    private final String nodeId;
+    private final ExecutorService connectionExecutor;
+    private final Map<String, PeerClient> peers = new ConcurrentHashMap<>();
+    /**
+     * Held for reading while a request is routed or applied, and for writing while the ring changes and games are handed over
+     */
+    private final ReadWriteLock membershipLock = new ReentrantReadWriteLock();
+
+    private volatile HashRing ring;
+    private volatile HashRing previousRing;
+    private volatile boolean closed;
+
+    /**
+     * Starts a single node cluster on the loopback interface
+     * @param port 0 for any free port
+     * @throws IOException
+     */
+    public ClusterNode(int port) throws IOException {
+        this(new ConcurrentGameRepositoryImpl(), port);
+    }
+
+    public ClusterNode(GameRepository gameRepository, int port) throws IOException {
+        this(gameRepository, new GameServiceImpl(gameRepository), port);
+    }
+
+    /**
+     * @param gameRepository repository holding the games this node owns, shared with gameService
+     * @param gameService
+     * @param port 0 for any free port
+     * @throws IOException
+     */
+    public ClusterNode(GameRepository gameRepository, GameService gameService, int port) throws IOException {
+        this.gameRepository = gameRepository;
+        this.gameService = gameService;
+        this.serverSocket = new ServerSocket(port, 128, InetAddress.getLoopbackAddress());
+        this.nodeId = InetAddress.getLoopbackAddress().getHostAddress() + ":" + serverSocket.getLocalPort();
+        this.ring = new HashRing(Collections.singletonList(nodeId));
+        this.connectionExecutor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "cluster-node-" + serverSocket.getLocalPort());
+            thread.setDaemon(true);
+            return thread;
+        });
+        connectionExecutor.execute(this::acceptConnections);
+        logger.log(Level.INFO, "Cluster node {0} started", nodeId);
+    }
+
+    /**
+     * Joins the cluster that the seed node belongs to, taking over the games the ring now assigns to this node
+     * @param seedNodeId host:port of any member
+     * @throws IOException
+     */
+    public void join(String seedNodeId) throws IOException {
+        List<String> members = readNodeIds(peer(seedNodeId).call(ClusterProtocol.MEMBERS, 0, new byte[0]));
+        membershipLock.writeLock().lock();
+        try {
+            previousRing = new HashRing(members);
+            ring = previousRing.withNode(nodeId);
+        } finally {
+            membershipLock.writeLock().unlock();
+        }
+        byte[] body = writeNodeId(nodeId);
+        for (String member : members) {
+            peer(member).call(ClusterProtocol.JOIN, 0, body);
+        }
+        logger.log(Level.INFO, "Cluster node {0} joined {1}", new Object[]{nodeId, ring});
+    }
+
+    /**
+     * Hands every game of this node to its new owner, tells the other members and stops the node
+     * @throws IOException
+     */
+    public void leave() throws IOException {
+        List<String> members;
+        membershipLock.writeLock().lock();
+        try {
+            if (ring.getNodeIds().size() == 1) {
+                if (!gameRepository.getGames().isEmpty()) {
+                    throw new IllegalStateException("The last node of a cluster cannot hand over its games");
+                }
+            } else {
+                previousRing = ring;
+                ring = ring.withoutNode(nodeId);
+                handOverGamesOwnedByOthers();
+            }
+            members = ring.getNodeIds();
+        } finally {
+            membershipLock.writeLock().unlock();
+        }
+        byte[] body = writeNodeId(nodeId);
+        for (String member : members) {
+            if (!Objects.equals(member, nodeId)) {
+                peer(member).call(ClusterProtocol.LEAVE, 0, body);
+            }
+        }
+        logger.log(Level.INFO, "Cluster node {0} left the cluster", nodeId);
+        close();
+    }
+
+    /**
+     * Creates a game on its owner node, the players are added there
+     * @param playersInTurnOrder names, types and move strategies of two or more players, they take turns in this order
+     * @param numberOfRows
+     * @param numberOfColumns
+     * @param winLength
+     * @return copy of the game, after the moves of any computer players who move first
+     * @throws IOException
+     */
+    public Game createGame(List<Player> playersInTurnOrder, int numberOfRows, int numberOfColumns, int winLength) throws IOException {
+        String gameId = UUID.randomUUID().toString();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream body = new DataOutputStream(bytes);
+        body.writeUTF(gameId);
+        body.writeInt(numberOfRows);
+        body.writeInt(numberOfColumns);
+        body.writeInt(winLength);
+        body.writeByte(playersInTurnOrder.size());
+        for (Player player : playersInTurnOrder) {
+            body.writeUTF(player.getName());
+            body.writeByte(player.getPlayerType().ordinal());
+            body.writeByte(Objects.isNull(player.getMoveStrategyType()) ? NONE : player.getMoveStrategyType().ordinal());
+        }
+        return readGame(route(ClusterProtocol.CREATE_GAME, gameId, 0, bytes.toByteArray()));
+    }
+
+    /**
+     * Plays a move on the game's owner node, followed by the moves of any computer players up to the next external move
+     * @param gameId
+     * @param cellIndex 0 based cell index
+     * @return copy of the game after the moves
+     * @throws IOException
+     */
+    public Game playMove(String gameId, int cellIndex) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream body = new DataOutputStream(bytes);
+        body.writeUTF(gameId);
+        body.writeInt(cellIndex);
+        return readGame(route(ClusterProtocol.PLAY_MOVE, gameId, 0, bytes.toByteArray()));
+    }
+
+    /**
+     * @param gameId
+     * @return copy of the game as held by its owner node
+     * @throws IOException
+     */
+    public Game getGame(String gameId) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        new DataOutputStream(bytes).writeUTF(gameId);
+        return readGame(route(ClusterProtocol.GET_GAME, gameId, 0, bytes.toByteArray()));
+    }
+
+    /**
+     * @param gameId
+     * @return id of the node owning the game, as far as this node knows
+     */
+    public String ownerOf(String gameId) {
+        return ring.ownerOf(gameId);
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public List<String> getMembers() {
+        return ring.getNodeIds();
+    }
+
+    /**
+     * @return number of games held by this node
+     */
+    public int getNumberOfGames() {
+        return gameRepository.getGames().size();
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            serverSocket.close();
+        } catch (IOException e) {
+            logger.log(Level.WARNING, e, () -> "Could not close cluster node " + nodeId);
+        }
+        connectionExecutor.shutdownNow();
+        peers.values().forEach(PeerClient::close);
+    }
+
+    static InetSocketAddress toAddress(String nodeId) {
+        int separator = nodeId.lastIndexOf(':');
+        if (separator < 0) {
+            throw new IllegalArgumentException("Node id must be host:port: " + nodeId);
+        }
+        return new InetSocketAddress(nodeId.substring(0, separator), Integer.parseInt(nodeId.substring(separator + 1)));
+    }
+
+    /**
+     * Applies a game request if this node holds the game, otherwise forwards it towards the node that does
+     * A game is held by exactly one node at a time, since it is only forgotten once its new owner has it, and the old owner
+     * serves nothing in between; so a held game is served even before this node has heard of the ring change that gave it here
+     * @return the response body
+     */
+    private byte[] route(byte opcode, String gameId, int hops, byte[] body) throws IOException {
+        String forwardTo;
+        membershipLock.readLock().lock();
+        try {
+            String owner = ring.ownerOf(gameId);
+            if (opcode == ClusterProtocol.CREATE_GAME ? Objects.equals(owner, nodeId) : holdsGame(gameId)) {
+                return apply(opcode, body);
+            } else if (!Objects.equals(owner, nodeId)) {
+                forwardTo = owner;
+            } else {
+                // the game may not have been handed over yet
+                HashRing handOverRing = previousRing;
+                forwardTo = Objects.isNull(handOverRing) ? nodeId : handOverRing.ownerOf(gameId);
+                if (Objects.equals(forwardTo, nodeId)) {
+                    throw new UserException("Game id not found: " + gameId);
+                }
+            }
+        } finally {
+            membershipLock.readLock().unlock();
+        }
+        if (hops >= MAX_HOPS) {
+            throw new IllegalStateException("Request for game " + gameId + " was forwarded " + hops + " times");
+        }
+        return peer(forwardTo).call(opcode, hops + 1, body);
+    }
+
+    private byte[] apply(byte opcode, byte[] body) throws IOException {
+        DataInputStream input = new DataInputStream(new ByteArrayInputStream(body));
+        switch (opcode) {
+            case ClusterProtocol.CREATE_GAME:
+                return writeGame(createLocalGame(input));
+            case ClusterProtocol.PLAY_MOVE:
+                String gameId = input.readUTF();
+                int cellIndex = input.readInt();
+                Game game = gameRepository.getGameFromId(gameId);
+                synchronized (game) {
+                    gameService.playMove(gameId, cellIndex);
+                    gameService.playAutomatedMoves(gameId);
+                    return writeGame(game);
+                }
+            case ClusterProtocol.GET_GAME:
+                Game storedGame = gameRepository.getGameFromId(input.readUTF());
+                synchronized (storedGame) {
+                    return writeGame(storedGame);
+                }
+            default:
+                throw new IllegalStateException("Not a game request: " + opcode);
+        }
+    }
+
+    private Game createLocalGame(DataInputStream input) throws IOException {
+        String gameId = input.readUTF();
+        int numberOfRows = input.readInt();
+        int numberOfColumns = input.readInt();
+        int winLength = input.readInt();
+        int numberOfPlayers = input.readByte();
+        List<Player> players = new ArrayList<>(numberOfPlayers);
+        for (int index = 0; index < numberOfPlayers; index++) {
+            String name = input.readUTF();
+            PlayerType playerType = PlayerType.values()[input.readByte()];
+            byte moveStrategyType = input.readByte();
+            players.add(gameService.addPlayer(name, playerType, moveStrategyType == NONE ? null : MoveStrategyType.values()[moveStrategyType]));
+        }
+        Game game = gameRepository.initialiseGame(gameId, players, numberOfRows, numberOfColumns, winLength, players.get(0));
+        gameMetrics.gameStarted();
+        synchronized (game) {
+            return gameService.playAutomatedMoves(gameId);
+        }
+    }
+
+    private boolean holdsGame(String gameId) {
+        try {
+            gameRepository.getGameFromId(gameId);
+            return true;
+        } catch (UserException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Sends every held game that the ring assigns to another node to that node, then forgets it
+     * Runs under the membership write lock, so no move is applied to a game while it is handed over
+     */
+    private void handOverGamesOwnedByOthers() throws IOException {
+        int handedOver = 0;
+        for (Game game : new ArrayList<>(gameRepository.getGames())) {
+            String owner = ring.ownerOf(game.getId());
+            if (!Objects.equals(owner, nodeId)) {
+                peer(owner).call(ClusterProtocol.TRANSFER_GAME, 0, writeGame(game));
+                gameRepository.removeGame(game.getId());
+                if (game.getGameState() == GameState.ONGOING) {
+                    gameMetrics.gameRemoved();
+                }
+                handedOver++;
+            }
+        }
+        logger.log(Level.INFO, "Cluster node {0} handed over {1} games", new Object[]{nodeId, handedOver});
+    }
+
+    private void acceptConnections() {
+        while (!closed) {
+            try {
+                Socket socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                connectionExecutor.execute(() -> serve(socket));
+            } catch (IOException e) {
+                if (!closed) {
+                    logger.log(Level.WARNING, e, () -> "Cluster node " + nodeId + " could not accept a connection");
+                }
+            }
+        }
+    }
+
+    /**
+     * Answers the requests of one peer connection in order until the peer closes it
+     */
+    private void serve(Socket socket) {
+        try (Socket connection = socket;
+             DataInputStream input = new DataInputStream(new BufferedInputStream(connection.getInputStream()));
+             DataOutputStream output = new DataOutputStream(new BufferedOutputStream(connection.getOutputStream()))) {
+            while (!closed) {
+                byte opcode = input.readByte();
+                int hops = input.readByte();
+                byte[] body = ClusterProtocol.readBody(input);
+                byte[] response;
+                try {
+                    response = handle(opcode, hops, body);
+                } catch (Exception e) {
+                    ClusterProtocol.writeError(output, e);
+                    continue;
+                }
+                ClusterProtocol.writeResponse(output, ClusterProtocol.OK, response);
+            }
+        } catch (EOFException | SocketException e) {
+            // the peer closed the connection or the node is stopping
+        } catch (IOException e) {
+            logger.log(Level.WARNING, e, () -> "Cluster node " + nodeId + " dropped a connection");
+        }
+    }
+
+    private byte[] handle(byte opcode, int hops, byte[] body) throws IOException {
+        switch (opcode) {
+            case ClusterProtocol.CREATE_GAME:
+            case ClusterProtocol.PLAY_MOVE:
+            case ClusterProtocol.GET_GAME:
+                String gameId = new DataInputStream(new ByteArrayInputStream(body)).readUTF();
+                return route(opcode, gameId, hops, body);
+            case ClusterProtocol.TRANSFER_GAME:
+                Game transferredGame = GameSnapshotter.readGameWithPlayers(new DataInputStream(new ByteArrayInputStream(body)), gameRepository);
+                if (transferredGame.getGameState() == GameState.ONGOING) {
+                    gameMetrics.gameRestored();
+                }
+                return new byte[0];
+            case ClusterProtocol.JOIN:
+                onJoin(readNodeId(body));
+                return new byte[0];
+            case ClusterProtocol.LEAVE:
+                onLeave(readNodeId(body));
+                return new byte[0];
+            case ClusterProtocol.MEMBERS:
+                return writeNodeIds(ring.getNodeIds());
+            default:
+                throw new IllegalStateException("Unknown cluster request: " + opcode);
+        }
+    }
+
+    private void onJoin(String joiningNodeId) throws IOException {
+        membershipLock.writeLock().lock();
+        try {
+            previousRing = ring;
+            ring = ring.withNode(joiningNodeId);
+            handOverGamesOwnedByOthers();
+        } finally {
+            membershipLock.writeLock().unlock();
+        }
+        logger.log(Level.INFO, "Cluster node {0} joined {1}", new Object[]{joiningNodeId, ring});
+    }
+
+    private void onLeave(String leavingNodeId) {
+        membershipLock.writeLock().lock();
+        try {
+            previousRing = ring;
+            ring = ring.withoutNode(leavingNodeId);
+        } finally {
+            membershipLock.writeLock().unlock();
+        }
+        PeerClient peerClient = peers.remove(leavingNodeId);
+        if (Objects.nonNull(peerClient)) {
+            peerClient.close();
+        }
+        logger.log(Level.INFO, "Cluster node {0} left {1}", new Object[]{leavingNodeId, ring});
+    }
+
+    private PeerClient peer(String peerNodeId) {
+        return peers.computeIfAbsent(peerNodeId, PeerClient::new);
+    }
+
+    private static byte[] writeGame(Game game) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        GameSnapshotter.writeGameWithPlayers(new DataOutputStream(bytes), game);
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Decodes a game into a repository of its own, the copy is detached from the node holding the game
+     */
+    private static Game readGame(byte[] body) throws IOException {
+        return GameSnapshotter.readGameWithPlayers(new DataInputStream(new ByteArrayInputStream(body)), new GameRepositoryImpl());
+    }
+
+    private static byte[] writeNodeId(String nodeId) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        new DataOutputStream(bytes).writeUTF(nodeId);
+        return bytes.toByteArray();
+    }
+
+    private static String readNodeId(byte[] body) throws IOException {
+        return new DataInputStream(new ByteArrayInputStream(body)).readUTF();
+    }
+
+    private static byte[] writeNodeIds(List<String> nodeIds) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream output = new DataOutputStream(bytes);
+        output.writeInt(nodeIds.size());
+        for (String nodeId : nodeIds) {
+            output.writeUTF(nodeId);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static List<String> readNodeIds(byte[] body) throws IOException {
+        DataInputStream input = new DataInputStream(new ByteArrayInputStream(body));
+        int numberOfNodes = input.readInt();
+        List<String> nodeIds = new ArrayList<>(numberOfNodes);
+        for (int index = 0; index < numberOfNodes; index++) {
+            nodeIds.add(input.readUTF());
+        }
+        return nodeIds;
+    }
+}
@@ -0,0 +1,81 @@
+package org.example.cluster;
+
+import org.example.exception.UserException;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Frames exchanged between cluster nodes over TCP
+ * A request is an opcode, the number of nodes it has already been forwarded through, a body length and the body,
+ * a response is a status, a body length and the body, which holds the error message if the status is not OK
+ * Bodies are opaque to the framing, so a node forwards a request to the owner of its game without decoding it
+ */
+final class ClusterProtocol {
+    static final byte CREATE_GAME = 1;
+    static final byte PLAY_MOVE = 2;
+    static final byte GET_GAME = 3;
+    static final byte TRANSFER_GAME = 4;
+    static final byte JOIN = 5;
+    static final byte LEAVE = 6;
+    static final byte MEMBERS = 7;
+
+    static final byte OK = 0;
+    static final byte USER_ERROR = 1;
+    static final byte ERROR = 2;
+
+    static final int MAX_BODY_SIZE = 16 * 1024 * 1024;
+
+    private ClusterProtocol() {
+    }
+
+    static void writeRequest(DataOutputStream output, byte opcode, int hops, byte[] body) throws IOException {
+        output.writeByte(opcode);
+        output.writeByte(hops);
+        output.writeInt(body.length);
+        output.write(body);
+        output.flush();
+    }
+
+    static void writeResponse(DataOutputStream output, byte status, byte[] body) throws IOException {
+        output.writeByte(status);
+        output.writeInt(body.length);
+        output.write(body);
+        output.flush();
+    }
+
+    static void writeError(DataOutputStream output, Exception e) throws IOException {
+        String message = String.valueOf(e.getMessage());
+        writeResponse(output, e instanceof UserException ? USER_ERROR : ERROR, message.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return the response body
+     * @throws UserException if the peer rejected the request because of its arguments
+     * @throws IllegalStateException if the peer failed to handle the request
+     */
+    static byte[] readResponse(DataInputStream input) throws IOException {
+        byte status = input.readByte();
+        byte[] body = readBody(input);
+        switch (status) {
+            case OK:
+                return body;
+            case USER_ERROR:
+                throw new UserException(new String(body, StandardCharsets.UTF_8));
+            default:
+                throw new IllegalStateException(new String(body, StandardCharsets.UTF_8));
+        }
+    }
+
+    static byte[] readBody(DataInputStream input) throws IOException {
+        int length = input.readInt();
+        if (length < 0 || length > MAX_BODY_SIZE) {
+            throw new IOException("Invalid frame length: " + length);
+        }
+        byte[] body = new byte[length];
+        input.readFully(body);
+        return body;
+    }
+}
@@ -0,0 +1,133 @@
+package org.example.cluster;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.TreeSet;
+
+/**
+ * Immutable consistent hash ring mapping keys such as game ids to node ids
+ * Every node is placed at a number of virtual points on a 64 bit ring and a key belongs to the first point at or after its hash,
+ * so adding or removing a node only moves the keys of the arcs next to that node's points
+ * Points are kept as a sorted long[] with a parallel owner array, a lookup is one binary search without locking
+ */
+public final class HashRing {
+    public static final int DEFAULT_VIRTUAL_NODES = 128;
+
+    private final int virtualNodesPerNode;
+    private final List<String> nodeIds;
+    private final long[] points;
+    private final String[] owners;
+
+    public HashRing(Collection<String> nodeIds) {
+        this(nodeIds, DEFAULT_VIRTUAL_NODES);
+    }
+
+    /**
+     * @param nodeIds
+     * @param virtualNodesPerNode points per node, more points spread keys more evenly
+     */
+    public HashRing(Collection<String> nodeIds, int virtualNodesPerNode) {
+        if (virtualNodesPerNode < 1) {
+            throw new IllegalArgumentException("virtualNodesPerNode must be positive");
+        }
+        this.virtualNodesPerNode = virtualNodesPerNode;
+        this.nodeIds = Collections.unmodifiableList(new ArrayList<>(new TreeSet<>(nodeIds)));
+        int numberOfPoints = this.nodeIds.size() * virtualNodesPerNode;
+        long[] unsortedPoints = new long[numberOfPoints];
+        String[] unsortedOwners = new String[numberOfPoints];
+        int index = 0;
+        for (String nodeId : this.nodeIds) {
+            for (int virtualNode = 0; virtualNode < virtualNodesPerNode; virtualNode++) {
+                unsortedPoints[index] = hash(nodeId + "#" + virtualNode);
+                unsortedOwners[index++] = nodeId;
+            }
+        }
+        Integer[] order = new Integer[numberOfPoints];
+        for (int point = 0; point < numberOfPoints; point++) {
+            order[point] = point;
+        }
+        Arrays.sort(order, (left, right) -> Long.compare(unsortedPoints[left], unsortedPoints[right]));
+        this.points = new long[numberOfPoints];
+        this.owners = new String[numberOfPoints];
+        for (int point = 0; point < numberOfPoints; point++) {
+            points[point] = unsortedPoints[order[point]];
+            owners[point] = unsortedOwners[order[point]];
+        }
+    }
+
+    /**
+     * @param key
+     * @return id of the node owning key
+     * @throws IllegalStateException if the ring has no nodes
+     */
+    public String ownerOf(String key) {
+        if (points.length == 0) {
+            throw new IllegalStateException("Hash ring has no nodes");
+        }
+        int index = Arrays.binarySearch(points, hash(key));
+        if (index < 0) {
+            index = -index - 1;
+        }
+        return owners[index == points.length ? 0 : index];
+    }
+
+    public HashRing withNode(String nodeId) {
+        List<String> nodes = new ArrayList<>(nodeIds);
+        nodes.add(nodeId);
+        return new HashRing(nodes, virtualNodesPerNode);
+    }
+
+    public HashRing withoutNode(String nodeId) {
+        List<String> nodes = new ArrayList<>(nodeIds);
+        nodes.remove(nodeId);
+        return new HashRing(nodes, virtualNodesPerNode);
+    }
+
+    public boolean contains(String nodeId) {
+        return nodeIds.contains(nodeId);
+    }
+
+    /**
+     * @return node ids in sorted order
+     */
+    public List<String> getNodeIds() {
+        return nodeIds;
+    }
+
+    /**
+     * FNV-1a over the characters followed by the MurmurHash3 finalizer, so similar ids land far apart on the ring
+     */
+    static long hash(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (int index = 0; index < key.length(); index++) {
+            hash ^= key.charAt(index);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof HashRing && Objects.equals(nodeIds, ((HashRing) other).nodeIds)
+                && virtualNodesPerNode == ((HashRing) other).virtualNodesPerNode;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(nodeIds, virtualNodesPerNode);
+    }
+
+    @Override
+    public String toString() {
+        return "HashRing" + nodeIds;
+    }
+}
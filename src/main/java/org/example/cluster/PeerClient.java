@@ -0,0 +1,96 @@
+package org.example.cluster;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Sends requests to one peer node, reusing idle connections so a request costs no TCP handshake
+ * A connection carries one request at a time, concurrent callers open further connections which are pooled afterwards
+ */
+final class PeerClient implements Closeable {
+    private static final int CONNECT_TIMEOUT_MILLIS = 2000;
+    private static final int MAX_IDLE_CONNECTIONS = 16;
+
+    private final InetSocketAddress address;
+    private final Queue<Connection> idleConnections = new ConcurrentLinkedQueue<>();
+    private volatile boolean closed;
+
+    PeerClient(String nodeId) {
+        this.address = ClusterNode.toAddress(nodeId);
+    }
+
+    /**
+     * @param opcode
+     * @param hops nodes the request has already passed through
+     * @param body
+     * @return the response body
+     * @throws IOException if the peer cannot be reached
+     */
+    byte[] call(byte opcode, int hops, byte[] body) throws IOException {
+        Connection connection = idleConnections.poll();
+        if (Objects.isNull(connection)) {
+            connection = new Connection(address);
+        }
+        try {
+            ClusterProtocol.writeRequest(connection.output, opcode, hops, body);
+            return ClusterProtocol.readResponse(connection.input);
+        } catch (IOException e) {
+            connection.close();
+            connection = null;
+            throw e;
+        } finally {
+            // an error response is read in full, so the connection can carry the next request
+            if (Objects.nonNull(connection)) {
+                release(connection);
+            }
+        }
+    }
+
+    private void release(Connection connection) {
+        if (closed || idleConnections.size() >= MAX_IDLE_CONNECTIONS) {
+            connection.close();
+        } else {
+            idleConnections.add(connection);
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        Connection connection;
+        while (Objects.nonNull(connection = idleConnections.poll())) {
+            connection.close();
+        }
+    }
+
+    private static final class Connection {
+        private final Socket socket;
+        private final DataInputStream input;
+        private final DataOutputStream output;
+
+        private Connection(InetSocketAddress address) throws IOException {
+            socket = new Socket();
+            socket.setTcpNoDelay(true);
+            socket.connect(address, CONNECT_TIMEOUT_MILLIS);
+            input = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            output = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+        }
+
+        private void close() {
+            try {
+                socket.close();
+            } catch (IOException ignored) {
+                // the connection is dropped either way
+            }
+        }
+    }
+}
@@ -2,17 +2,29 @@ package org.example.controller;
 
 import org.example.Main;
 import org.example.exception.UserException;
+import org.example.model.CellValue;
 import org.example.model.Game;
+import org.example.model.MoveRequest;
+import org.example.model.MoveResult;
+import org.example.model.MoveStrategyType;
 import org.example.model.Player;
 import org.example.model.PlayerType;
+import org.example.service.GameHost;
 import org.example.service.GameService;
 import org.example.util.LoggerConfig;
 
+import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
 public class GameController {
     private final GameService gameService;
+    private final GameHost gameHost;
     private static final Logger logger = Logger.getLogger(GameController.class.getName());
 
     static {
@@ -20,7 +32,12 @@ public class GameController {
     }
 
     public GameController(GameService gameService) {
+        this(gameService, new GameHost(gameService));
+    }
+
+    public GameController(GameService gameService, GameHost gameHost) {
         this.gameService = gameService;
+        this.gameHost = gameHost;
     }
 
     public Player conductTossToDecideWhoGoesFirst(Player player1, Player player2) {
@@ -32,19 +49,43 @@ public class GameController {
         try {
             return gameService.conductTossToDecideWhoGoesFirst(player1, player2);
         } catch (Exception e) {
-            e.printStackTrace();
+            logger.log(Level.SEVERE, "conductTossToDecideWhoGoesFirst failed", e);
+            return null;
+        }
+    }
+
+    /**
+     * @param players two or more players
+     * @return the players in the order they take turns
+     */
+    public List<Player> conductTossToDecideTurnOrder(List<Player> players) {
+        validatePlayers(players);
+        try {
+            return gameService.conductTossToDecideTurnOrder(players);
+        } catch (Exception e) {
+            logger.log(Level.SEVERE, "conductTossToDecideTurnOrder failed", e);
             return null;
         }
     }
 
     public Player addPlayer(String name, PlayerType playerType) {
+        return addPlayer(name, playerType, null);
+    }
+
+    /**
+     * @param name
+     * @param playerType
+     * @param moveStrategyType strategy choosing the player's moves, null for CONSOLE if HUMAN and LOOKUP_TABLE if COMPUTER
+     * @return the added player
+     */
+    public Player addPlayer(String name, PlayerType playerType, MoveStrategyType moveStrategyType) {
         if (Objects.isNull(name) || name.isEmpty() || Objects.isNull(playerType)) {
             throw new IllegalArgumentException("Player name is empty");
         }
         try {
-            return gameService.addPlayer(name, playerType);
+            return gameService.addPlayer(name, playerType, moveStrategyType);
         } catch (Exception e) {
-            e.printStackTrace();
+            logger.log(Level.SEVERE, "addPlayer failed", e);
             return null;
         }
     }
@@ -56,7 +97,57 @@ public class GameController {
         try {
             return gameService.initialiseGame(player1, player2, numberOfCellsPerRow, tossWinner);
         } catch (Exception e) {
-            e.printStackTrace();
+            logger.log(Level.SEVERE, "initialiseGame failed", e);
+            return null;
+        }
+    }
+
+    /**
+     * Starts an m,n,k game: a numberOfRows x numberOfColumns board won by winLength marks in a row, column or any diagonal
+     * For example 15, 15, 5 is gomoku and 3, 3, 3 is classic tic-tac-toe
+     * @param player1
+     * @param player2
+     * @param numberOfRows
+     * @param numberOfColumns
+     * @param winLength
+     * @param tossWinner
+     * @return the initialised game
+     */
+    public Game initialiseGame(Player player1, Player player2, int numberOfRows, int numberOfColumns, int winLength, Player tossWinner) {
+        if (numberOfRows <= 0 || numberOfColumns <= 0) {
+            throw new IllegalArgumentException("numberOfRows and numberOfColumns must be positive");
+        }
+        if (winLength <= 0 || winLength > Math.max(numberOfRows, numberOfColumns)) {
+            throw new IllegalArgumentException("winLength must be between 1 and the longer side of the board");
+        }
+        try {
+            return gameService.initialiseGame(player1, player2, numberOfRows, numberOfColumns, winLength, tossWinner);
+        } catch (Exception e) {
+            logger.log(Level.SEVERE, "initialiseGame failed", e);
+            return null;
+        }
+    }
+
+    /**
+     * Starts an m,n,k game of two or more players, who take the symbols X, O, A, B... in turn order
+     * @param playersInTurnOrder
+     * @param numberOfRows
+     * @param numberOfColumns
+     * @param winLength
+     * @return the initialised game
+     */
+    public Game initialiseGame(List<Player> playersInTurnOrder, int numberOfRows, int numberOfColumns, int winLength) {
+        validatePlayers(playersInTurnOrder);
+        if (numberOfRows <= 0 || numberOfColumns <= 0) {
+            throw new IllegalArgumentException("numberOfRows and numberOfColumns must be positive");
+        }
+        if (winLength <= 0 || winLength > Math.max(numberOfRows, numberOfColumns)) {
+            throw new IllegalArgumentException("winLength must be between 1 and the longer side of the board");
+        }
+        try {
+            return gameService.initialiseGame(playersInTurnOrder, numberOfRows, numberOfColumns, winLength);
+        } catch (Exception e) {
+            logger.log(Level.SEVERE, "initialiseGame failed", e);
             return null;
         }
     }
@@ -68,9 +159,132 @@ public class GameController {
         try {
             return gameService.startGameFromId(gameId);
         } catch (Exception e) {
-            e.printStackTrace();
+            logger.log(Level.SEVERE, "startGameFromId failed", e);
             return null;
         }
     }
 
+    /**
+     * @param gameId
+     * @return the game, its board changes as moves are played
+     */
+    public Game getGameFromId(String gameId) {
+        if (Objects.isNull(gameId) || gameId.isEmpty()) {
+            throw new UserException("game id cannot be empty");
+        }
+        return gameService.getGameFromId(gameId);
+    }
+
+    /**
+     * Hosts the game without blocking: engine players move right away, human moves are sent with submitMove
+     * @param gameId
+     * @return future completed with the game once it ends
+     */
+    public CompletableFuture<Game> hostGame(String gameId) {
+        if (Objects.isNull(gameId) || gameId.isEmpty()) {
+            throw new UserException("game id cannot be empty");
+        }
+        return gameHost.startGame(gameId);
+    }
+
+    /**
+     * Hosts the game without blocking and reports every change of it, for example to push it to remote players
+     * @param gameId
+     * @param listener called with the game after the engine's opening moves and after every applied move
+     * @return future completed with the game once it ends
+     */
+    public CompletableFuture<Game> hostGame(String gameId, Consumer<Game> listener) {
+        if (Objects.isNull(gameId) || gameId.isEmpty()) {
+            throw new UserException("game id cannot be empty");
+        }
+        return gameHost.startGame(gameId, listener);
+    }
+
+    /**
+     * @param gameId
+     * @param cellIndex 0 based cell index, one less than the position shown on the board
+     * @return future completed with the game once the move and the engine replies are played
+     */
+    public CompletableFuture<Game> submitMove(String gameId, int cellIndex) {
+        if (Objects.isNull(gameId) || gameId.isEmpty()) {
+            throw new UserException("game id cannot be empty");
+        }
+        return gameHost.submitMove(gameId, cellIndex);
+    }
+
+    /**
+     * @param gameId
+     * @param playerId player making the move, the move is rejected if it is not their turn
+     * @param cellIndex 0 based cell index, one less than the position shown on the board
+     * @return future completed with the game once the move and the engine replies are played
+     */
+    public CompletableFuture<Game> submitMove(String gameId, String playerId, int cellIndex) {
+        if (Objects.isNull(gameId) || gameId.isEmpty()) {
+            throw new UserException("game id cannot be empty");
+        }
+        return gameHost.submitMove(gameId, playerId, cellIndex);
+    }
+
+    /**
+     * @param gameId
+     * @param playerId player making the move, the move is rejected if it is not their turn
+     * @param cellIndex 0 based cell index, one less than the position shown on the board
+     * @param view called with the game once the move and the engine replies are played, on the thread that played them
+     * @return future completed with what view returns
+     */
+    public <T> CompletableFuture<T> submitMove(String gameId, String playerId, int cellIndex, Function<Game, T> view) {
+        if (Objects.isNull(gameId) || gameId.isEmpty()) {
+            throw new UserException("game id cannot be empty");
+        }
+        return gameHost.submitMove(gameId, playerId, cellIndex, view);
+    }
+
+    /**
+     * Plays moves of many games at once, such as a burst of bot moves, without the engine replying to them
+     * The games must not be hosted, their moves would race the host's
+     * @param moveRequests
+     * @return result of each request, in the order of the requests
+     */
+    public List<MoveResult> playMoves(List<MoveRequest> moveRequests) {
+        if (Objects.isNull(moveRequests)) {
+            throw new UserException("move requests cannot be empty");
+        }
+        return gameService.playMoves(moveRequests);
+    }
+
+    /**
+     * Blocks until a hosted game ends
+     * @param gameId
+     * @param timeout
+     * @param timeUnit
+     * @return the finished game, or null if it did not end in time
+     */
+    public Game awaitResult(String gameId, long timeout, TimeUnit timeUnit) {
+        if (Objects.isNull(gameId) || gameId.isEmpty()) {
+            throw new UserException("game id cannot be empty");
+        }
+        try {
+            return gameHost.getResult(gameId).get(timeout, timeUnit);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (Exception e) {
+            logger.log(Level.SEVERE, "awaitResult failed", e);
+            return null;
+        }
+    }
+
+    private void validatePlayers(List<Player> players) {
+        if (Objects.isNull(players) || players.size() < 2) {
+            throw new UserException("At least 2 players are needed");
+        }
+        if (players.size() > CellValue.MAX_SYMBOLS) {
+            throw new UserException("At most " + CellValue.MAX_SYMBOLS + " players can play a game");
+        }
+        for (int index = 0; index < players.size(); index++) {
+            if (Objects.isNull(players.get(index))) {
+                throw new UserException("Player " + (index + 1) + " details is empty");
+            }
+        }
+    }
 }
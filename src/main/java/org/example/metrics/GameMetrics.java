@@ -0,0 +1,297 @@
+package org.example.metrics;
+
+import org.example.model.GameState;
+import org.example.model.MoveStrategyType;
+import org.example.util.LoggerConfig;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Process-wide game metrics: lock-free counters and latency histograms fed from the engine's hot paths
+ * Every recording method starts with a check of the enabled flag, and startTimer() reads no clock while disabled,
+ * so disabled metrics cost a field read and a branch per call site
+ * Read through JMX (registerMBean) or as Prometheus text (toPrometheusText)
+ */
+public class GameMetrics implements GameMetricsMXBean {
+    public static final String OBJECT_NAME = "org.example:type=GameMetrics";
+    /**
+     * System property enabling metrics from startup, they can also be switched on and off at runtime
+     */
+    public static final String ENABLED_PROPERTY = "tictactoe.metrics";
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+
+    private static final GameMetrics INSTANCE = new GameMetrics(Boolean.getBoolean(ENABLED_PROPERTY));
+    private static final Logger logger = Logger.getLogger(GameMetrics.class.getName());
+
+    static {
+        LoggerConfig.configureLogger(logger);
+    }
+
+    /**
+     * Operations of a GameRepository timed by MeteredGameRepository
+     */
+    public enum RepositoryOperation {
+        INITIALISE_GAME, ADD_PLAYER, GET_GAME, GET_PLAYER, CREATE_MOVE, ADD_MOVE, UPDATE_BOARD, REMOVE_LAST_MOVE, REMOVE_GAME, ADD_MOVES, REMOVE_PLAYER
+    }
+
+    private volatile boolean enabled;
+    private final LongAdder gamesStarted = new LongAdder();
+    private final LongAdder[] gamesFinished = newCounters(GameState.values().length);
+    private final LongAdder activeGames = new LongAdder();
+    private final LatencyHistogram moveLatency = new LatencyHistogram();
+    private final LatencyHistogram[] thinkTimes = newHistograms(MoveStrategyType.values().length);
+    private final LatencyHistogram[] repositoryOperationTimes = newHistograms(RepositoryOperation.values().length);
+
+    /**
+     * The process records into get(), a separate instance keeps what it records apart, as when recorded games are replayed
+     * @param enabled
+     */
+    public GameMetrics(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public static GameMetrics get() {
+        return INSTANCE;
+    }
+
+    /**
+     * Registers the metrics with the platform MBean server, once however often it is called
+     */
+    public void registerMBean() {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, new ObjectName(OBJECT_NAME));
+        } catch (InstanceAlreadyExistsException e) {
+            // already registered
+        } catch (JMException e) {
+            logger.log(Level.WARNING, e, () -> "Could not register " + OBJECT_NAME);
+        }
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * @return the current time to pass to a record method, 0 while disabled so the record is skipped
+     */
+    public long startTimer() {
+        return enabled ? System.nanoTime() : 0;
+    }
+
+    public void gameStarted() {
+        if (!enabled) {
+            return;
+        }
+        gamesStarted.increment();
+        activeGames.increment();
+    }
+
+    /**
+     * @param gameState the state the game finished in
+     */
+    public void gameFinished(GameState gameState) {
+        if (!enabled) {
+            return;
+        }
+        gamesFinished[gameState.ordinal()].increment();
+        activeGames.decrement();
+    }
+
+    /**
+     * A finished game became ongoing again, its move was taken back
+     */
+    public void gameResumed() {
+        if (!enabled) {
+            return;
+        }
+        activeGames.increment();
+    }
+
+    /**
+     * An ongoing game came into the process without being started here: restored on startup or handed over by another node
+     */
+    public void gameRestored() {
+        if (!enabled) {
+            return;
+        }
+        activeGames.increment();
+    }
+
+    /**
+     * An ongoing game left the process unfinished: evicted as abandoned or handed over to another node
+     */
+    public void gameRemoved() {
+        if (!enabled) {
+            return;
+        }
+        activeGames.decrement();
+    }
+
+    /**
+     * @param startNanos from startTimer() when the move started
+     */
+    public void recordMove(long startNanos) {
+        if (startNanos != 0) {
+            moveLatency.record(System.nanoTime() - startNanos);
+        }
+    }
+
+    /**
+     * Moves applied together share the time they took, each is recorded as an equal part of it
+     * @param startNanos from startTimer() when the moves started
+     * @param numberOfMoves
+     */
+    public void recordMoves(long startNanos, int numberOfMoves) {
+        if (startNanos != 0 && numberOfMoves > 0) {
+            moveLatency.record((System.nanoTime() - startNanos) / numberOfMoves, numberOfMoves);
+        }
+    }
+
+    /**
+     * @param moveStrategyType strategy of the computer player
+     * @param startNanos from startTimer() when the player started choosing its move
+     */
+    public void recordThinkTime(MoveStrategyType moveStrategyType, long startNanos) {
+        if (startNanos != 0) {
+            thinkTimes[moveStrategyType.ordinal()].record(System.nanoTime() - startNanos);
+        }
+    }
+
+    /**
+     * @param repositoryOperation
+     * @param startNanos from startTimer() when the operation started
+     */
+    public void recordRepositoryOperation(RepositoryOperation repositoryOperation, long startNanos) {
+        if (startNanos != 0) {
+            repositoryOperationTimes[repositoryOperation.ordinal()].record(System.nanoTime() - startNanos);
+        }
+    }
+
+    @Override
+    public long getGamesStarted() {
+        return gamesStarted.sum();
+    }
+
+    @Override
+    public Map<String, Long> getGamesFinished() {
+        Map<String, Long> finished = new LinkedHashMap<>();
+        for (GameState gameState : GameState.values()) {
+            if (gameState != GameState.ONGOING) {
+                finished.put(gameState.name(), gamesFinished[gameState.ordinal()].sum());
+            }
+        }
+        return finished;
+    }
+
+    @Override
+    public long getActiveGames() {
+        return activeGames.sum();
+    }
+
+    @Override
+    public LatencySummary getMoveLatency() {
+        return LatencySummary.of(moveLatency);
+    }
+
+    @Override
+    public Map<String, LatencySummary> getThinkTimes() {
+        Map<String, LatencySummary> summaries = new LinkedHashMap<>();
+        for (MoveStrategyType moveStrategyType : MoveStrategyType.values()) {
+            summaries.put(moveStrategyType.name(), LatencySummary.of(thinkTimes[moveStrategyType.ordinal()]));
+        }
+        return summaries;
+    }
+
+    @Override
+    public Map<String, LatencySummary> getRepositoryOperationTimes() {
+        Map<String, LatencySummary> summaries = new LinkedHashMap<>();
+        for (RepositoryOperation repositoryOperation : RepositoryOperation.values()) {
+            summaries.put(repositoryOperation.name(), LatencySummary.of(repositoryOperationTimes[repositoryOperation.ordinal()]));
+        }
+        return summaries;
+    }
+
+    /**
+     * @return every metric in the Prometheus text exposition format, latencies as summaries in seconds
+     */
+    public String toPrometheusText() {
+        StringBuilder text = new StringBuilder(4096);
+        writeHeader(text, "tictactoe_games_started_total", "counter", "Games initialised");
+        text.append("tictactoe_games_started_total ").append(gamesStarted.sum()).append('\n');
+        writeHeader(text, "tictactoe_games_finished_total", "counter", "Games finished, by final state");
+        for (GameState gameState : GameState.values()) {
+            if (gameState != GameState.ONGOING) {
+                text.append("tictactoe_games_finished_total{state=\"").append(gameState.name()).append("\"} ")
+                        .append(gamesFinished[gameState.ordinal()].sum()).append('\n');
+            }
+        }
+        writeHeader(text, "tictactoe_active_games", "gauge", "Games started and not finished");
+        text.append("tictactoe_active_games ").append(activeGames.sum()).append('\n');
+        writeHeader(text, "tictactoe_move_latency_seconds", "summary", "Time to apply a move and check for a winner");
+        writeSummary(text, "tictactoe_move_latency_seconds", null, moveLatency);
+        writeHeader(text, "tictactoe_think_time_seconds", "summary", "Time computer players take to choose a move");
+        for (MoveStrategyType moveStrategyType : MoveStrategyType.values()) {
+            LatencyHistogram histogram = thinkTimes[moveStrategyType.ordinal()];
+            if (histogram.getCount() > 0) {
+                writeSummary(text, "tictactoe_think_time_seconds", "strategy=\"" + moveStrategyType.name() + "\"", histogram);
+            }
+        }
+        writeHeader(text, "tictactoe_repository_operation_seconds", "summary", "Time of game repository operations");
+        for (RepositoryOperation repositoryOperation : RepositoryOperation.values()) {
+            LatencyHistogram histogram = repositoryOperationTimes[repositoryOperation.ordinal()];
+            if (histogram.getCount() > 0) {
+                writeSummary(text, "tictactoe_repository_operation_seconds",
+                        "operation=\"" + repositoryOperation.name().toLowerCase(Locale.ROOT) + "\"", histogram);
+            }
+        }
+        return text.toString();
+    }
+
+    private static void writeHeader(StringBuilder text, String name, String type, String help) {
+        text.append("# HELP ").append(name).append(' ').append(help).append('\n')
+                .append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+
+    private static void writeSummary(StringBuilder text, String name, String labels, LatencyHistogram histogram) {
+        String labelPrefix = Objects.isNull(labels) ? "" : labels + ",";
+        for (double quantile : QUANTILES) {
+            text.append(name).append("{").append(labelPrefix).append("quantile=\"").append(quantile).append("\"} ")
+                    .append(histogram.getValueAtPercentile(quantile * 100) / 1e9).append('\n');
+        }
+        String labelSet = Objects.isNull(labels) ? "" : "{" + labels + "}";
+        text.append(name).append("_sum").append(labelSet).append(' ').append(histogram.getSum() / 1e9).append('\n');
+        text.append(name).append("_count").append(labelSet).append(' ').append(histogram.getCount()).append('\n');
+    }
+
+    private static LongAdder[] newCounters(int length) {
+        LongAdder[] counters = new LongAdder[length];
+        for (int index = 0; index < length; index++) {
+            counters[index] = new LongAdder();
+        }
+        return counters;
+    }
+
+    private static LatencyHistogram[] newHistograms(int length) {
+        LatencyHistogram[] histograms = new LatencyHistogram[length];
+        for (int index = 0; index < length; index++) {
+            histograms[index] = new LatencyHistogram();
+        }
+        return histograms;
+    }
+}
@@ -0,0 +1,33 @@
+package org.example.metrics;
+
+import java.util.Map;
+
+/**
+ * JMX view of GameMetrics, registered as org.example:type=GameMetrics
+ */
+public interface GameMetricsMXBean {
+    boolean isEnabled();
+
+    void setEnabled(boolean enabled);
+
+    long getGamesStarted();
+
+    /**
+     * @return games finished, keyed by the GameState they finished in
+     */
+    Map<String, Long> getGamesFinished();
+
+    long getActiveGames();
+
+    LatencySummary getMoveLatency();
+
+    /**
+     * @return time computer players took to choose a move, keyed by MoveStrategyType
+     */
+    Map<String, LatencySummary> getThinkTimes();
+
+    /**
+     * @return time of each GameRepository operation, keyed by operation
+     */
+    Map<String, LatencySummary> getRepositoryOperationTimes();
+}
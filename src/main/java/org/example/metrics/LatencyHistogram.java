@@ -0,0 +1,106 @@
+package org.example.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free latency histogram in nanoseconds with log-linear buckets, in the manner of HdrHistogram
+ * Values below 64 get a bucket each, above that every power of two is split into 32 buckets,
+ * so a recorded value is known to within about 3% from 1 ns up to Long.MAX_VALUE in under 2,000 buckets
+ */
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int NUMBER_OF_BUCKETS = bucketIndex(Long.MAX_VALUE) + 1;
+
+    private final AtomicLongArray counts = new AtomicLongArray(NUMBER_OF_BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    /**
+     * @param nanos negative values are recorded as 0
+     */
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        counts.incrementAndGet(bucketIndex(value));
+        count.increment();
+        sum.add(value);
+        max.accumulate(value);
+    }
+
+    /**
+     * Records numberOfValues values of nanos each, for work timed together such as a batch of moves
+     * @param nanos negative values are recorded as 0
+     * @param numberOfValues
+     */
+    public void record(long nanos, long numberOfValues) {
+        if (numberOfValues <= 0) {
+            return;
+        }
+        long value = Math.max(0, nanos);
+        counts.addAndGet(bucketIndex(value), numberOfValues);
+        count.add(numberOfValues);
+        sum.add(value * numberOfValues);
+        max.accumulate(value);
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * @return total of the recorded values in nanoseconds
+     */
+    public long getSum() {
+        return sum.sum();
+    }
+
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * Reads the buckets without stopping recorders, so values recorded meanwhile may or may not be counted
+     * @param percentile between 0 and 100
+     * @return the highest value in the bucket holding the percentile, at most the largest value recorded, 0 if nothing was recorded
+     */
+    public long getValueAtPercentile(double percentile) {
+        long[] snapshot = new long[NUMBER_OF_BUCKETS];
+        long total = 0;
+        for (int index = 0; index < NUMBER_OF_BUCKETS; index++) {
+            snapshot[index] = counts.get(index);
+            total += snapshot[index];
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(Math.min(100, Math.max(0, percentile)) / 100 * total));
+        long seen = 0;
+        for (int index = 0; index < NUMBER_OF_BUCKETS; index++) {
+            seen += snapshot[index];
+            if (seen >= rank) {
+                return Math.min(highestValueInBucket(index), getMax());
+            }
+        }
+        return getMax();
+    }
+
+    static int bucketIndex(long value) {
+        if (value < 2 * SUB_BUCKETS) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return shift * SUB_BUCKETS + (int) (value >>> shift);
+    }
+
+    static long highestValueInBucket(int index) {
+        if (index < 2 * SUB_BUCKETS) {
+            return index;
+        }
+        int shift = index / SUB_BUCKETS - 1;
+        long lowestValue = (long) (index % SUB_BUCKETS + SUB_BUCKETS) << shift;
+        return lowestValue + (1L << shift) - 1;
+    }
+}
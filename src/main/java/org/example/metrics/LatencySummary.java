@@ -0,0 +1,32 @@
+package org.example.metrics;
+
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * Point-in-time view of a LatencyHistogram in microseconds, as read over JMX
+ */
+@Getter
+@Builder
+public class LatencySummary {
+    long count;
+    double meanMicros;
+    double p50Micros;
+    double p90Micros;
+    double p99Micros;
+    double p999Micros;
+    double maxMicros;
+
+    public static LatencySummary of(LatencyHistogram histogram) {
+        long count = histogram.getCount();
+        return LatencySummary.builder()
+                .count(count)
+                .meanMicros(count == 0 ? 0 : histogram.getSum() / 1_000.0 / count)
+                .p50Micros(histogram.getValueAtPercentile(50) / 1_000.0)
+                .p90Micros(histogram.getValueAtPercentile(90) / 1_000.0)
+                .p99Micros(histogram.getValueAtPercentile(99) / 1_000.0)
+                .p999Micros(histogram.getValueAtPercentile(99.9) / 1_000.0)
+                .maxMicros(histogram.getMax() / 1_000.0)
+                .build();
+    }
+}
@@ -0,0 +1,98 @@
+package org.example.model;
+
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+/**
+ * Board storage for boards of more than 64 cells: one long[] bitset per symbol, bit i set when cell i holds that symbol,
+ * and one of the occupied cells, so empty cells are found and moves are placed without looking at every symbol
+ * Wins are checked by walking the four directions out of the cell, at most winLength - 1 cells each way
+ */
+@ToString
+@EqualsAndHashCode
+public class BitSetBoardCells implements BoardCells {
+    private final int numberOfRows;
+    private final int numberOfColumns;
+    private final int winLength;
+    private final long[][] wordsBySymbol;
+    private final long[] occupiedWords;
+
+    public BitSetBoardCells(int numberOfRows, int numberOfColumns, int winLength, int numberOfSymbols) {
+        if (numberOfRows < 1 || numberOfColumns < 1) {
+            throw new IllegalArgumentException("Board needs at least one row and one column");
+        }
+        if (winLength < 1 || winLength > Math.max(numberOfRows, numberOfColumns)) {
+            throw new IllegalArgumentException("winLength must be between 1 and the longer side of the board");
+        }
+        this.numberOfRows = numberOfRows;
+        this.numberOfColumns = numberOfColumns;
+        this.winLength = winLength;
+        int numberOfWords = (int) (((long) numberOfRows * numberOfColumns + Long.SIZE - 1) / Long.SIZE);
+        this.wordsBySymbol = new long[numberOfSymbols][numberOfWords];
+        this.occupiedWords = new long[numberOfWords];
+    }
+
+    @Override
+    public int getSymbol(int cellIndex) {
+        int word = cellIndex >>> 6;
+        long bit = 1L << cellIndex;
+        if ((occupiedWords[word] & bit) != 0) {
+            for (int symbol = 0; symbol < wordsBySymbol.length; symbol++) {
+                if ((wordsBySymbol[symbol][word] & bit) != 0) {
+                    return symbol;
+                }
+            }
+        }
+        return CellValue.EMPTY_SYMBOL;
+    }
+
+    @Override
+    public void setSymbol(int cellIndex, int symbol) {
+        int word = cellIndex >>> 6;
+        long bit = 1L << cellIndex;
+        if ((occupiedWords[word] & bit) != 0) {
+            for (long[] words : wordsBySymbol) {
+                words[word] &= ~bit;
+            }
+        }
+        if (symbol == CellValue.EMPTY_SYMBOL) {
+            occupiedWords[word] &= ~bit;
+        } else {
+            occupiedWords[word] |= bit;
+            wordsBySymbol[symbol][word] |= bit;
+        }
+    }
+
+    @Override
+    public boolean completesLine(int cellIndex, int symbol) {
+        long[] words = wordsBySymbol[symbol];
+        int row = cellIndex / numberOfColumns;
+        int col = cellIndex % numberOfColumns;
+        for (int[] direction : BoardLines.DIRECTIONS) {
+            int runLength = 1 + countRun(words, row, col, direction[0], direction[1]);
+            if (runLength < winLength) {
+                runLength += countRun(words, row, col, -direction[0], -direction[1]);
+            }
+            if (runLength >= winLength) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return marks in words met walking from (row, col), excluded, by (rowStep, colStep) until a gap, the edge or winLength - 1 cells
+     */
+    private int countRun(long[] words, int row, int col, int rowStep, int colStep) {
+        int count = 0;
+        for (int cellRow = row + rowStep, cellCol = col + colStep;
+             count < winLength - 1 && BoardLines.isOnBoard(cellRow, cellCol, numberOfRows, numberOfColumns);
+             cellRow += rowStep, cellCol += colStep, count++) {
+            int cell = cellRow * numberOfColumns + cellCol;
+            if ((words[cell >>> 6] & (1L << cell)) == 0) {
+                break;
+            }
+        }
+        return count;
+    }
+}
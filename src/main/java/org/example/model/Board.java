@@ -3,9 +3,61 @@ package org.example.model;
 import lombok.Builder;
 import lombok.Data;
 
+/**
+ * An m x n board, numberOfRows by numberOfCellsPerRow, won by the first player to get winLength marks in a row
+ * horizontally, vertically or along any diagonal
+ */
 @Data
 @Builder
 public class Board {
-    CellValue[][] cellValues;
+    BoardCells cells;
+    int numberOfRows;
     int numberOfCellsPerRow;
+    int winLength;
+
+    /**
+     * @param row
+     * @param col
+     * @return symbol of the player holding (row, col), CellValue.EMPTY_SYMBOL if it is empty
+     */
+    public int getSymbol(int row, int col) {
+        return cells.getSymbol(row * numberOfCellsPerRow + col);
+    }
+
+    public void setSymbol(int row, int col, int symbol) {
+        cells.setSymbol(row * numberOfCellsPerRow + col, symbol);
+    }
+
+    public CellValue getCellValue(int row, int col) {
+        return cells.get(row * numberOfCellsPerRow + col);
+    }
+
+    public void setCellValue(int row, int col, CellValue cellValue) {
+        cells.set(row * numberOfCellsPerRow + col, cellValue);
+    }
+
+    public int getNumberOfCells() {
+        return numberOfRows * numberOfCellsPerRow;
+    }
+
+    /**
+     * @return true for the classic rules, a square board won by filling a whole row, column or main diagonal
+     */
+    public boolean isSquareWithFullLineWins() {
+        return numberOfRows == numberOfCellsPerRow && winLength == numberOfCellsPerRow;
+    }
+
+    /**
+     * @param row
+     * @param col
+     * @param symbol
+     * @return true if symbol placed at (row, col) makes winLength in a row
+     */
+    public boolean completesLine(int row, int col, int symbol) {
+        return cells.completesLine(row * numberOfCellsPerRow + col, symbol);
+    }
+
+    public boolean completesLine(int row, int col, CellValue cellValue) {
+        return cells.completesLine(row * numberOfCellsPerRow + col, cellValue);
+    }
 }
@@ -0,0 +1,60 @@
+package org.example.model;
+
+/**
+ * Storage of the symbols on a board, addressed by cell index (row * numberOfColumns + col)
+ * Symbols are the small integers 0 to numberOfSymbols - 1, CellValue.EMPTY_SYMBOL marks an empty cell
+ */
+public interface BoardCells {
+    int MAX_PACKED_CELLS = Long.SIZE;
+
+    int getSymbol(int cellIndex);
+
+    void setSymbol(int cellIndex, int symbol);
+
+    /**
+     * @param cellIndex
+     * @param symbol
+     * @return true if symbol at cellIndex makes winLength in a row along a row, column or any diagonal, counting cellIndex as holding it
+     */
+    boolean completesLine(int cellIndex, int symbol);
+
+    default CellValue get(int cellIndex) {
+        return CellValue.fromSymbol(getSymbol(cellIndex));
+    }
+
+    default void set(int cellIndex, CellValue cellValue) {
+        setSymbol(cellIndex, cellValue.getSymbol());
+    }
+
+    default boolean completesLine(int cellIndex, CellValue cellValue) {
+        return completesLine(cellIndex, cellValue.getSymbol());
+    }
+
+    /**
+     * @param numberOfCellsPerRow
+     * @return storage of a square two-player board won by filling a whole row, column or main diagonal
+     */
+    static BoardCells forSize(int numberOfCellsPerRow) {
+        return forShape(numberOfCellsPerRow, numberOfCellsPerRow, numberOfCellsPerRow);
+    }
+
+    static BoardCells forShape(int numberOfRows, int numberOfColumns, int winLength) {
+        return forShape(numberOfRows, numberOfColumns, winLength, 2);
+    }
+
+    /**
+     * @param numberOfRows
+     * @param numberOfColumns
+     * @param winLength marks in a row needed to win
+     * @param numberOfSymbols one per player
+     * @return packed bitmasks for boards of up to 64 cells, long[] bitsets for larger boards
+     */
+    static BoardCells forShape(int numberOfRows, int numberOfColumns, int winLength, int numberOfSymbols) {
+        if (numberOfSymbols < 1 || numberOfSymbols > CellValue.MAX_SYMBOLS) {
+            throw new IllegalArgumentException("Boards hold 1 to " + CellValue.MAX_SYMBOLS + " symbols");
+        }
+        return numberOfRows * numberOfColumns <= MAX_PACKED_CELLS
+                ? new PackedBoardCells(numberOfRows, numberOfColumns, winLength, numberOfSymbols)
+                : new BitSetBoardCells(numberOfRows, numberOfColumns, winLength, numberOfSymbols);
+    }
+}
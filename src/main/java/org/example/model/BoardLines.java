@@ -0,0 +1,16 @@
+package org.example.model;
+
+/**
+ * The four directions a winning line can run in, as (row step, column step): horizontal, vertical, diagonal and anti-diagonal
+ * Only one direction of each pair is listed, a line through a cell is found by walking both ways from it
+ */
+final class BoardLines {
+    static final int[][] DIRECTIONS = {{0, 1}, {1, 0}, {1, 1}, {1, -1}};
+
+    private BoardLines() {
+    }
+
+    static boolean isOnBoard(int row, int col, int numberOfRows, int numberOfColumns) {
+        return row >= 0 && row < numberOfRows && col >= 0 && col < numberOfColumns;
+    }
+}
@@ -1,5 +1,44 @@
 package org.example.model;
 
+/**
+ * Marks of a two-player game
+ * Boards store a small integer symbol per cell instead, players take symbols 0, 1, 2... in turn order,
+ * so X and O are symbols 0 and 1 and a game of more than two players goes on to symbols without a CellValue
+ */
 public enum CellValue {
-    X, O, EMPTY
+    X, O, EMPTY;
+
+    public static final int EMPTY_SYMBOL = -1;
+    public static final int MAX_SYMBOLS = 26;
+    private static final String SYMBOL_NAMES = "XOABCDEFGHIJKLMNPQRSTUVWYZ";
+
+    public int getSymbol() {
+        return this == EMPTY ? EMPTY_SYMBOL : ordinal();
+    }
+
+    /**
+     * @param symbol
+     * @return the mark of symbol
+     * @throws IllegalArgumentException if symbol belongs to a third or later player
+     */
+    public static CellValue fromSymbol(int symbol) {
+        switch (symbol) {
+            case EMPTY_SYMBOL:
+                return EMPTY;
+            case 0:
+                return X;
+            case 1:
+                return O;
+            default:
+                throw new IllegalArgumentException("Symbol " + symbol + " has no two-player mark");
+        }
+    }
+
+    /**
+     * @param symbol
+     * @return the letter shown for symbol: X, O, then the rest of the alphabet
+     */
+    public static char getSymbolName(int symbol) {
+        return symbol == EMPTY_SYMBOL ? ' ' : SYMBOL_NAMES.charAt(symbol);
+    }
 }
@@ -2,6 +2,8 @@ package org.example.model;
 
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
 
 import java.util.List;
 
@@ -10,9 +12,18 @@ import java.util.List;
 public class Game {
     String id;
     List<Player> players;
+    /**
+     * Read-only view of moveHistory
+     */
     List<Move> moves;
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    MoveHistory moveHistory;
     Board board;
     GameState gameState;
     int currentPlayerIndex;
     Player winner;
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    WinTracker winTracker;
 }
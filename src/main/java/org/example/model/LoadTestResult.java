@@ -0,0 +1,32 @@
+package org.example.model;
+
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * Outcome of a load test of the game server, where every connection plays its games against a computer opponent
+ */
+@Data
+@Builder
+public class LoadTestResult {
+    int connections;
+    int peakOpenConnections;
+    long games;
+    long moves;
+    long errors;
+    long totalMoveLatencyNanos;
+    long maxMoveLatencyNanos;
+    long elapsedNanos;
+    boolean completed;
+
+    public double getGamesPerSecond() {
+        return elapsedNanos == 0 ? 0 : games * 1_000_000_000.0 / elapsedNanos;
+    }
+
+    /**
+     * @return mean time from sending a move to receiving the state after it and the computer's reply, in microseconds
+     */
+    public double getMeanMoveLatencyMicros() {
+        return moves == 0 ? 0 : totalMoveLatencyNanos / 1_000.0 / moves;
+    }
+}
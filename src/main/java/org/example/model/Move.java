@@ -1,10 +1,12 @@
 package org.example.model;
 
+import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 
 @Data
 @Builder
+@AllArgsConstructor
 public class Move {
     Player player;
     int rowValue;
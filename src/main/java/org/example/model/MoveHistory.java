@@ -0,0 +1,180 @@
+package org.example.model;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Moves of a game as a growable array of cell indices, a short per move on boards of up to 65536 cells and an int above
+ * Players take turns in a fixed order, so the player of a move is implied by its position and is not stored
+ */
+public class MoveHistory {
+    private static final int INITIAL_CAPACITY = 16;
+    private static final int MAX_SHORT_CELLS = 1 << 16;
+
+    private final int numberOfCells;
+    private final int numberOfPlayers;
+    private final int firstPlayerIndex;
+    private short[] shortCellIndices;
+    private int[] intCellIndices;
+    private int size;
+
+    /**
+     * @param numberOfCells cells on the board, the history is full once every cell has been played
+     * @param numberOfPlayers
+     * @param firstPlayerIndex index of the player who makes the first move
+     */
+    public MoveHistory(int numberOfCells, int numberOfPlayers, int firstPlayerIndex) {
+        this.numberOfCells = numberOfCells;
+        this.numberOfPlayers = numberOfPlayers;
+        this.firstPlayerIndex = firstPlayerIndex;
+        int capacity = Math.min(numberOfCells, INITIAL_CAPACITY);
+        if (numberOfCells <= MAX_SHORT_CELLS) {
+            shortCellIndices = new short[capacity];
+        } else {
+            intCellIndices = new int[capacity];
+        }
+    }
+
+    /**
+     * Records a move of the player whose turn it is
+     * @param cellIndex
+     */
+    public void add(int cellIndex) {
+        if (cellIndex < 0 || cellIndex >= numberOfCells) {
+            throw new IllegalArgumentException("Cell index out of range: " + cellIndex);
+        }
+        if (size == numberOfCells) {
+            throw new IllegalStateException("Every cell has already been played");
+        }
+        if (size == capacity()) {
+            grow();
+        }
+        if (Objects.nonNull(shortCellIndices)) {
+            shortCellIndices[size++] = (short) cellIndex;
+        } else {
+            intCellIndices[size++] = cellIndex;
+        }
+    }
+
+    /**
+     * Takes back the last move
+     * @return cell index of the move taken back
+     */
+    public int removeLast() {
+        if (size == 0) {
+            throw new IllegalStateException("No move to take back");
+        }
+        int cellIndex = getCellIndex(size - 1);
+        size--;
+        return cellIndex;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return true once every cell of the board has been played
+     */
+    public boolean isFull() {
+        return size == numberOfCells;
+    }
+
+    public int getFirstPlayerIndex() {
+        return firstPlayerIndex;
+    }
+
+    /**
+     * @param index position of the move, 0 for the first move
+     * @return cell index of the move
+     */
+    public int getCellIndex(int index) {
+        Objects.checkIndex(index, size);
+        return Objects.nonNull(shortCellIndices) ? Short.toUnsignedInt(shortCellIndices[index]) : intCellIndices[index];
+    }
+
+    /**
+     * @param index position of the move, 0 for the first move
+     * @return index of the player who made the move
+     */
+    public int getPlayerIndex(int index) {
+        return (firstPlayerIndex + index) % numberOfPlayers;
+    }
+
+    /**
+     * @return index of the player who makes the next move
+     */
+    public int getNextPlayerIndex() {
+        return getPlayerIndex(size);
+    }
+
+    /**
+     * @return a history of the same moves that later moves to this one leave unchanged, its arrays trimmed to the moves made
+     */
+    public MoveHistory copy() {
+        MoveHistory copy = new MoveHistory(numberOfCells, numberOfPlayers, firstPlayerIndex);
+        if (Objects.nonNull(shortCellIndices)) {
+            copy.shortCellIndices = Arrays.copyOf(shortCellIndices, size);
+        } else {
+            copy.intCellIndices = Arrays.copyOf(intCellIndices, size);
+        }
+        copy.size = size;
+        return copy;
+    }
+
+    /**
+     * Replays the moves in the order they were made
+     * @param visitor
+     */
+    public void replay(MoveVisitor visitor) {
+        for (int index = 0; index < size; index++) {
+            visitor.visit(getCellIndex(index), getPlayerIndex(index));
+        }
+    }
+
+    /**
+     * @param players players of the game, in turn order
+     * @param numberOfCellsPerRow
+     * @return read-only view creating each Move when it is read
+     */
+    public List<Move> asMoveList(List<Player> players, int numberOfCellsPerRow) {
+        return new AbstractList<Move>() {
+            @Override
+            public Move get(int index) {
+                int cellIndex = getCellIndex(index);
+                return new Move(players.get(getPlayerIndex(index)), cellIndex / numberOfCellsPerRow, cellIndex % numberOfCellsPerRow);
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    private int capacity() {
+        return Objects.nonNull(shortCellIndices) ? shortCellIndices.length : intCellIndices.length;
+    }
+
+    private void grow() {
+        int capacity = (int) Math.min(numberOfCells, Math.max(INITIAL_CAPACITY, 2L * capacity()));
+        if (Objects.nonNull(shortCellIndices)) {
+            shortCellIndices = Arrays.copyOf(shortCellIndices, capacity);
+        } else {
+            intCellIndices = Arrays.copyOf(intCellIndices, capacity);
+        }
+    }
+
+    /**
+     * Receives each move of a replay as primitives
+     */
+    public interface MoveVisitor {
+        void visit(int cellIndex, int playerIndex);
+    }
+}
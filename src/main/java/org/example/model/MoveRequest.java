@@ -0,0 +1,20 @@
+package org.example.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * One move of a batch, see GameService.playMoves
+ */
+@Data
+@Builder
+@AllArgsConstructor
+public class MoveRequest {
+    String gameId;
+    /**
+     * Player making the move, the move is rejected if it is not their turn; null to play for the player to move
+     */
+    String playerId;
+    int cellIndex;
+}
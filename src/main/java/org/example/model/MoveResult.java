@@ -0,0 +1,23 @@
+package org.example.model;
+
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * Outcome of one MoveRequest of a batch
+ */
+@Data
+@Builder
+public class MoveResult {
+    String gameId;
+    int cellIndex;
+    boolean applied;
+    /**
+     * State of the game right after the move, or when it was rejected
+     */
+    GameState gameState;
+    /**
+     * Why the move was rejected, null if it was applied
+     */
+    String error;
+}
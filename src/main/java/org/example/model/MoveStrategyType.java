@@ -0,0 +1,5 @@
+package org.example.model;
+
+public enum MoveStrategyType {
+    CONSOLE, RANDOM, HEURISTIC, MINIMAX, LOOKUP_TABLE, MCTS
+}
@@ -0,0 +1,121 @@
+package org.example.model;
+
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Board storage for boards of up to 64 cells: one long bitmask per symbol, bit i set when cell i holds that symbol,
+ * and one of the occupied cells, so empty cells are found and moves are placed without looking at every symbol
+ * Wins are checked by comparing against the precomputed masks of the winLength long lines through a cell
+ */
+@ToString
+@EqualsAndHashCode
+public class PackedBoardCells implements BoardCells {
+    private static final Map<Integer, long[][]> LINE_MASKS_BY_SHAPE = new ConcurrentHashMap<>();
+
+    private final int numberOfRows;
+    private final int numberOfColumns;
+    private final int winLength;
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private final long[][] lineMasksPerCell;
+    private final long[] bitsBySymbol;
+    private long occupiedBits;
+
+    public PackedBoardCells(int numberOfRows, int numberOfColumns, int winLength, int numberOfSymbols) {
+        if (numberOfRows < 1 || numberOfColumns < 1 || numberOfRows * numberOfColumns > MAX_PACKED_CELLS) {
+            throw new IllegalArgumentException("Packed board supports 1 to " + MAX_PACKED_CELLS + " cells");
+        }
+        if (winLength < 1 || winLength > Math.max(numberOfRows, numberOfColumns)) {
+            throw new IllegalArgumentException("winLength must be between 1 and the longer side of the board");
+        }
+        this.numberOfRows = numberOfRows;
+        this.numberOfColumns = numberOfColumns;
+        this.winLength = winLength;
+        this.bitsBySymbol = new long[numberOfSymbols];
+        this.lineMasksPerCell = LINE_MASKS_BY_SHAPE.computeIfAbsent((numberOfRows << 16) | (numberOfColumns << 8) | winLength,
+                shape -> buildLineMasksPerCell(numberOfRows, numberOfColumns, winLength));
+    }
+
+    @Override
+    public int getSymbol(int cellIndex) {
+        long bit = 1L << cellIndex;
+        if ((occupiedBits & bit) != 0) {
+            for (int symbol = 0; symbol < bitsBySymbol.length; symbol++) {
+                if ((bitsBySymbol[symbol] & bit) != 0) {
+                    return symbol;
+                }
+            }
+        }
+        return CellValue.EMPTY_SYMBOL;
+    }
+
+    @Override
+    public void setSymbol(int cellIndex, int symbol) {
+        long bit = 1L << cellIndex;
+        if ((occupiedBits & bit) != 0) {
+            for (int index = 0; index < bitsBySymbol.length; index++) {
+                bitsBySymbol[index] &= ~bit;
+            }
+        }
+        if (symbol == CellValue.EMPTY_SYMBOL) {
+            occupiedBits &= ~bit;
+        } else {
+            occupiedBits |= bit;
+            bitsBySymbol[symbol] |= bit;
+        }
+    }
+
+    @Override
+    public boolean completesLine(int cellIndex, int symbol) {
+        long bits = bitsBySymbol[symbol] | (1L << cellIndex);
+        for (long lineMask : lineMasksPerCell[cellIndex]) {
+            if ((bits & lineMask) == lineMask) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public long getBits(int symbol) {
+        return bitsBySymbol[symbol];
+    }
+
+    /**
+     * @param numberOfRows
+     * @param numberOfColumns
+     * @param winLength
+     * @return for every cell, the masks of the winLength long horizontal, vertical and diagonal segments covering it
+     */
+    private static long[][] buildLineMasksPerCell(int numberOfRows, int numberOfColumns, int winLength) {
+        long[][] lineMasksPerCell = new long[numberOfRows * numberOfColumns][];
+        for (int row = 0; row < numberOfRows; row++) {
+            for (int col = 0; col < numberOfColumns; col++) {
+                long[] lineMasks = new long[4 * winLength];
+                int lineCount = 0;
+                for (int[] direction : BoardLines.DIRECTIONS) {
+                    for (int offset = 1 - winLength; offset <= 0; offset++) {
+                        int firstRow = row + offset * direction[0];
+                        int firstCol = col + offset * direction[1];
+                        int lastRow = firstRow + (winLength - 1) * direction[0];
+                        int lastCol = firstCol + (winLength - 1) * direction[1];
+                        if (BoardLines.isOnBoard(firstRow, firstCol, numberOfRows, numberOfColumns)
+                                && BoardLines.isOnBoard(lastRow, lastCol, numberOfRows, numberOfColumns)) {
+                            long lineMask = 0;
+                            for (int index = 0; index < winLength; index++) {
+                                lineMask |= 1L << ((firstRow + index * direction[0]) * numberOfColumns + firstCol + index * direction[1]);
+                            }
+                            lineMasks[lineCount++] = lineMask;
+                        }
+                    }
+                }
+                lineMasksPerCell[row * numberOfColumns + col] = Arrays.copyOf(lineMasks, lineCount);
+            }
+        }
+        return lineMasksPerCell;
+    }
+}
@@ -9,5 +9,27 @@ public class Player {
     String id;
     String name;
     PlayerType playerType;
-    CellValue markCellValueAs;
+    /**
+     * Mark of the player in its current game, its position in the turn order starting from 0 for the player who moves first
+     */
+    @Builder.Default
+    int symbol = CellValue.EMPTY_SYMBOL;
+    MoveStrategyType moveStrategyType;
+
+    /**
+     * @return X or O for the first two players in turn order, null for a player without a mark or after the second
+     */
+    public CellValue getMarkCellValueAs() {
+        return symbol == 0 || symbol == 1 ? CellValue.fromSymbol(symbol) : null;
+    }
+
+    public void setMarkCellValueAs(CellValue markCellValueAs) {
+        this.symbol = markCellValueAs == null ? CellValue.EMPTY_SYMBOL : markCellValueAs.getSymbol();
+    }
+
+    public static class PlayerBuilder {
+        public PlayerBuilder markCellValueAs(CellValue markCellValueAs) {
+            return symbol(markCellValueAs == null ? CellValue.EMPTY_SYMBOL : markCellValueAs.getSymbol());
+        }
+    }
 }
@@ -0,0 +1,25 @@
+package org.example.model;
+
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * Outcome counts of a batch of self-play games between two strategies on one board size
+ * Each strategy moves first in half of the games
+ */
+@Data
+@Builder
+public class SimulationResult {
+    MoveStrategyType strategyType1;
+    MoveStrategyType strategyType2;
+    int numberOfCellsPerRow;
+    long games;
+    long strategyType1Wins;
+    long strategyType2Wins;
+    long draws;
+    long elapsedNanos;
+
+    public double getGamesPerSecond() {
+        return elapsedNanos == 0 ? 0 : games * 1_000_000_000.0 / elapsedNanos;
+    }
+}
@@ -0,0 +1,112 @@
+package org.example.model;
+
+/**
+ * Keeps running counts of each symbol per row, column, diagonal and anti-diagonal of a square game won by a full line
+ * Counts are updated as moves are applied, so a win can be reported in constant time instead of rescanning the board
+ */
+public class WinTracker {
+    private final int numberOfCellsPerRow;
+    private final int[][] rowCounts;
+    private final int[][] columnCounts;
+    private final int[] diagonalCounts;
+    private final int[] antiDiagonalCounts;
+
+    public WinTracker(int numberOfCellsPerRow) {
+        this(numberOfCellsPerRow, 2);
+    }
+
+    /**
+     * @param numberOfCellsPerRow
+     * @param numberOfSymbols one per player
+     */
+    public WinTracker(int numberOfCellsPerRow, int numberOfSymbols) {
+        this.numberOfCellsPerRow = numberOfCellsPerRow;
+        this.rowCounts = new int[numberOfSymbols][numberOfCellsPerRow];
+        this.columnCounts = new int[numberOfSymbols][numberOfCellsPerRow];
+        this.diagonalCounts = new int[numberOfSymbols];
+        this.antiDiagonalCounts = new int[numberOfSymbols];
+    }
+
+    /**
+     * Builds a tracker from the symbols already present on a board
+     * @param board
+     * @param numberOfSymbols
+     * @return a WinTracker whose counts match the board
+     */
+    public static WinTracker fromBoard(Board board, int numberOfSymbols) {
+        int numberOfCellsPerRow = board.getNumberOfCellsPerRow();
+        WinTracker winTracker = new WinTracker(numberOfCellsPerRow, numberOfSymbols);
+        for (int row = 0; row < numberOfCellsPerRow; row++) {
+            for (int col = 0; col < numberOfCellsPerRow; col++) {
+                int symbol = board.getSymbol(row, col);
+                if (symbol != CellValue.EMPTY_SYMBOL) {
+                    winTracker.recordMove(row, col, symbol);
+                }
+            }
+        }
+        return winTracker;
+    }
+
+    /**
+     * Records a symbol placed at (row, col)
+     * @param row
+     * @param col
+     * @param symbol
+     * @return true if the symbol completes a row, column or diagonal
+     */
+    public boolean recordMove(int row, int col, int symbol) {
+        boolean isWinner = ++rowCounts[symbol][row] == numberOfCellsPerRow;
+        isWinner |= ++columnCounts[symbol][col] == numberOfCellsPerRow;
+        if (row == col) {
+            isWinner |= ++diagonalCounts[symbol] == numberOfCellsPerRow;
+        }
+        if (row + col == numberOfCellsPerRow - 1) {
+            isWinner |= ++antiDiagonalCounts[symbol] == numberOfCellsPerRow;
+        }
+        return isWinner;
+    }
+
+    public boolean recordMove(int row, int col, CellValue cellValue) {
+        return recordMove(row, col, cellValue.getSymbol());
+    }
+
+    /**
+     * Takes back a symbol recorded at (row, col)
+     * @param row
+     * @param col
+     * @param symbol
+     */
+    public void removeMove(int row, int col, int symbol) {
+        rowCounts[symbol][row]--;
+        columnCounts[symbol][col]--;
+        if (row == col) {
+            diagonalCounts[symbol]--;
+        }
+        if (row + col == numberOfCellsPerRow - 1) {
+            antiDiagonalCounts[symbol]--;
+        }
+    }
+
+    public void removeMove(int row, int col, CellValue cellValue) {
+        removeMove(row, col, cellValue.getSymbol());
+    }
+
+    /**
+     * Checks, without recording it, whether placing a symbol at an empty (row, col) would complete a line
+     * @param row
+     * @param col
+     * @param symbol
+     * @return true if the move would win the game
+     */
+    public boolean isWinningMove(int row, int col, int symbol) {
+        int needed = numberOfCellsPerRow - 1;
+        return rowCounts[symbol][row] == needed
+                || columnCounts[symbol][col] == needed
+                || (row == col && diagonalCounts[symbol] == needed)
+                || (row + col == numberOfCellsPerRow - 1 && antiDiagonalCounts[symbol] == needed);
+    }
+
+    public boolean isWinningMove(int row, int col, CellValue cellValue) {
+        return isWinningMove(row, col, cellValue.getSymbol());
+    }
+}
@@ -0,0 +1,83 @@
+package org.example.repository;
+
+import org.example.model.*;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * GameRepository safe to share between threads playing different games
+ * Players and games live in ConcurrentHashMaps so lookups never lock, and writes to a game's moves are guarded by
+ * one of a fixed set of lock stripes picked by game id, so games on different stripes never contend
+ * Board writes are guarded by the board itself, which belongs to exactly one game
+ */
+public class ConcurrentGameRepositoryImpl extends GameRepositoryImpl {
+    public static final int DEFAULT_NUMBER_OF_STRIPES = 1024;
+
+    private final Object[] stripes;
+
+    public ConcurrentGameRepositoryImpl() {
+        this(DEFAULT_NUMBER_OF_STRIPES);
+    }
+
+    /**
+     * @param numberOfStripes rounded up to a power of two
+     */
+    public ConcurrentGameRepositoryImpl(int numberOfStripes) {
+        super(new ConcurrentHashMap<>(), new ConcurrentHashMap<>());
+        int size = Integer.highestOneBit(Math.max(1, numberOfStripes - 1)) << 1;
+        this.stripes = new Object[size];
+        for (int index = 0; index < size; index++) {
+            stripes[index] = new Object();
+        }
+    }
+
+    /**
+     * @param gameId
+     * @return index of the lock stripe guarding the game
+     */
+    public int getStripeIndex(String gameId) {
+        int hash = gameId.hashCode();
+        return (hash ^ (hash >>> 16)) & (stripes.length - 1);
+    }
+
+    public int getNumberOfStripes() {
+        return stripes.length;
+    }
+
+    @Override
+    public boolean addMoveToMovesList(String gameId, Move move) {
+        synchronized (stripes[getStripeIndex(gameId)]) {
+            return super.addMoveToMovesList(gameId, move);
+        }
+    }
+
+    @Override
+    public boolean addMovesToMovesList(Game game, List<Move> moves) {
+        synchronized (stripes[getStripeIndex(game.getId())]) {
+            return super.addMovesToMovesList(game, moves);
+        }
+    }
+
+    @Override
+    public int getShardIndex(String gameId) {
+        return getStripeIndex(gameId);
+    }
+
+    @Override
+    public int removeLastMove(String gameId) {
+        synchronized (stripes[getStripeIndex(gameId)]) {
+            Board board = getGameFromId(gameId).getBoard();
+            synchronized (board) {
+                return super.removeLastMove(gameId);
+            }
+        }
+    }
+
+    @Override
+    public boolean updateGameBoardWithMove(Move move, Board board) {
+        synchronized (board) {
+            return super.updateGameBoardWithMove(move, board);
+        }
+    }
+}
@@ -0,0 +1,440 @@
+package org.example.repository;
+
+import org.example.exception.UserException;
+import org.example.metrics.GameMetrics;
+import org.example.model.*;
+import org.example.util.LoggerConfig;
+import org.example.util.TimerWheel;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * GameRepository that evicts games and players from its delegate once they have been idle for the times of a GameLifecyclePolicy:
+ * won or drawn games after finishedGameTtlMillis, abandoned ongoing games after idleGameTimeoutMillis, and players in no
+ * game after idlePlayerTimeoutMillis; finished games are handed to the GameArchive, if any, before they are evicted
+ * Moves only stamp the activity time of their game, a TimerWheel holds one timeout per game and player, which on expiry
+ * evicts it or schedules it again at the deadline its latest activity gives
+ * A move racing the eviction of its game may be lost, so the idle timeout must be far longer than a player takes to move
+ */
+public class ExpiringGameRepository implements GameRepository, Closeable {
+    private static final Logger logger = Logger.getLogger(ExpiringGameRepository.class.getName());
+
+    static {
+        LoggerConfig.configureLogger(logger);
+    }
+
+    private final GameRepository delegate;
+    private final GameLifecyclePolicy gameLifecyclePolicy;
+    private final GameArchive gameArchive;
+    private final LongSupplier clock;
+    private final GameMetrics gameMetrics;
+    private final TimerWheel<Lease> timerWheel;
+    private final Map<String, Lease> gameLeases = new ConcurrentHashMap<>();
+    private final Map<String, Lease> playerLeases = new ConcurrentHashMap<>();
+    private final LongAdder evictedGames = new LongAdder();
+    private final LongAdder archivedGames = new LongAdder();
+    private final LongAdder evictedPlayers = new LongAdder();
+    private final List<Consumer<String>> gameEvictionListeners = new CopyOnWriteArrayList<>();
+    private final List<Consumer<String>> playerEvictionListeners = new CopyOnWriteArrayList<>();
+    private ScheduledExecutorService expiryScheduler;
+
+    public ExpiringGameRepository(GameRepository delegate, GameLifecyclePolicy gameLifecyclePolicy) {
+        this(delegate, gameLifecyclePolicy, null);
+    }
+
+    /**
+     * @param delegate
+     * @param gameLifecyclePolicy
+     * @param gameArchive receives finished games before they are evicted, null to evict them without archiving
+     */
+    public ExpiringGameRepository(GameRepository delegate, GameLifecyclePolicy gameLifecyclePolicy, GameArchive gameArchive) {
+        this(delegate, gameLifecyclePolicy, gameArchive, System::currentTimeMillis);
+    }
+
+    /**
+     * Games and players the delegate already holds are tracked as if they were added now
+     * @param delegate
+     * @param gameLifecyclePolicy
+     * @param gameArchive receives finished games before they are evicted, null to evict them without archiving
+     * @param clock current time in milliseconds
+     */
+    public ExpiringGameRepository(GameRepository delegate, GameLifecyclePolicy gameLifecyclePolicy, GameArchive gameArchive, LongSupplier clock) {
+        this(delegate, gameLifecyclePolicy, gameArchive, clock, GameMetrics.get());
+    }
+
+    /**
+     * Games and players the delegate already holds are tracked as if they were added now
+     * @param delegate
+     * @param gameLifecyclePolicy
+     * @param gameArchive receives finished games before they are evicted, null to evict them without archiving
+     * @param clock current time in milliseconds
+     * @param gameMetrics no longer counts the abandoned games it evicts as active
+     */
+    public ExpiringGameRepository(GameRepository delegate, GameLifecyclePolicy gameLifecyclePolicy, GameArchive gameArchive, LongSupplier clock,
+                                  GameMetrics gameMetrics) {
+        if (gameLifecyclePolicy.getFinishedGameTtlMillis() <= 0 || gameLifecyclePolicy.getIdleGameTimeoutMillis() <= 0
+                || gameLifecyclePolicy.getIdlePlayerTimeoutMillis() <= 0) {
+            throw new IllegalArgumentException("Time to live and idle timeouts must be positive");
+        }
+        this.delegate = delegate;
+        this.gameLifecyclePolicy = gameLifecyclePolicy;
+        this.gameArchive = gameArchive;
+        this.clock = clock;
+        this.gameMetrics = gameMetrics;
+        long nowMillis = clock.getAsLong();
+        this.timerWheel = new TimerWheel<>(gameLifecyclePolicy.getTickMillis(), gameLifecyclePolicy.getNumberOfSlots(), nowMillis);
+        for (Player player : delegate.getPlayers()) {
+            trackPlayer(player.getId(), nowMillis);
+        }
+        for (Game game : delegate.getGames()) {
+            trackGame(game, nowMillis);
+        }
+    }
+
+    /**
+     * Expires games and players every tick on a background thread, until close
+     */
+    public synchronized void start() {
+        if (Objects.nonNull(expiryScheduler)) {
+            return;
+        }
+        expiryScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "game-lifecycle-expiry");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long tickMillis = gameLifecyclePolicy.getTickMillis();
+        expiryScheduler.scheduleWithFixedDelay(() -> {
+            try {
+                expire();
+            } catch (RuntimeException e) {
+                logger.log(Level.WARNING, "Game expiry failed", e);
+            }
+        }, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Evicts the games and players whose time is up, called every tick once started
+     * @return number of timeouts that expired, evicted or scheduled again
+     */
+    public synchronized int expire() {
+        long nowMillis = clock.getAsLong();
+        return timerWheel.advance(nowMillis, lease -> {
+            if (lease.isGame) {
+                expireGame(lease, nowMillis);
+            } else {
+                expirePlayer(lease, nowMillis);
+            }
+        });
+    }
+
+    /**
+     * Registers a callback for evicted games, so layers holding on to a game, such as a GameHost, can let go of it too
+     * @param listener called with the id of every evicted game, on the expiring thread
+     */
+    public void addGameEvictionListener(Consumer<String> listener) {
+        gameEvictionListeners.add(listener);
+    }
+
+    /**
+     * Registers a callback for evicted players, so layers looking players up by id, such as a WebServer, can forget them too
+     * @param listener called with the id of every evicted player, on the expiring thread
+     */
+    public void addPlayerEvictionListener(Consumer<String> listener) {
+        playerEvictionListeners.add(listener);
+    }
+
+    public long getEvictedGames() {
+        return evictedGames.sum();
+    }
+
+    public long getArchivedGames() {
+        return archivedGames.sum();
+    }
+
+    public long getEvictedPlayers() {
+        return evictedPlayers.sum();
+    }
+
+    @Override
+    public Game initialiseGame(Player player1, Player player2, int numberOfCellsPerRow, Player tossWinner) {
+        return trackGame(delegate.initialiseGame(player1, player2, numberOfCellsPerRow, tossWinner), clock.getAsLong());
+    }
+
+    @Override
+    public Game initialiseGame(String gameId, Player player1, Player player2, int numberOfCellsPerRow, Player tossWinner) {
+        return trackGame(delegate.initialiseGame(gameId, player1, player2, numberOfCellsPerRow, tossWinner), clock.getAsLong());
+    }
+
+    @Override
+    public Game initialiseGame(List<Player> players, int numberOfRows, int numberOfColumns, int winLength, Player tossWinner) {
+        return trackGame(delegate.initialiseGame(players, numberOfRows, numberOfColumns, winLength, tossWinner), clock.getAsLong());
+    }
+
+    @Override
+    public Game initialiseGame(String gameId, List<Player> players, int numberOfRows, int numberOfColumns, int winLength, Player tossWinner) {
+        return trackGame(delegate.initialiseGame(gameId, players, numberOfRows, numberOfColumns, winLength, tossWinner), clock.getAsLong());
+    }
+
+    @Override
+    public Player addPlayer(Player player) {
+        Player addedPlayer = delegate.addPlayer(player);
+        trackPlayer(addedPlayer.getId(), clock.getAsLong());
+        return addedPlayer;
+    }
+
+    @Override
+    public Game getGameFromId(String gameId) {
+        return delegate.getGameFromId(gameId);
+    }
+
+    @Override
+    public Player getPlayerFromId(String playerId) {
+        return delegate.getPlayerFromId(playerId);
+    }
+
+    @Override
+    public Collection<Game> getGames() {
+        return delegate.getGames();
+    }
+
+    @Override
+    public Collection<Player> getPlayers() {
+        return delegate.getPlayers();
+    }
+
+    @Override
+    public Board getBoardFromGame(Game game) {
+        return delegate.getBoardFromGame(game);
+    }
+
+    @Override
+    public Move createMove(Player player, int rowValue, int columnValue) {
+        return delegate.createMove(player, rowValue, columnValue);
+    }
+
+    @Override
+    public boolean addMoveToMovesList(String gameId, Move move) {
+        boolean added = delegate.addMoveToMovesList(gameId, move);
+        touchGame(gameId);
+        return added;
+    }
+
+    @Override
+    public boolean addMovesToMovesList(Game game, List<Move> moves) {
+        boolean added = delegate.addMovesToMovesList(game, moves);
+        touchGame(game.getId());
+        return added;
+    }
+
+    @Override
+    public boolean updateGameBoardWithMove(Move move, Board board) {
+        return delegate.updateGameBoardWithMove(move, board);
+    }
+
+    @Override
+    public int removeLastMove(String gameId) {
+        int cellIndex = delegate.removeLastMove(gameId);
+        touchGame(gameId);
+        return cellIndex;
+    }
+
+    @Override
+    public Game removeGame(String gameId) {
+        Game game = delegate.removeGame(gameId);
+        untrackGame(gameId, game);
+        return game;
+    }
+
+    @Override
+    public Player removePlayer(String playerId) {
+        Player player = delegate.removePlayer(playerId);
+        playerLeases.remove(playerId);
+        return player;
+    }
+
+    @Override
+    public int getShardIndex(String gameId) {
+        return delegate.getShardIndex(gameId);
+    }
+
+    /**
+     * Stops the expiry thread, games and players are no longer evicted
+     */
+    @Override
+    public synchronized void close() {
+        if (Objects.nonNull(expiryScheduler)) {
+            expiryScheduler.shutdownNow();
+        }
+    }
+
+    private Game trackGame(Game game, long nowMillis) {
+        Lease lease = new Lease(game.getId(), true, nowMillis);
+        gameLeases.put(game.getId(), lease);
+        for (Player player : game.getPlayers()) {
+            playerLeases.compute(player.getId(), (playerId, playerLease) -> {
+                Lease joinedLease = Objects.isNull(playerLease) ? new Lease(playerId, false, nowMillis) : playerLease;
+                joinedLease.numberOfGames++;
+                return joinedLease;
+            });
+        }
+        timerWheel.schedule(lease, nowMillis + gameTimeoutMillis(game));
+        return game;
+    }
+
+    private void trackPlayer(String playerId, long nowMillis) {
+        Lease lease = new Lease(playerId, false, nowMillis);
+        if (Objects.isNull(playerLeases.putIfAbsent(playerId, lease))) {
+            timerWheel.schedule(lease, nowMillis + gameLifecyclePolicy.getIdlePlayerTimeoutMillis());
+        }
+    }
+
+    private void touchGame(String gameId) {
+        Lease lease = gameLeases.get(gameId);
+        if (Objects.nonNull(lease)) {
+            lease.lastActivityMillis = clock.getAsLong();
+        }
+    }
+
+    /**
+     * Stops tracking the game, the players it leaves stay for their idle timeout
+     */
+    private void untrackGame(String gameId, Game game) {
+        if (Objects.isNull(gameLeases.remove(gameId))) {
+            return;
+        }
+        long nowMillis = clock.getAsLong();
+        for (Player player : game.getPlayers()) {
+            playerLeases.computeIfPresent(player.getId(), (playerId, playerLease) -> {
+                if (--playerLease.numberOfGames == 0) {
+                    playerLease.lastActivityMillis = nowMillis;
+                    timerWheel.schedule(playerLease, nowMillis + gameLifecyclePolicy.getIdlePlayerTimeoutMillis());
+                }
+                return playerLease;
+            });
+        }
+    }
+
+    private void expireGame(Lease lease, long nowMillis) {
+        if (gameLeases.get(lease.id) != lease) {
+            return;
+        }
+        Game game;
+        try {
+            game = delegate.getGameFromId(lease.id);
+        } catch (UserException e) {
+            gameLeases.remove(lease.id, lease);
+            return;
+        }
+        boolean isFinished = game.getGameState() != GameState.ONGOING;
+        long timeoutMillis = isFinished ? gameLifecyclePolicy.getFinishedGameTtlMillis() : gameLifecyclePolicy.getIdleGameTimeoutMillis();
+        long lastActivityMillis = lease.lastActivityMillis;
+        if (nowMillis < lastActivityMillis + timeoutMillis) {
+            timerWheel.schedule(lease, lastActivityMillis + gameTimeoutMillis(game));
+            return;
+        }
+        if (isFinished && Objects.nonNull(gameArchive)) {
+            try {
+                gameArchive.archive(game, lastActivityMillis);
+                archivedGames.increment();
+            } catch (IOException e) {
+                logger.log(Level.WARNING, e, () -> "Could not archive game " + lease.id + ", keeping it");
+                timerWheel.schedule(lease, nowMillis + gameLifecyclePolicy.getFinishedGameTtlMillis());
+                return;
+            }
+        }
+        try {
+            delegate.removeGame(lease.id);
+        } catch (UserException e) {
+            // removed meanwhile
+        }
+        untrackGame(lease.id, game);
+        evictedGames.increment();
+        if (!isFinished) {
+            gameMetrics.gameRemoved();
+        }
+        logger.log(Level.FINE, "Evicted {0} game {1}", new Object[]{isFinished ? "finished" : "abandoned", lease.id});
+        for (Consumer<String> listener : gameEvictionListeners) {
+            try {
+                listener.accept(lease.id);
+            } catch (RuntimeException e) {
+                logger.log(Level.WARNING, e, () -> "Eviction listener of game " + lease.id + " failed");
+            }
+        }
+    }
+
+    private void expirePlayer(Lease lease, long nowMillis) {
+        boolean[] evicted = {false};
+        playerLeases.computeIfPresent(lease.id, (playerId, playerLease) -> {
+            if (playerLease != lease || playerLease.numberOfGames > 0) {
+                return playerLease;
+            }
+            long deadlineMillis = playerLease.lastActivityMillis + gameLifecyclePolicy.getIdlePlayerTimeoutMillis();
+            if (nowMillis < deadlineMillis) {
+                timerWheel.schedule(playerLease, deadlineMillis);
+                return playerLease;
+            }
+            try {
+                delegate.removePlayer(playerId);
+                evictedPlayers.increment();
+                evicted[0] = true;
+            } catch (UserException e) {
+                // removed meanwhile
+            }
+            return null;
+        });
+        if (!evicted[0]) {
+            return;
+        }
+        for (Consumer<String> listener : playerEvictionListeners) {
+            try {
+                listener.accept(lease.id);
+            } catch (RuntimeException e) {
+                logger.log(Level.WARNING, e, () -> "Eviction listener of player " + lease.id + " failed");
+            }
+        }
+    }
+
+    /**
+     * @return time after the last activity at which the game is checked next, the shorter timeout while it may still finish
+     */
+    private long gameTimeoutMillis(Game game) {
+        return game.getGameState() != GameState.ONGOING
+                ? gameLifecyclePolicy.getFinishedGameTtlMillis()
+                : Math.min(gameLifecyclePolicy.getFinishedGameTtlMillis(), gameLifecyclePolicy.getIdleGameTimeoutMillis());
+    }
+
+    /**
+     * Activity of one game or player, scheduled on the timer wheel
+     */
+    private static final class Lease {
+        private final String id;
+        private final boolean isGame;
+        private volatile long lastActivityMillis;
+        /**
+         * Games of a player lease, changed only inside playerLeases.compute
+         */
+        private int numberOfGames;
+
+        private Lease(String id, boolean isGame, long lastActivityMillis) {
+            this.id = id;
+            this.isGame = isGame;
+            this.lastActivityMillis = lastActivityMillis;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package org.example.repository;
+
+import org.example.model.Game;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.BiConsumer;
+
+/**
+ * GameArchive appending each game to one file in the snapshot format of GameSnapshotter, after its finish time and length
+ * A record cut short by a crash is skipped when the file is read
+ */
+public class FileGameArchive implements GameArchive, Closeable {
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final DataOutputStream output;
+
+    /**
+     * @param file created if missing, appended to otherwise
+     * @throws IOException
+     */
+    public FileGameArchive(Path file) throws IOException {
+        this.output = new DataOutputStream(new BufferedOutputStream(
+                Files.newOutputStream(file, StandardOpenOption.CREATE, StandardOpenOption.APPEND), BUFFER_SIZE));
+    }
+
+    @Override
+    public synchronized void archive(Game game, long finishedAtMillis) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        GameSnapshotter.writeGameWithPlayers(new DataOutputStream(bytes), game);
+        output.writeLong(finishedAtMillis);
+        output.writeInt(bytes.size());
+        bytes.writeTo(output);
+        output.flush();
+    }
+
+    /**
+     * Reads the archived games in the order they were archived, restoring each one into a scratch repository
+     * @param file
+     * @param visitor receives each game with its finish time
+     * @throws IOException
+     */
+    public static void forEachGame(Path file, BiConsumer<Game, Long> visitor) throws IOException {
+        GameRepository gameRepository = new GameRepositoryImpl();
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), BUFFER_SIZE))) {
+            while (true) {
+                long finishedAtMillis;
+                byte[] record;
+                try {
+                    finishedAtMillis = input.readLong();
+                    record = new byte[input.readInt()];
+                    input.readFully(record);
+                } catch (EOFException e) {
+                    return;
+                }
+                Game game = GameSnapshotter.readGameWithPlayers(new DataInputStream(new ByteArrayInputStream(record)), gameRepository);
+                gameRepository.removeGame(game.getId());
+                visitor.accept(game, finishedAtMillis);
+            }
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        output.close();
+    }
+}
@@ -0,0 +1,17 @@
+package org.example.repository;
+
+import org.example.model.Game;
+
+import java.io.IOException;
+
+/**
+ * Cold store receiving finished games before an ExpiringGameRepository evicts them from memory
+ */
+public interface GameArchive {
+    /**
+     * @param game a won or drawn game
+     * @param finishedAtMillis time of its last move
+     * @throws IOException if the game is not archived, it is then kept in memory and archived again later
+     */
+    void archive(Game game, long finishedAtMillis) throws IOException;
+}
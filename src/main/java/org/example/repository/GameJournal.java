@@ -0,0 +1,660 @@
+package org.example.repository;
+
+import org.example.model.MoveStrategyType;
+import org.example.model.Player;
+import org.example.model.PlayerType;
+import org.example.util.LoggerConfig;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+/**
+ * Append-only journal of players, games and moves, stored as fixed width binary records in memory-mapped segment files
+ * An append is a copy into the mapped segment, so it never waits for the disk; a background task forces the active
+ * segment to disk every flush interval, committing all records appended since the previous flush as one group
+ * Appending threads claim record slots with an atomic add on the segment's next free slot and fill them in parallel,
+ * only the thread finding the segment full takes the journal's monitor to roll it, once the slots it handed out are written
+ * Segments roll over when full, and compact() rewrites the sealed segments without the records of finished or removed games
+ */
+public class GameJournal implements Closeable {
+    public static final int RECORD_SIZE = 64;
+    public static final int DEFAULT_SEGMENT_SIZE = 64 * 1024 * 1024;
+    public static final long DEFAULT_FLUSH_INTERVAL_MILLIS = 10;
+
+    static final byte PLAYER_RECORD = 1;
+    static final byte GAME_RECORD = 2;
+    static final byte MOVE_RECORD = 3;
+    static final byte UNDO_RECORD = 4;
+    static final byte GAME_PLAYER_RECORD = 5;
+    static final byte REMOVE_GAME_RECORD = 6;
+    static final byte SEGMENT_HEADER = 0x7F;
+
+    private static final int MAGIC = 0x54545431;
+    private static final int MAX_NAME_BYTES = 40;
+    private static final String SEGMENT_PREFIX = "journal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String COMPACTING_SUFFIX = ".compacting";
+
+    private static final Logger logger = Logger.getLogger(GameJournal.class.getName());
+
+    static {
+        LoggerConfig.configureLogger(logger);
+    }
+
+    /**
+     * Receives journal records in append order during replay
+     */
+    public interface RecordHandler {
+        void onPlayer(Player player);
+
+        /**
+         * @param gameId
+         * @param playerIds players of the game, in the order they were given when it was created
+         * @param numberOfRows
+         * @param numberOfColumns
+         * @param winLength
+         * @param tossWinnerIndex index in playerIds of the player who moves first
+         */
+        void onGame(String gameId, List<String> playerIds, int numberOfRows, int numberOfColumns, int winLength, int tossWinnerIndex);
+
+        void onMove(String gameId, String playerId, int rowValue, int columnValue);
+
+        void onUndo(String gameId);
+
+        /**
+         * @param gameId game that was removed from this process, for example because another node took it over
+         */
+        void onRemoveGame(String gameId);
+    }
+
+    private final Path directory;
+    private final int segmentSize;
+    private final NavigableSet<Long> sealedSegmentIds = new TreeSet<>();
+    private final ScheduledExecutorService flusher;
+    private final Object maintenanceLock = new Object();
+
+    private long checkpointSegmentId;
+    private volatile Segment activeSegment;
+    private volatile boolean dirty;
+    private volatile boolean closed;
+
+    public GameJournal(Path directory) throws IOException {
+        this(directory, DEFAULT_SEGMENT_SIZE, DEFAULT_FLUSH_INTERVAL_MILLIS);
+    }
+
+    /**
+     * Opens the journal in directory, creating it if needed, and continues appending to its newest segment
+     * @param directory
+     * @param segmentSize bytes per segment file, rounded down to a whole number of records
+     * @param flushIntervalMillis how often appended records are forced to disk
+     * @throws IOException
+     */
+    public GameJournal(Path directory, int segmentSize, long flushIntervalMillis) throws IOException {
+        if (segmentSize < 2 * RECORD_SIZE) {
+            throw new IllegalArgumentException("segmentSize must hold at least one record");
+        }
+        this.directory = directory;
+        this.segmentSize = segmentSize - segmentSize % RECORD_SIZE;
+        Files.createDirectories(directory);
+        openSegments();
+
+        this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "game-journal-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @param playerId id of player, encoded when the player was created
+     * @param player
+     */
+    public void appendPlayer(JournalId playerId, Player player) {
+        byte[] name = Objects.isNull(player.getName()) ? new byte[0] : player.getName().getBytes(StandardCharsets.UTF_8);
+        int nameLength = Math.min(name.length, MAX_NAME_BYTES);
+        append(PLAYER_RECORD, (record, start) -> {
+            record.put(start + 1, (byte) player.getPlayerType().ordinal());
+            record.put(start + 2, (byte) (Objects.isNull(player.getMoveStrategyType()) ? 0 : player.getMoveStrategyType().ordinal() + 1));
+            record.put(start + 3, (byte) nameLength);
+            putId(record, start + 4, playerId);
+            for (int index = 0; index < nameLength; index++) {
+                record.put(start + 20 + index, name[index]);
+            }
+        });
+    }
+
+    /**
+     * The game record holds the first two players, every further player follows in a GAME_PLAYER record of its own,
+     * records of other games may come in between
+     * @param gameId
+     * @param playerIds
+     * @param numberOfRows
+     * @param numberOfColumns
+     * @param winLength
+     * @param tossWinnerIndex
+     */
+    public void appendGame(JournalId gameId, List<JournalId> playerIds,
+                           int numberOfRows, int numberOfColumns, int winLength, int tossWinnerIndex) {
+        append(GAME_RECORD, (record, start) -> {
+            record.put(start + 1, (byte) tossWinnerIndex);
+            record.put(start + 2, (byte) playerIds.size());
+            record.putInt(start + 4, numberOfColumns);
+            putId(record, start + 8, gameId);
+            putId(record, start + 24, playerIds.get(0));
+            putId(record, start + 40, playerIds.get(1));
+            record.putInt(start + 56, numberOfRows);
+            record.putInt(start + 60, winLength);
+        });
+        for (int index = 2; index < playerIds.size(); index++) {
+            int playerIndex = index;
+            append(GAME_PLAYER_RECORD, (record, start) -> {
+                record.put(start + 1, (byte) playerIndex);
+                putId(record, start + 16, gameId);
+                putId(record, start + 32, playerIds.get(playerIndex));
+            });
+        }
+    }
+
+    public void appendMove(JournalId gameId, JournalId playerId, int rowValue, int columnValue) {
+        append(MOVE_RECORD, (record, start) -> {
+            record.putInt(start + 4, rowValue);
+            record.putInt(start + 8, columnValue);
+            putId(record, start + 16, gameId);
+            putId(record, start + 32, playerId);
+        });
+    }
+
+    /**
+     * Records that the last move of the game was taken back
+     * @param gameId
+     */
+    public void appendUndo(JournalId gameId) {
+        append(UNDO_RECORD, (record, start) -> putId(record, start + 16, gameId));
+    }
+
+    /**
+     * Records that the game left this process, its earlier records are no longer replayed into it
+     * @param gameId
+     */
+    public void appendRemoveGame(JournalId gameId) {
+        append(REMOVE_GAME_RECORD, (record, start) -> putId(record, start + 16, gameId));
+    }
+
+    /**
+     * Replays every record of every segment, oldest first
+     * @param handler
+     * @throws IOException
+     */
+    public void replay(RecordHandler handler) throws IOException {
+        replay(handler, 0);
+    }
+
+    /**
+     * Replays every record of the segments from fromSegmentId onwards, oldest first
+     * @param handler
+     * @param fromSegmentId
+     * @throws IOException
+     */
+    public void replay(RecordHandler handler, long fromSegmentId) throws IOException {
+        List<Long> segmentIds;
+        long activeId;
+        synchronized (this) {
+            segmentIds = new ArrayList<>(sealedSegmentIds.tailSet(fromSegmentId, true));
+            activeId = activeSegment.id;
+        }
+        segmentIds.add(activeId);
+        RecordDispatcher dispatcher = new RecordDispatcher(handler);
+        for (long segmentId : segmentIds) {
+            forEachRecord(segmentPath(segmentId), dispatcher::dispatch);
+        }
+    }
+
+    /**
+     * Seals the active segment and starts a new one, records appended from now on go to the returned segment
+     * The new segment becomes a checkpoint: compaction never merges segments from before it with later ones,
+     * so the older segments can be deleted as a whole once a snapshot holds their state
+     * @return id of the new active segment
+     */
+    public synchronized long rollSegment() {
+        roll(activeSegment);
+        checkpointSegmentId = activeSegment.id;
+        return checkpointSegmentId;
+    }
+
+    /**
+     * Deletes the sealed segments older than segmentId, for example once a snapshot holds their state
+     * @param segmentId
+     * @throws IOException
+     */
+    public void deleteSegmentsBefore(long segmentId) throws IOException {
+        synchronized (maintenanceLock) {
+            List<Long> segmentIds;
+            synchronized (this) {
+                segmentIds = new ArrayList<>(sealedSegmentIds.headSet(segmentId, false));
+            }
+            for (long sealedSegmentId : segmentIds) {
+                Files.deleteIfExists(segmentPath(sealedSegmentId));
+                synchronized (this) {
+                    sealedSegmentIds.remove(sealedSegmentId);
+                }
+            }
+        }
+    }
+
+    /**
+     * Forces the records appended so far to disk, appends carry on while the segment is being forced
+     */
+    public void flush() {
+        Segment segment;
+        synchronized (this) {
+            if (!dirty || closed) {
+                return;
+            }
+            dirty = false;
+            segment = activeSegment;
+        }
+        segment.buffer.force();
+    }
+
+    /**
+     * Rewrites all sealed segments since the last checkpoint into one, leaving out the game and move records of finished games
+     * A game is only left out when its game record is among the compacted ones, the moves of a game whose game record
+     * sits in a snapshot are kept, as recovery replays them onto the snapshot's copy of the game
+     * Player records are kept, a player may still join a game recorded in the active segment
+     * @param isFinishedGame
+     * @return number of records dropped
+     * @throws IOException
+     */
+    public int compact(Predicate<String> isFinishedGame) throws IOException {
+        synchronized (maintenanceLock) {
+            return compactSealedSegments(isFinishedGame);
+        }
+    }
+
+    private int compactSealedSegments(Predicate<String> isFinishedGame) throws IOException {
+        List<Long> segmentIds;
+        synchronized (this) {
+            segmentIds = new ArrayList<>(sealedSegmentIds.tailSet(checkpointSegmentId, true));
+        }
+        if (segmentIds.isEmpty()) {
+            return 0;
+        }
+        long firstSegmentId = segmentIds.get(0);
+        long lastSegmentId = segmentIds.get(segmentIds.size() - 1);
+        Path compacting = directory.resolve(SEGMENT_PREFIX + lastSegmentId + SEGMENT_SUFFIX + COMPACTING_SUFFIX);
+
+        int[] droppedRecords = {0};
+        Set<String> droppedGameIds = new HashSet<>();
+        try (FileChannel channel = FileChannel.open(compacting, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            channel.write(headerRecord(lastSegmentId, firstSegmentId));
+            for (long segmentId : segmentIds) {
+                forEachRecord(segmentPath(segmentId), record -> {
+                    byte type = record.get(record.position());
+                    if (type == GAME_RECORD) {
+                        String gameId = getId(record, record.position() + 8);
+                        if (isFinishedGame.test(gameId)) {
+                            droppedGameIds.add(gameId);
+                            droppedRecords[0]++;
+                            return;
+                        }
+                    } else if ((type == MOVE_RECORD || type == UNDO_RECORD || type == GAME_PLAYER_RECORD || type == REMOVE_GAME_RECORD)
+                            && droppedGameIds.contains(getId(record, record.position() + 16))) {
+                        droppedRecords[0]++;
+                        return;
+                    }
+                    ByteBuffer copy = record.duplicate();
+                    copy.limit(record.position() + RECORD_SIZE);
+                    try {
+                        channel.write(copy);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+            channel.force(true);
+        }
+
+        synchronized (this) {
+            Files.move(compacting, segmentPath(lastSegmentId), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            for (long segmentId : segmentIds) {
+                if (segmentId != lastSegmentId) {
+                    Files.deleteIfExists(segmentPath(segmentId));
+                    sealedSegmentIds.remove(segmentId);
+                }
+            }
+        }
+        logger.log(Level.INFO, "Compacted journal segments {0}-{1}, dropped {2} records", new Object[]{firstSegmentId, lastSegmentId, droppedRecords[0]});
+        return droppedRecords[0];
+    }
+
+    public synchronized int getNumberOfSegments() {
+        return sealedSegmentIds.size() + 1;
+    }
+
+    @Override
+    public void close() {
+        flusher.shutdown();
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            try {
+                seal(activeSegment);
+            } catch (UncheckedIOException e) {
+                logger.log(Level.WARNING, "Could not close journal segment", e.getCause());
+            }
+        }
+    }
+
+    /**
+     * Writes one record into a slot of the active segment, rolling to a new segment if the active one is full
+     * The type byte is written last, so a record is only ever seen complete by replay
+     */
+    private void append(byte type, RecordWriter recordWriter) {
+        Segment segment = activeSegment;
+        int start = segment.reserve();
+        while (start < 0) {
+            roll(segment);
+            segment = activeSegment;
+            start = segment.reserve();
+        }
+        try {
+            recordWriter.write(segment.buffer, start);
+            segment.buffer.put(start, type);
+        } finally {
+            segment.settledBytes.addAndGet(RECORD_SIZE);
+        }
+        if (!dirty) {
+            dirty = true;
+        }
+    }
+
+    /**
+     * Seals full, unless another thread has already rolled past it, and starts the next segment
+     */
+    private synchronized void roll(Segment full) {
+        if (closed) {
+            throw new IllegalStateException("Journal is closed");
+        }
+        if (activeSegment != full) {
+            return;
+        }
+        try {
+            seal(full);
+            sealedSegmentIds.add(full.id);
+            createSegment(full.id + 1);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Hands out no more slots of the segment, waits for the slots already handed out to be written, then forces and closes it
+     */
+    private static void seal(Segment segment) {
+        int end = Math.min(segment.nextSlot.getAndSet(segment.limit), segment.limit);
+        while (segment.settledBytes.get() < end - segment.firstSlot) {
+            Thread.onSpinWait();
+        }
+        segment.buffer.force();
+        try {
+            segment.channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (Exception e) {
+            logger.log(Level.WARNING, "Journal flush failed", e);
+        }
+    }
+
+    /**
+     * Finds the segments on disk, skipping those already merged into a compacted segment, and maps the newest for appends
+     */
+    private void openSegments() throws IOException {
+        TreeMap<Long, Path> segments = new TreeMap<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                String fileName = file.getFileName().toString();
+                if (fileName.endsWith(COMPACTING_SUFFIX)) {
+                    Files.delete(file);
+                } else if (fileName.startsWith(SEGMENT_PREFIX) && fileName.endsWith(SEGMENT_SUFFIX)) {
+                    segments.put(Long.parseLong(fileName.substring(SEGMENT_PREFIX.length(), fileName.length() - SEGMENT_SUFFIX.length())), file);
+                }
+            }
+        }
+
+        for (Map.Entry<Long, Path> segment : new ArrayList<>(segments.entrySet())) {
+            long firstCoveredSegmentId = readFirstCoveredSegmentId(segment.getValue());
+            for (long coveredId = firstCoveredSegmentId; coveredId < segment.getKey(); coveredId++) {
+                Path covered = segments.remove(coveredId);
+                if (Objects.nonNull(covered)) {
+                    Files.delete(covered);
+                }
+            }
+        }
+
+        if (segments.isEmpty()) {
+            createSegment(1);
+            return;
+        }
+        long lastSegmentId = segments.lastKey();
+        sealedSegmentIds.addAll(segments.headMap(lastSegmentId).keySet());
+        FileChannel channel = FileChannel.open(segmentPath(lastSegmentId), StandardOpenOption.READ, StandardOpenOption.WRITE);
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(channel.size(), RECORD_SIZE));
+        int position = RECORD_SIZE;
+        while (position + RECORD_SIZE <= buffer.capacity() && buffer.get(position) != 0) {
+            position += RECORD_SIZE;
+        }
+        activeSegment = new Segment(lastSegmentId, channel, buffer, position);
+    }
+
+    private void createSegment(long segmentId) throws IOException {
+        FileChannel channel = FileChannel.open(segmentPath(segmentId), StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        buffer.put(headerRecord(segmentId, segmentId));
+        activeSegment = new Segment(segmentId, channel, buffer, RECORD_SIZE);
+    }
+
+    private ByteBuffer headerRecord(long segmentId, long firstCoveredSegmentId) {
+        ByteBuffer header = ByteBuffer.allocate(RECORD_SIZE);
+        header.put(0, SEGMENT_HEADER);
+        header.putInt(4, MAGIC);
+        header.putLong(8, segmentId);
+        header.putLong(16, firstCoveredSegmentId);
+        return header;
+    }
+
+    private long readFirstCoveredSegmentId(Path segment) throws IOException {
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(RECORD_SIZE);
+            channel.read(header, 0);
+            if (header.get(0) != SEGMENT_HEADER || header.getInt(4) != MAGIC) {
+                throw new IOException("Not a journal segment: " + segment);
+            }
+            return header.getLong(16);
+        }
+    }
+
+    /**
+     * Calls consumer with a buffer positioned at each record of the segment until the first empty slot
+     */
+    private static void forEachRecord(Path segment, Consumer<ByteBuffer> consumer) throws IOException {
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            for (int position = RECORD_SIZE; position + RECORD_SIZE <= buffer.capacity() && buffer.get(position) != 0; position += RECORD_SIZE) {
+                buffer.position(position);
+                consumer.accept(buffer);
+            }
+        }
+    }
+
+    /**
+     * Turns records back into handler calls, holding a game of more than two players back until its GAME_PLAYER records are read
+     * A game whose player records were never written, because the process stopped in between, is never handed over
+     */
+    private static final class RecordDispatcher {
+        private final RecordHandler handler;
+        private final Map<String, PendingGame> pendingGames = new HashMap<>();
+
+        private RecordDispatcher(RecordHandler handler) {
+            this.handler = handler;
+        }
+
+        private void dispatch(ByteBuffer record) {
+            int start = record.position();
+            switch (record.get(start)) {
+                case PLAYER_RECORD:
+                    int nameLength = record.get(start + 3);
+                    byte[] name = new byte[nameLength];
+                    for (int index = 0; index < nameLength; index++) {
+                        name[index] = record.get(start + 20 + index);
+                    }
+                    int strategy = record.get(start + 2);
+                    handler.onPlayer(Player.builder()
+                            .id(getId(record, start + 4))
+                            .name(new String(name, StandardCharsets.UTF_8))
+                            .playerType(PlayerType.values()[record.get(start + 1)])
+                            .moveStrategyType(strategy == 0 ? null : MoveStrategyType.values()[strategy - 1])
+                            .build());
+                    break;
+                case GAME_RECORD:
+                    // Records written before boards could be rectangular or hold more than two players leave those fields as 0
+                    PendingGame pendingGame = new PendingGame();
+                    pendingGame.gameId = getId(record, start + 8);
+                    pendingGame.playerIds = new ArrayList<>(Arrays.asList(getId(record, start + 24), getId(record, start + 40)));
+                    pendingGame.numberOfPlayers = Math.max(2, record.get(start + 2));
+                    pendingGame.numberOfColumns = record.getInt(start + 4);
+                    int numberOfRows = record.getInt(start + 56);
+                    int winLength = record.getInt(start + 60);
+                    pendingGame.numberOfRows = numberOfRows == 0 ? pendingGame.numberOfColumns : numberOfRows;
+                    pendingGame.winLength = winLength == 0 ? pendingGame.numberOfColumns : winLength;
+                    pendingGame.tossWinnerIndex = record.get(start + 1);
+                    pendingGames.put(pendingGame.gameId, pendingGame);
+                    handOver(pendingGame);
+                    break;
+                case GAME_PLAYER_RECORD:
+                    PendingGame joinedGame = pendingGames.get(getId(record, start + 16));
+                    if (Objects.nonNull(joinedGame) && joinedGame.playerIds.size() == record.get(start + 1)) {
+                        joinedGame.playerIds.add(getId(record, start + 32));
+                        handOver(joinedGame);
+                    }
+                    break;
+                case MOVE_RECORD:
+                    handler.onMove(getId(record, start + 16), getId(record, start + 32),
+                            record.getInt(start + 4), record.getInt(start + 8));
+                    break;
+                case UNDO_RECORD:
+                    handler.onUndo(getId(record, start + 16));
+                    break;
+                case REMOVE_GAME_RECORD:
+                    handler.onRemoveGame(getId(record, start + 16));
+                    break;
+                default:
+                    throw new IllegalStateException("Unknown journal record type: " + record.get(start));
+            }
+        }
+
+        private void handOver(PendingGame pendingGame) {
+            if (pendingGame.playerIds.size() == pendingGame.numberOfPlayers) {
+                pendingGames.remove(pendingGame.gameId);
+                handler.onGame(pendingGame.gameId, pendingGame.playerIds, pendingGame.numberOfRows, pendingGame.numberOfColumns,
+                        pendingGame.winLength, pendingGame.tossWinnerIndex);
+            }
+        }
+    }
+
+    /**
+     * A game record whose GAME_PLAYER records are still to be read
+     */
+    private static final class PendingGame {
+        private String gameId;
+        private List<String> playerIds;
+        private int numberOfPlayers;
+        private int numberOfRows;
+        private int numberOfColumns;
+        private int winLength;
+        private int tossWinnerIndex;
+    }
+
+    private static void putId(ByteBuffer record, int offset, JournalId id) {
+        record.putLong(offset, id.getMostSignificantBits());
+        record.putLong(offset + 8, id.getLeastSignificantBits());
+    }
+
+    private static String getId(ByteBuffer record, int offset) {
+        return new UUID(record.getLong(offset), record.getLong(offset + 8)).toString();
+    }
+
+    private Path segmentPath(long segmentId) {
+        return directory.resolve(SEGMENT_PREFIX + segmentId + SEGMENT_SUFFIX);
+    }
+
+    private interface RecordWriter {
+        /**
+         * Fills a record slot with absolute puts, leaving its first byte, the record type, to the caller
+         */
+        void write(ByteBuffer record, int start);
+    }
+
+    /**
+     * A mapped segment file and the bookkeeping of its record slots
+     */
+    private static final class Segment {
+        private final long id;
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+        private final int firstSlot;
+        /**
+         * End of the last whole record slot
+         */
+        private final int limit;
+        /**
+         * Offset of the next slot to hand out, at or past limit once the segment is full or sealed
+         */
+        private final AtomicInteger nextSlot;
+        /**
+         * Bytes of the handed out slots that have been written
+         */
+        private final AtomicInteger settledBytes = new AtomicInteger();
+
+        private Segment(long id, FileChannel channel, MappedByteBuffer buffer, int firstSlot) {
+            this.id = id;
+            this.channel = channel;
+            this.buffer = buffer;
+            this.firstSlot = firstSlot;
+            this.limit = buffer.capacity() - buffer.capacity() % RECORD_SIZE;
+            this.nextSlot = new AtomicInteger(firstSlot);
+        }
+
+        /**
+         * @return offset of a free record slot, -1 if the segment is full
+         */
+        private int reserve() {
+            int start = nextSlot.getAndAdd(RECORD_SIZE);
+            return start <= limit - RECORD_SIZE ? start : -1;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package org.example.repository;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * How long an ExpiringGameRepository keeps games and players after their last activity
+ */
+@Data
+@Builder
+public class GameLifecyclePolicy {
+    public static final String FINISHED_GAME_TTL_PROPERTY = "tictactoe.game.finished.ttl.millis";
+    public static final String IDLE_GAME_TIMEOUT_PROPERTY = "tictactoe.game.idle.timeout.millis";
+    public static final String IDLE_PLAYER_TIMEOUT_PROPERTY = "tictactoe.player.idle.timeout.millis";
+
+    /**
+     * Time a won or drawn game is kept after its last move
+     */
+    @Builder.Default
+    long finishedGameTtlMillis = TimeUnit.MINUTES.toMillis(10);
+    /**
+     * Time an ongoing game is kept without a move before it is considered abandoned
+     */
+    @Builder.Default
+    long idleGameTimeoutMillis = TimeUnit.HOURS.toMillis(1);
+    /**
+     * Time a player who is in no game is kept after their last game or since they were added
+     */
+    @Builder.Default
+    long idlePlayerTimeoutMillis = TimeUnit.HOURS.toMillis(1);
+    /**
+     * Resolution of the expiry timer, games and players are removed at most one tick late
+     */
+    @Builder.Default
+    long tickMillis = TimeUnit.SECONDS.toMillis(1);
+    /**
+     * Ticks per turn of the timer wheel
+     */
+    @Builder.Default
+    int numberOfSlots = 512;
+
+    /**
+     * @return the default policy, with the times given by the tictactoe.game.* and tictactoe.player.* properties
+     */
+    public static GameLifecyclePolicy fromSystemProperties() {
+        GameLifecyclePolicy defaults = GameLifecyclePolicy.builder().build();
+        return GameLifecyclePolicy.builder()
+                .finishedGameTtlMillis(Long.getLong(FINISHED_GAME_TTL_PROPERTY, defaults.getFinishedGameTtlMillis()))
+                .idleGameTimeoutMillis(Long.getLong(IDLE_GAME_TIMEOUT_PROPERTY, defaults.getIdleGameTimeoutMillis()))
+                .idlePlayerTimeoutMillis(Long.getLong(IDLE_PLAYER_TIMEOUT_PROPERTY, defaults.getIdlePlayerTimeoutMillis()))
+                .build();
+    }
+}
@@ -2,14 +2,46 @@ package org.example.repository;
 
 import org.example.model.*;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface GameRepository {
     Game initialiseGame(Player player1, Player player2, int numberOfCellsPerRow, Player tossWinner);
+    Game initialiseGame(String gameId, Player player1, Player player2, int numberOfCellsPerRow, Player tossWinner);
+    Game initialiseGame(List<Player> players, int numberOfRows, int numberOfColumns, int winLength, Player tossWinner);
+    Game initialiseGame(String gameId, List<Player> players, int numberOfRows, int numberOfColumns, int winLength, Player tossWinner);
     Player addPlayer(Player player);
     Game getGameFromId(String gameId);
+    Player getPlayerFromId(String playerId);
+    Collection<Game> getGames();
+    Collection<Player> getPlayers();
     Board getBoardFromGame(Game game);
     Move createMove(Player player, int rowValue, int columnValue);
     boolean addMoveToMovesList(String gameId, Move move);
+
+    /**
+     * Adds moves of one game to its list of moves in one write, in the order they were played
+     * @param game the game, already looked up
+     * @param moves
+     * @return true if the moves are added
+     */
+    default boolean addMovesToMovesList(Game game, List<Move> moves) {
+        for (Move move : moves) {
+            addMoveToMovesList(game.getId(), move);
+        }
+        return true;
+    }
+
     boolean updateGameBoardWithMove(Move move, Board board);
+    int removeLastMove(String gameId);
+    Game removeGame(String gameId);
+    Player removePlayer(String playerId);
+
+    /**
+     * @param gameId
+     * @return index of the shard holding the game, writes to games of one shard share its lock
+     */
+    default int getShardIndex(String gameId) {
+        return 0;
+    }
 }
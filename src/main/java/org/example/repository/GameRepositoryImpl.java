@@ -8,8 +8,8 @@ import java.util.*;
 import java.util.logging.Logger;
 
 public class GameRepositoryImpl implements GameRepository {
-    private final Map<String, Player> playerMap = new HashMap<>();
-    private final Map<String, Game> gameMap = new HashMap<>();
+    private final Map<String, Player> playerMap;
+    private final Map<String, Game> gameMap;
 
     private static final Logger logger = Logger.getLogger(GameRepositoryImpl.class.getName());
 
@@ -17,6 +17,15 @@ public class GameRepositoryImpl implements GameRepository {
         LoggerConfig.configureLogger(logger);
     }
 
+    public GameRepositoryImpl() {
+        this(new HashMap<>(), new HashMap<>());
+    }
+
+    protected GameRepositoryImpl(Map<String, Player> playerMap, Map<String, Game> gameMap) {
+        this.playerMap = playerMap;
+        this.gameMap = gameMap;
+    }
+
     /**
      * @param player1
      * @param player2
@@ -25,62 +34,120 @@ public class GameRepositoryImpl implements GameRepository {
      */
     @Override
     public Game initialiseGame(Player player1, Player player2, int numberOfCellsPerRow, Player tossWinner) {
-        Board board = initialiseBoard(numberOfCellsPerRow);
+        return initialiseGame(UUID.randomUUID().toString(), player1, player2, numberOfCellsPerRow, tossWinner);
+    }
+
+    /**
+     * @param gameId id to create the game with, for example when restoring it
+     * @param player1
+     * @param player2
+     * @param numberOfCellsPerRow
+     * @return returns a created Game object
+     */
+    @Override
+    public Game initialiseGame(String gameId, Player player1, Player player2, int numberOfCellsPerRow, Player tossWinner) {
+        return initialiseGame(gameId, Arrays.asList(player1, player2), numberOfCellsPerRow, numberOfCellsPerRow, numberOfCellsPerRow, tossWinner);
+    }
+
+    /**
+     * @param players two or more players
+     * @param numberOfRows
+     * @param numberOfColumns
+     * @param winLength marks in a row needed to win
+     * @param tossWinner player who moves first, the others follow in list order
+     * @return returns a created Game object
+     */
+    @Override
+    public Game initialiseGame(List<Player> players, int numberOfRows, int numberOfColumns, int winLength, Player tossWinner) {
+        return initialiseGame(UUID.randomUUID().toString(), players, numberOfRows, numberOfColumns, winLength, tossWinner);
+    }
+
+    /**
+     * Players take the symbols 0, 1, 2... in turn order from the toss winner, so with two players the toss winner is X
+     * @param gameId id to create the game with, for example when restoring it
+     * @param players two or more players
+     * @param numberOfRows
+     * @param numberOfColumns
+     * @param winLength marks in a row needed to win
+     * @param tossWinner player who moves first, the others follow in list order
+     * @return returns a created Game object
+     */
+    @Override
+    public Game initialiseGame(String gameId, List<Player> players, int numberOfRows, int numberOfColumns, int winLength, Player tossWinner) {
+        if (players.size() < 2 || players.size() > CellValue.MAX_SYMBOLS) {
+            throw new IllegalArgumentException("A game needs 2 to " + CellValue.MAX_SYMBOLS + " players");
+        }
+        players = new ArrayList<>(players);
+        Board board = initialiseBoard(numberOfRows, numberOfColumns, winLength, players.size());
+        int currentPlayerIndex = getCurrentPlayerIndexFromTossWinner(tossWinner, players);
+        MoveHistory moveHistory = new MoveHistory(board.getNumberOfCells(), players.size(), currentPlayerIndex);
         Game game = Game.builder()
-                .id(UUID.randomUUID().toString())
+                .id(gameId)
                 .gameState(GameState.ONGOING)
-                .moves(new ArrayList<>())
-                .players(new ArrayList<>(Arrays.asList(player1, player2)))
+                .moveHistory(moveHistory)
+                .moves(moveHistory.asMoveList(players, numberOfColumns))
+                .players(players)
                 .board(board)
+                .currentPlayerIndex(currentPlayerIndex)
+                .winTracker(board.getNumberOfCells() > BoardCells.MAX_PACKED_CELLS && board.isSquareWithFullLineWins()
+                        ? new WinTracker(numberOfColumns, players.size()) : null)
                 .build();
         gameMap.put(game.getId(), game);
 
-        int currentPlayerIndex = getCurrentPlayerIndexFromTossWinner(tossWinner, game.getId());
-        game.setCurrentPlayerIndex(currentPlayerIndex);
-
 
-        for(int index = 0; index < game.getPlayers().size(); index ++) {
-            if (currentPlayerIndex != index) {
-                game.getPlayers().get(index).setMarkCellValueAs(CellValue.O);
-            }
+        for(int index = 0; index < players.size(); index ++) {
+            players.get(index).setSymbol((index - currentPlayerIndex + players.size()) % players.size());
         }
 
 
         return game;
     }
 
-    private int getCurrentPlayerIndexFromTossWinner(Player tossWinner, String gameId) {
-        Game game = getGameFromId(gameId);
-        for(int index = 0; index < game.getPlayers().size(); index++) {
-            if (Objects.equals(tossWinner.getId(), game.getPlayers().get(index).getId())) {
+    private int getCurrentPlayerIndexFromTossWinner(Player tossWinner, List<Player> players) {
+        for(int index = 0; index < players.size(); index++) {
+            if (Objects.equals(tossWinner.getId(), players.get(index).getId())) {
                 return index;
             }
         }
         return 0;
     }
 
-    private Board initialiseBoard(int numberOfCellsPerRow) {
-        CellValue[][] cellValues = new CellValue[numberOfCellsPerRow][numberOfCellsPerRow];
-        for(int i = 0; i < numberOfCellsPerRow; i++) {
-            Arrays.fill(cellValues[i], CellValue.EMPTY);
+    /**
+     * Boards of up to 64 cells are packed into two long bitmasks and win checks use precomputed line masks,
+     * larger boards use a long[] bitset and check the cells within winLength of the move,
+     * except square boards won by a full line, which keep a WinTracker on the game for constant time win checks
+     * @param numberOfRows
+     * @param numberOfColumns
+     * @param winLength
+     * @param numberOfPlayers
+     * @return an empty board
+     */
+    private Board initialiseBoard(int numberOfRows, int numberOfColumns, int winLength, int numberOfPlayers) {
+        if (numberOfRows < 1 || numberOfColumns < 1) {
+            throw new IllegalArgumentException("Board needs at least one row and one column");
+        }
+        if (winLength < 1 || winLength > Math.max(numberOfRows, numberOfColumns)) {
+            throw new IllegalArgumentException("winLength must be between 1 and the longer side of the board");
         }
-
         return Board.builder()
-                .cellValues(cellValues)
-                .numberOfCellsPerRow(numberOfCellsPerRow)
+                .cells(BoardCells.forShape(numberOfRows, numberOfColumns, winLength, numberOfPlayers))
+                .numberOfRows(numberOfRows)
+                .numberOfCellsPerRow(numberOfColumns)
+                .winLength(winLength)
                 .build();
     }
 
 
     /**
-     * @param player
+     * @param player a player without an id gets a new one, a player with an id (for example when restoring it) keeps it
      * @return a player object
      */
     @Override
     public Player addPlayer(Player player) {
-        String playerId = UUID.randomUUID().toString();
-        player.setId(playerId);
-        playerMap.put(playerId, player);
+        if (Objects.isNull(player.getId())) {
+            player.setId(UUID.randomUUID().toString());
+        }
+        playerMap.put(player.getId(), player);
         return player;
     }
 
@@ -98,12 +165,70 @@ public class GameRepositoryImpl implements GameRepository {
     }
 
 
+    /**
+     * @param playerId
+     * @return player object with given playerId
+     */
+    @Override
+    public Player getPlayerFromId(String playerId) {
+        Player player = playerMap.get(playerId);
+        if (Objects.isNull(player)) {
+            throw new UserException("Player id not found: " + playerId);
+        }
+        return player;
+    }
+
+    /**
+     * Forgets a game, for example once it has been handed to another node
+     * @param gameId
+     * @return the removed game
+     */
+    @Override
+    public Game removeGame(String gameId) {
+        Game game = gameMap.remove(gameId);
+        if (Objects.isNull(game)) {
+            throw new UserException("Game id not found: " + gameId);
+        }
+        return game;
+    }
+
+    /**
+     * Forgets a player, for example once they have been idle in no game for a while
+     * @param playerId
+     * @return the removed player
+     */
+    @Override
+    public Player removePlayer(String playerId) {
+        Player player = playerMap.remove(playerId);
+        if (Objects.isNull(player)) {
+            throw new UserException("Player id not found: " + playerId);
+        }
+        return player;
+    }
+
+    /**
+     * @return read-only view of all games
+     */
+    @Override
+    public Collection<Game> getGames() {
+        return Collections.unmodifiableCollection(gameMap.values());
+    }
+
+    /**
+     * @return read-only view of all players
+     */
+    @Override
+    public Collection<Player> getPlayers() {
+        return Collections.unmodifiableCollection(playerMap.values());
+    }
+
     @Override
     public Board getBoardFromGame(Game game) {
         return game.getBoard();
     }
 
     /**
+     * Called once per move, so it uses the constructor: escape analysis does not always remove the builder
      * @param player
      * @param rowValue
      * @param columnValue
@@ -111,32 +236,56 @@ public class GameRepositoryImpl implements GameRepository {
      */
     @Override
     public Move createMove(Player player, int rowValue, int columnValue) {
-        return Move.builder()
-                .rowValue(rowValue)
-                .columnValue(columnValue)
-                .player(player)
-                .build();
+        return new Move(player, rowValue, columnValue);
     }
 
     /**
+     * Only the cell is kept, the move belongs to the player whose turn it is
      * @param gameId
      * @return true(boolean) corresponding to true if move is added to Game's list of moves
      */
     @Override
     public boolean addMoveToMovesList(String gameId, Move move) {
         Game game = getGameFromId(gameId);
-        List<Move> gameMoves = game.getMoves();
-        gameMoves.add(move);
+        game.getMoveHistory().add(move.getRowValue() * game.getBoard().getNumberOfCellsPerRow() + move.getColumnValue());
         return true;
     }
 
+    /**
+     * Only the cells are kept, the moves belong to the players whose turns they are
+     * @param game
+     * @param moves
+     * @return true(boolean) corresponding to true if moves are added to Game's list of moves
+     */
+    @Override
+    public boolean addMovesToMovesList(Game game, List<Move> moves) {
+        MoveHistory moveHistory = game.getMoveHistory();
+        int numberOfCellsPerRow = game.getBoard().getNumberOfCellsPerRow();
+        for (Move move : moves) {
+            moveHistory.add(move.getRowValue() * numberOfCellsPerRow + move.getColumnValue());
+        }
+        return true;
+    }
+
+    /**
+     * Takes the last move off the game's history and board
+     * @param gameId
+     * @return cell index of the move taken back
+     */
+    @Override
+    public int removeLastMove(String gameId) {
+        Game game = getGameFromId(gameId);
+        int cellIndex = game.getMoveHistory().removeLast();
+        Board board = game.getBoard();
+        board.setSymbol(cellIndex / board.getNumberOfCellsPerRow(), cellIndex % board.getNumberOfCellsPerRow(), CellValue.EMPTY_SYMBOL);
+        return cellIndex;
+    }
+
     @Override
     public boolean updateGameBoardWithMove(Move move, Board board) {
         int row = move.getRowValue();
         int col = move.getColumnValue();
-        Player player = move.getPlayer();
-        CellValue markCellValueAs = player.getMarkCellValueAs();
-        board.getCellValues()[row][col] = markCellValueAs;
+        board.setSymbol(row, col, move.getPlayer().getSymbol());
         return true;
     }
 }
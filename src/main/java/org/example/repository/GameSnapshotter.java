@@ -0,0 +1,395 @@
+package org.example.repository;
+
+import org.example.exception.UserException;
+import org.example.model.Board;
+import org.example.model.Game;
+import org.example.model.GameState;
+import org.example.model.MoveHistory;
+import org.example.model.MoveStrategyType;
+import org.example.model.Player;
+import org.example.model.PlayerType;
+import org.example.model.WinTracker;
+import org.example.util.LoggerConfig;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+/**
+ * Writes point-in-time snapshots of every player and game next to the journal, so a restart loads the latest snapshot
+ * and replays only the journal segments written after it instead of the whole history
+ * A snapshot is named after the first journal segment it does not cover, older segments are deleted once it is on disk
+ * Only moves are stored per game, boards, win tracking, turns and game states are derived from them on load
+ */
+public class GameSnapshotter implements Closeable {
+    private static final int MAGIC = 0x54545453;
+    private static final int VERSION = 3;
+    private static final int SQUARE_BOARD_VERSION = 1;
+    private static final int TWO_PLAYER_VERSION = 2;
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final byte NONE = -1;
+    private static final String SNAPSHOT_PREFIX = "snapshot-";
+    private static final String SNAPSHOT_SUFFIX = ".bin";
+    private static final String TEMPORARY_SUFFIX = ".tmp";
+
+    private static final Logger logger = Logger.getLogger(GameSnapshotter.class.getName());
+
+    static {
+        LoggerConfig.configureLogger(logger);
+    }
+
+    private final Path directory;
+    private final JournaledGameRepository gameRepository;
+    private final ScheduledExecutorService scheduler;
+
+    public GameSnapshotter(Path directory, JournaledGameRepository gameRepository) throws IOException {
+        this.directory = directory;
+        this.gameRepository = gameRepository;
+        Files.createDirectories(directory);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "game-snapshotter");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Takes a snapshot every period until the snapshotter is closed
+     * @param period
+     * @param timeUnit
+     */
+    public void start(long period, TimeUnit timeUnit) {
+        scheduler.scheduleWithFixedDelay(this::snapshotQuietly, period, period, timeUnit);
+    }
+
+    /**
+     * Writes a snapshot and deletes the journal segments and snapshots it replaces
+     * Writes to the repository pause only while the journal rolls to a new segment and the games' moves are copied,
+     * the copies are written to the snapshot file after they resume and later moves are left to the new segment
+     * @return id of the first journal segment not covered by the snapshot
+     * @throws IOException
+     */
+    public long snapshot() throws IOException {
+        long startNanos = System.nanoTime();
+        Path temporary = directory.resolve(SNAPSHOT_PREFIX + System.nanoTime() + TEMPORARY_SUFFIX);
+        RepositoryImage repositoryImage = gameRepository.withWritesPaused(this::copyRepository);
+        long segmentId = repositoryImage.segmentId;
+        write(temporary, repositoryImage);
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+        Path snapshot = snapshotPath(segmentId);
+        Files.move(temporary, snapshot, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        deleteSnapshotsBefore(segmentId);
+        gameRepository.getGameJournal().deleteSegmentsBefore(segmentId);
+        logger.log(Level.INFO, "Wrote snapshot {0} in {1} ms",
+                new Object[]{snapshot.getFileName(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos)});
+        return segmentId;
+    }
+
+    /**
+     * Loads the newest snapshot in directory into an empty repository, which must not be journaled
+     * @param directory
+     * @param gameRepository
+     * @return id of the first journal segment to replay on top of the snapshot, 0 if there is no snapshot
+     * @throws IOException
+     */
+    public static long loadLatest(Path directory, GameRepository gameRepository) throws IOException {
+        Optional<Long> segmentId = findLatestSegmentId(directory);
+        if (!segmentId.isPresent()) {
+            return 0;
+        }
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshotPath(directory, segmentId.get())), BUFFER_SIZE))) {
+            int version = input.readInt() == MAGIC ? input.readInt() : NONE;
+            if (version < SQUARE_BOARD_VERSION || version > VERSION) {
+                throw new IOException("Not a game snapshot: " + snapshotPath(directory, segmentId.get()));
+            }
+            long storedSegmentId = input.readLong();
+            int numberOfPlayers = input.readInt();
+            for (int index = 0; index < numberOfPlayers; index++) {
+                gameRepository.addPlayer(readPlayer(input));
+            }
+            int numberOfGames = input.readInt();
+            for (int index = 0; index < numberOfGames; index++) {
+                readGame(input, gameRepository, version);
+            }
+            logger.log(Level.INFO, "Loaded {0} players and {1} games from snapshot {2}", new Object[]{numberOfPlayers, numberOfGames, storedSegmentId});
+            return storedSegmentId;
+        }
+    }
+
+    /**
+     * Writes one game and its players in the snapshot format, for example to hand the game over to another node
+     * @param output
+     * @param game
+     * @throws IOException
+     */
+    public static void writeGameWithPlayers(DataOutputStream output, Game game) throws IOException {
+        output.writeByte(game.getPlayers().size());
+        for (Player player : game.getPlayers()) {
+            writePlayer(output, player);
+        }
+        writeGame(output, GameImage.of(game));
+    }
+
+    /**
+     * Restores a game written by writeGameWithPlayers, adding those of its players the repository does not have yet
+     * @param input
+     * @param gameRepository
+     * @return the restored game
+     * @throws IOException
+     */
+    public static Game readGameWithPlayers(DataInputStream input, GameRepository gameRepository) throws IOException {
+        int numberOfPlayers = input.readByte();
+        for (int index = 0; index < numberOfPlayers; index++) {
+            Player player = readPlayer(input);
+            try {
+                gameRepository.getPlayerFromId(player.getId());
+            } catch (UserException e) {
+                gameRepository.addPlayer(player);
+            }
+        }
+        return readGame(input, gameRepository, VERSION);
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdown();
+    }
+
+    private void snapshotQuietly() {
+        try {
+            snapshot();
+        } catch (IOException | RuntimeException e) {
+            logger.log(Level.WARNING, "Could not write snapshot", e);
+        }
+    }
+
+    private RepositoryImage copyRepository(long segmentId) {
+        List<GameImage> gameImages = new ArrayList<>(gameRepository.getGames().size());
+        for (Game game : gameRepository.getGames()) {
+            gameImages.add(GameImage.of(game));
+        }
+        return new RepositoryImage(segmentId, new ArrayList<>(gameRepository.getPlayers()), gameImages);
+    }
+
+    private static void write(Path temporary, RepositoryImage repositoryImage) throws IOException {
+        try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary), BUFFER_SIZE))) {
+            output.writeInt(MAGIC);
+            output.writeInt(VERSION);
+            output.writeLong(repositoryImage.segmentId);
+            output.writeInt(repositoryImage.players.size());
+            for (Player player : repositoryImage.players) {
+                writePlayer(output, player);
+            }
+            output.writeInt(repositoryImage.gameImages.size());
+            for (GameImage gameImage : repositoryImage.gameImages) {
+                writeGame(output, gameImage);
+            }
+        }
+    }
+
+    private static void writePlayer(DataOutputStream output, Player player) throws IOException {
+        output.writeUTF(player.getId());
+        output.writeUTF(Objects.isNull(player.getName()) ? "" : player.getName());
+        output.writeByte(player.getPlayerType().ordinal());
+        output.writeByte(Objects.isNull(player.getMoveStrategyType()) ? NONE : player.getMoveStrategyType().ordinal());
+    }
+
+    private static Player readPlayer(DataInputStream input) throws IOException {
+        String id = input.readUTF();
+        String name = input.readUTF();
+        PlayerType playerType = PlayerType.values()[input.readByte()];
+        byte moveStrategyType = input.readByte();
+        return Player.builder()
+                .id(id)
+                .name(name)
+                .playerType(playerType)
+                .moveStrategyType(moveStrategyType == NONE ? null : MoveStrategyType.values()[moveStrategyType])
+                .build();
+    }
+
+    /**
+     * A game is its id, rows, columns and win length, players, the index of the player who moved first (and has symbol 0) and its moves as cell indices
+     */
+    private static void writeGame(DataOutputStream output, GameImage gameImage) throws IOException {
+        MoveHistory moveHistory = gameImage.moveHistory;
+        output.writeUTF(gameImage.gameId);
+        output.writeInt(gameImage.numberOfRows);
+        output.writeInt(gameImage.numberOfCellsPerRow);
+        output.writeInt(gameImage.winLength);
+        output.writeByte(gameImage.playerIds.size());
+        for (String playerId : gameImage.playerIds) {
+            output.writeUTF(playerId);
+        }
+        output.writeByte(moveHistory.getFirstPlayerIndex());
+        output.writeInt(moveHistory.size());
+        for (int index = 0; index < moveHistory.size(); index++) {
+            output.writeInt(moveHistory.getCellIndex(index));
+            output.writeByte(moveHistory.getPlayerIndex(index));
+        }
+    }
+
+    /**
+     * Version 1 snapshots hold square boards won by a full line and store only the number of cells per row,
+     * versions 1 and 2 hold two players without storing their number
+     */
+    private static Game readGame(DataInputStream input, GameRepository gameRepository, int version) throws IOException {
+        String gameId = input.readUTF();
+        int numberOfRows = input.readInt();
+        int numberOfCellsPerRow = version == SQUARE_BOARD_VERSION ? numberOfRows : input.readInt();
+        int winLength = version == SQUARE_BOARD_VERSION ? numberOfRows : input.readInt();
+        int numberOfPlayers = version <= TWO_PLAYER_VERSION ? 2 : input.readByte();
+        List<Player> players = new ArrayList<>(numberOfPlayers);
+        for (int index = 0; index < numberOfPlayers; index++) {
+            players.add(gameRepository.getPlayerFromId(input.readUTF()));
+        }
+        int firstPlayerIndex = input.readByte();
+        Game game = gameRepository.initialiseGame(gameId, players, numberOfRows, numberOfCellsPerRow, winLength, players.get(firstPlayerIndex));
+
+        Board board = game.getBoard();
+        WinTracker winTracker = game.getWinTracker();
+        int numberOfMoves = input.readInt();
+        int lastPlayerIndex = NONE;
+        boolean isWinnerDetermined = false;
+        for (int index = 0; index < numberOfMoves; index++) {
+            int cellIndex = input.readInt();
+            lastPlayerIndex = input.readByte();
+            int symbol = game.getPlayers().get(lastPlayerIndex).getSymbol();
+            int row = cellIndex / numberOfCellsPerRow;
+            int col = cellIndex % numberOfCellsPerRow;
+            board.setSymbol(row, col, symbol);
+            isWinnerDetermined = Objects.nonNull(winTracker) ? winTracker.recordMove(row, col, symbol) : board.completesLine(row, col, symbol);
+            game.getMoveHistory().add(cellIndex);
+        }
+        restoreGameState(game, lastPlayerIndex, isWinnerDetermined);
+        return game;
+    }
+
+    /**
+     * Derives state and turn from the last move, the same way the engine does after applying it
+     */
+    private static void restoreGameState(Game game, int lastPlayerIndex, boolean isWinnerDetermined) {
+        if (lastPlayerIndex == NONE) {
+            return;
+        }
+        Player lastPlayer = game.getPlayers().get(lastPlayerIndex);
+        if (isWinnerDetermined) {
+            game.setGameState(lastPlayer.getPlayerType() == PlayerType.COMPUTER ? GameState.WINNER_PLAYER_COMPUTER : GameState.WINNER_PLAYER_HUMAN);
+            game.setWinner(lastPlayer);
+            game.setCurrentPlayerIndex(lastPlayerIndex);
+        } else if (game.getMoveHistory().isFull()) {
+            game.setGameState(GameState.DRAW);
+            game.setCurrentPlayerIndex(lastPlayerIndex);
+        } else {
+            game.setCurrentPlayerIndex((lastPlayerIndex + 1) % game.getPlayers().size());
+        }
+    }
+
+    private void deleteSnapshotsBefore(long segmentId) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Optional<Long> fileSegmentId = parseSegmentId(file);
+                if (fileSegmentId.isPresent() && fileSegmentId.get() < segmentId) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+    }
+
+    private static Optional<Long> findLatestSegmentId(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return Optional.empty();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(GameSnapshotter::parseSegmentId)
+                    .filter(Optional::isPresent)
+                    .map(Optional::get)
+                    .max(Long::compare);
+        }
+    }
+
+    private static Optional<Long> parseSegmentId(Path file) {
+        String fileName = file.getFileName().toString();
+        if (!fileName.startsWith(SNAPSHOT_PREFIX) || !fileName.endsWith(SNAPSHOT_SUFFIX)) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(Long.parseLong(fileName.substring(SNAPSHOT_PREFIX.length(), fileName.length() - SNAPSHOT_SUFFIX.length())));
+        } catch (NumberFormatException e) {
+            return Optional.empty();
+        }
+    }
+
+    private Path snapshotPath(long segmentId) {
+        return snapshotPath(directory, segmentId);
+    }
+
+    private static Path snapshotPath(Path directory, long segmentId) {
+        return directory.resolve(SNAPSHOT_PREFIX + segmentId + SNAPSHOT_SUFFIX);
+    }
+
+    /**
+     * Players and games of the repository as they were when the journal rolled to segmentId
+     */
+    private static final class RepositoryImage {
+        private final long segmentId;
+        private final List<Player> players;
+        private final List<GameImage> gameImages;
+
+        private RepositoryImage(long segmentId, List<Player> players, List<GameImage> gameImages) {
+            this.segmentId = segmentId;
+            this.players = players;
+            this.gameImages = gameImages;
+        }
+    }
+
+    /**
+     * What a snapshot stores of a game, its moves copied so the game can move on while the image is written
+     */
+    private static final class GameImage {
+        private final String gameId;
+        private final int numberOfRows;
+        private final int numberOfCellsPerRow;
+        private final int winLength;
+        private final List<String> playerIds;
+        private final MoveHistory moveHistory;
+
+        private GameImage(String gameId, int numberOfRows, int numberOfCellsPerRow, int winLength, List<String> playerIds, MoveHistory moveHistory) {
+            this.gameId = gameId;
+            this.numberOfRows = numberOfRows;
+            this.numberOfCellsPerRow = numberOfCellsPerRow;
+            this.winLength = winLength;
+            this.playerIds = playerIds;
+            this.moveHistory = moveHistory;
+        }
+
+        private static GameImage of(Game game) {
+            List<String> playerIds = new ArrayList<>(game.getPlayers().size());
+            for (Player player : game.getPlayers()) {
+                playerIds.add(player.getId());
+            }
+            Board board = game.getBoard();
+            return new GameImage(game.getId(), board.getNumberOfRows(), board.getNumberOfCellsPerRow(), board.getWinLength(),
+                    playerIds, game.getMoveHistory().copy());
+        }
+    }
+}
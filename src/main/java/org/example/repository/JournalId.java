@@ -0,0 +1,52 @@
+package org.example.repository;
+
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Id of a player or game in the form the journal stores it, the two longs of a UUID
+ * Ids are parsed once, when their player or game is created, so a malformed id is rejected before anything is stored
+ */
+public final class JournalId {
+    private final long mostSignificantBits;
+    private final long leastSignificantBits;
+
+    private JournalId(long mostSignificantBits, long leastSignificantBits) {
+        this.mostSignificantBits = mostSignificantBits;
+        this.leastSignificantBits = leastSignificantBits;
+    }
+
+    /**
+     * @param id
+     * @return the id encoded for the journal
+     * @throws IllegalArgumentException if id is not a UUID in its canonical lower case form, which is how replay gives it back
+     */
+    public static JournalId of(String id) {
+        if (Objects.isNull(id)) {
+            throw new IllegalArgumentException("Journaled ids cannot be null");
+        }
+        UUID uuid;
+        try {
+            uuid = UUID.fromString(id);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Journaled ids must be UUIDs: " + id, e);
+        }
+        if (!uuid.toString().equals(id)) {
+            throw new IllegalArgumentException("Journaled ids must be UUIDs: " + id);
+        }
+        return new JournalId(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+    }
+
+    long getMostSignificantBits() {
+        return mostSignificantBits;
+    }
+
+    long getLeastSignificantBits() {
+        return leastSignificantBits;
+    }
+
+    @Override
+    public String toString() {
+        return new UUID(mostSignificantBits, leastSignificantBits).toString();
+    }
+}
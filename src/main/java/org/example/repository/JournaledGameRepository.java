@@ -0,0 +1,287 @@
+package org.example.repository;
+
+import org.example.exception.UserException;
+import org.example.model.*;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * GameRepository that records every player, game and move in a GameJournal before handing it to an in-memory repository
+ * Games are rebuilt after a restart by replaying the journal through the engine, see JournalRecovery
+ * Writes share a read lock, so a snapshot can take the write lock to capture state that matches a journal position
+ * The journal stores ids as UUIDs, a caller-chosen id of another form is rejected before its player or game is created
+ */
+public class JournaledGameRepository implements GameRepository, Closeable {
+    private final GameRepository delegate;
+    private final GameJournal gameJournal;
+    private final ReadWriteLock snapshotLock = new ReentrantReadWriteLock();
+    /**
+     * Player and game ids encoded for the journal, filled as they are created or, for those loaded from a snapshot, first journaled
+     */
+    private final Map<String, JournalId> journalIds = new ConcurrentHashMap<>();
+    private volatile boolean replaying;
+
+    public JournaledGameRepository(GameRepository delegate, GameJournal gameJournal) {
+        this.delegate = delegate;
+        this.gameJournal = gameJournal;
+    }
+
+    /**
+     * Replays the journal with journaling suspended, so the replayed records are not appended again
+     * @param handler
+     * @throws IOException
+     */
+    public void replay(GameJournal.RecordHandler handler) throws IOException {
+        replay(handler, 0);
+    }
+
+    /**
+     * Replays the journal tail from fromSegmentId, deleting the older segments a snapshot already covers
+     * @param handler
+     * @param fromSegmentId
+     * @throws IOException
+     */
+    public void replay(GameJournal.RecordHandler handler, long fromSegmentId) throws IOException {
+        gameJournal.deleteSegmentsBefore(fromSegmentId);
+        replaying = true;
+        try {
+            gameJournal.replay(handler, fromSegmentId);
+        } finally {
+            replaying = false;
+        }
+    }
+
+    /**
+     * Runs action while no write is in progress, after rolling the journal to a new segment
+     * Writes wait for the action, so it should only copy what it needs and leave any I/O until it returns
+     * @param action receives the id of the first journal segment holding writes made after it returns
+     * @return the action's result
+     * @throws IOException
+     */
+    public <T> T withWritesPaused(SegmentAction<T> action) throws IOException {
+        snapshotLock.writeLock().lock();
+        try {
+            return action.apply(gameJournal.rollSegment());
+        } finally {
+            snapshotLock.writeLock().unlock();
+        }
+    }
+
+    public interface SegmentAction<T> {
+        T apply(long nextSegmentId) throws IOException;
+    }
+
+    /**
+     * Compacts the sealed journal segments, dropping the records of games that are no longer ongoing or were removed
+     * @return number of records dropped
+     * @throws IOException
+     */
+    public int compact() throws IOException {
+        return gameJournal.compact(gameId -> {
+            try {
+                return delegate.getGameFromId(gameId).getGameState() != GameState.ONGOING;
+            } catch (UserException e) {
+                return true;
+            } catch (RuntimeException e) {
+                return false;
+            }
+        });
+    }
+
+    public GameJournal getGameJournal() {
+        return gameJournal;
+    }
+
+    @Override
+    public Game initialiseGame(Player player1, Player player2, int numberOfCellsPerRow, Player tossWinner) {
+        return initialiseGame(Arrays.asList(player1, player2), numberOfCellsPerRow, numberOfCellsPerRow, numberOfCellsPerRow, tossWinner);
+    }
+
+    @Override
+    public Game initialiseGame(String gameId, Player player1, Player player2, int numberOfCellsPerRow, Player tossWinner) {
+        return initialiseGame(gameId, Arrays.asList(player1, player2), numberOfCellsPerRow, numberOfCellsPerRow, numberOfCellsPerRow, tossWinner);
+    }
+
+    @Override
+    public Game initialiseGame(List<Player> players, int numberOfRows, int numberOfColumns, int winLength, Player tossWinner) {
+        snapshotLock.readLock().lock();
+        try {
+            return journalGame(delegate.initialiseGame(players, numberOfRows, numberOfColumns, winLength, tossWinner));
+        } finally {
+            snapshotLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Game initialiseGame(String gameId, List<Player> players, int numberOfRows, int numberOfColumns, int winLength, Player tossWinner) {
+        journalIds.put(gameId, JournalId.of(gameId));
+        snapshotLock.readLock().lock();
+        try {
+            return journalGame(delegate.initialiseGame(gameId, players, numberOfRows, numberOfColumns, winLength, tossWinner));
+        } finally {
+            snapshotLock.readLock().unlock();
+        }
+    }
+
+    private Game journalGame(Game game) {
+        if (!replaying) {
+            Board board = game.getBoard();
+            List<JournalId> playerIds = new ArrayList<>(game.getPlayers().size());
+            for (Player player : game.getPlayers()) {
+                playerIds.add(journalId(player.getId()));
+            }
+            gameJournal.appendGame(journalId(game.getId()), playerIds,
+                    board.getNumberOfRows(), board.getNumberOfCellsPerRow(), board.getWinLength(), game.getCurrentPlayerIndex());
+        }
+        return game;
+    }
+
+    @Override
+    public Player addPlayer(Player player) {
+        if (Objects.nonNull(player.getId())) {
+            journalIds.put(player.getId(), JournalId.of(player.getId()));
+        }
+        snapshotLock.readLock().lock();
+        try {
+            Player addedPlayer = delegate.addPlayer(player);
+            JournalId playerId = journalId(addedPlayer.getId());
+            if (!replaying) {
+                gameJournal.appendPlayer(playerId, addedPlayer);
+            }
+            return addedPlayer;
+        } finally {
+            snapshotLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Game getGameFromId(String gameId) {
+        return delegate.getGameFromId(gameId);
+    }
+
+    @Override
+    public Player getPlayerFromId(String playerId) {
+        return delegate.getPlayerFromId(playerId);
+    }
+
+    @Override
+    public Collection<Game> getGames() {
+        return delegate.getGames();
+    }
+
+    @Override
+    public Collection<Player> getPlayers() {
+        return delegate.getPlayers();
+    }
+
+    @Override
+    public Board getBoardFromGame(Game game) {
+        return delegate.getBoardFromGame(game);
+    }
+
+    @Override
+    public Move createMove(Player player, int rowValue, int columnValue) {
+        return delegate.createMove(player, rowValue, columnValue);
+    }
+
+    @Override
+    public boolean addMoveToMovesList(String gameId, Move move) {
+        snapshotLock.readLock().lock();
+        try {
+            if (!replaying) {
+                gameJournal.appendMove(journalId(gameId), journalId(move.getPlayer().getId()), move.getRowValue(), move.getColumnValue());
+            }
+            return delegate.addMoveToMovesList(gameId, move);
+        } finally {
+            snapshotLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean addMovesToMovesList(Game game, List<Move> moves) {
+        snapshotLock.readLock().lock();
+        try {
+            if (!replaying) {
+                JournalId gameId = journalId(game.getId());
+                for (Move move : moves) {
+                    gameJournal.appendMove(gameId, journalId(move.getPlayer().getId()), move.getRowValue(), move.getColumnValue());
+                }
+            }
+            return delegate.addMovesToMovesList(game, moves);
+        } finally {
+            snapshotLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public int removeLastMove(String gameId) {
+        snapshotLock.readLock().lock();
+        try {
+            if (!replaying) {
+                gameJournal.appendUndo(journalId(gameId));
+            }
+            return delegate.removeLastMove(gameId);
+        } finally {
+            snapshotLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Game removeGame(String gameId) {
+        snapshotLock.readLock().lock();
+        try {
+            Game game = delegate.removeGame(gameId);
+            if (!replaying) {
+                gameJournal.appendRemoveGame(journalId(gameId));
+            }
+            journalIds.remove(gameId);
+            return game;
+        } finally {
+            snapshotLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Players are not journaled as removed, a replay restores them and they are removed again once idle
+     * @param playerId
+     * @return the removed player
+     */
+    @Override
+    public Player removePlayer(String playerId) {
+        Player player = delegate.removePlayer(playerId);
+        journalIds.remove(playerId);
+        return player;
+    }
+
+    @Override
+    public boolean updateGameBoardWithMove(Move move, Board board) {
+        return delegate.updateGameBoardWithMove(move, board);
+    }
+
+    private JournalId journalId(String id) {
+        JournalId journalId = journalIds.get(id);
+        return Objects.nonNull(journalId) ? journalId : journalIds.computeIfAbsent(id, JournalId::of);
+    }
+
+    @Override
+    public void close() {
+        if (Objects.nonNull(gameJournal)) {
+            gameJournal.close();
+        }
+    }
+
+    @Override
+    public int getShardIndex(String gameId) {
+        return delegate.getShardIndex(gameId);
+    }
+}
@@ -0,0 +1,158 @@
+package org.example.repository;
+
+import org.example.metrics.GameMetrics;
+import org.example.metrics.GameMetrics.RepositoryOperation;
+import org.example.model.*;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * GameRepository that times each operation of its delegate into GameMetrics
+ * Operations that fail are not recorded, and nothing is timed while metrics are disabled
+ */
+public class MeteredGameRepository implements GameRepository {
+    private final GameRepository delegate;
+    private final GameMetrics gameMetrics;
+
+    public MeteredGameRepository(GameRepository delegate) {
+        this(delegate, GameMetrics.get());
+    }
+
+    public MeteredGameRepository(GameRepository delegate, GameMetrics gameMetrics) {
+        this.delegate = delegate;
+        this.gameMetrics = gameMetrics;
+    }
+
+    @Override
+    public Game initialiseGame(Player player1, Player player2, int numberOfCellsPerRow, Player tossWinner) {
+        long startNanos = gameMetrics.startTimer();
+        Game game = delegate.initialiseGame(player1, player2, numberOfCellsPerRow, tossWinner);
+        gameMetrics.recordRepositoryOperation(RepositoryOperation.INITIALISE_GAME, startNanos);
+        return game;
+    }
+
+    @Override
+    public Game initialiseGame(String gameId, Player player1, Player player2, int numberOfCellsPerRow, Player tossWinner) {
+        long startNanos = gameMetrics.startTimer();
+        Game game = delegate.initialiseGame(gameId, player1, player2, numberOfCellsPerRow, tossWinner);
+        gameMetrics.recordRepositoryOperation(RepositoryOperation.INITIALISE_GAME, startNanos);
+        return game;
+    }
+
+    @Override
+    public Game initialiseGame(List<Player> players, int numberOfRows, int numberOfColumns, int winLength, Player tossWinner) {
+        long startNanos = gameMetrics.startTimer();
+        Game game = delegate.initialiseGame(players, numberOfRows, numberOfColumns, winLength, tossWinner);
+        gameMetrics.recordRepositoryOperation(RepositoryOperation.INITIALISE_GAME, startNanos);
+        return game;
+    }
+
+    @Override
+    public Game initialiseGame(String gameId, List<Player> players, int numberOfRows, int numberOfColumns, int winLength, Player tossWinner) {
+        long startNanos = gameMetrics.startTimer();
+        Game game = delegate.initialiseGame(gameId, players, numberOfRows, numberOfColumns, winLength, tossWinner);
+        gameMetrics.recordRepositoryOperation(RepositoryOperation.INITIALISE_GAME, startNanos);
+        return game;
+    }
+
+    @Override
+    public Player addPlayer(Player player) {
+        long startNanos = gameMetrics.startTimer();
+        Player addedPlayer = delegate.addPlayer(player);
+        gameMetrics.recordRepositoryOperation(RepositoryOperation.ADD_PLAYER, startNanos);
+        return addedPlayer;
+    }
+
+    @Override
+    public Game getGameFromId(String gameId) {
+        long startNanos = gameMetrics.startTimer();
+        Game game = delegate.getGameFromId(gameId);
+        gameMetrics.recordRepositoryOperation(RepositoryOperation.GET_GAME, startNanos);
+        return game;
+    }
+
+    @Override
+    public Player getPlayerFromId(String playerId) {
+        long startNanos = gameMetrics.startTimer();
+        Player player = delegate.getPlayerFromId(playerId);
+        gameMetrics.recordRepositoryOperation(RepositoryOperation.GET_PLAYER, startNanos);
+        return player;
+    }
+
+    @Override
+    public Collection<Game> getGames() {
+        return delegate.getGames();
+    }
+
+    @Override
+    public Collection<Player> getPlayers() {
+        return delegate.getPlayers();
+    }
+
+    @Override
+    public Board getBoardFromGame(Game game) {
+        return delegate.getBoardFromGame(game);
+    }
+
+    @Override
+    public Move createMove(Player player, int rowValue, int columnValue) {
+        long startNanos = gameMetrics.startTimer();
+        Move move = delegate.createMove(player, rowValue, columnValue);
+        gameMetrics.recordRepositoryOperation(RepositoryOperation.CREATE_MOVE, startNanos);
+        return move;
+    }
+
+    @Override
+    public boolean addMoveToMovesList(String gameId, Move move) {
+        long startNanos = gameMetrics.startTimer();
+        boolean added = delegate.addMoveToMovesList(gameId, move);
+        gameMetrics.recordRepositoryOperation(RepositoryOperation.ADD_MOVE, startNanos);
+        return added;
+    }
+
+    @Override
+    public boolean addMovesToMovesList(Game game, List<Move> moves) {
+        long startNanos = gameMetrics.startTimer();
+        boolean added = delegate.addMovesToMovesList(game, moves);
+        gameMetrics.recordRepositoryOperation(RepositoryOperation.ADD_MOVES, startNanos);
+        return added;
+    }
+
+    @Override
+    public boolean updateGameBoardWithMove(Move move, Board board) {
+        long startNanos = gameMetrics.startTimer();
+        boolean updated = delegate.updateGameBoardWithMove(move, board);
+        gameMetrics.recordRepositoryOperation(RepositoryOperation.UPDATE_BOARD, startNanos);
+        return updated;
+    }
+
+    @Override
+    public int removeLastMove(String gameId) {
+        long startNanos = gameMetrics.startTimer();
+        int cellIndex = delegate.removeLastMove(gameId);
+        gameMetrics.recordRepositoryOperation(RepositoryOperation.REMOVE_LAST_MOVE, startNanos);
+        return cellIndex;
+    }
+
+    @Override
+    public Game removeGame(String gameId) {
+        long startNanos = gameMetrics.startTimer();
+        Game game = delegate.removeGame(gameId);
+        gameMetrics.recordRepositoryOperation(RepositoryOperation.REMOVE_GAME, startNanos);
+        return game;
+    }
+
+    @Override
+    public Player removePlayer(String playerId) {
+        long startNanos = gameMetrics.startTimer();
+        Player player = delegate.removePlayer(playerId);
+        gameMetrics.recordRepositoryOperation(RepositoryOperation.REMOVE_PLAYER, startNanos);
+        return player;
+    }
+
+    @Override
+    public int getShardIndex(String gameId) {
+        return delegate.getShardIndex(gameId);
+    }
+}
@@ -0,0 +1,254 @@
+package org.example.server;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A non-blocking line oriented connection served by one EventLoop
+ * Incoming bytes are split into lines with the loop's shared read buffer, only an incomplete trailing line is copied aside;
+ * outgoing lines may be sent from any thread and are written by the loop, which waits for OP_WRITE only while the socket is full
+ */
+final class Connection implements EventLoop.Handler {
+    static final int MAX_LINE_LENGTH = 1024;
+
+    private final SocketChannel channel;
+    private final EventLoop eventLoop;
+    private final LineHandler lineHandler;
+    private final Queue<ByteBuffer> outbound = new ArrayDeque<>();
+    /**
+     * Player of this connection in each game it plays, keyed by game id
+     */
+    private final Map<String, String> playerIdsByGameId = new ConcurrentHashMap<>();
+    private SelectionKey key;
+    private volatile Object attachment;
+    private byte[] partialLine;
+    private int partialLineLength;
+    private boolean flushScheduled;
+    private volatile boolean closed;
+
+    /**
+     * Receives the lines of a connection on its event loop's thread
+     */
+    interface LineHandler {
+        void onLine(Connection connection, String line);
+
+        void onClose(Connection connection);
+
+        /**
+         * Called once a connect started in non-blocking mode completes
+         */
+        default void onConnect(Connection connection) {
+        }
+    }
+
+    Connection(SocketChannel channel, EventLoop eventLoop, LineHandler lineHandler) {
+        this.channel = channel;
+        this.eventLoop = eventLoop;
+        this.lineHandler = lineHandler;
+    }
+
+    /**
+     * Registers the channel with the event loop, on the loop's thread
+     * @param interestOps OP_READ, or OP_CONNECT for a connection still being established
+     */
+    void register(int interestOps) {
+        eventLoop.execute(() -> {
+            try {
+                key = channel.register(eventLoop.getSelector(), interestOps, this);
+            } catch (IOException e) {
+                close();
+            }
+        });
+    }
+
+    SelectionKey getKey() {
+        return key;
+    }
+
+    SocketChannel getChannel() {
+        return channel;
+    }
+
+    Map<String, String> getPlayerIdsByGameId() {
+        return playerIdsByGameId;
+    }
+
+    boolean isClosed() {
+        return closed;
+    }
+
+    Object getAttachment() {
+        return attachment;
+    }
+
+    void setAttachment(Object attachment) {
+        this.attachment = attachment;
+    }
+
+    /**
+     * Completes a connect started in non-blocking mode and writes the lines sent meanwhile
+     */
+    @Override
+    public void finishConnect() {
+        try {
+            channel.finishConnect();
+            key.interestOps(SelectionKey.OP_READ);
+        } catch (IOException e) {
+            close();
+            return;
+        }
+        lineHandler.onConnect(this);
+        flush();
+    }
+
+    /**
+     * Queues a line for writing, from any thread
+     * @param line without the line terminator
+     */
+    void send(String line) {
+        ByteBuffer bytes = ByteBuffer.wrap((line + "\n").getBytes(StandardCharsets.US_ASCII));
+        synchronized (outbound) {
+            if (closed) {
+                return;
+            }
+            outbound.add(bytes);
+            if (flushScheduled) {
+                return;
+            }
+            flushScheduled = true;
+        }
+        eventLoop.execute(this::flush);
+    }
+
+    /**
+     * Writes queued lines until the socket buffer is full, then waits for OP_WRITE to carry on
+     */
+    @Override
+    public void flush() {
+        if (closed || Objects.isNull(key) || channel.isConnectionPending()) {
+            return;
+        }
+        try {
+            synchronized (outbound) {
+                ByteBuffer bytes;
+                while (Objects.nonNull(bytes = outbound.peek())) {
+                    channel.write(bytes);
+                    if (bytes.hasRemaining()) {
+                        key.interestOps(key.interestOps() | SelectionKey.OP_WRITE);
+                        return;
+                    }
+                    outbound.poll();
+                }
+                flushScheduled = false;
+            }
+            key.interestOps(key.interestOps() & ~SelectionKey.OP_WRITE);
+        } catch (IOException e) {
+            close();
+        }
+    }
+
+    /**
+     * Reads what is available and hands every complete line to the line handler
+     */
+    @Override
+    public void read() {
+        ByteBuffer buffer = eventLoop.getReadBuffer();
+        try {
+            int bytesRead;
+            while ((bytesRead = channel.read(buffer)) > 0) {
+                buffer.flip();
+                splitLines(buffer);
+                buffer.clear();
+                if (closed) {
+                    return;
+                }
+            }
+            if (bytesRead < 0) {
+                close();
+            }
+        } catch (IOException e) {
+            buffer.clear();
+            close();
+        }
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        synchronized (outbound) {
+            outbound.clear();
+        }
+        if (Objects.nonNull(key)) {
+            key.cancel();
+        }
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+            // the connection is gone either way
+        }
+        lineHandler.onClose(this);
+    }
+
+    private void splitLines(ByteBuffer buffer) {
+        int lineStart = buffer.position();
+        for (int position = buffer.position(); position < buffer.limit(); position++) {
+            if (buffer.get(position) != '\n') {
+                continue;
+            }
+            String line = takeLine(buffer, lineStart, position);
+            lineStart = position + 1;
+            lineHandler.onLine(this, line);
+            if (closed) {
+                return;
+            }
+        }
+        int remaining = buffer.limit() - lineStart;
+        if (remaining == 0) {
+            return;
+        }
+        if (partialLineLength + remaining > MAX_LINE_LENGTH) {
+            close();
+            return;
+        }
+        if (Objects.isNull(partialLine)) {
+            partialLine = new byte[Math.max(64, remaining)];
+        } else if (partialLine.length < partialLineLength + remaining) {
+            partialLine = Arrays.copyOf(partialLine, Math.min(MAX_LINE_LENGTH, 2 * (partialLineLength + remaining)));
+        }
+        for (int position = lineStart; position < buffer.limit(); position++) {
+            partialLine[partialLineLength++] = buffer.get(position);
+        }
+    }
+
+    /**
+     * @return the line ending before end, joined to the incomplete line of the previous read if there was one
+     */
+    private String takeLine(ByteBuffer buffer, int start, int end) {
+        int length = end - start;
+        if (length > 0 && buffer.get(end - 1) == '\r') {
+            length--;
+        }
+        byte[] bytes = new byte[partialLineLength + length];
+        if (partialLineLength > 0) {
+            System.arraycopy(partialLine, 0, bytes, 0, partialLineLength);
+            partialLineLength = 0;
+            partialLine = null;
+        }
+        for (int index = 0; index < length; index++) {
+            bytes[bytes.length - length + index] = buffer.get(start + index);
+        }
+        return new String(bytes, StandardCharsets.US_ASCII);
+    }
+}
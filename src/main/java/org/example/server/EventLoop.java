@@ -0,0 +1,168 @@
+package org.example.server;
+
+import org.example.util.LoggerConfig;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * One selector thread serving many connections
+ * Channel I/O and selection key changes only happen on this thread, other threads hand it work with execute(),
+ * which wakes the selector at most once per batch of tasks
+ * All connections of a loop share one direct read buffer, so an idle connection holds no buffer of its own
+ */
+final class EventLoop implements Runnable {
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+
+    private static final Logger logger = Logger.getLogger(EventLoop.class.getName());
+
+    static {
+        LoggerConfig.configureLogger(logger);
+    }
+
+    private final Selector selector;
+    private final Thread thread;
+    private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean wakeupPending = new AtomicBoolean();
+    private final ByteBuffer readBuffer = ByteBuffer.allocateDirect(READ_BUFFER_SIZE);
+    private volatile boolean closed;
+
+    EventLoop(String name) throws IOException {
+        this.selector = Selector.open();
+        this.thread = new Thread(this, name);
+        thread.setDaemon(true);
+    }
+
+    void start() {
+        thread.start();
+    }
+
+    Selector getSelector() {
+        return selector;
+    }
+
+    ByteBuffer getReadBuffer() {
+        return readBuffer;
+    }
+
+    boolean inEventLoop() {
+        return Thread.currentThread() == thread;
+    }
+
+    /**
+     * Runs task on this loop's thread, right away if called from it
+     * @param task
+     */
+    void execute(Runnable task) {
+        if (inEventLoop()) {
+            task.run();
+            return;
+        }
+        tasks.add(task);
+        if (wakeupPending.compareAndSet(false, true)) {
+            selector.wakeup();
+        }
+    }
+
+    @Override
+    public void run() {
+        while (!closed) {
+            try {
+                selector.select();
+                wakeupPending.set(false);
+                runTasks();
+                Iterator<SelectionKey> selectedKeys = selector.selectedKeys().iterator();
+                while (selectedKeys.hasNext()) {
+                    SelectionKey key = selectedKeys.next();
+                    selectedKeys.remove();
+                    handle(key);
+                }
+            } catch (IOException e) {
+                logger.log(Level.WARNING, e, () -> thread.getName() + " select failed");
+            }
+        }
+        for (SelectionKey key : selector.keys()) {
+            if (key.attachment() instanceof Handler) {
+                ((Handler) key.attachment()).close();
+            }
+        }
+        try {
+            selector.close();
+        } catch (IOException e) {
+            logger.log(Level.WARNING, e, () -> thread.getName() + " could not close its selector");
+        }
+    }
+
+    void close() {
+        closed = true;
+        selector.wakeup();
+    }
+
+    private void runTasks() {
+        Runnable task;
+        while (Objects.nonNull(task = tasks.poll())) {
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                logger.log(Level.WARNING, e, () -> thread.getName() + " task failed");
+            }
+        }
+    }
+
+    private void handle(SelectionKey key) {
+        Object attachment = key.attachment();
+        try {
+            if (attachment instanceof Acceptor) {
+                ((Acceptor) attachment).accept();
+                return;
+            }
+            Handler handler = (Handler) attachment;
+            if (key.isConnectable()) {
+                handler.finishConnect();
+                return;
+            }
+            if (key.isReadable()) {
+                handler.read();
+            }
+            if (key.isValid() && key.isWritable()) {
+                handler.flush();
+            }
+        } catch (CancelledKeyException e) {
+            // the connection was closed while its events were being handled
+        }
+    }
+
+    /**
+     * Handles the events of a connection registered with the loop, always on the loop's thread
+     */
+    interface Handler {
+        void read();
+
+        void flush();
+
+        void close();
+
+        /**
+         * Called once a connect started in non-blocking mode can complete
+         */
+        default void finishConnect() {
+        }
+    }
+
+    /**
+     * Accepts pending connections when its channel is selected
+     */
+    interface Acceptor {
+        void accept();
+    }
+}
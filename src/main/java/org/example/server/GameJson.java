@@ -0,0 +1,124 @@
+package org.example.server;
+
+import org.example.model.Board;
+import org.example.model.CellValue;
+import org.example.model.Game;
+import org.example.model.MoveHistory;
+import org.example.model.Player;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * JSON documents of the web API, written field by field so Lombok's Game and Board are never serialised by reflection
+ * Each document is written into a builder sized for it up front
+ */
+final class GameJson {
+    private static final char EMPTY_CELL = '.';
+    private static final int PLAYER_LENGTH = 160;
+    private static final int MOVE_LENGTH = 32;
+
+    private GameJson() {
+    }
+
+    /**
+     * @param player
+     * @return {"id", "name", "playerType", "moveStrategyType", "symbol"}, symbol is null until the player joins a game
+     */
+    static String player(Player player) {
+        JsonWriter json = new JsonWriter(PLAYER_LENGTH);
+        writePlayer(json, player);
+        return json.toString();
+    }
+
+    /**
+     * Full state of a game, sent once to a client, which then follows it with moves documents
+     * @param game
+     * @return {"type": "game", "id", "numberOfRows", "numberOfColumns", "winLength", "gameState", "currentPlayerIndex",
+     * "numberOfMoves", "winnerId", "players", "cells"}, cells lists the symbol of every cell row by row, . if empty
+     */
+    static String game(Game game) {
+        Board board = game.getBoard();
+        List<Player> players = game.getPlayers();
+        JsonWriter json = new JsonWriter(256 + PLAYER_LENGTH * players.size() + board.getNumberOfCells())
+                .beginObject()
+                .name("type").value("game")
+                .name("id").value(game.getId())
+                .name("numberOfRows").value(board.getNumberOfRows())
+                .name("numberOfColumns").value(board.getNumberOfCellsPerRow())
+                .name("winLength").value(board.getWinLength());
+        writeState(json, game, game.getMoveHistory().size());
+        json.name("players").beginArray();
+        for (Player player : players) {
+            writePlayer(json, player);
+        }
+        json.endArray();
+        StringBuilder cells = new StringBuilder(board.getNumberOfCells());
+        for (int row = 0; row < board.getNumberOfRows(); row++) {
+            for (int col = 0; col < board.getNumberOfCellsPerRow(); col++) {
+                int symbol = board.getSymbol(row, col);
+                cells.append(symbol == CellValue.EMPTY_SYMBOL ? EMPTY_CELL : CellValue.getSymbolName(symbol));
+            }
+        }
+        return json.name("cells").value(cells.toString()).endObject().toString();
+    }
+
+    /**
+     * Board diff of the moves played since fromMove, the moves a client holding the first fromMove moves is missing
+     * @param game
+     * @param fromMove index in the move history of the first move to include
+     * @return {"type": "moves", "gameId", "from", "moves": [{"cellIndex", "symbol"}...], "gameState", "currentPlayerIndex",
+     * "numberOfMoves", "winnerId"}
+     */
+    static String moves(Game game, int fromMove) {
+        MoveHistory moveHistory = game.getMoveHistory();
+        List<Player> players = game.getPlayers();
+        int numberOfMoves = moveHistory.size();
+        JsonWriter json = new JsonWriter(192 + MOVE_LENGTH * Math.max(0, numberOfMoves - fromMove))
+                .beginObject()
+                .name("type").value("moves")
+                .name("gameId").value(game.getId())
+                .name("from").value(fromMove)
+                .name("moves").beginArray();
+        for (int index = fromMove; index < numberOfMoves; index++) {
+            json.beginObject()
+                    .name("cellIndex").value(moveHistory.getCellIndex(index))
+                    .name("symbol").value(CellValue.getSymbolName(players.get(moveHistory.getPlayerIndex(index)).getSymbol()))
+                    .endObject();
+        }
+        json.endArray();
+        writeState(json, game, numberOfMoves);
+        return json.endObject().toString();
+    }
+
+    /**
+     * @param message
+     * @return {"error": message}
+     */
+    static String error(String message) {
+        String text = Objects.isNull(message) ? "Internal error" : message;
+        return new JsonWriter(16 + text.length()).beginObject().name("error").value(text).endObject().toString();
+    }
+
+    private static void writeState(JsonWriter json, Game game, int numberOfMoves) {
+        json.name("gameState").value(game.getGameState().name())
+                .name("currentPlayerIndex").value(game.getCurrentPlayerIndex())
+                .name("numberOfMoves").value(numberOfMoves)
+                .name("winnerId").value(Objects.isNull(game.getWinner()) ? null : game.getWinner().getId());
+    }
+
+    private static void writePlayer(JsonWriter json, Player player) {
+        json.beginObject()
+                .name("id").value(player.getId())
+                .name("name").value(player.getName())
+                .name("playerType").value(player.getPlayerType().name())
+                .name("moveStrategyType").value(Objects.isNull(player.getMoveStrategyType()) ? null : player.getMoveStrategyType().name())
+                .name("symbol");
+        if (player.getSymbol() == CellValue.EMPTY_SYMBOL) {
+            json.value((String) null);
+        } else {
+            json.value(CellValue.getSymbolName(player.getSymbol()));
+        }
+        json.endObject();
+    }
+}
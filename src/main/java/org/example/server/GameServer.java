@@ -0,0 +1,343 @@
+package org.example.server;
+
+import org.example.controller.GameController;
+import org.example.exception.UserException;
+import org.example.model.Board;
+import org.example.model.CellValue;
+import org.example.model.Game;
+import org.example.model.GameState;
+import org.example.model.MoveStrategyType;
+import org.example.model.Player;
+import org.example.model.PlayerType;
+import org.example.util.LoggerConfig;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Non-blocking TCP front end for remote players, speaking a line protocol and calling through GameController
+ * Connections are spread over a few EventLoops, and games are hosted by the controller's GameHost,
+ * so no thread ever waits for a player and a connection costs a socket and a few small objects
+ *
+ * Requests, one per line:
+ * CREATE name rows columns winLength opponent - opponent is a computer MoveStrategyType, or OPEN to wait for a remote player,
+ * the board holds at most MAX_NUMBER_OF_CELLS cells
+ * JOIN lobbyId name - joins an OPEN game
+ * MOVE gameId cellIndex - 0 based cell index
+ * STATE gameId - asks for the state last pushed
+ * Responses and pushes:
+ * WAITING lobbyId, STARTED gameId playerIndex, ERROR message,
+ * STATE gameId gameState currentPlayerIndex numberOfMoves cells - cells lists the symbol of every cell row by row, . if empty,
+ * pushed to every player of a game whenever it changes
+ */
+public class GameServer implements Closeable {
+    public static final int DEFAULT_PORT = 7070;
+    public static final long MAX_NUMBER_OF_CELLS = 1 << 14;
+    private static final int BACKLOG = 4096;
+    private static final char EMPTY_CELL = '.';
+
+    private static final Logger logger = Logger.getLogger(GameServer.class.getName());
+
+    static {
+        LoggerConfig.configureLogger(logger);
+    }
+
+    private final GameController gameController;
+    private final ServerSocketChannel serverChannel;
+    private final EventLoop[] eventLoops;
+    private final AtomicInteger nextEventLoop = new AtomicInteger();
+    private final AtomicInteger numberOfConnections = new AtomicInteger();
+    private final Map<String, OpenGame> openGames = new ConcurrentHashMap<>();
+    /**
+     * Latest state line of every hosted game, formatted by the host's listener on the thread applying its moves
+     */
+    private final Map<String, String> states = new ConcurrentHashMap<>();
+    private final Connection.LineHandler lineHandler = new Connection.LineHandler() {
+        @Override
+        public void onLine(Connection connection, String line) {
+            handle(connection, line);
+        }
+
+        @Override
+        public void onClose(Connection connection) {
+            numberOfConnections.decrementAndGet();
+            openGames.values().removeIf(openGame -> openGame.connection == connection);
+        }
+    };
+
+    /**
+     * @param gameController
+     * @param address address to listen on, port 0 for any free port
+     * @param numberOfEventLoops selector threads, one is usually enough per core
+     * @throws IOException
+     */
+    public GameServer(GameController gameController, InetSocketAddress address, int numberOfEventLoops) throws IOException {
+        if (numberOfEventLoops < 1) {
+            throw new IllegalArgumentException("numberOfEventLoops must be positive");
+        }
+        this.gameController = gameController;
+        this.eventLoops = new EventLoop[numberOfEventLoops];
+        for (int index = 0; index < numberOfEventLoops; index++) {
+            eventLoops[index] = new EventLoop("game-server-loop-" + index);
+        }
+        this.serverChannel = ServerSocketChannel.open();
+        serverChannel.setOption(StandardSocketOptions.SO_REUSEADDR, true);
+        serverChannel.bind(address, BACKLOG);
+        serverChannel.configureBlocking(false);
+        EventLoop acceptLoop = eventLoops[0];
+        acceptLoop.execute(() -> {
+            try {
+                serverChannel.register(acceptLoop.getSelector(), SelectionKey.OP_ACCEPT, (EventLoop.Acceptor) this::accept);
+            } catch (IOException e) {
+                logger.log(Level.SEVERE, e, () -> "Could not listen on " + address);
+            }
+        });
+        for (EventLoop eventLoop : eventLoops) {
+            eventLoop.start();
+        }
+        logger.log(Level.INFO, "Game server listening on {0} with {1} event loops", new Object[]{getAddress(), numberOfEventLoops});
+    }
+
+    public InetSocketAddress getAddress() throws IOException {
+        return (InetSocketAddress) serverChannel.getLocalAddress();
+    }
+
+    public int getNumberOfConnections() {
+        return numberOfConnections.get();
+    }
+
+    @Override
+    public void close() {
+        try {
+            serverChannel.close();
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Could not close the server socket", e);
+        }
+        for (EventLoop eventLoop : eventLoops) {
+            eventLoop.close();
+        }
+    }
+
+    /**
+     * Accepts every pending connection and hands each to the next event loop in turn
+     */
+    private void accept() {
+        try {
+            SocketChannel channel;
+            while (Objects.nonNull(channel = serverChannel.accept())) {
+                channel.configureBlocking(false);
+                channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                EventLoop eventLoop = eventLoops[Math.floorMod(nextEventLoop.getAndIncrement(), eventLoops.length)];
+                numberOfConnections.incrementAndGet();
+                new Connection(channel, eventLoop, lineHandler).register(SelectionKey.OP_READ);
+            }
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Accept failed", e);
+        }
+    }
+
+    private void handle(Connection connection, String line) {
+        String[] arguments = line.trim().split("\\s+");
+        try {
+            switch (arguments[0]) {
+                case "CREATE":
+                    checkArguments(arguments, 6);
+                    create(connection, arguments[1], parseInt(arguments[2]), parseInt(arguments[3]), parseInt(arguments[4]), arguments[5]);
+                    break;
+                case "JOIN":
+                    checkArguments(arguments, 3);
+                    join(connection, arguments[1], arguments[2]);
+                    break;
+                case "MOVE":
+                    checkArguments(arguments, 3);
+                    move(connection, arguments[1], parseInt(arguments[2]));
+                    break;
+                case "STATE":
+                    checkArguments(arguments, 2);
+                    String state = states.get(arguments[1]);
+                    if (Objects.isNull(state)) {
+                        throw new UserException("Game id not found: " + arguments[1]);
+                    }
+                    connection.send(state);
+                    break;
+                default:
+                    throw new UserException("Unknown request: " + arguments[0]);
+            }
+        } catch (UserException | IllegalArgumentException e) {
+            connection.send("ERROR " + e.getMessage());
+        }
+    }
+
+    private void create(Connection connection, String name, int numberOfRows, int numberOfColumns, int winLength, String opponent) {
+        checkBoard(numberOfRows, numberOfColumns, winLength);
+        if (Objects.equals(opponent, "OPEN")) {
+            Player player = gameController.addPlayer(name, PlayerType.HUMAN, MoveStrategyType.CONSOLE);
+            String lobbyId = UUID.randomUUID().toString();
+            openGames.put(lobbyId, new OpenGame(connection, player, numberOfRows, numberOfColumns, winLength));
+            connection.send("WAITING " + lobbyId);
+            return;
+        }
+        MoveStrategyType moveStrategyType = MoveStrategyType.valueOf(opponent);
+        if (moveStrategyType == MoveStrategyType.CONSOLE) {
+            throw new UserException("A computer opponent needs an engine strategy");
+        }
+        Player player = gameController.addPlayer(name, PlayerType.HUMAN, MoveStrategyType.CONSOLE);
+        Player computer = gameController.addPlayer("Computer", PlayerType.COMPUTER, moveStrategyType);
+        start(Arrays.asList(connection, null), player, computer, numberOfRows, numberOfColumns, winLength);
+    }
+
+    private void join(Connection connection, String lobbyId, String name) {
+        OpenGame openGame = openGames.remove(lobbyId);
+        if (Objects.isNull(openGame)) {
+            throw new UserException("No open game: " + lobbyId);
+        }
+        Player player = gameController.addPlayer(name, PlayerType.HUMAN, MoveStrategyType.CONSOLE);
+        start(Arrays.asList(openGame.connection, connection), openGame.player, player,
+                openGame.numberOfRows, openGame.numberOfColumns, openGame.winLength);
+    }
+
+    /**
+     * Initialises and hosts a game, pushing its state to the connections of its players on every change
+     * @param connections connection of each player, null for a computer
+     */
+    private void start(List<Connection> connections, Player player1, Player player2, int numberOfRows, int numberOfColumns, int winLength) {
+        Player tossWinner = gameController.conductTossToDecideWhoGoesFirst(player1, player2);
+        Game game = gameController.initialiseGame(player1, player2, numberOfRows, numberOfColumns, winLength, tossWinner);
+        if (Objects.isNull(game)) {
+            throw new UserException("Game could not be created");
+        }
+        String gameId = game.getId();
+        // formatted before hosting starts, so the engine's opening moves do not change the game meanwhile
+        states.put(gameId, formatState(game));
+        for (int index = 0; index < connections.size(); index++) {
+            Connection connection = connections.get(index);
+            if (Objects.nonNull(connection)) {
+                connection.getPlayerIdsByGameId().put(gameId, game.getPlayers().get(index).getId());
+                connection.send("STARTED " + gameId + " " + index);
+            }
+        }
+        gameController.hostGame(gameId, changedGame -> {
+            String state = formatState(changedGame);
+            boolean isOver = changedGame.getGameState() != GameState.ONGOING;
+            if (!isOver) {
+                states.put(gameId, state);
+            }
+            for (Connection connection : connections) {
+                if (Objects.nonNull(connection)) {
+                    connection.send(state);
+                    if (isOver) {
+                        connection.getPlayerIdsByGameId().remove(gameId);
+                    }
+                }
+            }
+            if (isOver) {
+                states.remove(gameId);
+            }
+        }).whenComplete((endedGame, e) -> {
+            // a game that stops being hosted without ending, for example because it was evicted, is dropped here
+            if (Objects.nonNull(e)) {
+                states.remove(gameId);
+                Throwable cause = Objects.nonNull(e.getCause()) ? e.getCause() : e;
+                for (Connection connection : connections) {
+                    if (Objects.nonNull(connection)) {
+                        connection.getPlayerIdsByGameId().remove(gameId);
+                        connection.send("ERROR " + cause.getMessage());
+                    }
+                }
+            }
+        });
+    }
+
+    private void move(Connection connection, String gameId, int cellIndex) {
+        String playerId = connection.getPlayerIdsByGameId().get(gameId);
+        if (Objects.isNull(playerId)) {
+            throw new UserException("Not playing game: " + gameId);
+        }
+        gameController.submitMove(gameId, playerId, cellIndex).whenComplete((game, e) -> {
+            if (Objects.nonNull(e)) {
+                Throwable cause = Objects.nonNull(e.getCause()) ? e.getCause() : e;
+                connection.send("ERROR " + cause.getMessage());
+            }
+        });
+    }
+
+    static String formatState(Game game) {
+        Board board = game.getBoard();
+        StringBuilder state = new StringBuilder(64 + board.getNumberOfCells())
+                .append("STATE ").append(game.getId())
+                .append(' ').append(game.getGameState())
+                .append(' ').append(game.getCurrentPlayerIndex())
+                .append(' ').append(game.getMoveHistory().size())
+                .append(' ');
+        for (int row = 0; row < board.getNumberOfRows(); row++) {
+            for (int col = 0; col < board.getNumberOfCellsPerRow(); col++) {
+                int symbol = board.getSymbol(row, col);
+                state.append(symbol == CellValue.EMPTY_SYMBOL ? EMPTY_CELL : CellValue.getSymbolName(symbol));
+            }
+        }
+        return state.toString();
+    }
+
+    /**
+     * Rejects the boards GameController.initialiseGame would, and boards of more than MAX_NUMBER_OF_CELLS cells,
+     * before any player, lobby or board is created for them
+     * @param numberOfRows
+     * @param numberOfColumns
+     * @param winLength
+     */
+    static void checkBoard(int numberOfRows, int numberOfColumns, int winLength) {
+        if (numberOfRows <= 0 || numberOfColumns <= 0) {
+            throw new UserException("numberOfRows and numberOfColumns must be positive");
+        }
+        if (winLength <= 0 || winLength > Math.max(numberOfRows, numberOfColumns)) {
+            throw new UserException("winLength must be between 1 and the longer side of the board");
+        }
+        if ((long) numberOfRows * numberOfColumns > MAX_NUMBER_OF_CELLS) {
+            throw new UserException("A board holds at most " + MAX_NUMBER_OF_CELLS + " cells");
+        }
+    }
+
+    private static void checkArguments(String[] arguments, int expected) {
+        if (arguments.length != expected) {
+            throw new UserException(arguments[0] + " takes " + (expected - 1) + " arguments");
+        }
+    }
+
+    private static int parseInt(String argument) {
+        try {
+            return Integer.parseInt(argument);
+        } catch (NumberFormatException e) {
+            throw new UserException("Not a number: " + argument);
+        }
+    }
+
+    private static final class OpenGame {
+        private final Connection connection;
+        private final Player player;
+        private final int numberOfRows;
+        private final int numberOfColumns;
+        private final int winLength;
+
+        private OpenGame(Connection connection, Player player, int numberOfRows, int numberOfColumns, int winLength) {
+            this.connection = connection;
+            this.player = player;
+            this.numberOfRows = numberOfRows;
+            this.numberOfColumns = numberOfColumns;
+            this.winLength = winLength;
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package org.example.server;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Reads the flat JSON objects of request bodies, whose members are strings, numbers, booleans or null
+ * Nested objects and arrays are rejected, the API has no use for them
+ */
+final class JsonReader {
+    private final String json;
+    private int position;
+
+    private JsonReader(String json) {
+        this.json = json;
+    }
+
+    /**
+     * @param json
+     * @return the members of the object as text, strings unescaped, members set to null are left out
+     * @throws IllegalArgumentException if json is not a flat object
+     */
+    static Map<String, String> parseObject(String json) {
+        if (Objects.isNull(json)) {
+            throw new IllegalArgumentException("Request body is empty");
+        }
+        return new JsonReader(json).readObject();
+    }
+
+    /**
+     * @param members
+     * @param name
+     * @return the member, which must be present
+     */
+    static String getRequired(Map<String, String> members, String name) {
+        String value = members.get(name);
+        if (Objects.isNull(value)) {
+            throw new IllegalArgumentException("Missing " + name);
+        }
+        return value;
+    }
+
+    /**
+     * @param members
+     * @param name
+     * @return the member as an int, which must be present
+     */
+    static int getRequiredInt(Map<String, String> members, String name) {
+        String value = getRequired(members, name);
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(name + " is not an integer: " + value);
+        }
+    }
+
+    private Map<String, String> readObject() {
+        Map<String, String> members = new HashMap<>();
+        expect('{');
+        if (peek() == '}') {
+            position++;
+        } else {
+            char separator;
+            do {
+                String name = readString();
+                expect(':');
+                String value = readValue();
+                if (Objects.nonNull(value)) {
+                    members.put(name, value);
+                }
+            } while ((separator = next()) == ',');
+            if (separator != '}') {
+                throw malformed("',' or '}' expected");
+            }
+        }
+        if (peek() != 0) {
+            throw malformed("trailing characters");
+        }
+        return members;
+    }
+
+    private String readValue() {
+        char c = peek();
+        if (c == '"') {
+            return readString();
+        }
+        if (c == '{' || c == '[') {
+            throw malformed("nested objects and arrays are not supported");
+        }
+        int start = position;
+        while (position < json.length() && "-+.0123456789eEtruefalsn".indexOf(json.charAt(position)) >= 0) {
+            position++;
+        }
+        String literal = json.substring(start, position);
+        if (literal.isEmpty()) {
+            throw malformed("value expected");
+        }
+        return Objects.equals(literal, "null") ? null : literal;
+    }
+
+    private String readString() {
+        expect('"');
+        StringBuilder value = null;
+        int start = position;
+        while (true) {
+            if (position >= json.length()) {
+                throw malformed("unterminated string");
+            }
+            char c = json.charAt(position++);
+            if (c == '"') {
+                return Objects.isNull(value) ? json.substring(start, position - 1) : value.toString();
+            }
+            if (c != '\\') {
+                if (Objects.nonNull(value)) {
+                    value.append(c);
+                }
+                continue;
+            }
+            if (Objects.isNull(value)) {
+                value = new StringBuilder(json.length() - start).append(json, start, position - 1);
+            }
+            if (position >= json.length()) {
+                throw malformed("unterminated string");
+            }
+            char escaped = json.charAt(position++);
+            switch (escaped) {
+                case 'n':
+                    value.append('\n');
+                    break;
+                case 'r':
+                    value.append('\r');
+                    break;
+                case 't':
+                    value.append('\t');
+                    break;
+                case 'b':
+                    value.append('\b');
+                    break;
+                case 'f':
+                    value.append('\f');
+                    break;
+                case 'u':
+                    if (position + 4 > json.length()) {
+                        throw malformed("truncated unicode escape");
+                    }
+                    try {
+                        value.append((char) Integer.parseInt(json.substring(position, position + 4), 16));
+                    } catch (NumberFormatException e) {
+                        throw malformed("bad unicode escape");
+                    }
+                    position += 4;
+                    break;
+                default:
+                    value.append(escaped);
+            }
+        }
+    }
+
+    private void expect(char expected) {
+        if (next() != expected) {
+            throw malformed("'" + expected + "' expected");
+        }
+    }
+
+    /**
+     * @return the next character that is not whitespace, 0 at the end
+     */
+    private char next() {
+        char c = peek();
+        if (c != 0) {
+            position++;
+        }
+        return c;
+    }
+
+    private char peek() {
+        while (position < json.length() && Character.isWhitespace(json.charAt(position))) {
+            position++;
+        }
+        return position < json.length() ? json.charAt(position) : 0;
+    }
+
+    private IllegalArgumentException malformed(String reason) {
+        return new IllegalArgumentException("Malformed JSON at " + position + ": " + reason);
+    }
+}
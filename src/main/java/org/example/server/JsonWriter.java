@@ -0,0 +1,161 @@
+package org.example.server;
+
+import java.util.Objects;
+
+/**
+ * Writes JSON into one pre-sized StringBuilder, field by field, without reflection
+ * Commas between members are tracked with a bit per nesting level, so nothing is allocated per value
+ */
+final class JsonWriter {
+    private static final int MAX_DEPTH = 63;
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    private final StringBuilder json;
+    /**
+     * Bit d is set once the open object or array at depth d has a member, so the next one needs a comma
+     */
+    private long hasMembers;
+    private int depth;
+    private boolean afterName;
+
+    /**
+     * @param capacity expected length of the document, the builder grows past it if needed
+     */
+    JsonWriter(int capacity) {
+        this.json = new StringBuilder(capacity);
+    }
+
+    JsonWriter beginObject() {
+        return open('{');
+    }
+
+    JsonWriter endObject() {
+        return close('}');
+    }
+
+    JsonWriter beginArray() {
+        return open('[');
+    }
+
+    JsonWriter endArray() {
+        return close(']');
+    }
+
+    JsonWriter name(String name) {
+        separate();
+        writeString(name);
+        json.append(':');
+        afterName = true;
+        return this;
+    }
+
+    JsonWriter value(String value) {
+        separate();
+        if (Objects.isNull(value)) {
+            json.append("null");
+        } else {
+            writeString(value);
+        }
+        return this;
+    }
+
+    JsonWriter value(long value) {
+        separate();
+        json.append(value);
+        return this;
+    }
+
+    JsonWriter value(boolean value) {
+        separate();
+        json.append(value);
+        return this;
+    }
+
+    JsonWriter value(char value) {
+        separate();
+        json.append('"');
+        writeChar(value);
+        json.append('"');
+        return this;
+    }
+
+    /**
+     * @return the document, which must have every object and array closed
+     */
+    @Override
+    public String toString() {
+        if (depth != 0) {
+            throw new IllegalStateException("JSON document has " + depth + " unclosed objects or arrays");
+        }
+        return json.toString();
+    }
+
+    private JsonWriter open(char bracket) {
+        separate();
+        if (depth == MAX_DEPTH) {
+            throw new IllegalStateException("JSON nested deeper than " + MAX_DEPTH);
+        }
+        json.append(bracket);
+        depth++;
+        hasMembers &= ~(1L << depth);
+        return this;
+    }
+
+    private JsonWriter close(char bracket) {
+        if (depth == 0) {
+            throw new IllegalStateException("No open object or array to close");
+        }
+        json.append(bracket);
+        depth--;
+        return this;
+    }
+
+    /**
+     * Writes the comma before a member unless it is the value of the name just written
+     */
+    private void separate() {
+        if (afterName) {
+            afterName = false;
+            return;
+        }
+        long bit = 1L << depth;
+        if ((hasMembers & bit) != 0) {
+            json.append(',');
+        }
+        hasMembers |= bit;
+    }
+
+    private void writeString(String value) {
+        json.append('"');
+        for (int index = 0; index < value.length(); index++) {
+            writeChar(value.charAt(index));
+        }
+        json.append('"');
+    }
+
+    private void writeChar(char c) {
+        switch (c) {
+            case '"':
+                json.append("\\\"");
+                break;
+            case '\\':
+                json.append("\\\\");
+                break;
+            case '\n':
+                json.append("\\n");
+                break;
+            case '\r':
+                json.append("\\r");
+                break;
+            case '\t':
+                json.append("\\t");
+                break;
+            default:
+                if (c < 0x20) {
+                    json.append("\\u00").append(HEX_DIGITS[c >> 4]).append(HEX_DIGITS[c & 0xF]);
+                } else {
+                    json.append(c);
+                }
+        }
+    }
+}
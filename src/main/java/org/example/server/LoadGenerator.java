@@ -0,0 +1,238 @@
+package org.example.server;
+
+import org.example.model.GameState;
+import org.example.model.LoadTestResult;
+import org.example.model.MoveStrategyType;
+import org.example.util.LoggerConfig;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Opens many loopback connections to a GameServer, each playing games against a computer opponent with random moves
+ * All connections stay open until every one has played its games, so the server holds them all at once
+ * A loopback address pair allows roughly 28k connections to one server port, so connections are spread
+ * over several source addresses 127.0.0.x to go beyond that; the process also needs a file descriptor per connection
+ */
+public class LoadGenerator {
+    private static final int MAX_PENDING_CONNECTS = 512;
+
+    private static final Logger logger = Logger.getLogger(LoadGenerator.class.getName());
+
+    static {
+        LoggerConfig.configureLogger(logger);
+    }
+
+    private final InetSocketAddress serverAddress;
+    private final int numberOfConnections;
+    private final int gamesPerConnection;
+    private final int numberOfSourceAddresses;
+    private final int numberOfEventLoops;
+    private final String createRequest;
+
+    private final AtomicInteger openConnections = new AtomicInteger();
+    private final LongAccumulator peakOpenConnections = new LongAccumulator(Math::max, 0);
+    private final LongAdder games = new LongAdder();
+    private final LongAdder moves = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder totalMoveLatencyNanos = new LongAdder();
+    private final LongAccumulator maxMoveLatencyNanos = new LongAccumulator(Math::max, 0);
+    private final Semaphore pendingConnects = new Semaphore(MAX_PENDING_CONNECTS);
+    private CountDownLatch finishedConnections;
+
+    /**
+     * @param serverAddress
+     * @param numberOfConnections connections held open at once
+     * @param gamesPerConnection games each connection plays one after another
+     * @param numberOfSourceAddresses loopback source addresses to spread the connections over, 1 to use the default
+     * @param numberOfCellsPerRow board size of the games
+     * @param opponent strategy of the computer opponent
+     */
+    public LoadGenerator(InetSocketAddress serverAddress, int numberOfConnections, int gamesPerConnection,
+                         int numberOfSourceAddresses, int numberOfCellsPerRow, MoveStrategyType opponent) {
+        if (numberOfConnections < 1 || gamesPerConnection < 1 || numberOfSourceAddresses < 1 || numberOfSourceAddresses > 254) {
+            throw new IllegalArgumentException("numberOfConnections, gamesPerConnection and numberOfSourceAddresses (at most 254) must be positive");
+        }
+        this.serverAddress = serverAddress;
+        this.numberOfConnections = numberOfConnections;
+        this.gamesPerConnection = gamesPerConnection;
+        this.numberOfSourceAddresses = numberOfSourceAddresses;
+        this.numberOfEventLoops = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() / 2));
+        this.createRequest = "CREATE load " + numberOfCellsPerRow + " " + numberOfCellsPerRow + " " + numberOfCellsPerRow + " " + opponent;
+    }
+
+    /**
+     * Connects, plays and disconnects
+     * @param timeout
+     * @param timeUnit
+     * @return counts and timings of the run, not completed if some connection had not played its games in time
+     * @throws IOException
+     * @throws InterruptedException
+     */
+    public LoadTestResult run(long timeout, TimeUnit timeUnit) throws IOException, InterruptedException {
+        finishedConnections = new CountDownLatch(numberOfConnections);
+        EventLoop[] eventLoops = new EventLoop[numberOfEventLoops];
+        for (int index = 0; index < numberOfEventLoops; index++) {
+            eventLoops[index] = new EventLoop("load-generator-loop-" + index);
+            eventLoops[index].start();
+        }
+        List<Connection> connections = new ArrayList<>(numberOfConnections);
+        Client client = new Client();
+        long startNanos = System.nanoTime();
+        long deadlineNanos = startNanos + timeUnit.toNanos(timeout);
+        boolean completed = false;
+        long elapsedNanos;
+        try {
+            for (int index = 0; index < numberOfConnections; index++) {
+                if (!pendingConnects.tryAcquire(Math.max(0, deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS)) {
+                    break;
+                }
+                connections.add(connect(index, eventLoops[index % numberOfEventLoops], client));
+            }
+            completed = connections.size() == numberOfConnections
+                    && finishedConnections.await(Math.max(0, deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } finally {
+            elapsedNanos = System.nanoTime() - startNanos;
+            for (EventLoop eventLoop : eventLoops) {
+                eventLoop.close();
+            }
+        }
+        LoadTestResult result = LoadTestResult.builder()
+                .connections(connections.size())
+                .peakOpenConnections((int) peakOpenConnections.get())
+                .games(games.sum())
+                .moves(moves.sum())
+                .errors(errors.sum())
+                .totalMoveLatencyNanos(totalMoveLatencyNanos.sum())
+                .maxMoveLatencyNanos(maxMoveLatencyNanos.get())
+                .elapsedNanos(elapsedNanos)
+                .completed(completed)
+                .build();
+        logger.log(Level.INFO, "Load test: {0}", result);
+        return result;
+    }
+
+    private Connection connect(int index, EventLoop eventLoop, Client client) throws IOException {
+        SocketChannel channel = SocketChannel.open();
+        channel.configureBlocking(false);
+        channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        if (numberOfSourceAddresses > 1) {
+            channel.bind(new InetSocketAddress("127.0.0." + (1 + index % numberOfSourceAddresses), 0));
+        }
+        Connection connection = new Connection(channel, eventLoop, client);
+        ClientState state = new ClientState();
+        connection.setAttachment(state);
+        boolean connected = channel.connect(serverAddress);
+        if (connected) {
+            client.onConnect(connection);
+        }
+        connection.register(connected ? SelectionKey.OP_READ : SelectionKey.OP_CONNECT);
+        connection.send(createRequest);
+        return connection;
+    }
+
+    private static final class ClientState {
+        private volatile boolean connected;
+        private boolean finished;
+        private int playerIndex;
+        private int gamesPlayed;
+        private long moveSentNanos;
+    }
+
+    /**
+     * Plays the games of every connection, on the connections' event loop threads
+     */
+    private final class Client implements Connection.LineHandler {
+        @Override
+        public void onConnect(Connection connection) {
+            ((ClientState) connection.getAttachment()).connected = true;
+            pendingConnects.release();
+            peakOpenConnections.accumulate(openConnections.incrementAndGet());
+        }
+
+        @Override
+        public void onLine(Connection connection, String line) {
+            ClientState state = (ClientState) connection.getAttachment();
+            String[] arguments = line.split(" ");
+            switch (arguments[0]) {
+                case "STARTED":
+                    state.playerIndex = Integer.parseInt(arguments[2]);
+                    break;
+                case "STATE":
+                    onState(connection, state, arguments);
+                    break;
+                default:
+                    errors.increment();
+                    finish(state);
+                    break;
+            }
+        }
+
+        @Override
+        public void onClose(Connection connection) {
+            ClientState state = (ClientState) connection.getAttachment();
+            if (state.connected) {
+                openConnections.decrementAndGet();
+            } else {
+                pendingConnects.release();
+            }
+            if (!state.finished) {
+                errors.increment();
+                finish(state);
+            }
+        }
+
+        private void onState(Connection connection, ClientState state, String[] arguments) {
+            if (state.moveSentNanos != 0) {
+                long latencyNanos = System.nanoTime() - state.moveSentNanos;
+                state.moveSentNanos = 0;
+                moves.increment();
+                totalMoveLatencyNanos.add(latencyNanos);
+                maxMoveLatencyNanos.accumulate(latencyNanos);
+            }
+            if (GameState.valueOf(arguments[2]) != GameState.ONGOING) {
+                games.increment();
+                if (++state.gamesPlayed < gamesPerConnection) {
+                    connection.send(createRequest);
+                } else {
+                    finish(state);
+                }
+                return;
+            }
+            if (Integer.parseInt(arguments[3]) != state.playerIndex) {
+                return;
+            }
+            String cells = arguments[5];
+            int offset = ThreadLocalRandom.current().nextInt(cells.length());
+            for (int index = 0; index < cells.length(); index++) {
+                int cellIndex = (offset + index) % cells.length();
+                if (cells.charAt(cellIndex) == '.') {
+                    state.moveSentNanos = System.nanoTime();
+                    connection.send("MOVE " + arguments[1] + " " + cellIndex);
+                    return;
+                }
+            }
+        }
+
+        private void finish(ClientState state) {
+            if (!state.finished) {
+                state.finished = true;
+                finishedConnections.countDown();
+            }
+        }
+    }
+}
@@ -0,0 +1,551 @@
+package org.example.server;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+
+/**
+ * A non-blocking HTTP/1.1 connection served by one EventLoop, which turns into a WebSocket connection once upgraded
+ * Received bytes are kept only until the request or frame they belong to is complete, so an idle connection holds no buffer
+ * Requests are answered in order: reading pauses while a request waits for its response, which may be sent from any thread
+ */
+final class WebConnection implements EventLoop.Handler {
+    static final int MAX_REQUEST_LENGTH = 16 * 1024;
+    private static final String WEB_SOCKET_GUID = "258EAFA5-E914-47DA-95CA-C5AB0DC85B11";
+    private static final byte[] HEADER_END = {'\r', '\n', '\r', '\n'};
+    private static final int OPCODE_TEXT = 0x1;
+    private static final int OPCODE_CLOSE = 0x8;
+    private static final int OPCODE_PING = 0x9;
+    private static final int OPCODE_PONG = 0xA;
+    private static final int CLOSE_UNSUPPORTED_DATA = 1003;
+    private static final int CLOSE_TOO_BIG = 1009;
+
+    private final SocketChannel channel;
+    private final EventLoop eventLoop;
+    private final RequestHandler requestHandler;
+    private final Queue<ByteBuffer> outbound = new ArrayDeque<>();
+    private SelectionKey key;
+    private volatile Object attachment;
+    private byte[] received;
+    private int receivedLength;
+    private boolean webSocket;
+    private boolean awaitingResponse;
+    private boolean processing;
+    private volatile boolean closeAfterResponse;
+    private boolean closing;
+    private boolean flushScheduled;
+    private volatile boolean closed;
+
+    /**
+     * Receives the requests and messages of a connection on its event loop's thread
+     */
+    interface RequestHandler {
+        /**
+         * Must answer with exactly one respond(), from any thread, or accept a WebSocket upgrade before returning
+         */
+        void onRequest(WebConnection connection, Request request);
+
+        void onMessage(WebConnection connection, String message);
+
+        void onClose(WebConnection connection);
+    }
+
+    /**
+     * An HTTP request, header names in lower case
+     */
+    static final class Request {
+        private final String method;
+        private final String path;
+        private final Map<String, String> headers;
+        private final String body;
+
+        private Request(String method, String path, Map<String, String> headers, String body) {
+            this.method = method;
+            this.path = path;
+            this.headers = headers;
+            this.body = body;
+        }
+
+        String getMethod() {
+            return method;
+        }
+
+        /**
+         * @return the path without its query string
+         */
+        String getPath() {
+            return path;
+        }
+
+        String getHeader(String name) {
+            return headers.get(name);
+        }
+
+        /**
+         * @return the body, null if the request has none
+         */
+        String getBody() {
+            return body;
+        }
+
+        boolean isWebSocketUpgrade() {
+            return Objects.equals(method, "GET") && "websocket".equalsIgnoreCase(headers.get("upgrade"))
+                    && Objects.nonNull(headers.get("sec-websocket-key"));
+        }
+    }
+
+    WebConnection(SocketChannel channel, EventLoop eventLoop, RequestHandler requestHandler) {
+        this.channel = channel;
+        this.eventLoop = eventLoop;
+        this.requestHandler = requestHandler;
+    }
+
+    void register() {
+        eventLoop.execute(() -> {
+            try {
+                key = channel.register(eventLoop.getSelector(), SelectionKey.OP_READ, this);
+            } catch (IOException e) {
+                close();
+            }
+        });
+    }
+
+    Object getAttachment() {
+        return attachment;
+    }
+
+    void setAttachment(Object attachment) {
+        this.attachment = attachment;
+    }
+
+    boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Answers the request being handled, from any thread
+     * @param status HTTP status code
+     * @param json body of the response
+     */
+    void respond(int status, String json) {
+        respond(status, "application/json", json);
+    }
+
+    /**
+     * Answers the request being handled, from any thread
+     * @param status HTTP status code
+     * @param contentType
+     * @param text body of the response
+     */
+    void respond(int status, String contentType, String text) {
+        byte[] body = text.getBytes(StandardCharsets.UTF_8);
+        String head = "HTTP/1.1 " + status + " " + reasonPhrase(status)
+                + "\r\nContent-Type: " + contentType + "\r\nContent-Length: " + body.length
+                + (closeAfterResponse ? "\r\nConnection: close" : "") + "\r\n\r\n";
+        ByteBuffer response = ByteBuffer.allocate(head.length() + body.length);
+        response.put(head.getBytes(StandardCharsets.US_ASCII)).put(body).flip();
+        write(response);
+        eventLoop.execute(this::resume);
+    }
+
+    /**
+     * Accepts the WebSocket upgrade asked for by the request being handled, on the loop's thread from onRequest
+     * @param request
+     */
+    void acceptWebSocket(Request request) {
+        String accept;
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-1")
+                    .digest((request.getHeader("sec-websocket-key") + WEB_SOCKET_GUID).getBytes(StandardCharsets.US_ASCII));
+            accept = Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-1 is not available", e);
+        }
+        write(ByteBuffer.wrap(("HTTP/1.1 101 Switching Protocols\r\nUpgrade: websocket\r\nConnection: Upgrade\r\nSec-WebSocket-Accept: "
+                + accept + "\r\n\r\n").getBytes(StandardCharsets.US_ASCII)));
+        webSocket = true;
+        awaitingResponse = false;
+    }
+
+    /**
+     * Sends a WebSocket text message, from any thread
+     * @param message
+     */
+    void sendText(String message) {
+        sendFrame(textFrame(message));
+    }
+
+    /**
+     * Sends a frame built once with textFrame() for many connections, from any thread
+     * @param frame left untouched, each connection writes its own view of it
+     */
+    void sendFrame(ByteBuffer frame) {
+        write(frame.duplicate());
+    }
+
+    /**
+     * @param message
+     * @return an unmasked WebSocket text frame holding message
+     */
+    static ByteBuffer textFrame(String message) {
+        return frame(OPCODE_TEXT, message.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public void read() {
+        ByteBuffer buffer = eventLoop.getReadBuffer();
+        try {
+            int bytesRead;
+            while (!awaitingResponse && (bytesRead = channel.read(buffer)) != 0) {
+                if (bytesRead < 0) {
+                    buffer.clear();
+                    close();
+                    return;
+                }
+                buffer.flip();
+                append(buffer);
+                buffer.clear();
+                process();
+                if (closed || closing) {
+                    return;
+                }
+                if (receivedLength > MAX_REQUEST_LENGTH) {
+                    reject();
+                    return;
+                }
+            }
+        } catch (IOException e) {
+            buffer.clear();
+            close();
+        }
+    }
+
+    @Override
+    public void flush() {
+        if (closed || Objects.isNull(key)) {
+            return;
+        }
+        try {
+            synchronized (outbound) {
+                ByteBuffer bytes;
+                while (Objects.nonNull(bytes = outbound.peek())) {
+                    channel.write(bytes);
+                    if (bytes.hasRemaining()) {
+                        key.interestOps(key.interestOps() | SelectionKey.OP_WRITE);
+                        return;
+                    }
+                    outbound.poll();
+                }
+                flushScheduled = false;
+            }
+            if (closing) {
+                close();
+                return;
+            }
+            key.interestOps(key.interestOps() & ~SelectionKey.OP_WRITE);
+        } catch (IOException e) {
+            close();
+        }
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        synchronized (outbound) {
+            outbound.clear();
+        }
+        received = null;
+        if (Objects.nonNull(key)) {
+            key.cancel();
+        }
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+            // the connection is gone either way
+        }
+        requestHandler.onClose(this);
+    }
+
+    private void write(ByteBuffer bytes) {
+        synchronized (outbound) {
+            if (closed) {
+                return;
+            }
+            outbound.add(bytes);
+            if (flushScheduled) {
+                return;
+            }
+            flushScheduled = true;
+        }
+        eventLoop.execute(this::flush);
+    }
+
+    /**
+     * Carries on with the requests received while the last one waited for its response
+     */
+    private void resume() {
+        if (closed) {
+            return;
+        }
+        awaitingResponse = false;
+        if (closeAfterResponse) {
+            closeWhenFlushed();
+            return;
+        }
+        key.interestOps(key.interestOps() | SelectionKey.OP_READ);
+        // a response sent while handling the request on this thread lets the running process() carry on instead
+        if (!processing) {
+            process();
+        }
+    }
+
+    private void append(ByteBuffer buffer) {
+        int length = buffer.remaining();
+        if (Objects.isNull(received)) {
+            received = new byte[Math.max(256, length)];
+        } else if (received.length < receivedLength + length) {
+            received = Arrays.copyOf(received, Math.max(2 * received.length, receivedLength + length));
+        }
+        buffer.get(received, receivedLength, length);
+        receivedLength += length;
+    }
+
+    /**
+     * Handles every complete request or frame received, keeping the bytes of an incomplete one
+     */
+    private void process() {
+        int offset = 0;
+        processing = true;
+        try {
+            while (!closed && !closing && !awaitingResponse && offset < receivedLength) {
+                int consumed = webSocket ? processFrame(offset) : processRequest(offset);
+                if (consumed == 0) {
+                    break;
+                }
+                offset += consumed;
+            }
+        } finally {
+            processing = false;
+        }
+        if (closed) {
+            return;
+        }
+        if (offset == receivedLength) {
+            received = null;
+            receivedLength = 0;
+        } else if (offset > 0) {
+            System.arraycopy(received, offset, received, 0, receivedLength - offset);
+            receivedLength -= offset;
+        }
+    }
+
+    /**
+     * @return length of the request handled, 0 if it is not complete yet
+     */
+    private int processRequest(int offset) {
+        int headerEnd = indexOf(HEADER_END, offset);
+        if (headerEnd < 0) {
+            return 0;
+        }
+        String[] lines = new String(received, offset, headerEnd - offset, StandardCharsets.US_ASCII).split("\r\n");
+        String[] requestLine = lines[0].split(" ");
+        if (requestLine.length != 3 || !requestLine[2].startsWith("HTTP/1.")) {
+            reject();
+            return 0;
+        }
+        Map<String, String> headers = new HashMap<>();
+        for (int index = 1; index < lines.length; index++) {
+            int colon = lines[index].indexOf(':');
+            if (colon > 0) {
+                headers.put(lines[index].substring(0, colon).trim().toLowerCase(Locale.ROOT), lines[index].substring(colon + 1).trim());
+            }
+        }
+        int bodyStart = headerEnd + HEADER_END.length;
+        int bodyLength;
+        try {
+            bodyLength = Integer.parseInt(headers.getOrDefault("content-length", "0"));
+        } catch (NumberFormatException e) {
+            reject();
+            return 0;
+        }
+        if (bodyLength < 0 || bodyStart - offset + bodyLength > MAX_REQUEST_LENGTH) {
+            reject();
+            return 0;
+        }
+        if (receivedLength - bodyStart < bodyLength) {
+            return 0;
+        }
+        String path = requestLine[1];
+        int query = path.indexOf('?');
+        Request request = new Request(requestLine[0], query < 0 ? path : path.substring(0, query), headers,
+                bodyLength == 0 ? null : new String(received, bodyStart, bodyLength, StandardCharsets.UTF_8));
+        closeAfterResponse = "close".equalsIgnoreCase(headers.get("connection")) || Objects.equals(requestLine[2], "HTTP/1.0");
+        awaitingResponse = true;
+        key.interestOps(key.interestOps() & ~SelectionKey.OP_READ);
+        requestHandler.onRequest(this, request);
+        if (webSocket) {
+            key.interestOps(key.interestOps() | SelectionKey.OP_READ);
+        }
+        return bodyStart + bodyLength - offset;
+    }
+
+    /**
+     * @return length of the frame handled, 0 if it is not complete yet
+     */
+    private int processFrame(int offset) {
+        int available = receivedLength - offset;
+        if (available < 2) {
+            return 0;
+        }
+        int first = received[offset] & 0xFF;
+        int second = received[offset + 1] & 0xFF;
+        boolean isFinal = (first & 0x80) != 0;
+        int opcode = first & 0x0F;
+        int headerLength = 2;
+        long payloadLength = second & 0x7F;
+        if (payloadLength == 126) {
+            headerLength += 2;
+        } else if (payloadLength == 127) {
+            headerLength += 8;
+        }
+        if ((second & 0x80) == 0) {
+            // clients must mask every frame
+            sendClose(CLOSE_UNSUPPORTED_DATA);
+            return 0;
+        }
+        headerLength += 4;
+        if (available < headerLength) {
+            return 0;
+        }
+        if (payloadLength >= 126) {
+            payloadLength = 0;
+            for (int index = 2; index < headerLength - 4; index++) {
+                payloadLength = (payloadLength << 8) | (received[offset + index] & 0xFF);
+            }
+        }
+        if (payloadLength > MAX_REQUEST_LENGTH) {
+            sendClose(CLOSE_TOO_BIG);
+            return 0;
+        }
+        int frameLength = headerLength + (int) payloadLength;
+        if (available < frameLength) {
+            return 0;
+        }
+        byte[] payload = new byte[(int) payloadLength];
+        int maskOffset = offset + headerLength - 4;
+        for (int index = 0; index < payload.length; index++) {
+            payload[index] = (byte) (received[offset + headerLength + index] ^ received[maskOffset + (index & 3)]);
+        }
+        switch (opcode) {
+            case OPCODE_TEXT:
+                if (!isFinal) {
+                    sendClose(CLOSE_UNSUPPORTED_DATA);
+                    break;
+                }
+                requestHandler.onMessage(this, new String(payload, StandardCharsets.UTF_8));
+                break;
+            case OPCODE_CLOSE:
+                write(frame(OPCODE_CLOSE, payload.length >= 2 ? Arrays.copyOf(payload, 2) : new byte[0]));
+                closeWhenFlushed();
+                break;
+            case OPCODE_PING:
+                write(frame(OPCODE_PONG, payload));
+                break;
+            case OPCODE_PONG:
+                break;
+            default:
+                // binary and fragmented messages are not part of the API
+                sendClose(CLOSE_UNSUPPORTED_DATA);
+        }
+        return frameLength;
+    }
+
+    /**
+     * Answers a request that cannot be parsed, or is too long, and closes the connection
+     */
+    private void reject() {
+        if (webSocket) {
+            sendClose(CLOSE_TOO_BIG);
+            return;
+        }
+        closeAfterResponse = true;
+        respond(400, GameJson.error("Bad request"));
+        awaitingResponse = true;
+    }
+
+    private void sendClose(int statusCode) {
+        write(frame(OPCODE_CLOSE, new byte[]{(byte) (statusCode >> 8), (byte) statusCode}));
+        closeWhenFlushed();
+    }
+
+    private void closeWhenFlushed() {
+        closing = true;
+        key.interestOps(key.interestOps() & ~SelectionKey.OP_READ);
+        synchronized (outbound) {
+            if (flushScheduled) {
+                return;
+            }
+        }
+        close();
+    }
+
+    private int indexOf(byte[] pattern, int from) {
+        int last = Math.min(receivedLength, from + MAX_REQUEST_LENGTH) - pattern.length;
+        outer:
+        for (int position = from; position <= last; position++) {
+            for (int index = 0; index < pattern.length; index++) {
+                if (received[position + index] != pattern[index]) {
+                    continue outer;
+                }
+            }
+            return position;
+        }
+        return -1;
+    }
+
+    private static ByteBuffer frame(int opcode, byte[] payload) {
+        int headerLength = payload.length < 126 ? 2 : payload.length <= 0xFFFF ? 4 : 10;
+        ByteBuffer frame = ByteBuffer.allocate(headerLength + payload.length);
+        frame.put((byte) (0x80 | opcode));
+        if (payload.length < 126) {
+            frame.put((byte) payload.length);
+        } else if (payload.length <= 0xFFFF) {
+            frame.put((byte) 126).putShort((short) payload.length);
+        } else {
+            frame.put((byte) 127).putLong(payload.length);
+        }
+        return frame.put(payload).flip();
+    }
+
+    private static String reasonPhrase(int status) {
+        switch (status) {
+            case 200:
+                return "OK";
+            case 201:
+                return "Created";
+            case 400:
+                return "Bad Request";
+            case 404:
+                return "Not Found";
+            case 405:
+                return "Method Not Allowed";
+            default:
+                return "Internal Server Error";
+        }
+    }
+}
@@ -0,0 +1,419 @@
+package org.example.server;
+
+import org.example.controller.GameController;
+import org.example.exception.UserException;
+import org.example.metrics.GameMetrics;
+import org.example.model.Game;
+import org.example.model.GameState;
+import org.example.model.MoveHistory;
+import org.example.model.MoveStrategyType;
+import org.example.model.Player;
+import org.example.model.PlayerType;
+import org.example.util.LoggerConfig;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Non-blocking HTTP and WebSocket front end for browser clients, speaking JSON and calling through GameController
+ * It runs on the same EventLoops as GameServer; games are hosted by the controller's GameHost, whose listener pushes
+ * each change to the game's WebSocket subscribers as a board diff of the moves played since the last push
+ *
+ * HTTP requests, with JSON bodies:
+ * POST /players {"name", "playerType", "moveStrategyType"} - adds a player, moveStrategyType is optional
+ * POST /toss {"player1Id", "player2Id"} - answers {"playerId"} of the player who goes first
+ * POST /games {"player1Id", "player2Id", "numberOfRows", "numberOfColumns", "winLength", "tossWinnerId"} - starts and hosts a game,
+ * numberOfColumns and winLength default to numberOfRows and a toss is held without tossWinnerId, the board holds at most
+ * GameServer.MAX_NUMBER_OF_CELLS cells
+ * GET /games/{gameId} - the game
+ * POST /games/{gameId}/moves {"playerId", "cellIndex"} - answers once the move and the engine replies are played,
+ * with the moves from the submitted one on
+ * GET /games/{gameId}/events - WebSocket upgrade, see below
+ * GET /metrics - GameMetrics in the Prometheus text format
+ *
+ * A WebSocket subscriber first receives the game, then a moves document whenever the game changes. A moves document lists
+ * the moves from index "from" on, a client applies the ones past the numberOfMoves it already holds.
+ * Moves may also be sent over the WebSocket as {"playerId", "cellIndex"}, errors come back as {"error"}
+ */
+public class WebServer implements Closeable {
+    public static final int DEFAULT_PORT = 8080;
+    private static final int BACKLOG = 4096;
+    private static final String PROMETHEUS_CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private static final Logger logger = Logger.getLogger(WebServer.class.getName());
+
+    static {
+        LoggerConfig.configureLogger(logger);
+    }
+
+    private final GameController gameController;
+    private final ServerSocketChannel serverChannel;
+    private final EventLoop[] eventLoops;
+    private final AtomicInteger nextEventLoop = new AtomicInteger();
+    private final Map<String, Player> players = new ConcurrentHashMap<>();
+    /**
+     * Ids of the players in an ongoing game, a player holds one mark at a time so it plays one game at a time
+     */
+    private final Set<String> playersInGames = ConcurrentHashMap.newKeySet();
+    private final Map<String, WebGame> webGames = new ConcurrentHashMap<>();
+    private final WebConnection.RequestHandler requestHandler = new WebConnection.RequestHandler() {
+        @Override
+        public void onRequest(WebConnection connection, WebConnection.Request request) {
+            handle(connection, request);
+        }
+
+        @Override
+        public void onMessage(WebConnection connection, String message) {
+            handleMessage(connection, message);
+        }
+
+        @Override
+        public void onClose(WebConnection connection) {
+            Object webGame = connection.getAttachment();
+            if (webGame instanceof WebGame) {
+                ((WebGame) webGame).subscribers.remove(connection);
+            }
+        }
+    };
+
+    /**
+     * @param gameController
+     * @param address address to listen on, port 0 for any free port
+     * @param numberOfEventLoops selector threads, one is usually enough per core
+     * @throws IOException
+     */
+    public WebServer(GameController gameController, InetSocketAddress address, int numberOfEventLoops) throws IOException {
+        if (numberOfEventLoops < 1) {
+            throw new IllegalArgumentException("numberOfEventLoops must be positive");
+        }
+        this.gameController = gameController;
+        this.eventLoops = new EventLoop[numberOfEventLoops];
+        for (int index = 0; index < numberOfEventLoops; index++) {
+            eventLoops[index] = new EventLoop("web-server-loop-" + index);
+        }
+        this.serverChannel = ServerSocketChannel.open();
+        serverChannel.setOption(StandardSocketOptions.SO_REUSEADDR, true);
+        serverChannel.bind(address, BACKLOG);
+        serverChannel.configureBlocking(false);
+        EventLoop acceptLoop = eventLoops[0];
+        acceptLoop.execute(() -> {
+            try {
+                serverChannel.register(acceptLoop.getSelector(), SelectionKey.OP_ACCEPT, (EventLoop.Acceptor) this::accept);
+            } catch (IOException e) {
+                logger.log(Level.SEVERE, e, () -> "Could not listen on " + address);
+            }
+        });
+        for (EventLoop eventLoop : eventLoops) {
+            eventLoop.start();
+        }
+        logger.log(Level.INFO, "Web server listening on {0} with {1} event loops", new Object[]{getAddress(), numberOfEventLoops});
+    }
+
+    /**
+     * Forgets a player, for example one the repository evicted, its id is no longer accepted
+     * @param playerId
+     */
+    public void removePlayer(String playerId) {
+        players.remove(playerId);
+    }
+
+    public InetSocketAddress getAddress() throws IOException {
+        return (InetSocketAddress) serverChannel.getLocalAddress();
+    }
+
+    @Override
+    public void close() {
+        try {
+            serverChannel.close();
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Could not close the server socket", e);
+        }
+        for (EventLoop eventLoop : eventLoops) {
+            eventLoop.close();
+        }
+    }
+
+    private void accept() {
+        try {
+            SocketChannel channel;
+            while (Objects.nonNull(channel = serverChannel.accept())) {
+                channel.configureBlocking(false);
+                channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                EventLoop eventLoop = eventLoops[Math.floorMod(nextEventLoop.getAndIncrement(), eventLoops.length)];
+                new WebConnection(channel, eventLoop, requestHandler).register();
+            }
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Accept failed", e);
+        }
+    }
+
+    private void handle(WebConnection connection, WebConnection.Request request) {
+        String[] path = request.getPath().split("/");
+        String method = request.getMethod();
+        try {
+            if (path.length == 2 && Objects.equals(path[1], "players")) {
+                checkMethod(method, "POST");
+                connection.respond(201, GameJson.player(addPlayer(JsonReader.parseObject(request.getBody()))));
+            } else if (path.length == 2 && Objects.equals(path[1], "metrics")) {
+                checkMethod(method, "GET");
+                connection.respond(200, PROMETHEUS_CONTENT_TYPE, GameMetrics.get().toPrometheusText());
+            } else if (path.length == 2 && Objects.equals(path[1], "toss")) {
+                checkMethod(method, "POST");
+                Map<String, String> body = JsonReader.parseObject(request.getBody());
+                Player tossWinner = gameController.conductTossToDecideWhoGoesFirst(
+                        getPlayer(JsonReader.getRequired(body, "player1Id")), getPlayer(JsonReader.getRequired(body, "player2Id")));
+                connection.respond(200, new JsonWriter(64).beginObject().name("playerId").value(tossWinner.getId()).endObject().toString());
+            } else if (path.length == 2 && Objects.equals(path[1], "games")) {
+                checkMethod(method, "POST");
+                connection.respond(201, startGame(JsonReader.parseObject(request.getBody())));
+            } else if (path.length == 3 && Objects.equals(path[1], "games")) {
+                checkMethod(method, "GET");
+                connection.respond(200, getGameDocument(path[2]));
+            } else if (path.length == 4 && Objects.equals(path[1], "games") && Objects.equals(path[3], "moves")) {
+                checkMethod(method, "POST");
+                Map<String, String> body = JsonReader.parseObject(request.getBody());
+                submitMove(path[2], JsonReader.getRequired(body, "playerId"), JsonReader.getRequiredInt(body, "cellIndex"),
+                        (status, json) -> connection.respond(status, json));
+            } else if (path.length == 4 && Objects.equals(path[1], "games") && Objects.equals(path[3], "events")) {
+                checkMethod(method, "GET");
+                subscribe(connection, request, path[2]);
+            } else {
+                connection.respond(404, GameJson.error("No such resource: " + request.getPath()));
+            }
+        } catch (MethodNotAllowedException e) {
+            connection.respond(405, GameJson.error(e.getMessage()));
+        } catch (UserException | IllegalArgumentException e) {
+            connection.respond(400, GameJson.error(e.getMessage()));
+        } catch (RuntimeException e) {
+            logger.log(Level.WARNING, e, () -> "Request " + method + " " + request.getPath() + " failed");
+            connection.respond(500, GameJson.error(e.getMessage()));
+        }
+    }
+
+    private void handleMessage(WebConnection connection, String message) {
+        WebGame webGame = (WebGame) connection.getAttachment();
+        try {
+            Map<String, String> body = JsonReader.parseObject(message);
+            submitMove(webGame.gameId, JsonReader.getRequired(body, "playerId"), JsonReader.getRequiredInt(body, "cellIndex"),
+                    (status, json) -> {
+                        // the applied move reaches every subscriber as a moves document, only errors are answered
+                        if (status != 200) {
+                            connection.sendText(json);
+                        }
+                    });
+        } catch (UserException | IllegalArgumentException e) {
+            connection.sendText(GameJson.error(e.getMessage()));
+        }
+    }
+
+    private Player addPlayer(Map<String, String> body) {
+        String moveStrategyType = body.get("moveStrategyType");
+        Player player = gameController.addPlayer(JsonReader.getRequired(body, "name"),
+                PlayerType.valueOf(JsonReader.getRequired(body, "playerType")),
+                Objects.isNull(moveStrategyType) ? null : MoveStrategyType.valueOf(moveStrategyType));
+        if (Objects.isNull(player)) {
+            throw new IllegalStateException("Player could not be added");
+        }
+        players.put(player.getId(), player);
+        return player;
+    }
+
+    private Player getPlayer(String playerId) {
+        Player player = players.get(playerId);
+        if (Objects.isNull(player)) {
+            throw new UserException("Player id not found: " + playerId);
+        }
+        return player;
+    }
+
+    /**
+     * Initialises and hosts a game, pushing its changes to its subscribers
+     * @return the game as JSON, written before hosting starts so the engine's opening moves do not change it meanwhile
+     */
+    private String startGame(Map<String, String> body) {
+        Player player1 = getPlayer(JsonReader.getRequired(body, "player1Id"));
+        Player player2 = getPlayer(JsonReader.getRequired(body, "player2Id"));
+        int numberOfRows = JsonReader.getRequiredInt(body, "numberOfRows");
+        int numberOfColumns = body.containsKey("numberOfColumns") ? JsonReader.getRequiredInt(body, "numberOfColumns") : numberOfRows;
+        int winLength = body.containsKey("winLength") ? JsonReader.getRequiredInt(body, "winLength") : numberOfColumns;
+        GameServer.checkBoard(numberOfRows, numberOfColumns, winLength);
+        String tossWinnerId = body.get("tossWinnerId");
+        Player tossWinner = Objects.isNull(tossWinnerId)
+                ? gameController.conductTossToDecideWhoGoesFirst(player1, player2) : getPlayer(tossWinnerId);
+        if (tossWinner != player1 && tossWinner != player2) {
+            throw new UserException("Toss winner must be one of the players");
+        }
+        joinGame(player1, player2);
+        try {
+            Game game = gameController.initialiseGame(player1, player2, numberOfRows, numberOfColumns, winLength, tossWinner);
+            if (Objects.isNull(game)) {
+                throw new IllegalStateException("Game could not be created");
+            }
+            String json = GameJson.game(game);
+            WebGame webGame = new WebGame(game.getId(), json);
+            webGames.put(game.getId(), webGame);
+            gameController.hostGame(game.getId(), webGame::push).whenComplete((endedGame, e) -> {
+                leaveGame(player1, player2);
+                // a game that stops being hosted without ending, for example because it was evicted, is dropped here
+                if (Objects.nonNull(e)) {
+                    webGames.remove(webGame.gameId);
+                    Throwable cause = e instanceof CompletionException && Objects.nonNull(e.getCause()) ? e.getCause() : e;
+                    String error = GameJson.error(cause.getMessage());
+                    for (WebConnection subscriber : webGame.subscribers) {
+                        subscriber.sendText(error);
+                    }
+                }
+            });
+            return json;
+        } catch (RuntimeException e) {
+            leaveGame(player1, player2);
+            throw e;
+        }
+    }
+
+    /**
+     * Marks both players as in a game, a game would take over the mark its players hold in another
+     */
+    private void joinGame(Player player1, Player player2) {
+        if (player1 == player2) {
+            throw new UserException("A player cannot play against itself");
+        }
+        if (!playersInGames.add(player1.getId())) {
+            throw new UserException("Player is already in a game: " + player1.getId());
+        }
+        if (!playersInGames.add(player2.getId())) {
+            playersInGames.remove(player1.getId());
+            throw new UserException("Player is already in a game: " + player2.getId());
+        }
+    }
+
+    private void leaveGame(Player player1, Player player2) {
+        playersInGames.remove(player1.getId());
+        playersInGames.remove(player2.getId());
+    }
+
+    /**
+     * @return the document the host's listener wrote last for a hosted game, a game that is no longer hosted does not
+     * change any more and is read from the repository
+     */
+    private String getGameDocument(String gameId) {
+        WebGame webGame = webGames.get(gameId);
+        return Objects.nonNull(webGame) ? webGame.document : GameJson.game(gameController.getGameFromId(gameId));
+    }
+
+    /**
+     * The answer is written on the thread applying the move, a later move may change the game before it is sent
+     */
+    private void submitMove(String gameId, String playerId, int cellIndex, Responder responder) {
+        gameController.submitMove(gameId, playerId, cellIndex, game -> GameJson.moves(game, indexOfMove(game.getMoveHistory(), cellIndex)))
+                .whenComplete((json, e) -> {
+                    if (Objects.nonNull(e)) {
+                        Throwable cause = e instanceof CompletionException && Objects.nonNull(e.getCause()) ? e.getCause() : e;
+                        responder.respond(cause instanceof UserException || cause instanceof IllegalArgumentException ? 400 : 500,
+                                GameJson.error(cause.getMessage()));
+                        return;
+                    }
+                    responder.respond(200, json);
+                });
+    }
+
+    private void subscribe(WebConnection connection, WebConnection.Request request, String gameId) {
+        if (!request.isWebSocketUpgrade()) {
+            throw new UserException("Expected a WebSocket upgrade");
+        }
+        WebGame webGame = webGames.get(gameId);
+        if (Objects.isNull(webGame)) {
+            connection.respond(404, GameJson.error("Game is not hosted: " + gameId));
+            return;
+        }
+        connection.acceptWebSocket(request);
+        connection.setAttachment(webGame);
+        webGame.subscribe(connection);
+    }
+
+    /**
+     * @return index in the history of the move to cellIndex, every cell is played at most once in a game
+     */
+    private static int indexOfMove(MoveHistory moveHistory, int cellIndex) {
+        for (int index = moveHistory.size() - 1; index >= 0; index--) {
+            if (moveHistory.getCellIndex(index) == cellIndex) {
+                return index;
+            }
+        }
+        return moveHistory.size();
+    }
+
+    private static void checkMethod(String method, String expected) {
+        if (!Objects.equals(method, expected)) {
+            throw new MethodNotAllowedException(method + " is not allowed, use " + expected);
+        }
+    }
+
+    private interface Responder {
+        void respond(int status, String json);
+    }
+
+    private static final class MethodNotAllowedException extends RuntimeException {
+        private MethodNotAllowedException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * A hosted game and the WebSocket connections following it
+     * The game is only read by the host's listener, on the thread applying its moves, which writes the documents the
+     * event loops send; a subscriber receives the latest game document and then every moves document pushed after it
+     */
+    private final class WebGame {
+        private final String gameId;
+        private final Set<WebConnection> subscribers = ConcurrentHashMap.newKeySet();
+        private volatile String document;
+        /**
+         * Moves already pushed, only touched by the host's listener, which runs for one game at a time
+         */
+        private int pushedMoves;
+
+        private WebGame(String gameId, String document) {
+            this.gameId = gameId;
+            this.document = document;
+        }
+
+        private synchronized void subscribe(WebConnection connection) {
+            subscribers.add(connection);
+            connection.sendText(document);
+        }
+
+        private void push(Game game) {
+            int numberOfMoves = game.getMoveHistory().size();
+            boolean isOver = game.getGameState() != GameState.ONGOING;
+            if (numberOfMoves > pushedMoves || isOver) {
+                ByteBuffer frame = WebConnection.textFrame(GameJson.moves(game, pushedMoves));
+                String gameDocument = GameJson.game(game);
+                synchronized (this) {
+                    document = gameDocument;
+                    pushedMoves = numberOfMoves;
+                    for (WebConnection subscriber : subscribers) {
+                        subscriber.sendFrame(frame);
+                    }
+                }
+            }
+            if (isOver) {
+                webGames.remove(gameId);
+            }
+        }
+    }
+}
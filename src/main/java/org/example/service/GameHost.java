@@ -0,0 +1,283 @@
+package org.example.service;
+
+import org.example.exception.UserException;
+import org.example.model.Game;
+import org.example.model.GameState;
+import org.example.util.LoggerConfig;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Hosts many games at once without a thread per game
+ * Each hosted game has a mailbox of submitted moves, drained by at most one task at a time on a shared executor,
+ * so moves of one game are applied in order while an idle game waiting for a human costs only its mailbox
+ * Turns of players that are not awaiting external moves are played by the engine right after each submitted move
+ */
+public class GameHost {
+    private static final Logger logger = Logger.getLogger(GameHost.class.getName());
+
+    static {
+        LoggerConfig.configureLogger(logger);
+    }
+
+    private final GameService gameService;
+    private final Executor executor;
+    private final Map<String, HostedGame> hostedGames = new ConcurrentHashMap<>();
+
+    public GameHost(GameService gameService) {
+        this(gameService, ForkJoinPool.commonPool());
+    }
+
+    public GameHost(GameService gameService, Executor executor) {
+        this.gameService = gameService;
+        this.executor = executor;
+    }
+
+    /**
+     * Starts hosting an initialised game, playing engine turns until a player must submit a move
+     * @param gameId
+     * @return future completed with the game once it ends
+     */
+    public CompletableFuture<Game> startGame(String gameId) {
+        return startGame(gameId, null);
+    }
+
+    /**
+     * Starts hosting an initialised game, playing engine turns until a player must submit a move
+     * @param gameId
+     * @param listener called with the game after the engine's opening moves and after every applied move with its engine replies,
+     *                 on the thread applying them, so it sees the moves of one game in order and the board does not change under it
+     * @return future completed with the game once it ends
+     */
+    public CompletableFuture<Game> startGame(String gameId, Consumer<Game> listener) {
+        gameService.getGameFromId(gameId);
+        HostedGame hostedGame = new HostedGame(gameId, listener);
+        if (Objects.nonNull(hostedGames.putIfAbsent(gameId, hostedGame))) {
+            throw new UserException("Game is already hosted: " + gameId);
+        }
+        schedule(hostedGame);
+        return hostedGame.result;
+    }
+
+    /**
+     * Queues a move of the player whose turn it is, it is applied asynchronously in submission order
+     * @param gameId
+     * @param cellIndex 0 based cell index
+     * @return future completed with the game after the move and the engine replies are played,
+     * or completed exceptionally if the move is rejected
+     */
+    public CompletableFuture<Game> submitMove(String gameId, int cellIndex) {
+        return submitMove(gameId, null, cellIndex);
+    }
+
+    /**
+     * Queues a move of the given player, it is rejected if it is not that player's turn when it is applied
+     * @param gameId
+     * @param playerId player making the move, null for whoever's turn it is
+     * @param cellIndex 0 based cell index
+     * @return future completed with the game after the move and the engine replies are played,
+     * or completed exceptionally if the move is rejected
+     */
+    public CompletableFuture<Game> submitMove(String gameId, String playerId, int cellIndex) {
+        return submitMove(gameId, playerId, cellIndex, Function.identity());
+    }
+
+    /**
+     * Queues a move of the given player, it is rejected if it is not that player's turn when it is applied
+     * @param gameId
+     * @param playerId player making the move, null for whoever's turn it is
+     * @param cellIndex 0 based cell index
+     * @param view called with the game after the move and the engine replies are played, on the thread applying them,
+     *             so it can read the game while the board does not change under it
+     * @return future completed with what view returns, or completed exceptionally if the move is rejected
+     */
+    public <T> CompletableFuture<T> submitMove(String gameId, String playerId, int cellIndex, Function<Game, T> view) {
+        HostedGame hostedGame = getHostedGame(gameId);
+        PendingMove<T> pendingMove = new PendingMove<>(playerId, cellIndex, view);
+        hostedGame.mailbox.add(pendingMove);
+        schedule(hostedGame);
+        return pendingMove.applied;
+    }
+
+    /**
+     * @param gameId
+     * @return future completed with the game once it ends, already complete if the game has ended
+     */
+    public CompletableFuture<Game> getResult(String gameId) {
+        HostedGame hostedGame = hostedGames.get(gameId);
+        if (Objects.nonNull(hostedGame)) {
+            return hostedGame.result;
+        }
+        Game game = gameService.getGameFromId(gameId);
+        if (game.getGameState() == GameState.ONGOING) {
+            throw new UserException("Game is not hosted: " + gameId);
+        }
+        return CompletableFuture.completedFuture(game);
+    }
+
+    /**
+     * Stops hosting a game that left the repository without ending, such as an evicted abandoned game
+     * Its queued moves are rejected and its result completes exceptionally, a drain running meanwhile fails on its own
+     * @param gameId
+     * @return whether the game was hosted
+     */
+    public boolean endGame(String gameId) {
+        HostedGame hostedGame = hostedGames.remove(gameId);
+        if (Objects.isNull(hostedGame)) {
+            return false;
+        }
+        UserException cause = new UserException("Game was removed: " + gameId);
+        rejectQueuedMoves(hostedGame, cause);
+        hostedGame.result.completeExceptionally(cause);
+        return true;
+    }
+
+    public int getNumberOfHostedGames() {
+        return hostedGames.size();
+    }
+
+    private HostedGame getHostedGame(String gameId) {
+        HostedGame hostedGame = hostedGames.get(gameId);
+        if (Objects.isNull(hostedGame)) {
+            throw new UserException("Game is not hosted: " + gameId);
+        }
+        return hostedGame;
+    }
+
+    private void schedule(HostedGame hostedGame) {
+        if (hostedGame.scheduled.compareAndSet(false, true)) {
+            executor.execute(() -> drain(hostedGame));
+        }
+    }
+
+    /**
+     * Applies the queued moves of one game, only ever running on one thread at a time per game
+     */
+    private void drain(HostedGame hostedGame) {
+        try {
+            Game game = hostedGame.started ? gameService.getGameFromId(hostedGame.gameId) : start(hostedGame);
+            PendingMove<?> pendingMove;
+            while (Objects.nonNull(pendingMove = hostedGame.mailbox.poll())) {
+                if (game.getGameState() != GameState.ONGOING) {
+                    pendingMove.applied.completeExceptionally(new UserException("Game is already over: " + hostedGame.gameId));
+                    continue;
+                }
+                if (Objects.nonNull(pendingMove.playerId)
+                        && !Objects.equals(pendingMove.playerId, game.getPlayers().get(game.getCurrentPlayerIndex()).getId())) {
+                    pendingMove.applied.completeExceptionally(new UserException("Not your turn in game: " + hostedGame.gameId));
+                    continue;
+                }
+                try {
+                    game = gameService.playMove(hostedGame.gameId, pendingMove.cellIndex);
+                } catch (Exception e) {
+                    pendingMove.applied.completeExceptionally(e);
+                    continue;
+                }
+                // The applied move stands even if the engine fails to reply, which then fails the hosted game below
+                try {
+                    game = gameService.playAutomatedMoves(hostedGame.gameId);
+                } finally {
+                    notifyListener(hostedGame, game);
+                    pendingMove.complete(game);
+                }
+            }
+            if (game.getGameState() != GameState.ONGOING) {
+                finish(hostedGame, game);
+            }
+        } catch (Exception e) {
+            logger.log(Level.SEVERE, e, () -> "Hosted game " + hostedGame.gameId + " failed");
+            hostedGames.remove(hostedGame.gameId, hostedGame);
+            rejectQueuedMoves(hostedGame, e);
+            hostedGame.result.completeExceptionally(e);
+        } finally {
+            hostedGame.scheduled.set(false);
+        }
+        // A move queued after the mailbox was last polled is picked up by another drain, which also rejects it if the game is over,
+        // while a game that is no longer hosted only has its queued moves rejected
+        if (!hostedGame.mailbox.isEmpty()) {
+            if (hostedGames.get(hostedGame.gameId) == hostedGame) {
+                schedule(hostedGame);
+            } else {
+                rejectQueuedMoves(hostedGame, new UserException("Game is not hosted: " + hostedGame.gameId));
+            }
+        }
+    }
+
+    private Game start(HostedGame hostedGame) throws Exception {
+        hostedGame.started = true;
+        Game game = gameService.playAutomatedMoves(hostedGame.gameId);
+        notifyListener(hostedGame, game);
+        return game;
+    }
+
+    private void notifyListener(HostedGame hostedGame, Game game) {
+        if (Objects.isNull(hostedGame.listener)) {
+            return;
+        }
+        try {
+            hostedGame.listener.accept(game);
+        } catch (RuntimeException e) {
+            logger.log(Level.WARNING, e, () -> "Listener of hosted game " + hostedGame.gameId + " failed");
+        }
+    }
+
+    private void finish(HostedGame hostedGame, Game game) {
+        hostedGames.remove(hostedGame.gameId, hostedGame);
+        rejectQueuedMoves(hostedGame, new UserException("Game is already over: " + hostedGame.gameId));
+        hostedGame.result.complete(game);
+    }
+
+    private static void rejectQueuedMoves(HostedGame hostedGame, Exception cause) {
+        PendingMove<?> pendingMove;
+        while (Objects.nonNull(pendingMove = hostedGame.mailbox.poll())) {
+            pendingMove.applied.completeExceptionally(cause);
+        }
+    }
+
+    private static final class HostedGame {
+        private final String gameId;
+        private final Consumer<Game> listener;
+        private final Queue<PendingMove<?>> mailbox = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private final CompletableFuture<Game> result = new CompletableFuture<>();
+        private volatile boolean started;
+
+        private HostedGame(String gameId, Consumer<Game> listener) {
+            this.gameId = gameId;
+            this.listener = listener;
+        }
+    }
+
+    private static final class PendingMove<T> {
+        private final String playerId;
+        private final int cellIndex;
+        private final Function<Game, T> view;
+        private final CompletableFuture<T> applied = new CompletableFuture<>();
+
+        private PendingMove(String playerId, int cellIndex, Function<Game, T> view) {
+            this.playerId = playerId;
+            this.cellIndex = cellIndex;
+            this.view = view;
+        }
+
+        private void complete(Game game) {
+            try {
+                applied.complete(view.apply(game));
+            } catch (RuntimeException e) {
+                applied.completeExceptionally(e);
+            }
+        }
+    }
+}
@@ -7,9 +7,18 @@ import java.util.List;
 
 public interface GameService {
     Game initialiseGame(Player player1, Player player2, int numberOfCellsPerRow, Player tossWinner);
+    Game initialiseGame(Player player1, Player player2, int numberOfRows, int numberOfColumns, int winLength, Player tossWinner);
+    Game initialiseGame(List<Player> playersInTurnOrder, int numberOfRows, int numberOfColumns, int winLength);
     Player addPlayer(String playerName, PlayerType playerType);
+    Player addPlayer(String playerName, PlayerType playerType, MoveStrategyType moveStrategyType);
     Player conductTossToDecideWhoGoesFirst(Player player1, Player player2);
+    List<Player> conductTossToDecideTurnOrder(List<Player> players);
     Game startGameFromId(String gameId) throws IOException;
+    Game playMove(String gameId, int cellIndex);
+    List<MoveResult> playMoves(List<MoveRequest> moveRequests);
+    Game undoLastMove(String gameId);
+    Game playAutomatedMoves(String gameId) throws IOException;
+    boolean isAwaitingExternalMove(Player player);
     Game getGameFromId(String gameId);
     void printBoard(Game game);
 
@@ -1,22 +1,35 @@
 package org.example.service;
 
 import org.example.exception.UserException;
+import org.example.metrics.GameMetrics;
 import org.example.model.*;
 import org.example.repository.GameRepository;
 import org.example.repository.GameRepositoryImpl;
+import org.example.strategy.MoveStrategy;
+import org.example.strategy.MoveStrategyRegistry;
+import org.example.strategy.PositionCache;
 import org.example.util.LoggerConfig;
 
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.stream.Collectors;
 
 public class GameServiceImpl implements GameService {
     private final GameRepository gameRepository;
+    private final MoveStrategyRegistry moveStrategyRegistry;
+    private final GameMetrics gameMetrics;
+    private final PositionCache positionCache;
 
     private static final Logger logger = Logger.getLogger(GameServiceImpl.class.getName());
 
@@ -25,7 +38,37 @@ public class GameServiceImpl implements GameService {
     }
 
     public GameServiceImpl(GameRepository gameRepository) {
+        this(gameRepository, MoveStrategyRegistry.withDefaults());
+    }
+
+    /**
+     * @param gameRepository
+     * @param moveStrategyRegistry resolves the MoveStrategy of each player
+     */
+    public GameServiceImpl(GameRepository gameRepository, MoveStrategyRegistry moveStrategyRegistry) {
+        this(gameRepository, moveStrategyRegistry, GameMetrics.get());
+    }
+
+    /**
+     * @param gameRepository
+     * @param moveStrategyRegistry resolves the MoveStrategy of each player
+     * @param gameMetrics records games started and finished, move latency and think time
+     */
+    public GameServiceImpl(GameRepository gameRepository, MoveStrategyRegistry moveStrategyRegistry, GameMetrics gameMetrics) {
+        this(gameRepository, moveStrategyRegistry, gameMetrics, PositionCache.shared());
+    }
+
+    /**
+     * @param gameRepository
+     * @param moveStrategyRegistry resolves the MoveStrategy of each player
+     * @param gameMetrics records games started and finished, move latency and think time
+     * @param positionCache moves of cacheable strategies, shared with the other services of the process unless given here
+     */
+    public GameServiceImpl(GameRepository gameRepository, MoveStrategyRegistry moveStrategyRegistry, GameMetrics gameMetrics, PositionCache positionCache) {
         this.gameRepository = gameRepository;
+        this.moveStrategyRegistry = moveStrategyRegistry;
+        this.gameMetrics = gameMetrics;
+        this.positionCache = positionCache;
     }
 
     /**
@@ -36,8 +79,39 @@ public class GameServiceImpl implements GameService {
      */
     @Override
     public Game initialiseGame(Player player1, Player player2, int numberOfCellsPerRow, Player tossWinner) {
-        tossWinner.setMarkCellValueAs(CellValue.X);
-        return gameRepository.initialiseGame(player1, player2, numberOfCellsPerRow, tossWinner);
+        Game game = gameRepository.initialiseGame(player1, player2, numberOfCellsPerRow, tossWinner);
+        gameMetrics.gameStarted();
+        return game;
+    }
+
+    /**
+     * @param player1
+     * @param player2
+     * @param numberOfRows
+     * @param numberOfColumns
+     * @param winLength marks in a row, column or diagonal needed to win
+     * @return Game object
+     */
+    @Override
+    public Game initialiseGame(Player player1, Player player2, int numberOfRows, int numberOfColumns, int winLength, Player tossWinner) {
+        Game game = gameRepository.initialiseGame(Arrays.asList(player1, player2), numberOfRows, numberOfColumns, winLength, tossWinner);
+        gameMetrics.gameStarted();
+        return game;
+    }
+
+    /**
+     * @param playersInTurnOrder two or more players, for example as returned by conductTossToDecideTurnOrder,
+     *                           they take the symbols 0, 1, 2... in this order
+     * @param numberOfRows
+     * @param numberOfColumns
+     * @param winLength marks in a row, column or diagonal needed to win
+     * @return Game object
+     */
+    @Override
+    public Game initialiseGame(List<Player> playersInTurnOrder, int numberOfRows, int numberOfColumns, int winLength) {
+        Game game = gameRepository.initialiseGame(playersInTurnOrder, numberOfRows, numberOfColumns, winLength, playersInTurnOrder.get(0));
+        gameMetrics.gameStarted();
+        return game;
     }
 
     /**
@@ -47,9 +121,21 @@ public class GameServiceImpl implements GameService {
      */
     @Override
     public Player addPlayer(String playerName, PlayerType playerType) {
+        return addPlayer(playerName, playerType, null);
+    }
+
+    /**
+     * @param playerName
+     * @param playerType
+     * @param moveStrategyType strategy choosing the player's moves, null for the default of the player type
+     * @return Created Player object
+     */
+    @Override
+    public Player addPlayer(String playerName, PlayerType playerType, MoveStrategyType moveStrategyType) {
         Player player = Player.builder()
                 .name(playerName)
                 .playerType(playerType)
+                .moveStrategyType(moveStrategyType)
                 .build();
         return gameRepository.addPlayer(player);
     }
@@ -64,15 +150,28 @@ public class GameServiceImpl implements GameService {
         Random random = new Random();
         boolean nextBoolean = random.nextBoolean();
         if (nextBoolean == true) {
-            logger.log(Level.INFO, "Player 1: "+ player1.getName() + " has won the toss: " + player1);
+            logger.log(Level.FINE, "Player 1: {0} has won the toss", player1.getName());
             return player1;
         } else {
-            logger.log(Level.INFO, "Player 2: "+ player2.getName() + " has won the toss: " + player2);
+            logger.log(Level.FINE, "Player 2: {0} has won the toss", player2.getName());
             return player2;
         }
     }
 
 
+    /**
+     * Shuffles the players, every turn order is equally likely
+     * @param players
+     * @return the players in the order they take turns
+     */
+    @Override
+    public List<Player> conductTossToDecideTurnOrder(List<Player> players) {
+        List<Player> playersInTurnOrder = new ArrayList<>(players);
+        Collections.shuffle(playersInTurnOrder, ThreadLocalRandom.current());
+        logger.log(Level.FINE, () -> "Turn order decided by toss: " + playersInTurnOrder.stream().map(Player::getName).collect(Collectors.joining(", ")));
+        return playersInTurnOrder;
+    }
+
     /**
      * Main Business Logic of the game resides here
      * Runs an infinite loop till game state remains ongoing
@@ -82,228 +181,335 @@ public class GameServiceImpl implements GameService {
      */
     @Override
     public Game startGameFromId(String gameId) throws IOException {
-        logger.log(Level.INFO, "Game started");
+        logger.log(Level.FINE, "Game {0} started", gameId);
         Game game = getGameFromId(gameId);
 
         while(game.getGameState() == GameState.ONGOING) {
             printBoard(game);
             int currentPlayerIndex = game.getCurrentPlayerIndex();
             Player currentPlayer = game.getPlayers().get(currentPlayerIndex);
-            System.out.println("Player: " + currentPlayer.getName() + "'s move with symbol: " + currentPlayer.getMarkCellValueAs());
-
-            String currentPlayerPosition = getCurrentPlayerPosition(currentPlayer, game);
-
-            int currentPlayerPositionInt = Integer.parseInt(currentPlayerPosition);
-            int numberOfCellsPerRow = game.getBoard().getNumberOfCellsPerRow();
-            if (currentPlayerPositionInt > numberOfCellsPerRow * numberOfCellsPerRow || currentPlayerPositionInt < 1) {
-                throw new IllegalArgumentException("Input Position entered is invalid");
-            }
+            System.out.println("Player: " + currentPlayer.getName() + "'s move with symbol: " + CellValue.getSymbolName(currentPlayer.getSymbol()));
 
-            int[] rowAndCol = getEquivalentRowAndColumnFromPositionValue(currentPlayerPosition, game.getBoard().getNumberOfCellsPerRow());
-            int row = rowAndCol[0];
-            int col = rowAndCol[1];
-            Board board = game.getBoard();
-            if (board.getCellValues()[row][col] != CellValue.EMPTY) {
-                throw new IllegalArgumentException("Input position entered is already captured");
-            }
+            int cellIndex = getCurrentPlayerPosition(currentPlayer, game);
+            applyMove(game, currentPlayer, cellIndex);
 
-            Move move = gameRepository.createMove(currentPlayer, row, col);
-            gameRepository.updateGameBoardWithMove(move, board);
-            gameRepository.addMoveToMovesList(gameId, move);
-
-            System.out.println("Player " + currentPlayer.getName() + " filled the position: " + currentPlayerPosition);
-
-            boolean isWinnerDetermined = determineWinner(board, move);
-            if (isWinnerDetermined) {
-                switch (currentPlayer.getPlayerType()) {
-                    case COMPUTER:
-                        game.setGameState(GameState.WINNER_PLAYER_COMPUTER);
-                        game.setWinner(currentPlayer);
-                        printBoard(game);
-                        return game;
-                    case HUMAN:
-                        game.setGameState(GameState.WINNER_PLAYER_HUMAN);
-                        game.setWinner(currentPlayer);
-                        printBoard(game);
-                        return game;
-                    default:
-                        game.setGameState(GameState.ONGOING);
-                }
-            }
+            System.out.println("Player " + currentPlayer.getName() + " filled the position: " + (cellIndex + 1));
 
-            if (game.getMoves().size() == board.getNumberOfCellsPerRow()*board.getNumberOfCellsPerRow()) {
-                game.setGameState(GameState.DRAW);
-                return game;
+            if (Objects.nonNull(game.getWinner())) {
+                printBoard(game);
             }
+        }
+        return game;
 
-            flipTurns(game);
+    }
 
+    /**
+     * Plays one move of the current player, without any console output
+     * @param gameId
+     * @param cellIndex 0 based cell index
+     * @return game object after the move
+     */
+    @Override
+    public Game playMove(String gameId, int cellIndex) {
+        Game game = getGameFromId(gameId);
+        if (game.getGameState() != GameState.ONGOING) {
+            throw new UserException("Game is already over: " + gameId);
         }
+        applyMove(game, game.getPlayers().get(game.getCurrentPlayerIndex()), cellIndex);
         return game;
-
     }
 
     /**
-     * @param board
-     * @param move
-     * @return boolean: true if a winner has been determined post playing the current move, else false
+     * Plays moves of many games at once, for example a burst of bot moves from a tournament runner
+     * Requests are grouped by game, keeping their order within a game, and the games by repository shard, so each game
+     * is looked up once and its moves are added to its list of moves in one write
+     * Once a move of a game is rejected, the later moves of that game in the batch are rejected too
+     * @param moveRequests
+     * @return result of each request, in the order of the requests
      */
+    @Override
+    public List<MoveResult> playMoves(List<MoveRequest> moveRequests) {
+        Map<String, List<Integer>> requestIndicesByGame = new LinkedHashMap<>();
+        for (int index = 0; index < moveRequests.size(); index++) {
+            requestIndicesByGame.computeIfAbsent(moveRequests.get(index).getGameId(), gameId -> new ArrayList<>()).add(index);
+        }
+        List<String> gameIds = new ArrayList<>(requestIndicesByGame.keySet());
+        gameIds.sort(Comparator.comparingInt(gameId -> Objects.isNull(gameId) ? -1 : gameRepository.getShardIndex(gameId)));
 
-    private boolean determineWinner(Board board, Move move) {
-        int currentRow = move.getRowValue();
-        int currentCol = move.getColumnValue();
-        CellValue cellValue = move.getPlayer().getMarkCellValueAs();
+        MoveResult[] moveResults = new MoveResult[moveRequests.size()];
+        for (String gameId : gameIds) {
+            playGameMoves(gameId, moveRequests, requestIndicesByGame.get(gameId), moveResults);
+        }
+        return Arrays.asList(moveResults);
+    }
 
-        // match rowWise
-        int matchingCellValuesCount = 0;
-        for(int index = 0; index < board.getNumberOfCellsPerRow(); index++) {
-            if (Objects.equals(cellValue, board.getCellValues()[currentRow][index])) {
-                matchingCellValuesCount ++;
+    /**
+     * Plays the requested moves of one game in order, stopping at the first rejected move
+     * @param gameId
+     * @param moveRequests
+     * @param requestIndices indices of the game's requests in moveRequests
+     * @param moveResults receives the result of each of the game's requests
+     */
+    private void playGameMoves(String gameId, List<MoveRequest> moveRequests, List<Integer> requestIndices, MoveResult[] moveResults) {
+        Game game;
+        try {
+            if (Objects.isNull(gameId) || gameId.isEmpty()) {
+                throw new UserException("game id cannot be empty");
             }
-        }
-        if (matchingCellValuesCount == board.getNumberOfCellsPerRow()) {
-            return true;
+            game = getGameFromId(gameId);
+        } catch (UserException e) {
+            rejectMoves(moveRequests, requestIndices, 0, null, e.getMessage(), moveResults);
+            return;
         }
 
-        // match columnWise
-        matchingCellValuesCount = 0;
-        for(int index = 0; index < board.getNumberOfCellsPerRow(); index++) {
-            if (Objects.equals(cellValue, board.getCellValues()[index][currentCol])) {
-                matchingCellValuesCount ++;
+        long startNanos = gameMetrics.startTimer();
+        int numberOfMovesPlayed = game.getMoveHistory().size();
+        List<Move> moves = new ArrayList<>(requestIndices.size());
+        String error = null;
+        for (int requestIndex : requestIndices) {
+            MoveRequest moveRequest = moveRequests.get(requestIndex);
+            try {
+                if (game.getGameState() != GameState.ONGOING) {
+                    throw new UserException("Game is already over: " + gameId);
+                }
+                Player currentPlayer = game.getPlayers().get(game.getCurrentPlayerIndex());
+                if (Objects.nonNull(moveRequest.getPlayerId()) && !Objects.equals(moveRequest.getPlayerId(), currentPlayer.getId())) {
+                    throw new UserException("Not your turn in game: " + gameId);
+                }
+                Move move = markMove(game, currentPlayer, moveRequest.getCellIndex());
+                moves.add(move);
+                updateGameState(game, currentPlayer, move, numberOfMovesPlayed + moves.size());
+            } catch (UserException | IllegalArgumentException e) {
+                error = e.getMessage();
+                break;
             }
+            moveResults[requestIndex] = moveResult(moveRequest, game.getGameState(), null);
         }
-        if (matchingCellValuesCount == board.getNumberOfCellsPerRow()) {
-            return true;
-        }
-
-        // match diagonalWise
-        matchingCellValuesCount = 0;
-        for(int index = 0; index < board.getNumberOfCellsPerRow(); index++) {
-            if (Objects.equals(cellValue, board.getCellValues()[index][index])) {
-                matchingCellValuesCount ++;
+        if (!moves.isEmpty()) {
+            gameRepository.addMovesToMovesList(game, moves);
+            gameMetrics.recordMoves(startNanos, moves.size());
+            if (game.getGameState() != GameState.ONGOING) {
+                gameMetrics.gameFinished(game.getGameState());
             }
         }
-        if (matchingCellValuesCount == board.getNumberOfCellsPerRow()) {
-            return true;
+        if (moves.size() < requestIndices.size()) {
+            rejectMoves(moveRequests, requestIndices, moves.size(), game.getGameState(), error, moveResults);
         }
+    }
 
-        // match antiDiagonalWise
-        matchingCellValuesCount = 0;
-        for(int index = 0; index < board.getNumberOfCellsPerRow(); index++) {
-            if (Objects.equals(cellValue, board.getCellValues()[index][board.getNumberOfCellsPerRow() - 1 - index])) {
-                matchingCellValuesCount ++;
-            }
-        }
-        if (matchingCellValuesCount == board.getNumberOfCellsPerRow()) {
-            return true;
+    private static void rejectMoves(List<MoveRequest> moveRequests, List<Integer> requestIndices, int from, GameState gameState,
+                                    String error, MoveResult[] moveResults) {
+        for (int index = from; index < requestIndices.size(); index++) {
+            int requestIndex = requestIndices.get(index);
+            moveResults[requestIndex] = moveResult(moveRequests.get(requestIndex), gameState,
+                    index == from ? error : "An earlier move of the game in the batch was rejected: " + error);
         }
+    }
 
-        return false;
+    private static MoveResult moveResult(MoveRequest moveRequest, GameState gameState, String error) {
+        return MoveResult.builder()
+                .gameId(moveRequest.getGameId())
+                .cellIndex(moveRequest.getCellIndex())
+                .applied(Objects.isNull(error))
+                .gameState(gameState)
+                .error(error)
+                .build();
     }
 
     /**
-     * @param currentPlayer
-     * @param game
-     * @return get player position as a string representing the position value, for example, "1", "5" are valid positions where a move can be made
+     * Takes back the last move, the game is ongoing again and it is the turn of the player who made it
+     * @param gameId
+     * @return game object after the move is taken back
+     */
+    @Override
+    public Game undoLastMove(String gameId) {
+        Game game = getGameFromId(gameId);
+        MoveHistory moveHistory = game.getMoveHistory();
+        if (moveHistory.isEmpty()) {
+            throw new UserException("No move to undo in game: " + gameId);
+        }
+        boolean wasOver = game.getGameState() != GameState.ONGOING;
+        int playerIndex = moveHistory.getPlayerIndex(moveHistory.size() - 1);
+        Player player = game.getPlayers().get(playerIndex);
+        int cellIndex = gameRepository.removeLastMove(gameId);
+        WinTracker winTracker = game.getWinTracker();
+        if (Objects.nonNull(winTracker)) {
+            int numberOfCellsPerRow = game.getBoard().getNumberOfCellsPerRow();
+            winTracker.removeMove(cellIndex / numberOfCellsPerRow, cellIndex % numberOfCellsPerRow, player.getSymbol());
+        }
+        game.setGameState(GameState.ONGOING);
+        game.setWinner(null);
+        game.setCurrentPlayerIndex(playerIndex);
+        if (wasOver) {
+            gameMetrics.gameResumed();
+        }
+        return game;
+    }
+
+    /**
+     * Plays the turns of every player whose moves are not supplied from outside (anyone not using CONSOLE),
+     * stopping when the game ends or a player must supply a move
+     * @param gameId
+     * @return game object after the automated moves
      * @throws IOException
      */
-    public String getCurrentPlayerPosition(Player currentPlayer, Game game) throws IOException {
-        return currentPlayer.getPlayerType() == PlayerType.HUMAN
-                ? getCurrentPlayerPositionForHuman()
-                : getCurrentPlayerPositionForComputer(game.getBoard(), currentPlayer);
+    @Override
+    public Game playAutomatedMoves(String gameId) throws IOException {
+        Game game = getGameFromId(gameId);
+        while (game.getGameState() == GameState.ONGOING) {
+            Player currentPlayer = game.getPlayers().get(game.getCurrentPlayerIndex());
+            if (isAwaitingExternalMove(currentPlayer)) {
+                break;
+            }
+            applyMove(game, currentPlayer, getCurrentPlayerPosition(currentPlayer, game));
+        }
+        return game;
     }
 
-    private String getCurrentPlayerPositionForHuman() throws IOException {
-        BufferedReader input = new BufferedReader(new InputStreamReader(System.in));
-        logger.log(Level.INFO, "Please Enter a position from 1-9");
-        return input.readLine();
+    /**
+     * @param player
+     * @return true if the player's moves come from outside the engine (console or a remote client)
+     */
+    @Override
+    public boolean isAwaitingExternalMove(Player player) {
+        return MoveStrategyRegistry.getStrategyType(player) == MoveStrategyType.CONSOLE;
     }
 
     /**
-     * Checks for potential winning move, potential blocking move, capture centre if available, capture any empty corner
-     * Uses a simple strategy to determine the desirable position
-     * @param board
+     * Places the move and records its latency, and the result if it ends the game
+     * @param game
      * @param currentPlayer
-     * @return get the most desirable position that should be captured by the player computer, in order for it to win
+     * @param cellIndex
      */
-    private String getCurrentPlayerPositionForComputer(Board board, Player currentPlayer) {
-        int numberOfCellsPerRow = board.getNumberOfCellsPerRow();
-        CellValue[][] cellValues = board.getCellValues();
+    private void applyMove(Game game, Player currentPlayer, int cellIndex) {
+        long startNanos = gameMetrics.startTimer();
+        placeMove(game, currentPlayer, cellIndex);
+        gameMetrics.recordMove(startNanos);
+        if (game.getGameState() != GameState.ONGOING) {
+            gameMetrics.gameFinished(game.getGameState());
+        }
+    }
 
-        // Create a dummy opponent player for the move checking
-        Player opponentPlayer = Player.builder().markCellValueAs(currentPlayer.getMarkCellValueAs() == CellValue.O ? CellValue.X : CellValue.O).build();
+    /**
+     * Validates the cell, marks it for currentPlayer, records the move and updates the game state or passes the turn
+     * @param game
+     * @param currentPlayer
+     * @param cellIndex
+     */
+    private void placeMove(Game game, Player currentPlayer, int cellIndex) {
+        Move move = markMove(game, currentPlayer, cellIndex);
+        gameRepository.addMoveToMovesList(game.getId(), move);
+        updateGameState(game, currentPlayer, move, game.getMoveHistory().size());
+    }
 
-        // 1. Check for a winning move
-        String winningMove = findWinningMove(board, currentPlayer);
-        if (winningMove != null) {
-            return winningMove;
+    /**
+     * Validates the cell and marks it on the board for currentPlayer, without recording the move
+     * @param game
+     * @param currentPlayer
+     * @param cellIndex
+     * @return the move
+     */
+    private Move markMove(Game game, Player currentPlayer, int cellIndex) {
+        int numberOfCellsPerRow = game.getBoard().getNumberOfCellsPerRow();
+        if (cellIndex >= game.getBoard().getNumberOfCells() || cellIndex < 0) {
+            throw new IllegalArgumentException("Input Position entered is invalid");
         }
 
-        // 2. Check for a blocking move
-        String blockingMove = findWinningMove(board, opponentPlayer);
-        if (blockingMove != null) {
-            return blockingMove;
+        int row = cellIndex / numberOfCellsPerRow;
+        int col = cellIndex % numberOfCellsPerRow;
+        Board board = game.getBoard();
+        if (board.getSymbol(row, col) != CellValue.EMPTY_SYMBOL) {
+            throw new IllegalArgumentException("Input position entered is already captured");
         }
 
-        // 3. Take the center if available
-        int center = numberOfCellsPerRow / 2;
-        if (cellValues[center][center] == CellValue.EMPTY) {
-            return String.valueOf(getEquivalentPositionValueFromRowAndColumn(center, center, numberOfCellsPerRow));
-        }
+        Move move = gameRepository.createMove(currentPlayer, row, col);
+        gameRepository.updateGameBoardWithMove(move, board);
+        return move;
+    }
 
-        // 4. Take any available corner
-        int[][] corners = {
-                {0, 0},
-                {0, numberOfCellsPerRow - 1},
-                {numberOfCellsPerRow - 1, 0},
-                {numberOfCellsPerRow - 1, numberOfCellsPerRow - 1}
-        };
-        for (int[] corner : corners) {
-            if (cellValues[corner[0]][corner[1]] == CellValue.EMPTY) {
-                return String.valueOf(getEquivalentPositionValueFromRowAndColumn(corner[0], corner[1], numberOfCellsPerRow));
+    /**
+     * Sets the winner if the move won, the draw if it filled the board, otherwise passes the turn
+     * @param game
+     * @param currentPlayer
+     * @param move
+     * @param numberOfMovesPlayed moves of the game including this one
+     */
+    private void updateGameState(Game game, Player currentPlayer, Move move, int numberOfMovesPlayed) {
+        boolean isWinnerDetermined = determineWinner(game, move.getRowValue(), move.getColumnValue(), currentPlayer.getSymbol());
+        if (isWinnerDetermined) {
+            switch (currentPlayer.getPlayerType()) {
+                case COMPUTER:
+                    game.setGameState(GameState.WINNER_PLAYER_COMPUTER);
+                    game.setWinner(currentPlayer);
+                    return;
+                case HUMAN:
+                    game.setGameState(GameState.WINNER_PLAYER_HUMAN);
+                    game.setWinner(currentPlayer);
+                    return;
+                default:
+                    game.setGameState(GameState.ONGOING);
             }
         }
 
-        // 5. Take any available side
-        for (int i = 0; i < numberOfCellsPerRow; i++) {
-            for (int j = 0; j < numberOfCellsPerRow; j++) {
-                if (cellValues[i][j] == CellValue.EMPTY) {
-                    return String.valueOf(getEquivalentPositionValueFromRowAndColumn(i, j, numberOfCellsPerRow));
-                }
-            }
+        if (numberOfMovesPlayed == game.getBoard().getNumberOfCells()) {
+            game.setGameState(GameState.DRAW);
+            return;
         }
 
-        return null; // Should never reach here if there are empty cells
+        flipTurns(game);
     }
 
     /**
-     * Finds winning move for a setup
-     * @param board
-     * @param player
-     * @return
+     * Large square boards won by a full line record the move on the game's win tracker,
+     * other boards check the lines of winLength cells through the move
+     * @param game
+     * @param row
+     * @param col
+     * @param symbol symbol placed at (row, col)
+     * @return boolean: true if a winner has been determined post playing the current move, else false
      */
+    boolean determineWinner(Game game, int row, int col, int symbol) {
+        WinTracker winTracker = game.getWinTracker();
+        return Objects.isNull(winTracker)
+                ? game.getBoard().completesLine(row, col, symbol)
+                : winTracker.recordMove(row, col, symbol);
+    }
 
-    private String findWinningMove(Board board, Player player) {
-        int numberOfCellsPerRow = board.getNumberOfCellsPerRow();
-        CellValue[][] cellValues = board.getCellValues();
-
-        for (int i = 0; i < numberOfCellsPerRow; i++) {
-            for (int j = 0; j < numberOfCellsPerRow; j++) {
-                if (cellValues[i][j] == CellValue.EMPTY) {
-                    cellValues[i][j] = player.getMarkCellValueAs(); // Try the move
-                    Move move = Move.builder().rowValue(i).columnValue(j).player(player).build();
-                    if (determineWinner(board, move)) {
-                        cellValues[i][j] = CellValue.EMPTY; // Reset to original state
-                        return String.valueOf(getEquivalentPositionValueFromRowAndColumn(i, j, numberOfCellsPerRow));
-                    }
-                    cellValues[i][j] = CellValue.EMPTY; // Reset to original state
-                }
-            }
+    /**
+     * @param currentPlayer
+     * @param game
+     * Moves of cacheable strategies are looked up in the PositionCache first, under the canonical form of the position,
+     * and only stored there when the strategy scored them
+     * @return 0 based cell index chosen by the player's MoveStrategy, for example, 0 and 4 are the first and centre cells of a 3x3 board
+     * @throws IOException
+     */
+    public int getCurrentPlayerPosition(Player currentPlayer, Game game) throws IOException {
+        long startNanos = gameMetrics.startTimer();
+        MoveStrategy moveStrategy = moveStrategyRegistry.getStrategy(currentPlayer);
+        int cellIndex = moveStrategy.isCacheable()
+                ? chooseCachedCellIndex(moveStrategy, currentPlayer, game)
+                : moveStrategy.chooseCellIndex(game, currentPlayer);
+        if (startNanos != 0 && !isAwaitingExternalMove(currentPlayer)) {
+            gameMetrics.recordThinkTime(MoveStrategyRegistry.getStrategyType(currentPlayer), startNanos);
         }
-
-        return null;
+        return cellIndex;
     }
 
+    private int chooseCachedCellIndex(MoveStrategy moveStrategy, Player currentPlayer, Game game) throws IOException {
+        long positionKey = PositionCache.positionKey(MoveStrategyRegistry.getStrategyType(currentPlayer), game.getBoard(),
+                currentPlayer.getSymbol(), game.getPlayers().size());
+        if (positionKey == PositionCache.NO_KEY) {
+            return moveStrategy.chooseCellIndex(game, currentPlayer);
+        }
+        long scoredMove = positionCache.probe(positionKey);
+        if (scoredMove == PositionCache.MISS) {
+            scoredMove = moveStrategy.chooseScoredMove(game, currentPlayer);
+            if (PositionCache.score(scoredMove) != PositionCache.UNSCORED) {
+                positionCache.store(positionKey, scoredMove);
+            }
+        }
+        return PositionCache.move(scoredMove);
+    }
 
     private void flipTurns(Game game) {
         int currentPlayerIndex = game.getCurrentPlayerIndex();
@@ -326,9 +532,9 @@ public class GameServiceImpl implements GameService {
     @Override
     public void printBoard(Game game) {
         Board board = gameRepository.getBoardFromGame(game);
-        for(int i = 0; i < board.getNumberOfCellsPerRow(); i++) {
+        for(int i = 0; i < board.getNumberOfRows(); i++) {
             for(int j = 0; j < board.getNumberOfCellsPerRow(); j++) {
-                String cellStringValueFromCellValue = getCellStringValueFromCellValue(board.getCellValues()[i][j]);
+                String cellStringValueFromCellValue = String.valueOf(CellValue.getSymbolName(board.getSymbol(i, j)));
                 if (Objects.equals(cellStringValueFromCellValue, " ")) {
                     cellStringValueFromCellValue = String.valueOf(getEquivalentPositionValueFromRowAndColumn(i, j, board.getNumberOfCellsPerRow()));
                 }
@@ -342,21 +548,4 @@ public class GameServiceImpl implements GameService {
         return row*numberOfCellsPerRow + col + 1;
     }
 
-    private int[] getEquivalentRowAndColumnFromPositionValue(String position, int numberOfCellsPerRow) {
-        int row = (Integer.parseInt(position) - 1) / numberOfCellsPerRow;
-        int col = (Integer.parseInt(position) - 1) % numberOfCellsPerRow;
-        return new int[]{row, col};
-    }
-
-    private String getCellStringValueFromCellValue(CellValue cellValue) {
-        switch (cellValue) {
-            case O:
-                return "O";
-            case X:
-                return "X";
-            case EMPTY:
-                return " ";
-        }
-        return null;
-    }
 }
@@ -0,0 +1,144 @@
+package org.example.service;
+
+import org.example.exception.UserException;
+import org.example.metrics.GameMetrics;
+import org.example.model.Game;
+import org.example.model.GameState;
+import org.example.model.Player;
+import org.example.repository.GameJournal;
+import org.example.repository.JournaledGameRepository;
+import org.example.strategy.MoveStrategyRegistry;
+import org.example.util.LoggerConfig;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Rebuilds players and games on startup by replaying the journal through the engine,
+ * so boards, win tracking, turns and game states are derived exactly as they were when the moves were first played
+ * The replayed moves and finishes were counted when they were first played, so replay records no metrics of its own,
+ * only the games still ongoing once it ends are counted as active
+ */
+public class JournalRecovery implements GameJournal.RecordHandler {
+    private static final Logger logger = Logger.getLogger(JournalRecovery.class.getName());
+
+    static {
+        LoggerConfig.configureLogger(logger);
+    }
+
+    private final JournaledGameRepository gameRepository;
+    private final GameService gameService;
+    private final GameMetrics gameMetrics;
+    private final Set<String> compactedGameIds = new HashSet<>();
+    private int recoveredGames;
+    private int recoveredMoves;
+
+    public JournalRecovery(JournaledGameRepository gameRepository) {
+        this(gameRepository, GameMetrics.get());
+    }
+
+    /**
+     * @param gameRepository
+     * @param gameMetrics counts the recovered ongoing games as active
+     */
+    public JournalRecovery(JournaledGameRepository gameRepository, GameMetrics gameMetrics) {
+        this.gameRepository = gameRepository;
+        this.gameService = new GameServiceImpl(gameRepository, MoveStrategyRegistry.withDefaults(), new GameMetrics(false));
+        this.gameMetrics = gameMetrics;
+    }
+
+    /**
+     * @return number of games recovered
+     * @throws IOException
+     */
+    public int recover() throws IOException {
+        return recover(0);
+    }
+
+    /**
+     * Replays only the journal tail written after a snapshot, the snapshot's games must already be loaded
+     * Every ongoing game of the repository is counted as active, those of the snapshot too
+     * @param fromSegmentId first journal segment not covered by the snapshot
+     * @return number of games recovered from the journal
+     * @throws IOException
+     */
+    public int recover(long fromSegmentId) throws IOException {
+        gameRepository.replay(this, fromSegmentId);
+        for (Game game : gameRepository.getGames()) {
+            if (game.getGameState() == GameState.ONGOING) {
+                gameMetrics.gameRestored();
+            }
+        }
+        logger.log(Level.INFO, "Recovered {0} games and {1} moves from the journal", new Object[]{recoveredGames, recoveredMoves});
+        return recoveredGames;
+    }
+
+    @Override
+    public void onPlayer(Player player) {
+        gameRepository.addPlayer(player);
+    }
+
+    @Override
+    public void onGame(String gameId, List<String> playerIds, int numberOfRows, int numberOfColumns, int winLength, int tossWinnerIndex) {
+        List<Player> players = new ArrayList<>(playerIds.size());
+        for (String playerId : playerIds) {
+            players.add(getPlayer(playerId));
+        }
+        gameRepository.initialiseGame(gameId, players, numberOfRows, numberOfColumns, winLength, players.get(tossWinnerIndex));
+        compactedGameIds.remove(gameId);
+        recoveredGames++;
+    }
+
+    /**
+     * Moves of a game whose record was dropped by compaction (the game finished) are skipped
+     */
+    @Override
+    public void onMove(String gameId, String playerId, int rowValue, int columnValue) {
+        if (compactedGameIds.contains(gameId)) {
+            return;
+        }
+        Game game;
+        try {
+            game = gameService.getGameFromId(gameId);
+        } catch (UserException e) {
+            compactedGameIds.add(gameId);
+            return;
+        }
+        Player currentPlayer = game.getPlayers().get(game.getCurrentPlayerIndex());
+        if (!Objects.equals(currentPlayer.getId(), playerId)) {
+            throw new IllegalStateException("Journal move of player " + playerId + " is out of turn in game " + gameId);
+        }
+        gameService.playMove(gameId, rowValue * game.getBoard().getNumberOfCellsPerRow() + columnValue);
+        recoveredMoves++;
+    }
+
+    @Override
+    public void onUndo(String gameId) {
+        if (compactedGameIds.contains(gameId)) {
+            return;
+        }
+        gameService.undoLastMove(gameId);
+    }
+
+    /**
+     * A removed game may come back later in the journal, for example when it is handed back to this node
+     */
+    @Override
+    public void onRemoveGame(String gameId) {
+        if (compactedGameIds.contains(gameId)) {
+            return;
+        }
+        gameRepository.removeGame(gameId);
+        recoveredGames--;
+    }
+
+    private Player getPlayer(String playerId) {
+        return gameRepository.getPlayerFromId(playerId);
+    }
+}
@@ -0,0 +1,152 @@
+package org.example.service;
+
+import org.example.model.Game;
+import org.example.model.GameState;
+import org.example.model.MoveStrategyType;
+import org.example.model.Player;
+import org.example.model.PlayerType;
+import org.example.model.SimulationResult;
+import org.example.repository.GameRepository;
+import org.example.repository.GameRepositoryImpl;
+import org.example.strategy.MoveStrategyRegistry;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Plays computer vs computer games in bulk across all cores, without any console output
+ * The games are split into fork-join tasks, each leaf plays its share on its own repository,
+ * reusing one game id so finished games are replaced instead of kept
+ */
+public class SelfPlaySimulator {
+    private static final int GAMES_PER_TASK = 4096;
+    private static final String GAME_ID = "self-play";
+
+    private final ForkJoinPool forkJoinPool;
+    private final MoveStrategyRegistry moveStrategyRegistry;
+
+    public SelfPlaySimulator() {
+        this(ForkJoinPool.commonPool(), MoveStrategyRegistry.withDefaults());
+    }
+
+    /**
+     * @param forkJoinPool
+     * @param moveStrategyRegistry shared by all tasks, its strategies must be thread-safe
+     */
+    public SelfPlaySimulator(ForkJoinPool forkJoinPool, MoveStrategyRegistry moveStrategyRegistry) {
+        this.forkJoinPool = forkJoinPool;
+        this.moveStrategyRegistry = moveStrategyRegistry;
+    }
+
+    /**
+     * Plays every pairing of the strategy types, including each type against itself, on every board size
+     * @param moveStrategyTypes
+     * @param boardSizes
+     * @param gamesPerPairing
+     * @return one result per pairing and board size
+     */
+    public List<SimulationResult> simulate(Collection<MoveStrategyType> moveStrategyTypes, Collection<Integer> boardSizes, long gamesPerPairing) {
+        List<MoveStrategyType> types = new ArrayList<>(moveStrategyTypes);
+        List<SimulationResult> results = new ArrayList<>();
+        for (int numberOfCellsPerRow : boardSizes) {
+            for (int first = 0; first < types.size(); first++) {
+                for (int second = first; second < types.size(); second++) {
+                    results.add(simulate(types.get(first), types.get(second), numberOfCellsPerRow, gamesPerPairing));
+                }
+            }
+        }
+        return results;
+    }
+
+    /**
+     * @param strategyType1
+     * @param strategyType2
+     * @param numberOfCellsPerRow
+     * @param games
+     * @return win and draw counts, strategyType1 moves first in the even numbered games
+     */
+    public SimulationResult simulate(MoveStrategyType strategyType1, MoveStrategyType strategyType2, int numberOfCellsPerRow, long games) {
+        if (strategyType1 == MoveStrategyType.CONSOLE || strategyType2 == MoveStrategyType.CONSOLE) {
+            throw new IllegalArgumentException("Self-play needs computer strategies");
+        }
+        if (numberOfCellsPerRow <= 0 || games < 0) {
+            throw new IllegalArgumentException("numberOfCellsPerRow must be positive and games non-negative");
+        }
+        long startNanos = System.nanoTime();
+        long[] outcomes = forkJoinPool.invoke(new SimulationTask(strategyType1, strategyType2, numberOfCellsPerRow, 0, games));
+        return SimulationResult.builder()
+                .strategyType1(strategyType1)
+                .strategyType2(strategyType2)
+                .numberOfCellsPerRow(numberOfCellsPerRow)
+                .games(games)
+                .strategyType1Wins(outcomes[0])
+                .strategyType2Wins(outcomes[1])
+                .draws(outcomes[2])
+                .elapsedNanos(System.nanoTime() - startNanos)
+                .build();
+    }
+
+    /**
+     * Plays games [from, to) and returns {strategyType1 wins, strategyType2 wins, draws}
+     */
+    private final class SimulationTask extends RecursiveTask<long[]> {
+        private final MoveStrategyType strategyType1;
+        private final MoveStrategyType strategyType2;
+        private final int numberOfCellsPerRow;
+        private final long from;
+        private final long to;
+
+        private SimulationTask(MoveStrategyType strategyType1, MoveStrategyType strategyType2, int numberOfCellsPerRow, long from, long to) {
+            this.strategyType1 = strategyType1;
+            this.strategyType2 = strategyType2;
+            this.numberOfCellsPerRow = numberOfCellsPerRow;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected long[] compute() {
+            if (to - from <= GAMES_PER_TASK) {
+                return play();
+            }
+            long middle = (from + to) >>> 1;
+            SimulationTask right = new SimulationTask(strategyType1, strategyType2, numberOfCellsPerRow, middle, to);
+            right.fork();
+            long[] outcomes = new SimulationTask(strategyType1, strategyType2, numberOfCellsPerRow, from, middle).compute();
+            long[] rightOutcomes = right.join();
+            for (int index = 0; index < outcomes.length; index++) {
+                outcomes[index] += rightOutcomes[index];
+            }
+            return outcomes;
+        }
+
+        private long[] play() {
+            GameRepository gameRepository = new GameRepositoryImpl();
+            GameService gameService = new GameServiceImpl(gameRepository, moveStrategyRegistry);
+            Player player1 = gameService.addPlayer(strategyType1.name(), PlayerType.COMPUTER, strategyType1);
+            Player player2 = gameService.addPlayer(strategyType2.name(), PlayerType.COMPUTER, strategyType2);
+            long[] outcomes = new long[3];
+            for (long gameNumber = from; gameNumber < to; gameNumber++) {
+                Player tossWinner = gameNumber % 2 == 0 ? player1 : player2;
+                gameRepository.initialiseGame(GAME_ID, player1, player2, numberOfCellsPerRow, tossWinner);
+                Game game;
+                try {
+                    game = gameService.playAutomatedMoves(GAME_ID);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                if (game.getGameState() == GameState.DRAW) {
+                    outcomes[2]++;
+                } else {
+                    outcomes[game.getWinner() == player1 ? 0 : 1]++;
+                }
+            }
+            return outcomes;
+        }
+    }
+}
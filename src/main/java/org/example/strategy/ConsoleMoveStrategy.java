@@ -0,0 +1,45 @@
+package org.example.strategy;
+
+import org.example.model.Game;
+import org.example.model.Player;
+import org.example.util.LoggerConfig;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Reads the position (1 to numberOfCells) from the console
+ */
+public class ConsoleMoveStrategy implements MoveStrategy {
+    private static final Logger logger = Logger.getLogger(ConsoleMoveStrategy.class.getName());
+
+    static {
+        LoggerConfig.configureLogger(logger);
+    }
+
+    private final BufferedReader input;
+
+    public ConsoleMoveStrategy() {
+        this(new BufferedReader(new InputStreamReader(System.in)));
+    }
+
+    public ConsoleMoveStrategy(BufferedReader input) {
+        this.input = input;
+    }
+
+    @Override
+    public int chooseCellIndex(Game game, Player player) throws IOException {
+        logger.log(Level.INFO, "Please Enter a position from 1-{0}", game.getBoard().getNumberOfCells());
+        String position;
+        synchronized (input) {
+            position = input.readLine();
+        }
+        if (position == null) {
+            throw new IOException("Console input closed");
+        }
+        return Integer.parseInt(position.trim()) - 1;
+    }
+}
@@ -0,0 +1,95 @@
+package org.example.strategy;
+
+import org.example.model.Board;
+import org.example.model.CellValue;
+import org.example.model.Game;
+import org.example.model.Player;
+import org.example.model.WinTracker;
+
+import java.util.Objects;
+
+/**
+ * Checks for potential winning move, potential blocking move, capture centre if available, capture any empty corner
+ * Uses a simple strategy to determine the desirable position
+ */
+public class HeuristicMoveStrategy implements MoveStrategy {
+
+    /**
+     * @param game
+     * @param player
+     * @return get the most desirable cell that should be captured by the player computer, in order for it to win
+     */
+    @Override
+    public int chooseCellIndex(Game game, Player player) {
+        Board board = game.getBoard();
+        WinTracker winTracker = game.getWinTracker();
+        int numberOfRows = board.getNumberOfRows();
+        int numberOfCellsPerRow = board.getNumberOfCellsPerRow();
+        int numberOfPlayers = game.getPlayers().size();
+        int symbol = player.getSymbol();
+
+        // 1. Check for a winning move
+        int winningMove = findWinningMove(board, winTracker, symbol);
+        if (winningMove != -1) {
+            return winningMove;
+        }
+
+        // 2. Check for a blocking move, the opponents moving soonest first
+        for (int offset = 1; offset < numberOfPlayers; offset++) {
+            int blockingMove = findWinningMove(board, winTracker, (symbol + offset) % numberOfPlayers);
+            if (blockingMove != -1) {
+                return blockingMove;
+            }
+        }
+
+        // 3. Take the center if available
+        int centerRow = numberOfRows / 2;
+        int centerCol = numberOfCellsPerRow / 2;
+        if (board.getSymbol(centerRow, centerCol) == CellValue.EMPTY_SYMBOL) {
+            return centerRow * numberOfCellsPerRow + centerCol;
+        }
+
+        // 4. Take any available corner
+        for (int corner = 0; corner < 4; corner++) {
+            int row = corner < 2 ? 0 : numberOfRows - 1;
+            int col = corner % 2 == 0 ? 0 : numberOfCellsPerRow - 1;
+            if (board.getSymbol(row, col) == CellValue.EMPTY_SYMBOL) {
+                return row * numberOfCellsPerRow + col;
+            }
+        }
+
+        // 5. Take any available side
+        for (int i = 0; i < numberOfRows; i++) {
+            for (int j = 0; j < numberOfCellsPerRow; j++) {
+                if (board.getSymbol(i, j) == CellValue.EMPTY_SYMBOL) {
+                    return i * numberOfCellsPerRow + j;
+                }
+            }
+        }
+
+        return -1; // Should never reach here if there are empty cells
+    }
+
+    /**
+     * Finds winning move for a setup
+     * Each empty cell is checked against the win tracker's line counts or the board's lines through it, so no move is tried on the board
+     * @param board
+     * @param winTracker null for boards checking the lines through a move
+     * @param symbol
+     * @return cell index of the winning move, or -1 if there is none
+     */
+    int findWinningMove(Board board, WinTracker winTracker, int symbol) {
+        int numberOfCellsPerRow = board.getNumberOfCellsPerRow();
+
+        for (int i = 0; i < board.getNumberOfRows(); i++) {
+            for (int j = 0; j < numberOfCellsPerRow; j++) {
+                if (board.getSymbol(i, j) == CellValue.EMPTY_SYMBOL
+                        && (Objects.isNull(winTracker) ? board.completesLine(i, j, symbol) : winTracker.isWinningMove(i, j, symbol))) {
+                    return i * numberOfCellsPerRow + j;
+                }
+            }
+        }
+
+        return -1;
+    }
+}
@@ -0,0 +1,31 @@
+package org.example.strategy;
+
+import org.example.model.Board;
+import org.example.model.Game;
+import org.example.model.Player;
+
+import java.io.IOException;
+
+/**
+ * Serves 3x3 two-player moves from the OptimalMoveTable, other games are delegated to a fallback strategy
+ */
+public class LookupTableMoveStrategy implements MoveStrategy {
+    private final MoveStrategy fallbackStrategy;
+
+    public LookupTableMoveStrategy() {
+        this(new HeuristicMoveStrategy());
+    }
+
+    public LookupTableMoveStrategy(MoveStrategy fallbackStrategy) {
+        this.fallbackStrategy = fallbackStrategy;
+    }
+
+    @Override
+    public int chooseCellIndex(Game game, Player player) throws IOException {
+        Board board = game.getBoard();
+        if (!OptimalMoveTable.supports(board) || game.getPlayers().size() > 2) {
+            return fallbackStrategy.chooseCellIndex(game, player);
+        }
+        return OptimalMoveTable.getBestMove(board);
+    }
+}
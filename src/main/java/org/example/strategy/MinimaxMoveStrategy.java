@@ -0,0 +1,41 @@
+package org.example.strategy;
+
+import org.example.model.Game;
+import org.example.model.Player;
+
+import java.io.IOException;
+
+/**
+ * Searches with negamax and alpha-beta pruning, perfect on 3x3
+ * Negamax is a two-player search, games of more players are delegated to a fallback strategy
+ */
+public class MinimaxMoveStrategy implements MoveStrategy {
+    private final NegamaxSearch negamaxSearch;
+    private final MoveStrategy fallbackStrategy = new HeuristicMoveStrategy();
+
+    public MinimaxMoveStrategy() {
+        this(new NegamaxSearch());
+    }
+
+    public MinimaxMoveStrategy(NegamaxSearch negamaxSearch) {
+        this.negamaxSearch = negamaxSearch;
+    }
+
+    @Override
+    public int chooseCellIndex(Game game, Player player) throws IOException {
+        return PositionCache.move(chooseScoredMove(game, player));
+    }
+
+    @Override
+    public long chooseScoredMove(Game game, Player player) throws IOException {
+        if (game.getPlayers().size() > 2) {
+            return fallbackStrategy.chooseScoredMove(game, player);
+        }
+        return negamaxSearch.findBestScoredMove(game.getBoard(), player.getSymbol());
+    }
+
+    @Override
+    public boolean isCacheable() {
+        return true;
+    }
+}
@@ -0,0 +1,25 @@
+package org.example.strategy;
+
+import org.example.model.Game;
+import org.example.model.Player;
+
+/**
+ * Searches with Monte Carlo tree search under a per-move time budget, plays better the more threads it is given
+ * Suits boards too large for MinimaxMoveStrategy to search to the end, and games of any number of players
+ */
+public class MonteCarloMoveStrategy implements MoveStrategy {
+    private final MonteCarloTreeSearch monteCarloTreeSearch;
+
+    public MonteCarloMoveStrategy() {
+        this(new MonteCarloTreeSearch());
+    }
+
+    public MonteCarloMoveStrategy(MonteCarloTreeSearch monteCarloTreeSearch) {
+        this.monteCarloTreeSearch = monteCarloTreeSearch;
+    }
+
+    @Override
+    public int chooseCellIndex(Game game, Player player) {
+        return monteCarloTreeSearch.findBestMove(game.getId(), game.getBoard(), player.getSymbol(), game.getPlayers().size());
+    }
+}
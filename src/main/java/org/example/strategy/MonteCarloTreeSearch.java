@@ -0,0 +1,553 @@
+package org.example.strategy;
+
+import org.example.model.Board;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Monte Carlo tree search with UCT selection, for boards too large to search to the end
+ * Each of numberOfThreads workers grows a tree of its own from the position with random playouts until the per-move
+ * time budget runs out (root parallelism), then the move the workers visited most in total is played
+ * Both in the tree and in playouts a player that can complete a line does, and otherwise blocks the next player from
+ * completing one, as random moves alone miss threats on large boards
+ * The subtree of the chosen move is kept per game, so the next search of the game starts from what was already learnt
+ * about the position the opponents' replies lead to
+ */
+public class MonteCarloTreeSearch {
+    public static final long DEFAULT_TIME_BUDGET_MILLIS = 100;
+    /**
+     * Games whose trees are kept between moves, the least recently searched game's trees are dropped first
+     */
+    private static final int MAX_RETAINED_GAMES = 64;
+    /**
+     * Visits after which a tree stops growing and the remaining time only refines the statistics of its nodes
+     */
+    private static final int MAX_TREE_VISITS = 1 << 18;
+    private static final double EXPLORATION = Math.sqrt(2);
+    private static final double DRAW_REWARD = 0.5;
+    private static final byte EMPTY = -1;
+    private static final int NO_WINNER = -1;
+    private static final int ONGOING = 0;
+    private static final int WON = 1;
+    private static final int DRAWN = 2;
+    private static final AtomicInteger workerThreadNumber = new AtomicInteger();
+
+    private final long timeBudgetNanos;
+    private final int numberOfThreads;
+    private final ExecutorService workers;
+    private final Map<String, Tree[]> retainedTrees = Collections.synchronizedMap(new LinkedHashMap<String, Tree[]>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Tree[]> eldest) {
+            return size() > MAX_RETAINED_GAMES;
+        }
+    });
+    private final ThreadLocal<Playout> playouts = new ThreadLocal<>();
+
+    public MonteCarloTreeSearch() {
+        this(DEFAULT_TIME_BUDGET_MILLIS, TimeUnit.MILLISECONDS, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param timeBudget per-move time budget
+     * @param timeUnit
+     * @param numberOfThreads workers growing trees at once, the thread asking for a move is one of them
+     */
+    public MonteCarloTreeSearch(long timeBudget, TimeUnit timeUnit, int numberOfThreads) {
+        if (timeBudget <= 0) {
+            throw new IllegalArgumentException("timeBudget must be positive");
+        }
+        if (numberOfThreads < 1) {
+            throw new IllegalArgumentException("numberOfThreads must be positive");
+        }
+        this.timeBudgetNanos = timeUnit.toNanos(timeBudget);
+        this.numberOfThreads = numberOfThreads;
+        this.workers = numberOfThreads == 1 ? null : Executors.newFixedThreadPool(numberOfThreads - 1, runnable -> {
+            Thread thread = new Thread(runnable, "mcts-worker-" + workerThreadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * @param board
+     * @param symbol symbol of the player to move
+     * @param numberOfPlayers
+     * @return 0 based cell index of the move visited most, or -1 if the board is full
+     */
+    public int findBestMove(Board board, int symbol, int numberOfPlayers) {
+        return findBestMove(null, board, symbol, numberOfPlayers);
+    }
+
+    /**
+     * @param gameId game the position belongs to, the trees are kept for its next move, null to search from scratch
+     * @param board
+     * @param symbol symbol of the player to move
+     * @param numberOfPlayers
+     * @return 0 based cell index of the move visited most, or -1 if the board is full
+     */
+    public int findBestMove(String gameId, Board board, int symbol, int numberOfPlayers) {
+        long deadlineNanos = System.nanoTime() + timeBudgetNanos;
+        long shape = NegamaxSearch.shape(board);
+        byte[] position = new byte[board.getNumberOfCells()];
+        int emptyCells = 0;
+        int lastEmptyCell = -1;
+        for (int cell = 0; cell < position.length; cell++) {
+            position[cell] = (byte) board.getSymbol(cell / board.getNumberOfCellsPerRow(), cell % board.getNumberOfCellsPerRow());
+            if (position[cell] == EMPTY) {
+                emptyCells++;
+                lastEmptyCell = cell;
+            }
+        }
+        if (emptyCells <= 1) {
+            return lastEmptyCell;
+        }
+
+        Tree[] retained = Objects.isNull(gameId) ? null : retainedTrees.remove(gameId);
+        Tree[] trees = Objects.nonNull(retained) && retained.length == numberOfThreads ? retained : new Tree[numberOfThreads];
+        AtomicIntegerArray started = new AtomicIntegerArray(numberOfThreads);
+        List<Future<?>> futures = new ArrayList<>(numberOfThreads - 1);
+        for (int worker = 1; worker < numberOfThreads; worker++) {
+            int index = worker;
+            futures.add(workers.submit(() -> {
+                if (started.compareAndSet(index, 0, 1)) {
+                    trees[index] = search(trees[index], board, shape, position, symbol, numberOfPlayers, deadlineNanos);
+                }
+            }));
+        }
+        trees[0] = search(trees[0], board, shape, position, symbol, numberOfPlayers, deadlineNanos);
+        for (int worker = 1; worker < numberOfThreads; worker++) {
+            // a worker still queued behind other searches when the budget is spent is skipped rather than waited for
+            if (!started.compareAndSet(worker, 0, 1)) {
+                awaitWorker(futures.get(worker - 1));
+            } else {
+                trees[worker] = null;
+            }
+        }
+
+        int bestMove = chooseMove(trees, position.length);
+        if (Objects.nonNull(gameId)) {
+            retain(gameId, trees, position, bestMove, symbol, numberOfPlayers);
+        }
+        return bestMove;
+    }
+
+    private Tree search(Tree tree, Board board, long shape, byte[] position, int symbol, int numberOfPlayers, long deadlineNanos) {
+        Playout playout = playouts.get();
+        if (Objects.isNull(playout) || playout.shape != shape || playout.numberOfPlayers != numberOfPlayers) {
+            playout = new Playout(board, numberOfPlayers);
+            playouts.set(playout);
+        }
+        playout.reset(position);
+        Node root = reuse(tree, shape, position, symbol, numberOfPlayers);
+        if (Objects.isNull(root)) {
+            root = new Node(-1, (symbol + numberOfPlayers - 1) % numberOfPlayers, ONGOING);
+        }
+        do {
+            playout.iterate(root, symbol);
+        } while (System.nanoTime() < deadlineNanos);
+        return new Tree(root, shape, position, symbol, numberOfPlayers);
+    }
+
+    /**
+     * @return the node of the kept tree for position, reached through the moves played since it was kept, or null if the tree does not lead to it
+     */
+    private static Node reuse(Tree tree, long shape, byte[] position, int symbol, int numberOfPlayers) {
+        if (Objects.isNull(tree) || tree.shape != shape || tree.numberOfPlayers != numberOfPlayers) {
+            return null;
+        }
+        int movesPlayed = 0;
+        for (int cell = 0; cell < position.length; cell++) {
+            if (tree.position[cell] == EMPTY) {
+                movesPlayed += position[cell] == EMPTY ? 0 : 1;
+            } else if (tree.position[cell] != position[cell]) {
+                return null;
+            }
+        }
+        Node node = tree.root;
+        int side = tree.side;
+        for (; movesPlayed > 0; movesPlayed--) {
+            Node next = null;
+            for (int index = 0; index < node.numberOfChildren; index++) {
+                Node child = node.children[index];
+                if (position[child.move] == side && tree.position[child.move] == EMPTY) {
+                    if (Objects.nonNull(next)) {
+                        // a player made two moves since, their order is unknown
+                        return null;
+                    }
+                    next = child;
+                }
+            }
+            if (Objects.isNull(next)) {
+                return null;
+            }
+            node = next;
+            side = (side + 1) % numberOfPlayers;
+        }
+        return side == symbol && node.outcome == ONGOING ? node : null;
+    }
+
+    /**
+     * @return a move that wins outright if a worker found one, otherwise the move with the most visits over all workers
+     */
+    private static int chooseMove(Tree[] trees, int numberOfCells) {
+        int[] visits = new int[numberOfCells];
+        int bestMove = -1;
+        for (Tree tree : trees) {
+            if (Objects.isNull(tree)) {
+                continue;
+            }
+            for (int index = 0; index < tree.root.numberOfChildren; index++) {
+                Node child = tree.root.children[index];
+                if (child.outcome == WON) {
+                    return child.move;
+                }
+                visits[child.move] += child.visits;
+                if (bestMove == -1 || visits[child.move] > visits[bestMove]) {
+                    bestMove = child.move;
+                }
+            }
+        }
+        return bestMove;
+    }
+
+    /**
+     * Keeps the subtrees of the chosen move, unless it ends the game
+     */
+    private void retain(String gameId, Tree[] trees, byte[] position, int bestMove, int symbol, int numberOfPlayers) {
+        Tree[] subtrees = new Tree[trees.length];
+        byte[] nextPosition = position.clone();
+        nextPosition[bestMove] = (byte) symbol;
+        for (int worker = 0; worker < trees.length; worker++) {
+            if (Objects.isNull(trees[worker])) {
+                continue;
+            }
+            Node root = trees[worker].root;
+            for (int index = 0; index < root.numberOfChildren; index++) {
+                Node child = root.children[index];
+                if (child.move == bestMove) {
+                    if (child.outcome != ONGOING) {
+                        return;
+                    }
+                    subtrees[worker] = new Tree(child, trees[worker].shape, nextPosition, (symbol + 1) % numberOfPlayers, numberOfPlayers);
+                }
+            }
+        }
+        retainedTrees.put(gameId, subtrees);
+    }
+
+    private static void awaitWorker(Future<?> future) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                future.get();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Search worker failed", e.getCause());
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * A worker's tree, rooted at position with side to move
+     */
+    private static final class Tree {
+        private final Node root;
+        private final long shape;
+        private final byte[] position;
+        private final int side;
+        private final int numberOfPlayers;
+
+        Tree(Node root, long shape, byte[] position, int side, int numberOfPlayers) {
+            this.root = root;
+            this.shape = shape;
+            this.position = position;
+            this.side = side;
+            this.numberOfPlayers = numberOfPlayers;
+        }
+    }
+
+    /**
+     * A position reached by mover playing move, its reward is summed from mover's point of view
+     */
+    private static final class Node {
+        private final int move;
+        private final int mover;
+        private final int outcome;
+        private Node[] children;
+        private int numberOfChildren;
+        private int[] untriedMoves;
+        private int numberOfUntriedMoves;
+        private int visits;
+        private double reward;
+
+        Node(int move, int mover, int outcome) {
+            this.move = move;
+            this.mover = mover;
+            this.outcome = outcome;
+        }
+
+        private Node bestChild(double explorationLog) {
+            Node bestChild = null;
+            double bestValue = Double.NEGATIVE_INFINITY;
+            for (int index = 0; index < numberOfChildren; index++) {
+                Node child = children[index];
+                double value = child.reward / child.visits + EXPLORATION * Math.sqrt(explorationLog / child.visits);
+                if (value > bestValue) {
+                    bestValue = value;
+                    bestChild = child;
+                }
+            }
+            return bestChild;
+        }
+
+        private Node addChild(int move, int mover, int outcome) {
+            Node child = new Node(move, mover, outcome);
+            children[numberOfChildren++] = child;
+            return child;
+        }
+    }
+
+    /**
+     * A thread's copy of the board to play iterations on: a byte per cell, per-line mark counts for win detection,
+     * the empty cells, swapped to the back of their array as they fill so taking a random one does not search,
+     * and per player the lines one mark short of a win, so a playout takes a win or blocks the next player's win when there is one
+     * Every iteration starts from the searched position and is taken back afterwards, so playouts do not allocate
+     */
+    private static final class Playout {
+        private final long shape;
+        private final int numberOfPlayers;
+        private final int winLength;
+        private final byte[] cells;
+        private final int[][] linesByCell;
+        private final int[][] lineCounts;
+        private final int[] lineTotals;
+        private final int[][] cellsByLine;
+        private final int[][] threatLines;
+        private final int[] numberOfThreatLines;
+        private final int[] rootNumberOfThreatLines;
+        private final int[] emptyCells;
+        private final int[] positionInEmptyCells;
+        private final int[] playedCells;
+        private final Node[] path;
+        private int numberOfEmptyCells;
+        private int rootNumberOfEmptyCells;
+        private int numberOfPlayedCells;
+        private long random = ThreadLocalRandom.current().nextLong() | 1;
+
+        Playout(Board board, int numberOfPlayers) {
+            int numberOfCells = board.getNumberOfCells();
+            this.shape = NegamaxSearch.shape(board);
+            this.numberOfPlayers = numberOfPlayers;
+            this.winLength = board.getWinLength();
+            this.cells = new byte[numberOfCells];
+            this.linesByCell = NegamaxSearch.linesByCell(board);
+            int numberOfLines = NegamaxSearch.numberOfLines(board);
+            this.lineCounts = new int[numberOfPlayers][numberOfLines];
+            this.lineTotals = new int[numberOfLines];
+            this.cellsByLine = new int[numberOfLines][winLength];
+            int[] cellsInLine = new int[numberOfLines];
+            for (int cell = 0; cell < numberOfCells; cell++) {
+                for (int line : linesByCell[cell]) {
+                    cellsByLine[line][cellsInLine[line]++] = cell;
+                }
+            }
+            // a line becomes a threat of a player at most once per iteration, as marks are only added
+            this.threatLines = new int[numberOfPlayers][numberOfLines];
+            this.numberOfThreatLines = new int[numberOfPlayers];
+            this.rootNumberOfThreatLines = new int[numberOfPlayers];
+            this.emptyCells = new int[numberOfCells];
+            this.positionInEmptyCells = new int[numberOfCells];
+            this.playedCells = new int[numberOfCells];
+            this.path = new Node[numberOfCells + 1];
+        }
+
+        void reset(byte[] position) {
+            for (int[] counts : lineCounts) {
+                Arrays.fill(counts, 0);
+            }
+            Arrays.fill(lineTotals, 0);
+            Arrays.fill(numberOfThreatLines, 0);
+            numberOfEmptyCells = 0;
+            numberOfPlayedCells = 0;
+            for (int cell = 0; cell < position.length; cell++) {
+                cells[cell] = position[cell];
+                if (position[cell] == EMPTY) {
+                    positionInEmptyCells[cell] = numberOfEmptyCells;
+                    emptyCells[numberOfEmptyCells++] = cell;
+                } else {
+                    for (int line : linesByCell[cell]) {
+                        lineCounts[position[cell]][line]++;
+                        lineTotals[line]++;
+                    }
+                }
+            }
+            for (int line = 0; line < lineTotals.length; line++) {
+                for (int player = 0; player < numberOfPlayers; player++) {
+                    if (isThreat(player, line)) {
+                        threatLines[player][numberOfThreatLines[player]++] = line;
+                    }
+                }
+            }
+            System.arraycopy(numberOfThreatLines, 0, rootNumberOfThreatLines, 0, numberOfPlayers);
+            rootNumberOfEmptyCells = numberOfEmptyCells;
+        }
+
+        /**
+         * Selects down the tree by UCT, expands one untried move, plays the game out and backs the result up
+         */
+        void iterate(Node root, int side) {
+            Node node = root;
+            int depth = 0;
+            path[depth++] = node;
+            while (node.outcome == ONGOING) {
+                if (Objects.isNull(node.untriedMoves)) {
+                    int forcedMove = findForcedMove(side);
+                    node.untriedMoves = forcedMove == -1 ? Arrays.copyOf(emptyCells, numberOfEmptyCells) : new int[]{forcedMove};
+                    node.numberOfUntriedMoves = node.untriedMoves.length;
+                    node.children = new Node[node.untriedMoves.length];
+                }
+                if (node.numberOfUntriedMoves > 0 && root.visits < MAX_TREE_VISITS) {
+                    int index = nextInt(node.numberOfUntriedMoves);
+                    int move = node.untriedMoves[index];
+                    node.untriedMoves[index] = node.untriedMoves[--node.numberOfUntriedMoves];
+                    int outcome = place(move, side) ? WON : numberOfEmptyCells == 0 ? DRAWN : ONGOING;
+                    node = node.addChild(move, side, outcome);
+                    path[depth++] = node;
+                    side = (side + 1) % numberOfPlayers;
+                    break;
+                }
+                if (node.numberOfChildren == 0) {
+                    break;
+                }
+                node = node.bestChild(Math.log(node.visits));
+                place(node.move, side);
+                path[depth++] = node;
+                side = (side + 1) % numberOfPlayers;
+            }
+
+            int winner = node.outcome == WON ? node.mover : node.outcome == DRAWN ? NO_WINNER : playOut(side);
+            for (int index = 0; index < depth; index++) {
+                Node visited = path[index];
+                visited.visits++;
+                visited.reward += winner == NO_WINNER ? DRAW_REWARD : winner == visited.mover ? 1 : 0;
+                path[index] = null;
+            }
+            takeBack();
+        }
+
+        /**
+         * Plays random moves, except that a player completes a line when it can and otherwise blocks the next player's
+         * @return symbol of the winner of the game played from here, NO_WINNER for a draw
+         */
+        private int playOut(int side) {
+            while (numberOfEmptyCells > 0) {
+                int forcedMove = findForcedMove(side);
+                if (place(forcedMove == -1 ? emptyCells[nextInt(numberOfEmptyCells)] : forcedMove, side)) {
+                    return side;
+                }
+                side = (side + 1) % numberOfPlayers;
+            }
+            return NO_WINNER;
+        }
+
+        /**
+         * @return the cell completing one of side's lines, else the cell completing one of the next player's, or -1 if neither can win at once
+         */
+        private int findForcedMove(int side) {
+            int winningCell = findWinningCell(side);
+            return winningCell != -1 ? winningCell : findWinningCell((side + 1) % numberOfPlayers);
+        }
+
+        /**
+         * @return the empty cell completing one of player's lines, or -1 if there is none
+         */
+        private int findWinningCell(int player) {
+            int[] lines = threatLines[player];
+            for (int index = numberOfThreatLines[player] - 1; index >= 0; index--) {
+                int line = lines[index];
+                // lines blocked or completed since they became threats stay listed until the iteration is taken back
+                if (isThreat(player, line)) {
+                    for (int cell : cellsByLine[line]) {
+                        if (cells[cell] == EMPTY) {
+                            return cell;
+                        }
+                    }
+                }
+            }
+            return -1;
+        }
+
+        private boolean isThreat(int player, int line) {
+            return lineCounts[player][line] == winLength - 1 && lineTotals[line] == winLength - 1;
+        }
+
+        /**
+         * @return true if the mark completes one of the lines through the cell
+         */
+        private boolean place(int cell, int side) {
+            cells[cell] = (byte) side;
+            playedCells[numberOfPlayedCells++] = cell;
+            int lastEmptyCell = emptyCells[--numberOfEmptyCells];
+            int position = positionInEmptyCells[cell];
+            emptyCells[position] = lastEmptyCell;
+            positionInEmptyCells[lastEmptyCell] = position;
+            emptyCells[numberOfEmptyCells] = cell;
+            positionInEmptyCells[cell] = numberOfEmptyCells;
+            int[] counts = lineCounts[side];
+            boolean isWinner = false;
+            for (int line : linesByCell[cell]) {
+                isWinner |= ++counts[line] == winLength;
+                if (++lineTotals[line] == winLength - 1 && counts[line] == winLength - 1) {
+                    threatLines[side][numberOfThreatLines[side]++] = line;
+                }
+            }
+            return isWinner;
+        }
+
+        /**
+         * Empties the cells played in the iteration, they are the ones behind the position's empty cells
+         */
+        private void takeBack() {
+            while (numberOfPlayedCells > 0) {
+                int cell = playedCells[--numberOfPlayedCells];
+                int[] counts = lineCounts[cells[cell]];
+                for (int line : linesByCell[cell]) {
+                    counts[line]--;
+                    lineTotals[line]--;
+                }
+                cells[cell] = EMPTY;
+            }
+            System.arraycopy(rootNumberOfThreatLines, 0, numberOfThreatLines, 0, numberOfPlayers);
+            numberOfEmptyCells = rootNumberOfEmptyCells;
+        }
+
+        /**
+         * @return a pseudo-random int in [0, bound) from a xorshift generator
+         */
+        private int nextInt(int bound) {
+            random ^= random << 13;
+            random ^= random >>> 7;
+            random ^= random << 17;
+            return (int) ((random >>> 33) * bound >>> 31);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package org.example.strategy;
+
+import org.example.model.Game;
+import org.example.model.Player;
+
+import java.io.IOException;
+
+/**
+ * Chooses the cell a player marks next
+ */
+public interface MoveStrategy {
+    /**
+     * @param game
+     * @param player player whose turn it is
+     * @return 0 based cell index (row * numberOfCellsPerRow + col) of the chosen cell
+     * @throws IOException
+     */
+    int chooseCellIndex(Game game, Player player) throws IOException;
+
+    /**
+     * @param game
+     * @param player player whose turn it is
+     * @return the chosen cell and its score from the player's point of view, packed with PositionCache.entry,
+     * the score is UNSCORED unless the strategy proved it, as a search to the end of the game does
+     * @throws IOException
+     */
+    default long chooseScoredMove(Game game, Player player) throws IOException {
+        return PositionCache.entry(chooseCellIndex(game, player), PositionCache.UNSCORED);
+    }
+
+    /**
+     * Moves of a cacheable strategy depend on the position alone and are as good for its rotations and reflections,
+     * so GameServiceImpl keeps them in the shared PositionCache instead of choosing again when any game reaches the position
+     * Only scored moves are kept, a move found under a time budget or by chance may be bettered the next time
+     * @return true if the strategy's moves are worth caching
+     */
+    default boolean isCacheable() {
+        return false;
+    }
+}
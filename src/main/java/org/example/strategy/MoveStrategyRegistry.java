@@ -0,0 +1,56 @@
+package org.example.strategy;
+
+import org.example.exception.UserException;
+import org.example.model.MoveStrategyType;
+import org.example.model.Player;
+import org.example.model.PlayerType;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Maps each MoveStrategyType to the MoveStrategy serving it
+ * Players without a strategy type get CONSOLE if HUMAN and LOOKUP_TABLE if COMPUTER
+ */
+public class MoveStrategyRegistry {
+    private final Map<MoveStrategyType, MoveStrategy> strategies = new EnumMap<>(MoveStrategyType.class);
+
+    /**
+     * @return a registry with the default implementation of every MoveStrategyType
+     */
+    public static MoveStrategyRegistry withDefaults() {
+        return new MoveStrategyRegistry()
+                .register(MoveStrategyType.CONSOLE, new ConsoleMoveStrategy())
+                .register(MoveStrategyType.RANDOM, new RandomMoveStrategy())
+                .register(MoveStrategyType.HEURISTIC, new HeuristicMoveStrategy())
+                .register(MoveStrategyType.MINIMAX, new MinimaxMoveStrategy())
+                .register(MoveStrategyType.LOOKUP_TABLE, new LookupTableMoveStrategy())
+                .register(MoveStrategyType.MCTS, new MonteCarloMoveStrategy());
+    }
+
+    public MoveStrategyRegistry register(MoveStrategyType moveStrategyType, MoveStrategy moveStrategy) {
+        strategies.put(moveStrategyType, moveStrategy);
+        return this;
+    }
+
+    /**
+     * @param player
+     * @return the strategy selected for the player
+     */
+    public MoveStrategy getStrategy(Player player) {
+        MoveStrategyType moveStrategyType = getStrategyType(player);
+        MoveStrategy moveStrategy = strategies.get(moveStrategyType);
+        if (Objects.isNull(moveStrategy)) {
+            throw new UserException("No move strategy registered for: " + moveStrategyType);
+        }
+        return moveStrategy;
+    }
+
+    public static MoveStrategyType getStrategyType(Player player) {
+        if (Objects.nonNull(player.getMoveStrategyType())) {
+            return player.getMoveStrategyType();
+        }
+        return player.getPlayerType() == PlayerType.HUMAN ? MoveStrategyType.CONSOLE : MoveStrategyType.LOOKUP_TABLE;
+    }
+}
@@ -0,0 +1,424 @@
+package org.example.strategy;
+
+import org.example.model.Board;
+import org.example.model.CellValue;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Negamax search with alpha-beta pruning and a Zobrist keyed transposition table
+ * Runs iterative deepening until the position is solved or the per-move time budget runs out,
+ * so 3x3 is searched to the end (perfect play) while larger boards return the best move of the deepest finished iteration
+ */
+public class NegamaxSearch {
+    public static final long DEFAULT_TIME_BUDGET_MILLIS = 100;
+    private static final int DEFAULT_TABLE_SIZE_BITS = 18;
+
+    static final int WIN_SCORE = 1 << 30;
+    private static final int WIN_THRESHOLD = WIN_SCORE - (1 << 22);
+    private static final int INFINITY = Integer.MAX_VALUE;
+    private static final int MAX_LINE_WEIGHT_SHIFT = 18;
+    private static final int TIME_CHECK_INTERVAL = 1024;
+    private static final byte EMPTY = -1;
+    private static final int[][] DIRECTIONS = {{0, 1}, {1, 0}, {1, 1}, {1, -1}};
+
+    private static final Map<Long, int[]> MOVE_ORDER_BY_SHAPE = new ConcurrentHashMap<>();
+    private static final Map<Long, int[][]> LINES_BY_CELL_BY_SHAPE = new ConcurrentHashMap<>();
+
+    private final long timeBudgetNanos;
+    private final ThreadLocal<TranspositionTable> transpositionTables;
+    private final ThreadLocal<Search> searches = new ThreadLocal<>();
+
+    public NegamaxSearch() {
+        this(DEFAULT_TIME_BUDGET_MILLIS, TimeUnit.MILLISECONDS, DEFAULT_TABLE_SIZE_BITS);
+    }
+
+    public NegamaxSearch(long timeBudget, TimeUnit timeUnit) {
+        this(timeBudget, timeUnit, DEFAULT_TABLE_SIZE_BITS);
+    }
+
+    /**
+     * @param timeBudget per-move time budget
+     * @param timeUnit
+     * @param tableSizeBits each searching thread keeps a transposition table of 2^tableSizeBits entries
+     */
+    public NegamaxSearch(long timeBudget, TimeUnit timeUnit, int tableSizeBits) {
+        if (timeBudget <= 0) {
+            throw new IllegalArgumentException("timeBudget must be positive");
+        }
+        this.timeBudgetNanos = timeUnit.toNanos(timeBudget);
+        this.transpositionTables = ThreadLocal.withInitial(() -> new TranspositionTable(tableSizeBits));
+    }
+
+    /**
+     * @param board
+     * @param cellValue mark of the player to move
+     * @return 0 based cell index of the best move found, or -1 if the board is full
+     */
+    public int findBestMove(Board board, CellValue cellValue) {
+        return findBestMove(board, cellValue.getSymbol());
+    }
+
+    /**
+     * @param board
+     * @param symbol symbol of the player to move, 0 or 1
+     * @return 0 based cell index of the best move found, or -1 if the board is full
+     */
+    public int findBestMove(Board board, int symbol) {
+        return PositionCache.move(findBestScoredMove(board, symbol));
+    }
+
+    /**
+     * @param board
+     * @param symbol symbol of the player to move, 0 or 1
+     * @return the best move found and its score from the mover's point of view, packed with PositionCache.entry,
+     * the score is UNSCORED unless the search solved the position before its time budget ran out
+     */
+    public long findBestScoredMove(Board board, int symbol) {
+        Search search = searches.get();
+        if (search == null || search.shape != shape(board)) {
+            search = new Search(board, transpositionTables.get());
+            searches.set(search);
+        }
+        int bestMove = search.run(board, symbol, System.nanoTime() + timeBudgetNanos);
+        return PositionCache.entry(bestMove, search.solved ? search.bestScore : PositionCache.UNSCORED);
+    }
+
+    static long shape(Board board) {
+        return ((long) board.getNumberOfRows() << 42) | ((long) board.getNumberOfCellsPerRow() << 21) | board.getWinLength();
+    }
+
+    /**
+     * @param board
+     * @return cell indices ordered from the centre outwards, centre cells sit on the most lines
+     */
+    static int[] moveOrder(Board board) {
+        int numberOfRows = board.getNumberOfRows();
+        int numberOfColumns = board.getNumberOfCellsPerRow();
+        return MOVE_ORDER_BY_SHAPE.computeIfAbsent(shape(board), shape -> {
+            double centreRow = (numberOfRows - 1) / 2.0;
+            double centreCol = (numberOfColumns - 1) / 2.0;
+            return IntStream.range(0, numberOfRows * numberOfColumns)
+                    .boxed()
+                    .sorted(Comparator.comparingDouble(cell -> Math.max(Math.abs(cell / numberOfColumns - centreRow), Math.abs(cell % numberOfColumns - centreCol))))
+                    .mapToInt(Integer::intValue)
+                    .toArray();
+        });
+    }
+
+    /**
+     * A line is a run of winLength cells along a row, column or diagonal, numbered in the order their first cells are met
+     * @param board
+     * @return for every cell, the numbers of the lines covering it
+     */
+    static int[][] linesByCell(Board board) {
+        int numberOfRows = board.getNumberOfRows();
+        int numberOfColumns = board.getNumberOfCellsPerRow();
+        int winLength = board.getWinLength();
+        return LINES_BY_CELL_BY_SHAPE.computeIfAbsent(shape(board), shape -> {
+            int[] lineCountByCell = new int[numberOfRows * numberOfColumns];
+            int[][] linesByCell = new int[numberOfRows * numberOfColumns][];
+            // the first pass counts the lines of each cell, the second fills them in
+            for (int pass = 0; pass < 2; pass++) {
+                int line = 0;
+                for (int row = 0; row < numberOfRows; row++) {
+                    for (int col = 0; col < numberOfColumns; col++) {
+                        for (int[] direction : DIRECTIONS) {
+                            int lastRow = row + (winLength - 1) * direction[0];
+                            int lastCol = col + (winLength - 1) * direction[1];
+                            if (lastRow >= numberOfRows || lastCol < 0 || lastCol >= numberOfColumns) {
+                                continue;
+                            }
+                            for (int index = 0; index < winLength; index++) {
+                                int cell = (row + index * direction[0]) * numberOfColumns + col + index * direction[1];
+                                if (pass == 0) {
+                                    lineCountByCell[cell]++;
+                                } else {
+                                    linesByCell[cell][--lineCountByCell[cell]] = line;
+                                }
+                            }
+                            line++;
+                        }
+                    }
+                }
+                if (pass == 0) {
+                    for (int cell = 0; cell < linesByCell.length; cell++) {
+                        linesByCell[cell] = new int[lineCountByCell[cell]];
+                    }
+                }
+            }
+            return linesByCell;
+        });
+    }
+
+    /**
+     * @return horizontal, vertical and both diagonal lines of winLength cells that fit on the board
+     */
+    static int numberOfLines(Board board) {
+        int rowStarts = Math.max(0, board.getNumberOfRows() - board.getWinLength() + 1);
+        int columnStarts = Math.max(0, board.getNumberOfCellsPerRow() - board.getWinLength() + 1);
+        return board.getNumberOfRows() * columnStarts + rowStarts * board.getNumberOfCellsPerRow() + 2 * rowStarts * columnStarts;
+    }
+
+
+    /**
+     * State of a search: a byte per cell, per-line mark counts for win detection in the lines of the move and the running Zobrist hash
+     * Each thread keeps one per board shape and resets it for every move, so searching does not allocate
+     */
+    private static final class Search {
+        private final long shape;
+        private final int numberOfCellsPerRow;
+        private final int numberOfCells;
+        private final int winLength;
+        private final byte[] cells;
+        private final int[][] linesByCell;
+        private final int[][] lineCounts;
+        private final long[] zobristKeys;
+        /**
+         * Start of every hash, so the positions of shapes with the same number of cells never share table entries
+         */
+        private final long shapeKey;
+        private final int[] moveOrder;
+        private final TranspositionTable transpositionTable;
+
+        private int rootSide;
+        private long deadlineNanos;
+        private long hash;
+        private int filledCells;
+        private long nodes;
+        private boolean aborted;
+        private boolean depthLimited;
+        private int rootBestScore;
+        /**
+         * Score of the move run returned, from its deepest finished iteration
+         */
+        private int bestScore;
+        /**
+         * Whether bestScore is the position's true score: the last completed iteration reached every end of the game or proved a win or a loss
+         */
+        private boolean solved;
+
+        Search(Board board, TranspositionTable transpositionTable) {
+            this.shape = shape(board);
+            this.numberOfCellsPerRow = board.getNumberOfCellsPerRow();
+            this.numberOfCells = board.getNumberOfCells();
+            this.winLength = board.getWinLength();
+            this.cells = new byte[numberOfCells];
+            this.linesByCell = linesByCell(board);
+            this.lineCounts = new int[2][numberOfLines(board)];
+            this.zobristKeys = ZobristKeys.forSize(numberOfCells);
+            this.shapeKey = ZobristKeys.forShape(shape);
+            this.moveOrder = moveOrder(board);
+            this.transpositionTable = transpositionTable;
+        }
+
+        private void reset(Board board, int rootSide, long deadlineNanos) {
+            this.rootSide = rootSide;
+            this.deadlineNanos = deadlineNanos;
+            hash = shapeKey;
+            filledCells = 0;
+            nodes = 0;
+            aborted = false;
+            Arrays.fill(cells, EMPTY);
+            Arrays.fill(lineCounts[0], 0);
+            Arrays.fill(lineCounts[1], 0);
+            for (int cell = 0; cell < numberOfCells; cell++) {
+                int symbol = board.getSymbol(cell / numberOfCellsPerRow, cell % numberOfCellsPerRow);
+                if (symbol != CellValue.EMPTY_SYMBOL) {
+                    place(cell, symbol);
+                }
+            }
+        }
+
+        int run(Board board, int rootSide, long deadlineNanos) {
+            reset(board, rootSide, deadlineNanos);
+            int bestMove = -1;
+            for (int cell : moveOrder) {
+                if (cells[cell] == EMPTY) {
+                    bestMove = cell;
+                    break;
+                }
+            }
+            bestScore = 0;
+            solved = false;
+            if (bestMove == -1) {
+                return -1;
+            }
+
+            int emptyCells = numberOfCells - filledCells;
+            for (int depth = 1; depth <= emptyCells; depth++) {
+                depthLimited = false;
+                int move = searchRoot(depth, bestMove);
+                if (aborted) {
+                    break;
+                }
+                bestMove = move;
+                bestScore = rootBestScore;
+                solved = !depthLimited || Math.abs(rootBestScore) >= WIN_THRESHOLD;
+                if (solved || System.nanoTime() > deadlineNanos) {
+                    break;
+                }
+            }
+            return bestMove;
+        }
+
+        /**
+         * @return best move of a full-window search to depth, trying previousBestMove first, its score is left in rootBestScore
+         */
+        private int searchRoot(int depth, int previousBestMove) {
+            int alpha = -INFINITY;
+            int bestMove = previousBestMove;
+            int bestScore = -INFINITY;
+            for (int index = -1; index < moveOrder.length; index++) {
+                int cell = index < 0 ? previousBestMove : moveOrder[index];
+                if (cells[cell] != EMPTY || (index >= 0 && cell == previousBestMove)) {
+                    continue;
+                }
+                int score = scoreMove(cell, rootSide, depth, 0, alpha, INFINITY);
+                if (aborted) {
+                    break;
+                }
+                if (score > bestScore) {
+                    bestScore = score;
+                    bestMove = cell;
+                }
+                alpha = Math.max(alpha, score);
+            }
+            rootBestScore = bestScore;
+            return bestMove;
+        }
+
+        private int negamax(int side, int depth, int ply, int alpha, int beta) {
+            if (++nodes % TIME_CHECK_INTERVAL == 0 && System.nanoTime() > deadlineNanos) {
+                aborted = true;
+                return 0;
+            }
+
+            int originalAlpha = alpha;
+            int ttMove = -1;
+            long entry = transpositionTable.probe(hash);
+            if (entry != 0) {
+                ttMove = TranspositionTable.bestMove(entry);
+                int ttDepth = TranspositionTable.depth(entry);
+                if (ttDepth >= depth) {
+                    int ttScore = fromTableScore(TranspositionTable.score(entry), ply);
+                    int bound = TranspositionTable.bound(entry);
+                    if (bound == TranspositionTable.EXACT
+                            || (bound == TranspositionTable.LOWER_BOUND && ttScore >= beta)
+                            || (bound == TranspositionTable.UPPER_BOUND && ttScore <= alpha)) {
+                        depthLimited |= ttDepth != TranspositionTable.SOLVED_DEPTH;
+                        return ttScore;
+                    }
+                }
+            }
+
+            boolean parentDepthLimited = depthLimited;
+            depthLimited = false;
+            int bestScore = -INFINITY;
+            int bestMove = -1;
+            for (int index = -1; index < moveOrder.length; index++) {
+                int cell = index < 0 ? ttMove : moveOrder[index];
+                if (cell < 0 || cell >= numberOfCells || cells[cell] != EMPTY || (index >= 0 && cell == ttMove)) {
+                    continue;
+                }
+                int score = scoreMove(cell, side, depth, ply, alpha, beta);
+                if (aborted) {
+                    return 0;
+                }
+                if (score > bestScore) {
+                    bestScore = score;
+                    bestMove = cell;
+                }
+                if (score > alpha) {
+                    alpha = score;
+                    if (alpha >= beta) {
+                        break;
+                    }
+                }
+            }
+
+            int bound = bestScore <= originalAlpha ? TranspositionTable.UPPER_BOUND
+                    : bestScore >= beta ? TranspositionTable.LOWER_BOUND
+                    : TranspositionTable.EXACT;
+            int storedDepth = depthLimited ? Math.min(depth, TranspositionTable.SOLVED_DEPTH - 1) : TranspositionTable.SOLVED_DEPTH;
+            transpositionTable.store(hash, toTableScore(bestScore, ply), bestMove, storedDepth, bound);
+            depthLimited |= parentDepthLimited;
+            return bestScore;
+        }
+
+        /**
+         * Plays cell for side, scores the resulting position from side's point of view and takes the move back
+         */
+        private int scoreMove(int cell, int side, int depth, int ply, int alpha, int beta) {
+            int score;
+            if (place(cell, side)) {
+                score = WIN_SCORE - ply - 1;
+            } else if (filledCells == numberOfCells) {
+                score = 0;
+            } else if (depth == 1) {
+                depthLimited = true;
+                score = evaluate(side);
+            } else {
+                score = -negamax(1 - side, depth - 1, ply + 1, -beta, -alpha);
+            }
+            remove(cell, side);
+            return score;
+        }
+
+        /**
+         * Static score from side's point of view: lines still open to a player are weighted by how many marks they hold
+         */
+        private int evaluate(int side) {
+            int[] own = lineCounts[side];
+            int[] other = lineCounts[1 - side];
+            int score = 0;
+            for (int line = 0; line < own.length; line++) {
+                if (other[line] == 0 && own[line] > 0) {
+                    score += 1 << Math.min(2 * own[line], MAX_LINE_WEIGHT_SHIFT);
+                } else if (own[line] == 0 && other[line] > 0) {
+                    score -= 1 << Math.min(2 * other[line], MAX_LINE_WEIGHT_SHIFT);
+                }
+            }
+            return score;
+        }
+
+        /**
+         * @return true if the mark completes one of the lines through the cell
+         */
+        private boolean place(int cell, int side) {
+            cells[cell] = (byte) side;
+            hash ^= zobristKeys[cell * 2 + side];
+            filledCells++;
+            int[] counts = lineCounts[side];
+            boolean isWinner = false;
+            for (int line : linesByCell[cell]) {
+                isWinner |= ++counts[line] == winLength;
+            }
+            return isWinner;
+        }
+
+        private void remove(int cell, int side) {
+            cells[cell] = EMPTY;
+            hash ^= zobristKeys[cell * 2 + side];
+            filledCells--;
+            int[] counts = lineCounts[side];
+            for (int line : linesByCell[cell]) {
+                counts[line]--;
+            }
+        }
+
+        // Win scores are stored relative to the node so they stay valid when the position is reached at another ply
+        private static int toTableScore(int score, int ply) {
+            return score >= WIN_THRESHOLD ? score + ply : score <= -WIN_THRESHOLD ? score - ply : score;
+        }
+
+        private static int fromTableScore(int score, int ply) {
+            return score >= WIN_THRESHOLD ? score - ply : score <= -WIN_THRESHOLD ? score + ply : score;
+        }
+    }
+}
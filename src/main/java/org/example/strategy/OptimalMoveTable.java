@@ -0,0 +1,183 @@
+package org.example.strategy;
+
+import org.example.model.Board;
+import org.example.model.CellValue;
+
+import java.util.Arrays;
+
+/**
+ * Optimal replies for every reachable 3x3 position, built on first use
+ * A position is indexed in base 3 (digit i is cell i: 0 empty, 1 X, 2 O), X always moves first
+ * Only one position per class of the 8 board symmetries is solved, its reply is then mapped onto every symmetric position,
+ * so serving a move is a single read of a 19683 byte table
+ */
+public final class OptimalMoveTable {
+    public static final int NUMBER_OF_CELLS_PER_ROW = 3;
+    private static final int NUMBER_OF_CELLS = 9;
+    private static final int NUMBER_OF_POSITIONS = 19683;
+    private static final byte NO_MOVE = -1;
+    private static final byte UNSOLVED = Byte.MIN_VALUE;
+    private static final int[] POWERS_OF_THREE = {1, 3, 9, 27, 81, 243, 729, 2187, 6561};
+    private static final int[][] LINES = {
+            {0, 1, 2}, {3, 4, 5}, {6, 7, 8},
+            {0, 3, 6}, {1, 4, 7}, {2, 5, 8},
+            {0, 4, 8}, {2, 4, 6}
+    };
+    private static final int[][] SYMMETRIES = buildSymmetries();
+
+    private static final class Holder {
+        private static final byte[] BEST_MOVES = new OptimalMoveTable().build();
+    }
+
+    private final byte[] scores = new byte[NUMBER_OF_POSITIONS];
+    private final byte[] bestMoves = new byte[NUMBER_OF_POSITIONS];
+
+    private OptimalMoveTable() {
+        Arrays.fill(scores, UNSOLVED);
+        Arrays.fill(bestMoves, NO_MOVE);
+    }
+
+    /**
+     * @param board
+     * @return true for a 3x3 board won by three in a row, the only game the table is built for
+     */
+    public static boolean supports(Board board) {
+        return board.getNumberOfCellsPerRow() == NUMBER_OF_CELLS_PER_ROW && board.isSquareWithFullLineWins();
+    }
+
+    /**
+     * @param board a 3x3 board
+     * @return optimal cell index for the player to move, or -1 if the game is already over
+     */
+    public static int getBestMove(Board board) {
+        int index = 0;
+        for (int cell = 0; cell < NUMBER_OF_CELLS; cell++) {
+            int symbol = board.getSymbol(cell / NUMBER_OF_CELLS_PER_ROW, cell % NUMBER_OF_CELLS_PER_ROW);
+            if (symbol != CellValue.EMPTY_SYMBOL) {
+                index += POWERS_OF_THREE[cell] * (symbol + 1);
+            }
+        }
+        return getBestMove(index);
+    }
+
+    /**
+     * @param positionIndex base 3 index of the position
+     * @return optimal cell index for the player to move, or -1 if the game is over or the position is unreachable
+     */
+    public static int getBestMove(int positionIndex) {
+        return Holder.BEST_MOVES[positionIndex];
+    }
+
+    private byte[] build() {
+        solve(0, 1);
+        return bestMoves;
+    }
+
+    /**
+     * Solves the canonical form of a position and copies its reply to all symmetric positions
+     * @param index
+     * @param mark 1 for X, 2 for O, the player to move
+     * @return score for the player to move, higher for faster wins and slower losses
+     */
+    private int solve(int index, int mark) {
+        int canonicalIndex = canonicalIndex(index);
+        if (scores[canonicalIndex] != UNSOLVED) {
+            return scores[canonicalIndex];
+        }
+
+        int bestScore = Integer.MIN_VALUE;
+        int bestMove = NO_MOVE;
+        int emptyCells = 0;
+        for (int cell = 0; cell < NUMBER_OF_CELLS; cell++) {
+            if (digit(canonicalIndex, cell) != 0) {
+                continue;
+            }
+            emptyCells++;
+            int child = canonicalIndex + POWERS_OF_THREE[cell] * mark;
+            int score;
+            if (isWinner(child, mark)) {
+                score = NUMBER_OF_CELLS + 1 - Integer.bitCount(filledMask(child));
+            } else if (Integer.bitCount(filledMask(child)) == NUMBER_OF_CELLS) {
+                score = 0;
+            } else {
+                score = -solve(child, 3 - mark);
+            }
+            if (score > bestScore) {
+                bestScore = score;
+                bestMove = cell;
+            }
+        }
+        if (emptyCells == 0) {
+            bestScore = 0;
+        }
+
+        scores[canonicalIndex] = (byte) bestScore;
+        for (int[] symmetry : SYMMETRIES) {
+            int symmetricIndex = transform(canonicalIndex, symmetry);
+            bestMoves[symmetricIndex] = bestMove == NO_MOVE ? NO_MOVE : (byte) symmetry[bestMove];
+        }
+        return bestScore;
+    }
+
+    private static int canonicalIndex(int index) {
+        int canonicalIndex = index;
+        for (int[] symmetry : SYMMETRIES) {
+            canonicalIndex = Math.min(canonicalIndex, transform(index, symmetry));
+        }
+        return canonicalIndex;
+    }
+
+    /**
+     * @return index of the position with cell c moved to symmetry[c]
+     */
+    private static int transform(int index, int[] symmetry) {
+        int transformed = 0;
+        for (int cell = 0; cell < NUMBER_OF_CELLS; cell++) {
+            transformed += POWERS_OF_THREE[symmetry[cell]] * digit(index, cell);
+        }
+        return transformed;
+    }
+
+    private static int digit(int index, int cell) {
+        return index / POWERS_OF_THREE[cell] % 3;
+    }
+
+    private static int filledMask(int index) {
+        int mask = 0;
+        for (int cell = 0; cell < NUMBER_OF_CELLS; cell++) {
+            if (digit(index, cell) != 0) {
+                mask |= 1 << cell;
+            }
+        }
+        return mask;
+    }
+
+    private static boolean isWinner(int index, int mark) {
+        for (int[] line : LINES) {
+            if (digit(index, line[0]) == mark && digit(index, line[1]) == mark && digit(index, line[2]) == mark) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the 8 rotations and reflections of the board, each as a map from cell to transformed cell
+     */
+    private static int[][] buildSymmetries() {
+        int[][] symmetries = new int[8][NUMBER_OF_CELLS];
+        for (int cell = 0; cell < NUMBER_OF_CELLS; cell++) {
+            int row = cell / NUMBER_OF_CELLS_PER_ROW;
+            int col = cell % NUMBER_OF_CELLS_PER_ROW;
+            int last = NUMBER_OF_CELLS_PER_ROW - 1;
+            int[][] transformed = {
+                    {row, col}, {col, last - row}, {last - row, last - col}, {last - col, row},
+                    {row, last - col}, {col, row}, {last - row, col}, {last - col, last - row}
+            };
+            for (int symmetry = 0; symmetry < symmetries.length; symmetry++) {
+                symmetries[symmetry][cell] = transformed[symmetry][0] * NUMBER_OF_CELLS_PER_ROW + transformed[symmetry][1];
+            }
+        }
+        return symmetries;
+    }
+}
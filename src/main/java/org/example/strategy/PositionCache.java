@@ -0,0 +1,233 @@
+package org.example.strategy;
+
+import org.example.model.Board;
+import org.example.model.CellValue;
+import org.example.model.MoveStrategyType;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded, lock-free cache of computer moves shared by every game of the process, keyed by the canonical form of the position:
+ * the least of its encodings under the 8 rotations and reflections of the square, so a move found for one position serves all
+ * of its symmetric copies
+ * Entries live in buckets of WAYS slots, a full bucket evicts with CLOCK: the hand skips, and clears, slots read since it last passed
+ * A slot holds the entry and key ^ entry in two words, a reader seeing a half-written slot finds the xor does not give its key
+ * and treats it as a miss, so neither readers nor writers lock
+ * Only square two-player boards of up to MAX_NUMBER_OF_CELLS_PER_ROW cells per row are cached, their position fits a key exactly
+ */
+public class PositionCache {
+    public static final int MAX_NUMBER_OF_CELLS_PER_ROW = 5;
+    public static final int DEFAULT_CAPACITY = 1 << 18;
+    public static final String CAPACITY_PROPERTY = "tictactoe.position.cache.capacity";
+    /**
+     * Key of positions the cache does not hold, never a valid key as no cell encodes 3
+     */
+    public static final long NO_KEY = -1;
+    public static final long MISS = 0;
+    public static final int UNSCORED = Integer.MIN_VALUE;
+
+    private static final int WAYS = 8;
+    private static final int NUMBER_OF_SYMMETRIES = 8;
+    private static final int SYMMETRY_BITS = 3;
+    /**
+     * For each board size, the cell each cell maps to under each symmetry, and back
+     */
+    private static final int[][][] SYMMETRIES = new int[MAX_NUMBER_OF_CELLS_PER_ROW + 1][][];
+    private static final int[][][] INVERSE_SYMMETRIES = new int[MAX_NUMBER_OF_CELLS_PER_ROW + 1][][];
+
+    static {
+        for (int size = 1; size <= MAX_NUMBER_OF_CELLS_PER_ROW; size++) {
+            SYMMETRIES[size] = new int[NUMBER_OF_SYMMETRIES][size * size];
+            INVERSE_SYMMETRIES[size] = new int[NUMBER_OF_SYMMETRIES][size * size];
+            int last = size - 1;
+            for (int row = 0; row < size; row++) {
+                for (int col = 0; col < size; col++) {
+                    int[] images = {
+                            row * size + col, col * size + last - row, (last - row) * size + last - col, (last - col) * size + row,
+                            row * size + last - col, (last - row) * size + col, col * size + row, (last - col) * size + last - row
+                    };
+                    for (int symmetry = 0; symmetry < NUMBER_OF_SYMMETRIES; symmetry++) {
+                        SYMMETRIES[size][symmetry][row * size + col] = images[symmetry];
+                        INVERSE_SYMMETRIES[size][symmetry][images[symmetry]] = row * size + col;
+                    }
+                }
+            }
+        }
+    }
+
+    private static final PositionCache shared = new PositionCache(Integer.getInteger(CAPACITY_PROPERTY, DEFAULT_CAPACITY));
+
+    private final AtomicLongArray entries;
+    private final AtomicLongArray checks;
+    private final AtomicIntegerArray referenced;
+    private final AtomicIntegerArray hands;
+    private final int bucketMask;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * @param capacity entries held, rounded up to a power of two of at least WAYS
+     */
+    public PositionCache(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        int size = Math.max(WAYS, Integer.highestOneBit(capacity * 2 - 1));
+        this.entries = new AtomicLongArray(size);
+        this.checks = new AtomicLongArray(size);
+        this.referenced = new AtomicIntegerArray(size);
+        this.hands = new AtomicIntegerArray(size / WAYS);
+        this.bucketMask = size / WAYS - 1;
+    }
+
+    /**
+     * @return the cache shared by all games, of tictactoe.position.cache.capacity entries
+     */
+    public static PositionCache shared() {
+        return shared;
+    }
+
+    /**
+     * Key layout: cells, 2 bits each (50) | numberOfCellsPerRow - 1 (3) | winLength - 1 (3) | strategy (4) | symbol (1) | symmetry (3)
+     * @param moveStrategyType strategy choosing the move, each strategy caches its own moves
+     * @param board
+     * @param symbol symbol of the player to move
+     * @param numberOfPlayers
+     * @return key of the position's canonical form, with the symmetry mapping the board onto it, or NO_KEY if it is not cached
+     */
+    public static long positionKey(MoveStrategyType moveStrategyType, Board board, int symbol, int numberOfPlayers) {
+        int size = board.getNumberOfCellsPerRow();
+        if (numberOfPlayers != 2 || board.getNumberOfRows() != size || size > MAX_NUMBER_OF_CELLS_PER_ROW) {
+            return NO_KEY;
+        }
+        long cells = 0;
+        for (int cell = 0; cell < size * size; cell++) {
+            cells |= (long) (board.getSymbol(cell / size, cell % size) - CellValue.EMPTY_SYMBOL) << 2 * cell;
+        }
+        long canonicalCells = cells;
+        int canonicalSymmetry = 0;
+        for (int symmetry = 1; symmetry < NUMBER_OF_SYMMETRIES; symmetry++) {
+            int[] images = SYMMETRIES[size][symmetry];
+            long transformedCells = 0;
+            for (int cell = 0; cell < images.length; cell++) {
+                transformedCells |= ((cells >>> 2 * cell) & 0x3) << 2 * images[cell];
+            }
+            if (transformedCells < canonicalCells) {
+                canonicalCells = transformedCells;
+                canonicalSymmetry = symmetry;
+            }
+        }
+        return canonicalCells << 14
+                | (long) (size - 1) << 11
+                | (long) (board.getWinLength() - 1) << 8
+                | (long) moveStrategyType.ordinal() << 4
+                | (long) symbol << SYMMETRY_BITS
+                | canonicalSymmetry;
+    }
+
+    /**
+     * @param positionKey
+     * @return the cached entry with its move mapped onto the board the key was made from, or MISS
+     */
+    public long probe(long positionKey) {
+        long key = positionKey >>> SYMMETRY_BITS;
+        int base = bucket(key) * WAYS;
+        for (int way = 0; way < WAYS; way++) {
+            int slot = base + way;
+            long entry = entries.get(slot);
+            if (entry != MISS && (checks.get(slot) ^ entry) == key) {
+                if (referenced.get(slot) == 0) {
+                    referenced.lazySet(slot, 1);
+                }
+                hits.increment();
+                return entry(INVERSE_SYMMETRIES[size(positionKey)][symmetry(positionKey)][move(entry)], score(entry));
+            }
+        }
+        misses.increment();
+        return MISS;
+    }
+
+    /**
+     * @param positionKey
+     * @param scoredMove entry of the move chosen for the board the key was made from
+     */
+    public void store(long positionKey, long scoredMove) {
+        if (move(scoredMove) < 0) {
+            return;
+        }
+        long key = positionKey >>> SYMMETRY_BITS;
+        int bucket = bucket(key);
+        int base = bucket * WAYS;
+        int slot = -1;
+        for (int way = 0; way < WAYS; way++) {
+            long entry = entries.get(base + way);
+            if (entry == MISS) {
+                slot = slot == -1 ? base + way : slot;
+            } else if ((checks.get(base + way) ^ entry) == key) {
+                slot = base + way;
+                break;
+            }
+        }
+        if (slot == -1) {
+            slot = base + clockVictim(bucket, base);
+        }
+        long entry = entry(SYMMETRIES[size(positionKey)][symmetry(positionKey)][move(scoredMove)], score(scoredMove));
+        referenced.lazySet(slot, 0);
+        entries.set(slot, entry);
+        checks.set(slot, key ^ entry);
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * @param move 0 based cell index
+     * @param score from the mover's point of view, UNSCORED if the strategy does not score its moves
+     * @return the move and score packed into one long: score (32 bits) | move + 1 (32 bits)
+     */
+    public static long entry(int move, int score) {
+        return (long) score << 32 | ((move + 1) & 0xFFFFFFFFL);
+    }
+
+    public static int move(long entry) {
+        return (int) entry - 1;
+    }
+
+    public static int score(long entry) {
+        return (int) (entry >> 32);
+    }
+
+    /**
+     * Advances the bucket's hand past referenced slots, clearing them, to the first slot not read since the hand last passed
+     */
+    private int clockVictim(int bucket, int base) {
+        int way = 0;
+        for (int step = 0; step < 2 * WAYS; step++) {
+            way = hands.getAndIncrement(bucket) & (WAYS - 1);
+            if (referenced.get(base + way) == 0) {
+                return way;
+            }
+            referenced.lazySet(base + way, 0);
+        }
+        return way;
+    }
+
+    private int bucket(long key) {
+        return (int) ((key * 0x9E3779B97F4A7C15L) >>> 32) & bucketMask;
+    }
+
+    private static int size(long positionKey) {
+        return (int) (positionKey >>> 11 & 0x7) + 1;
+    }
+
+    private static int symmetry(long positionKey) {
+        return (int) positionKey & (NUMBER_OF_SYMMETRIES - 1);
+    }
+}
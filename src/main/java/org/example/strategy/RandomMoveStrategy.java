@@ -0,0 +1,29 @@
+package org.example.strategy;
+
+import org.example.model.Board;
+import org.example.model.CellValue;
+import org.example.model.Game;
+import org.example.model.Player;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Picks a uniformly random empty cell, the cheapest strategy
+ */
+public class RandomMoveStrategy implements MoveStrategy {
+
+    @Override
+    public int chooseCellIndex(Game game, Player player) {
+        Board board = game.getBoard();
+        int numberOfCellsPerRow = board.getNumberOfCellsPerRow();
+        int numberOfCells = board.getNumberOfCells();
+        int start = ThreadLocalRandom.current().nextInt(numberOfCells);
+        for (int offset = 0; offset < numberOfCells; offset++) {
+            int cellIndex = (start + offset) % numberOfCells;
+            if (board.getSymbol(cellIndex / numberOfCellsPerRow, cellIndex % numberOfCellsPerRow) == CellValue.EMPTY_SYMBOL) {
+                return cellIndex;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,61 @@
+package org.example.strategy;
+
+/**
+ * Fixed size, always-replace hash table of search results keyed by Zobrist hash
+ * Each entry is packed into one long: score (32 bits) | best move + 1 (22 bits) | depth (8 bits) | bound (2 bits)
+ */
+class TranspositionTable {
+    static final int EXACT = 0;
+    static final int LOWER_BOUND = 1;
+    static final int UPPER_BOUND = 2;
+
+    static final int SOLVED_DEPTH = 0xFF;
+    private static final long MOVE_MASK = 0x3FFFFF;
+
+    private final long[] keys;
+    private final long[] entries;
+    private final int indexMask;
+
+    TranspositionTable(int sizeBits) {
+        this.keys = new long[1 << sizeBits];
+        this.entries = new long[1 << sizeBits];
+        this.indexMask = (1 << sizeBits) - 1;
+    }
+
+    /**
+     * @param hash
+     * @return the packed entry for hash, or 0 if the slot holds another position
+     */
+    long probe(long hash) {
+        int index = (int) hash & indexMask;
+        return keys[index] == hash ? entries[index] : 0;
+    }
+
+    /**
+     * @param depth remaining search depth, or SOLVED_DEPTH if no leaf under this position was cut off by the depth limit
+     */
+    void store(long hash, int score, int bestMove, int depth, int bound) {
+        int index = (int) hash & indexMask;
+        keys[index] = hash;
+        entries[index] = ((long) score << 32)
+                | ((bestMove + 1) & MOVE_MASK) << 10
+                | (long) depth << 2
+                | bound;
+    }
+
+    static int score(long entry) {
+        return (int) (entry >> 32);
+    }
+
+    static int bestMove(long entry) {
+        return (int) ((entry >>> 10) & MOVE_MASK) - 1;
+    }
+
+    static int depth(long entry) {
+        return (int) (entry >>> 2) & SOLVED_DEPTH;
+    }
+
+    static int bound(long entry) {
+        return (int) entry & 0x3;
+    }
+}
@@ -0,0 +1,46 @@
+package org.example.strategy;
+
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Random 64 bit keys per (cell, mark) used to hash board positions incrementally
+ * Keys are generated once per board size and shared by every search, a key per board shape tells apart the
+ * positions of shapes with the same number of cells
+ */
+public final class ZobristKeys {
+    private static final long SEED = 0x5DEECE66DL;
+    private static final Map<Integer, long[]> KEYS_BY_SIZE = new ConcurrentHashMap<>();
+
+    private ZobristKeys() {
+    }
+
+    /**
+     * @param numberOfCells
+     * @return keys laid out as [cellIndex * 2 + markIndex]
+     */
+    public static long[] forSize(int numberOfCells) {
+        return KEYS_BY_SIZE.computeIfAbsent(numberOfCells, ZobristKeys::generate);
+    }
+
+    /**
+     * @param shape rows, columns and win length packed as NegamaxSearch.shape does
+     * @return key the hash of every position of the shape starts from
+     */
+    public static long forShape(long shape) {
+        long key = SEED ^ shape;
+        key = (key ^ (key >>> 30)) * 0xBF58476D1CE4E5B9L;
+        key = (key ^ (key >>> 27)) * 0x94D049BB133111EBL;
+        return key ^ (key >>> 31);
+    }
+
+    private static long[] generate(int numberOfCells) {
+        SplittableRandom random = new SplittableRandom(SEED ^ numberOfCells);
+        long[] keys = new long[numberOfCells * 2];
+        for (int index = 0; index < keys.length; index++) {
+            keys[index] = random.nextLong();
+        }
+        return keys;
+    }
+}
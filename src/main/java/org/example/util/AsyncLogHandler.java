@@ -0,0 +1,149 @@
+package org.example.util;
+
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.ErrorManager;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+
+/**
+ * Handler that hands log records to a background writer thread through a bounded ring buffer
+ * A logging thread only claims a slot and stores the record: message parameters are formatted and written by the writer,
+ * so they must be values that do not change afterwards, such as ids, names, numbers and enums, never a Game or Board
+ * When the ring is full records are dropped rather than making the game thread wait, the writer reports how many
+ */
+public class AsyncLogHandler extends Handler {
+    public static final int DEFAULT_CAPACITY = 8192;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final Handler delegate;
+    private final AtomicReferenceArray<LogRecord> slots;
+    private final int mask;
+    /**
+     * Sequence of the next slot to claim, producers advance it with a CAS
+     */
+    private final AtomicLong claimed = new AtomicLong();
+    /**
+     * Sequence of the next record to write, only the writer advances it
+     */
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final Thread writer;
+    private volatile boolean writerParked;
+    private volatile boolean closed;
+
+    /**
+     * @param delegate handler the writer thread publishes to, for example a ConsoleHandler
+     * @param capacity records the ring holds, rounded up to a power of two
+     */
+    public AsyncLogHandler(Handler delegate, int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        this.delegate = delegate;
+        int size = Integer.highestOneBit(Math.max(2, capacity) * 2 - 1);
+        this.slots = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+        this.writer = new Thread(this::writeRecords, "async-log-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Queues the record for the writer, on the logging thread
+     * @param record
+     */
+    @Override
+    public void publish(LogRecord record) {
+        if (closed || Objects.isNull(record) || !isLoggable(record)) {
+            return;
+        }
+        // naming the source stops the formatter from walking the writer thread's stack to infer it
+        record.setSourceClassName(record.getLoggerName());
+        record.setSourceMethodName(null);
+        long sequence;
+        do {
+            sequence = claimed.get();
+            if (sequence - written.get() >= slots.length()) {
+                dropped.incrementAndGet();
+                return;
+            }
+        } while (!claimed.compareAndSet(sequence, sequence + 1));
+        slots.set((int) sequence & mask, record);
+        if (writerParked) {
+            LockSupport.unpark(writer);
+        }
+    }
+
+    /**
+     * Waits until every record queued before the call is written
+     */
+    @Override
+    public void flush() {
+        long target = claimed.get();
+        while (written.get() < target && writer.isAlive()) {
+            LockSupport.unpark(writer);
+            LockSupport.parkNanos(10_000);
+        }
+        delegate.flush();
+    }
+
+    /**
+     * Writes the queued records and closes the delegate
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        flush();
+        closed = true;
+        LockSupport.unpark(writer);
+        delegate.close();
+    }
+
+    /**
+     * @return records dropped because the ring was full
+     */
+    public long getDroppedRecords() {
+        return dropped.get();
+    }
+
+    private void writeRecords() {
+        long reportedDrops = 0;
+        while (!closed) {
+            long sequence = written.get();
+            int index = (int) sequence & mask;
+            LogRecord record = slots.get(index);
+            if (Objects.isNull(record)) {
+                // either nothing is queued or a producer has claimed the slot and is about to store its record
+                writerParked = true;
+                if (Objects.isNull(slots.get(index)) && !closed) {
+                    LockSupport.parkNanos(this, claimed.get() == sequence ? IDLE_PARK_NANOS : 1_000);
+                }
+                writerParked = false;
+                continue;
+            }
+            slots.set(index, null);
+            long drops = dropped.get();
+            if (drops != reportedDrops) {
+                LogRecord dropReport = new LogRecord(Level.WARNING, (drops - reportedDrops) + " log records dropped, the log ring was full");
+                dropReport.setLoggerName(AsyncLogHandler.class.getName());
+                dropReport.setSourceClassName(AsyncLogHandler.class.getName());
+                delegate.publish(dropReport);
+                reportedDrops = drops;
+            }
+            try {
+                delegate.publish(record);
+            } catch (RuntimeException e) {
+                reportError(null, e, ErrorManager.WRITE_FAILURE);
+            } finally {
+                written.set(sequence + 1);
+            }
+        }
+    }
+}
@@ -1,11 +1,103 @@
 package org.example.util;
 
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.ConsoleHandler;
+import java.util.logging.Formatter;
 import java.util.logging.Level;
+import java.util.logging.LogRecord;
 import java.util.logging.Logger;
 
+/**
+ * Logging shared by every class: loggers follow the level of their package, INFO for org.example unless configured,
+ * and every record goes through one AsyncLogHandler writing to standard error on its own thread
+ * Levels are set with the system properties tictactoe.log.level for org.example and tictactoe.log.level.name
+ * for any package or class below it, for example -Dtictactoe.log.level.org.example.server=FINE, or at runtime with setLevel
+ * Messages take their arguments as parameters, logger.log(Level.FINE, "Game {0} started", gameId), or as a Supplier,
+ * so nothing is formatted on the calling thread, and nothing at all when the level is off
+ */
 public class LoggerConfig {
+    public static final String ROOT_LOGGER_NAME = "org.example";
+    public static final String LEVEL_PROPERTY = "tictactoe.log.level";
+
+    /**
+     * Loggers with a level of their own, held here because the LogManager only keeps weak references to loggers
+     */
+    private static final Map<String, Logger> configuredLoggers = new ConcurrentHashMap<>();
+    private static final AsyncLogHandler asyncLogHandler;
+
+    static {
+        ConsoleHandler consoleHandler = new ConsoleHandler();
+        consoleHandler.setLevel(Level.ALL);
+        consoleHandler.setFormatter(new LineFormatter());
+        asyncLogHandler = new AsyncLogHandler(consoleHandler, AsyncLogHandler.DEFAULT_CAPACITY);
+        Logger rootLogger = Logger.getLogger(ROOT_LOGGER_NAME);
+        rootLogger.setUseParentHandlers(false);
+        rootLogger.addHandler(asyncLogHandler);
+        setLevel(ROOT_LOGGER_NAME, Level.INFO);
+        for (String property : System.getProperties().stringPropertyNames()) {
+            if (Objects.equals(property, LEVEL_PROPERTY)) {
+                setLevel(ROOT_LOGGER_NAME, System.getProperty(property));
+            } else if (property.startsWith(LEVEL_PROPERTY + ".")) {
+                setLevel(property.substring(LEVEL_PROPERTY.length() + 1), System.getProperty(property));
+            }
+        }
+        Runtime.getRuntime().addShutdownHook(new Thread(asyncLogHandler::close, "async-log-close"));
+    }
+
+    /**
+     * Lets the logger follow the level of its package, unless a level was configured for it by name
+     * @param logger
+     */
     public static void configureLogger(Logger logger) {
-        logger.setLevel(Level.ALL);
+        if (!configuredLoggers.containsKey(logger.getName())) {
+            logger.setLevel(null);
+        }
+    }
+
+    /**
+     * @param name package or class name, its loggers and the ones below it use level unless they have their own
+     * @param level
+     */
+    public static void setLevel(String name, Level level) {
+        Logger logger = Logger.getLogger(name);
+        logger.setLevel(level);
+        configuredLoggers.put(name, logger);
+    }
+
+    public static AsyncLogHandler getAsyncLogHandler() {
+        return asyncLogHandler;
+    }
+
+    private static void setLevel(String name, String level) {
+        try {
+            setLevel(name, Level.parse(level.trim()));
+        } catch (IllegalArgumentException e) {
+            System.err.println("Ignoring log level " + level + " for " + name + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * One line per record: time, level, logger and message, then the stack trace of a thrown exception
+     */
+    private static final class LineFormatter extends Formatter {
+        @Override
+        public String format(LogRecord record) {
+            StringBuilder line = new StringBuilder(128)
+                    .append(record.getInstant())
+                    .append(' ').append(record.getLevel().getName())
+                    .append(' ').append(record.getLoggerName())
+                    .append(": ").append(formatMessage(record))
+                    .append(System.lineSeparator());
+            if (Objects.nonNull(record.getThrown())) {
+                StringWriter stackTrace = new StringWriter();
+                record.getThrown().printStackTrace(new PrintWriter(stackTrace));
+                line.append(stackTrace);
+            }
+            return line.toString();
+        }
     }
 }
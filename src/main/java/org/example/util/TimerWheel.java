@@ -0,0 +1,101 @@
+package org.example.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+
+/**
+ * Hashed timing wheel: a timeout lands in the slot of its deadline tick, so scheduling is O(1) and a tick only visits
+ * the timeouts of one slot; a timeout more than one turn of the wheel away stays in its slot until the turn it is due
+ * schedule may be called from any thread, it queues the timeout for the one thread calling advance, which owns the slots
+ * Timeouts cannot be cancelled, the owner of a value checks on expiry whether it is still due and schedules it again if not
+ * @param <T> value handed back when its timeout expires
+ */
+public class TimerWheel<T> {
+    private final long tickMillis;
+    private final List<List<Timeout<T>>> slots;
+    private final Queue<Timeout<T>> scheduled = new ConcurrentLinkedQueue<>();
+    private long currentTick;
+
+    /**
+     * @param tickMillis resolution of the deadlines, a timeout expires at most one tick late
+     * @param numberOfSlots ticks per turn of the wheel
+     * @param startMillis time of tick 0
+     */
+    public TimerWheel(long tickMillis, int numberOfSlots, long startMillis) {
+        if (tickMillis <= 0 || numberOfSlots <= 0) {
+            throw new IllegalArgumentException("tickMillis and numberOfSlots must be positive");
+        }
+        this.tickMillis = tickMillis;
+        this.slots = new ArrayList<>(numberOfSlots);
+        for (int slot = 0; slot < numberOfSlots; slot++) {
+            slots.add(new ArrayList<>());
+        }
+        this.currentTick = Math.floorDiv(startMillis, tickMillis);
+    }
+
+    /**
+     * @param value
+     * @param deadlineMillis a deadline already passed expires on the next advance
+     */
+    public void schedule(T value, long deadlineMillis) {
+        scheduled.add(new Timeout<>(value, Math.floorDiv(deadlineMillis + tickMillis - 1, tickMillis)));
+    }
+
+    /**
+     * Moves the wheel to nowMillis, handing over every value whose deadline has passed
+     * Visits the slots of the ticks since the last advance, or every slot once if that is more than a turn ago
+     * @param nowMillis
+     * @param expired receives the expired values, it may schedule values again
+     * @return number of expired values
+     */
+    public int advance(long nowMillis, Consumer<T> expired) {
+        long nowTick = Math.floorDiv(nowMillis, tickMillis);
+        List<T> due = new ArrayList<>();
+        for (Timeout<T> timeout; (timeout = scheduled.poll()) != null; ) {
+            if (timeout.deadlineTick <= nowTick) {
+                due.add(timeout.value);
+            } else {
+                slots.get(slotIndex(timeout.deadlineTick)).add(timeout);
+            }
+        }
+        for (long tick = Math.max(currentTick + 1, nowTick - slots.size() + 1); tick <= nowTick; tick++) {
+            List<Timeout<T>> slot = slots.get(slotIndex(tick));
+            int kept = 0;
+            for (Timeout<T> timeout : slot) {
+                if (timeout.deadlineTick <= nowTick) {
+                    due.add(timeout.value);
+                } else {
+                    slot.set(kept++, timeout);
+                }
+            }
+            slot.subList(kept, slot.size()).clear();
+        }
+        currentTick = Math.max(currentTick, nowTick);
+        due.forEach(expired);
+        return due.size();
+    }
+
+    /**
+     * @return timeouts held in the slots, not counting those scheduled since the last advance
+     */
+    public int size() {
+        return slots.stream().mapToInt(List::size).sum();
+    }
+
+    private int slotIndex(long tick) {
+        return (int) Math.floorMod(tick, (long) slots.size());
+    }
+
+    private static final class Timeout<T> {
+        private final T value;
+        private final long deadlineTick;
+
+        private Timeout(T value, long deadlineTick) {
+            this.value = value;
+            this.deadlineTick = deadlineTick;
+        }
+    }
+}
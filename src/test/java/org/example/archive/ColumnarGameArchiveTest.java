@@ -0,0 +1,153 @@
+package org.example.archive;
+
+import org.example.model.*;
+import org.example.repository.GameRepositoryImpl;
+import org.example.service.GameService;
+import org.example.service.GameServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ColumnarGameArchiveTest {
+    @TempDir
+    Path archiveDirectory;
+
+    private GameService gameService;
+    private Player alice;
+    private Player bob;
+
+    @BeforeEach
+    void setUp() {
+        gameService = new GameServiceImpl(new GameRepositoryImpl());
+        alice = gameService.addPlayer("Alice", PlayerType.HUMAN, MoveStrategyType.CONSOLE);
+        bob = gameService.addPlayer("Bob", PlayerType.COMPUTER, MoveStrategyType.CONSOLE);
+    }
+
+    private Game play(int numberOfCellsPerRow, Player first, int... cells) {
+        Player second = first == alice ? bob : alice;
+        Game game = gameService.initialiseGame(first, second, numberOfCellsPerRow, numberOfCellsPerRow, numberOfCellsPerRow, first);
+        for (int cell : cells) {
+            gameService.playMove(game.getId(), cell);
+        }
+        assertNotEquals(GameState.ONGOING, game.getGameState());
+        return game;
+    }
+
+    @Test
+    void query_findsTheGamesAPlayerLostOnABoardSize_andReplaysTheirMoves() throws IOException {
+        List<Game> games = new ArrayList<>();
+        try (ColumnarGameArchive gameArchive = new ColumnarGameArchive(archiveDirectory, 3)) {
+            for (int round = 0; round < 4; round++) {
+                // Bob wins a 4x4 game on its top row, then Alice wins one on the left column, then Alice wins a 3x3 game
+                games.add(play(4, bob, 0, 4, 1, 5, 2, 6, 3));
+                games.add(play(4, alice, 0, 1, 4, 2, 8, 3, 12));
+                games.add(play(3, alice, 0, 3, 1, 4, 2));
+            }
+            for (int index = 0; index < games.size(); index++) {
+                gameArchive.archive(games.get(index), 1_000L * index);
+            }
+            assertEquals(4, gameArchive.getNumberOfBlocks());
+
+            List<ArchivedGame> lost = gameArchive.query(GameQuery.builder()
+                    .playerId(alice.getId())
+                    .playerResult(GameQuery.PlayerResult.LOST)
+                    .numberOfRows(4)
+                    .numberOfColumns(4)
+                    .build()).collect(Collectors.toList());
+
+            assertEquals(Arrays.asList(games.get(0).getId(), games.get(3).getId(), games.get(6).getId(), games.get(9).getId()),
+                    lost.stream().map(ArchivedGame::getGameId).collect(Collectors.toList()));
+            ArchivedGame archivedGame = lost.get(1);
+            assertEquals(bob.getId(), archivedGame.getWinner().getId());
+            assertEquals(GameState.WINNER_PLAYER_COMPUTER, archivedGame.getGameState());
+            assertEquals(3_000L, archivedGame.getFinishedAtMillis());
+            assertEquals(7, archivedGame.getNumberOfMoves());
+
+            try (Stream<Move> moves = gameArchive.replay(archivedGame)) {
+                List<Move> replayed = moves.collect(Collectors.toList());
+                assertEquals(games.get(3).getMoves().size(), replayed.size());
+                for (int index = 0; index < replayed.size(); index++) {
+                    Move move = games.get(3).getMoves().get(index);
+                    assertEquals(move.getRowValue(), replayed.get(index).getRowValue());
+                    assertEquals(move.getColumnValue(), replayed.get(index).getColumnValue());
+                    assertEquals(move.getPlayer().getId(), replayed.get(index).getPlayer().getId());
+                }
+                assertEquals(0, replayed.get(0).getPlayer().getSymbol());
+            }
+        }
+    }
+
+    @Test
+    void query_prunesBlocksOnTimeAndOutcome() throws IOException {
+        try (ColumnarGameArchive gameArchive = new ColumnarGameArchive(archiveDirectory, 2)) {
+            for (int index = 0; index < 6; index++) {
+                gameArchive.archive(index % 3 == 2 ? play(2, alice, 0, 1, 2) : play(3, alice, 0, 3, 1, 4, 2), 1_000L * index);
+            }
+
+            assertEquals(2, gameArchive.query(GameQuery.builder().finishedFromMillis(2_000L).finishedToMillis(4_000L).build()).count());
+            assertEquals(2, gameArchive.query(GameQuery.builder().numberOfRows(2).build()).count());
+            assertEquals(0, gameArchive.query(GameQuery.builder().gameState(GameState.DRAW).build()).count());
+            assertEquals(6, gameArchive.query(GameQuery.builder().playerId(alice.getId()).playerResult(GameQuery.PlayerResult.WON).build()).count());
+            assertEquals(0, gameArchive.query(GameQuery.builder().playerId("unknown").build()).count());
+        }
+    }
+
+    @Test
+    void archive_keepsTheCollectedGamesWhenSealingFails_andSealsThemOnce() throws IOException {
+        Game first = play(3, alice, 0, 3, 1, 4, 2);
+        Game second = play(3, bob, 0, 3, 1, 4, 2);
+        try (ColumnarGameArchive gameArchive = new ColumnarGameArchive(archiveDirectory, 2)) {
+            // a directory where the first block goes makes sealing it fail
+            Path blockInTheWay = Files.createDirectories(archiveDirectory.resolve("block-00000000000000000000.col"));
+            Files.createFile(blockInTheWay.resolve("file"));
+            gameArchive.archive(first, 1);
+            gameArchive.archive(second, 2);
+            assertEquals(0, gameArchive.getNumberOfBlocks());
+
+            Files.delete(blockInTheWay.resolve("file"));
+            Files.delete(blockInTheWay);
+            gameArchive.flush();
+
+            assertEquals(1, gameArchive.getNumberOfBlocks());
+            assertEquals(Arrays.asList(first.getId(), second.getId()),
+                    gameArchive.query(GameQuery.builder().build()).map(ArchivedGame::getGameId).collect(Collectors.toList()));
+        }
+    }
+
+    @Test
+    void reopening_collectsPendingGames_andFindsGamesById() throws IOException {
+        Game sealed = play(3, alice, 0, 3, 1, 4, 2);
+        Game pending = play(3, bob, 4, 0, 2, 6, 3, 5, 1, 7, 8);
+        ColumnarGameArchive stoppedArchive = new ColumnarGameArchive(archiveDirectory, 2);
+        stoppedArchive.archive(sealed, 1);
+        stoppedArchive.flush();
+        stoppedArchive.archive(pending, 2);
+        // the process stops without closing the archive
+
+        try (ColumnarGameArchive gameArchive = new ColumnarGameArchive(archiveDirectory, 2)) {
+            assertTrue(gameArchive.find(sealed.getId()).isPresent());
+            assertFalse(gameArchive.find(pending.getId()).isPresent());
+            gameArchive.flush();
+
+            ArchivedGame archivedGame = gameArchive.find(pending.getId()).orElseThrow(AssertionError::new);
+            assertEquals(GameState.DRAW, archivedGame.getGameState());
+            assertNull(archivedGame.getWinner());
+            assertEquals(2, archivedGame.getFinishedAtMillis());
+            try (Stream<Move> moves = gameArchive.replay(pending.getId())) {
+                assertEquals(9, moves.count());
+            }
+            assertEquals(2, gameArchive.getNumberOfArchivedGames());
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package org.example.cluster;
+
+import org.example.Main;
+import org.example.exception.UserException;
+import org.example.model.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClusterNodeTest {
+    private final List<ClusterNode> nodes = new ArrayList<>();
+    private final List<Process> processes = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        nodes.forEach(ClusterNode::close);
+        processes.forEach(Process::destroyForcibly);
+    }
+
+    private ClusterNode startNode(ClusterNode seed) throws IOException {
+        ClusterNode node = new ClusterNode(0);
+        nodes.add(node);
+        if (seed != null) {
+            node.join(seed.getNodeId());
+        }
+        return node;
+    }
+
+    private static List<Player> humanVersusHuman() {
+        return Arrays.asList(
+                Player.builder().name("Alice").playerType(PlayerType.HUMAN).build(),
+                Player.builder().name("Bob").playerType(PlayerType.HUMAN).build());
+    }
+
+    private ClusterNode holderOf(String gameId) {
+        ClusterNode holder = null;
+        for (ClusterNode node : nodes) {
+            if (node.ownerOf(gameId).equals(node.getNodeId())) {
+                assertNull(holder, "game " + gameId + " has two owners");
+                holder = node;
+            }
+        }
+        return holder;
+    }
+
+    @Test
+    void playMove_fromAnyNode_isAppliedOnTheOwner() throws IOException {
+        ClusterNode first = startNode(null);
+        ClusterNode second = startNode(first);
+        ClusterNode third = startNode(first);
+        assertEquals(3, third.getMembers().size());
+
+        Game game = second.createGame(humanVersusHuman(), 3, 3, 3);
+        int[] cells = {0, 3, 1, 4, 2};
+        for (int index = 0; index < cells.length; index++) {
+            game = nodes.get(index % nodes.size()).playMove(game.getId(), cells[index]);
+        }
+
+        assertEquals(GameState.WINNER_PLAYER_HUMAN, game.getGameState());
+        assertEquals("Alice", game.getWinner().getName());
+        assertEquals(5, first.getGame(game.getId()).getMoves().size());
+        assertEquals(1, first.getNumberOfGames() + second.getNumberOfGames() + third.getNumberOfGames());
+        assertEquals(1, holderOf(game.getId()).getNumberOfGames());
+        String gameId = game.getId();
+        assertThrows(UserException.class, () -> third.playMove(gameId, 5));
+    }
+
+    @Test
+    void playMove_playsComputerRepliesOnTheOwner() throws IOException {
+        ClusterNode first = startNode(null);
+        startNode(first);
+        List<Player> players = Arrays.asList(
+                Player.builder().name("Alice").playerType(PlayerType.HUMAN).build(),
+                Player.builder().name("Computer").playerType(PlayerType.COMPUTER).moveStrategyType(MoveStrategyType.LOOKUP_TABLE).build());
+
+        Game game = first.createGame(players, 3, 3, 3);
+        game = first.playMove(game.getId(), 4);
+
+        assertEquals(2, game.getMoves().size());
+        assertEquals(CellValue.X, game.getBoard().getCellValue(1, 1));
+        assertEquals(0, game.getCurrentPlayerIndex());
+    }
+
+    @Test
+    void joinAndLeave_handOverGamesWithTheirMoves() throws IOException {
+        ClusterNode first = startNode(null);
+        ClusterNode second = startNode(first);
+        List<String> gameIds = new ArrayList<>();
+        for (int index = 0; index < 60; index++) {
+            Game game = first.createGame(humanVersusHuman(), 4, 4, 3);
+            first.playMove(game.getId(), index % 16);
+            gameIds.add(game.getId());
+        }
+
+        ClusterNode third = startNode(second);
+        assertTrue(third.getNumberOfGames() > 0);
+        assertEquals(60, first.getNumberOfGames() + second.getNumberOfGames() + third.getNumberOfGames());
+        for (int index = 0; index < gameIds.size(); index++) {
+            String gameId = gameIds.get(index);
+            assertEquals(third.ownerOf(gameId), first.ownerOf(gameId));
+            Game game = third.playMove(gameId, (index + 1) % 16);
+            assertEquals(2, game.getMoves().size());
+        }
+
+        third.leave();
+        nodes.remove(third);
+        assertEquals(2, first.getMembers().size());
+        assertFalse(second.getMembers().contains(third.getNodeId()));
+        assertEquals(60, first.getNumberOfGames() + second.getNumberOfGames());
+        for (String gameId : gameIds) {
+            assertEquals(2, second.getGame(gameId).getMoves().size());
+        }
+    }
+
+    @Test
+    void cluster_runsAcrossLocalProcesses() throws IOException {
+        String firstNodeId = startProcess();
+        String secondNodeId = startProcess(firstNodeId);
+        ClusterNode node = startNode(null);
+        node.join(secondNodeId);
+        assertEquals(3, node.getMembers().size());
+
+        List<String> gameIds = new ArrayList<>();
+        for (int index = 0; index < 20; index++) {
+            gameIds.add(node.createGame(humanVersusHuman(), 3, 3, 3).getId());
+        }
+        for (String gameId : gameIds) {
+            node.playMove(gameId, 4);
+        }
+
+        assertTrue(gameIds.stream().anyMatch(gameId -> node.ownerOf(gameId).equals(firstNodeId)));
+        for (String gameId : gameIds) {
+            Game game = node.getGame(gameId);
+            assertEquals(1, game.getMoves().size());
+            assertEquals(CellValue.X, game.getBoard().getCellValue(1, 1));
+        }
+    }
+
+    /**
+     * @return node id printed by the node process once it has started and joined
+     */
+    private String startProcess(String... seedNodeId) throws IOException {
+        List<String> command = new ArrayList<>(Arrays.asList(
+                System.getProperty("java.home") + File.separator + "bin" + File.separator + "java",
+                "-cp", System.getProperty("java.class.path"), Main.class.getName(), "node", "0"));
+        command.addAll(Arrays.asList(seedNodeId));
+        Process process = new ProcessBuilder(command).redirectError(ProcessBuilder.Redirect.DISCARD).start();
+        processes.add(process);
+        BufferedReader output = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8));
+        String line;
+        while ((line = output.readLine()) != null) {
+            if (line.matches("[0-9.]+:[0-9]+")) {
+                return line;
+            }
+        }
+        throw new IllegalStateException("Node process exited before it started");
+    }
+}
@@ -0,0 +1,52 @@
+package org.example.cluster;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HashRingTest {
+
+    @Test
+    void ownerOf_spreadsKeysOverEveryNode() {
+        HashRing ring = new HashRing(Arrays.asList("node-a", "node-b", "node-c"));
+        Map<String, Integer> keysByNode = new HashMap<>();
+        for (int index = 0; index < 30_000; index++) {
+            keysByNode.merge(ring.ownerOf(UUID.randomUUID().toString()), 1, Integer::sum);
+        }
+
+        assertEquals(3, keysByNode.size());
+        for (int keys : keysByNode.values()) {
+            assertTrue(keys > 7_000 && keys < 13_000, "keys per node: " + keysByNode);
+        }
+    }
+
+    @Test
+    void withNode_movesKeysOnlyToTheNewNode() {
+        HashRing ring = new HashRing(Arrays.asList("node-a", "node-b", "node-c"));
+        HashRing grownRing = ring.withNode("node-d");
+        int movedKeys = 0;
+        for (int index = 0; index < 10_000; index++) {
+            String key = UUID.randomUUID().toString();
+            if (!ring.ownerOf(key).equals(grownRing.ownerOf(key))) {
+                assertEquals("node-d", grownRing.ownerOf(key));
+                movedKeys++;
+            }
+        }
+
+        assertTrue(movedKeys > 1_500 && movedKeys < 3_500, "moved keys: " + movedKeys);
+        assertEquals(ring, grownRing.withoutNode("node-d"));
+    }
+
+    @Test
+    void ownerOf_withoutNodes_throwsIllegalStateException() {
+        HashRing ring = new HashRing(Collections.singletonList("node-a")).withoutNode("node-a");
+
+        assertThrows(IllegalStateException.class, () -> ring.ownerOf("game"));
+    }
+}
@@ -0,0 +1,119 @@
+package org.example.metrics;
+
+import org.example.model.CellValue;
+import org.example.model.Game;
+import org.example.model.GameState;
+import org.example.model.MoveRequest;
+import org.example.model.MoveStrategyType;
+import org.example.model.Player;
+import org.example.model.PlayerType;
+import org.example.repository.GameRepositoryImpl;
+import org.example.repository.MeteredGameRepository;
+import org.example.service.GameServiceImpl;
+import org.example.strategy.MoveStrategyRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameMetricsTest {
+    GameMetrics gameMetrics;
+    GameServiceImpl gameService;
+
+    @BeforeEach
+    void setUp() {
+        gameMetrics = new GameMetrics(true);
+        gameService = new GameServiceImpl(new MeteredGameRepository(new GameRepositoryImpl(), gameMetrics),
+                MoveStrategyRegistry.withDefaults(), gameMetrics);
+    }
+
+    @Test
+    void playedGames_areCountedAndTimed() throws IOException {
+        Game game = playHumanWinAgainstRandom();
+
+        assertEquals(1, gameMetrics.getGamesStarted());
+        assertEquals(0, gameMetrics.getActiveGames());
+        assertEquals(1L, gameMetrics.getGamesFinished().get(GameState.WINNER_PLAYER_HUMAN.name()));
+        assertEquals(game.getMoveHistory().size(), gameMetrics.getMoveLatency().getCount());
+        assertEquals(1, gameMetrics.getThinkTimes().get(MoveStrategyType.RANDOM.name()).getCount());
+        assertEquals(0, gameMetrics.getThinkTimes().get(MoveStrategyType.CONSOLE.name()).getCount());
+        assertEquals(game.getMoveHistory().size(), gameMetrics.getRepositoryOperationTimes().get("ADD_MOVE").getCount());
+
+        gameService.undoLastMove(game.getId());
+        assertEquals(1, gameMetrics.getActiveGames());
+    }
+
+    @Test
+    void disabledMetrics_recordNothing() throws IOException {
+        gameMetrics.setEnabled(false);
+        playHumanWinAgainstRandom();
+
+        assertEquals(0, gameMetrics.getGamesStarted());
+        assertEquals(0, gameMetrics.getMoveLatency().getCount());
+        assertEquals(0, gameMetrics.getRepositoryOperationTimes().get("GET_GAME").getCount());
+    }
+
+    @Test
+    void toPrometheusText_writesCountersAndSummaries() throws IOException {
+        playHumanWinAgainstRandom();
+        String text = gameMetrics.toPrometheusText();
+
+        assertTrue(text.contains("# TYPE tictactoe_games_started_total counter\ntictactoe_games_started_total 1\n"), text);
+        assertTrue(text.contains("tictactoe_games_finished_total{state=\"WINNER_PLAYER_HUMAN\"} 1\n"), text);
+        assertTrue(text.contains("tictactoe_active_games 0\n"), text);
+        assertTrue(text.contains("tictactoe_move_latency_seconds{quantile=\"0.99\"} "), text);
+        assertTrue(text.contains("tictactoe_think_time_seconds_count{strategy=\"RANDOM\"} "), text);
+        assertTrue(text.contains("tictactoe_repository_operation_seconds{operation=\"add_move\",quantile=\"0.5\"} "), text);
+    }
+
+    @Test
+    void playMoves_recordsTheBatchTimeOnceAcrossItsMoves() {
+        Player alice = gameService.addPlayer("Alice", PlayerType.HUMAN, MoveStrategyType.CONSOLE);
+        Player bob = gameService.addPlayer("Bob", PlayerType.HUMAN, MoveStrategyType.CONSOLE);
+        Game game = gameService.initialiseGame(alice, bob, 3, alice);
+
+        long startNanos = System.nanoTime();
+        gameService.playMoves(Arrays.asList(new MoveRequest(game.getId(), null, 0), new MoveRequest(game.getId(), null, 4),
+                new MoveRequest(game.getId(), null, 8)));
+        double elapsedMicros = (System.nanoTime() - startNanos) / 1e3;
+
+        LatencySummary moveLatency = gameMetrics.getMoveLatency();
+        assertEquals(3, moveLatency.getCount());
+        assertTrue(moveLatency.getMeanMicros() * 3 <= elapsedMicros, moveLatency.getMeanMicros() + " micros a move over " + elapsedMicros + " micros");
+    }
+
+    @Test
+    void registerMBean_publishesTheMetricsOverJmx() throws Exception {
+        GameMetrics.get().registerMBean();
+        GameMetrics.get().registerMBean();
+        ObjectName objectName = new ObjectName(GameMetrics.OBJECT_NAME);
+
+        assertEquals(GameMetrics.get().isEnabled(), ManagementFactory.getPlatformMBeanServer().getAttribute(objectName, "Enabled"));
+        CompositeData moveLatency = (CompositeData) ManagementFactory.getPlatformMBeanServer().getAttribute(objectName, "MoveLatency");
+        assertTrue(moveLatency.containsKey("p99Micros"));
+    }
+
+    /**
+     * On a 2x2 board won by 2 in a line any two cells are in line, so the human's second move always wins
+     */
+    private Game playHumanWinAgainstRandom() throws IOException {
+        Player human = gameService.addPlayer("Human", PlayerType.HUMAN, MoveStrategyType.CONSOLE);
+        Player computer = gameService.addPlayer("Computer", PlayerType.COMPUTER, MoveStrategyType.RANDOM);
+        Game game = gameService.initialiseGame(human, computer, 2, 2, 2, human);
+        gameService.playMove(game.getId(), 0);
+        gameService.playAutomatedMoves(game.getId());
+        int freeCell = 1;
+        while (game.getBoard().getSymbol(freeCell / 2, freeCell % 2) != CellValue.EMPTY_SYMBOL) {
+            freeCell++;
+        }
+        gameService.playMove(game.getId(), freeCell);
+        assertEquals(GameState.WINNER_PLAYER_HUMAN, game.getGameState());
+        return game;
+    }
+}
@@ -0,0 +1,48 @@
+package org.example.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyHistogramTest {
+
+    @Test
+    void bucketIndex_coversEveryValueWithBucketsWithinThreePercent() {
+        long[] values = {0, 1, 63, 64, 65, 1_000, 123_456, 1L << 40, Long.MAX_VALUE};
+        for (long value : values) {
+            int index = LatencyHistogram.bucketIndex(value);
+            long highestValue = LatencyHistogram.highestValueInBucket(index);
+            assertTrue(highestValue >= value, "value " + value);
+            assertTrue(index == 0 || LatencyHistogram.highestValueInBucket(index - 1) < value, "value " + value);
+            assertTrue(highestValue - value <= value / 32, "value " + value);
+        }
+    }
+
+    @Test
+    void getValueAtPercentile_findsPercentilesOfRecordedValues() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long micros = 1; micros <= 1_000; micros++) {
+            histogram.record(micros * 1_000);
+        }
+
+        assertEquals(1_000, histogram.getCount());
+        assertEquals(500_500_000L, histogram.getSum());
+        assertEquals(1_000_000, histogram.getMax());
+        assertEquals(500_000, histogram.getValueAtPercentile(50), 500_000 / 32.0);
+        assertEquals(990_000, histogram.getValueAtPercentile(99), 990_000 / 32.0);
+        assertEquals(1_000_000, histogram.getValueAtPercentile(100));
+        assertEquals(0, new LatencyHistogram().getValueAtPercentile(50));
+    }
+
+    @Test
+    void record_ofSeveralValues_countsEachOfThem() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(2_000, 5);
+        histogram.record(1_000_000);
+
+        assertEquals(6, histogram.getCount());
+        assertEquals(1_010_000, histogram.getSum());
+        assertEquals(2_000, histogram.getValueAtPercentile(50), 2_000 / 32.0);
+        assertEquals(1_000_000, histogram.getMax());
+    }
+}
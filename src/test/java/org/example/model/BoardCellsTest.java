@@ -0,0 +1,112 @@
+package org.example.model;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoardCellsTest {
+
+    @Test
+    void forSize_picksPackedStorageUpTo8x8() {
+        assertTrue(BoardCells.forSize(3) instanceof PackedBoardCells);
+        assertTrue(BoardCells.forSize(8) instanceof PackedBoardCells);
+        assertTrue(BoardCells.forSize(9) instanceof BitSetBoardCells);
+    }
+
+    @Test
+    void setAndGet_roundTrip() {
+        for (int numberOfCellsPerRow : new int[]{3, 8, 12}) {
+            BoardCells cells = BoardCells.forSize(numberOfCellsPerRow);
+            int lastCell = numberOfCellsPerRow * numberOfCellsPerRow - 1;
+            cells.set(0, CellValue.X);
+            cells.set(lastCell, CellValue.O);
+
+            assertEquals(CellValue.X, cells.get(0));
+            assertEquals(CellValue.O, cells.get(lastCell));
+            assertEquals(CellValue.EMPTY, cells.get(1));
+
+            cells.set(0, CellValue.EMPTY);
+            assertEquals(CellValue.EMPTY, cells.get(0));
+        }
+    }
+
+    @Test
+    void completesLine_matchesForPackedAndBitSetStorage() {
+        for (int numberOfCellsPerRow : new int[]{3, 10}) {
+            BoardCells cells = BoardCells.forSize(numberOfCellsPerRow);
+            for (int index = 0; index < numberOfCellsPerRow - 1; index++) {
+                cells.set(index * numberOfCellsPerRow + numberOfCellsPerRow - 1 - index, CellValue.O);
+            }
+            int lastAntiDiagonalCell = (numberOfCellsPerRow - 1) * numberOfCellsPerRow;
+
+            assertTrue(cells.completesLine(lastAntiDiagonalCell, CellValue.O));
+            assertFalse(cells.completesLine(lastAntiDiagonalCell, CellValue.X));
+            assertFalse(cells.completesLine(lastAntiDiagonalCell + 1, CellValue.O));
+        }
+    }
+
+    @Test
+    void forShape_picksPackedStorageUpTo64Cells() {
+        assertTrue(BoardCells.forShape(4, 16, 4) instanceof PackedBoardCells);
+        assertTrue(BoardCells.forShape(5, 13, 4) instanceof BitSetBoardCells);
+        assertThrows(IllegalArgumentException.class, () -> BoardCells.forShape(3, 3, 4));
+    }
+
+    @Test
+    void completesLine_withWinLength_countsEveryDiagonalForPackedAndBitSetStorage() {
+        // 5 in a row on boards of 7x9 (packed) and 15x15 (bitset), along an anti-diagonal away from the corners
+        for (int[] shape : new int[][]{{7, 9}, {15, 15}}) {
+            int numberOfRows = shape[0];
+            int numberOfColumns = shape[1];
+            BoardCells cells = BoardCells.forShape(numberOfRows, numberOfColumns, 5);
+            for (int index = 0; index < 4; index++) {
+                cells.set((1 + index) * numberOfColumns + 6 - index, CellValue.X);
+            }
+            int below = 5 * numberOfColumns + 2;
+            int above = 7;
+
+            assertTrue(cells.completesLine(below, CellValue.X));
+            assertTrue(cells.completesLine(above, CellValue.X));
+            assertFalse(cells.completesLine(below, CellValue.O));
+            assertFalse(cells.completesLine(below + 1, CellValue.X));
+
+            // a gap breaks the run even though 5 marks sit on the diagonal
+            cells.set(above, CellValue.X);
+            cells.set(3 * numberOfColumns + 4, CellValue.O);
+            assertFalse(cells.completesLine(below, CellValue.X));
+        }
+    }
+
+    @Test
+    void completesLine_onRectangularBoard_needsWinLengthNotAFullRow() {
+        BoardCells cells = BoardCells.forShape(3, 7, 4);
+        cells.set(8, CellValue.O);
+        cells.set(9, CellValue.O);
+        cells.set(10, CellValue.O);
+
+        assertTrue(cells.completesLine(11, CellValue.O));
+        assertTrue(cells.completesLine(7, CellValue.O));
+        assertFalse(cells.completesLine(12, CellValue.O));
+    }
+
+    @Test
+    void setSymbol_keepsOneSymbolPerCellForManyPlayers() {
+        for (int numberOfCellsPerRow : new int[]{4, 10}) {
+            BoardCells cells = BoardCells.forShape(numberOfCellsPerRow, numberOfCellsPerRow, 3, 4);
+            cells.setSymbol(0, 3);
+            cells.setSymbol(1, 3);
+            cells.setSymbol(numberOfCellsPerRow, 2);
+            assertEquals(3, cells.getSymbol(0));
+            assertEquals(2, cells.getSymbol(numberOfCellsPerRow));
+            assertEquals(CellValue.EMPTY_SYMBOL, cells.getSymbol(2));
+            assertFalse(cells.completesLine(2, 2));
+            assertTrue(cells.completesLine(2, 3));
+
+            cells.setSymbol(1, 1);
+            assertEquals(1, cells.getSymbol(1));
+            assertFalse(cells.completesLine(2, 3));
+            assertThrows(IllegalArgumentException.class, () -> cells.get(0));
+        }
+        assertThrows(IllegalArgumentException.class, () -> BoardCells.forShape(3, 3, 3, CellValue.MAX_SYMBOLS + 1));
+    }
+}
@@ -0,0 +1,116 @@
+package org.example.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MoveHistoryTest {
+
+    @Test
+    void add_impliesThePlayerFromTurnOrder() {
+        MoveHistory moveHistory = new MoveHistory(9, 2, 1);
+        moveHistory.add(4);
+        moveHistory.add(0);
+        moveHistory.add(8);
+
+        assertEquals(3, moveHistory.size());
+        assertEquals(4, moveHistory.getCellIndex(0));
+        assertEquals(1, moveHistory.getPlayerIndex(0));
+        assertEquals(0, moveHistory.getPlayerIndex(1));
+        assertEquals(0, moveHistory.getNextPlayerIndex());
+        assertThrows(IndexOutOfBoundsException.class, () -> moveHistory.getCellIndex(3));
+    }
+
+    @Test
+    void copy_keepsTheMovesMadeSoFar() {
+        for (int numberOfCells : new int[]{9, 1 << 17}) {
+            MoveHistory moveHistory = new MoveHistory(numberOfCells, 2, 0);
+            moveHistory.add(4);
+            moveHistory.add(numberOfCells - 1);
+
+            MoveHistory copy = moveHistory.copy();
+            moveHistory.removeLast();
+            moveHistory.add(0);
+            copy.add(1);
+
+            assertEquals(3, copy.size());
+            assertEquals(numberOfCells - 1, copy.getCellIndex(1));
+            assertEquals(1, copy.getCellIndex(2));
+            assertEquals(0, moveHistory.getCellIndex(1));
+        }
+    }
+
+    @Test
+    void add_rejectsOutOfRangeCellsAndFullHistory() {
+        MoveHistory moveHistory = new MoveHistory(4, 2, 0);
+        assertThrows(IllegalArgumentException.class, () -> moveHistory.add(4));
+        assertThrows(IllegalArgumentException.class, () -> moveHistory.add(-1));
+        for (int cellIndex = 0; cellIndex < 4; cellIndex++) {
+            assertFalse(moveHistory.isFull());
+            moveHistory.add(cellIndex);
+        }
+        assertTrue(moveHistory.isFull());
+        assertThrows(IllegalStateException.class, () -> moveHistory.add(0));
+    }
+
+    @Test
+    void removeLast_takesBackMovesInReverseOrder() {
+        MoveHistory moveHistory = new MoveHistory(9, 2, 0);
+        assertThrows(IllegalStateException.class, moveHistory::removeLast);
+        moveHistory.add(2);
+        moveHistory.add(6);
+
+        assertEquals(6, moveHistory.removeLast());
+        assertEquals(1, moveHistory.getNextPlayerIndex());
+        assertEquals(2, moveHistory.removeLast());
+        assertTrue(moveHistory.isEmpty());
+    }
+
+    @Test
+    void add_growsPastTheInitialCapacityOnShortAndIntStorage() {
+        for (int numberOfCells : new int[]{1 << 16, (1 << 16) + 1}) {
+            MoveHistory moveHistory = new MoveHistory(numberOfCells, 2, 0);
+            for (int index = 0; index < 1000; index++) {
+                moveHistory.add(numberOfCells - 1 - index);
+            }
+            assertEquals(1000, moveHistory.size());
+            assertEquals(numberOfCells - 1, moveHistory.getCellIndex(0));
+            assertEquals(numberOfCells - 1000, moveHistory.getCellIndex(999));
+        }
+    }
+
+    @Test
+    void replay_visitsMovesInOrder() {
+        MoveHistory moveHistory = new MoveHistory(9, 2, 1);
+        moveHistory.add(4);
+        moveHistory.add(0);
+        List<int[]> visited = new ArrayList<>();
+
+        moveHistory.replay((cellIndex, playerIndex) -> visited.add(new int[]{cellIndex, playerIndex}));
+
+        assertEquals(2, visited.size());
+        assertArrayEquals(new int[]{4, 1}, visited.get(0));
+        assertArrayEquals(new int[]{0, 0}, visited.get(1));
+    }
+
+    @Test
+    void asMoveList_isAReadOnlyViewOfTheHistory() {
+        Player alice = Player.builder().id("alice").build();
+        Player bob = Player.builder().id("bob").build();
+        MoveHistory moveHistory = new MoveHistory(9, 2, 0);
+        List<Move> moves = moveHistory.asMoveList(Arrays.asList(alice, bob), 3);
+        moveHistory.add(5);
+        moveHistory.add(7);
+
+        assertEquals(2, moves.size());
+        assertEquals(alice, moves.get(0).getPlayer());
+        assertEquals(1, moves.get(0).getRowValue());
+        assertEquals(2, moves.get(0).getColumnValue());
+        assertEquals(bob, moves.get(1).getPlayer());
+        assertThrows(UnsupportedOperationException.class, () -> moves.add(moves.get(0)));
+    }
+}
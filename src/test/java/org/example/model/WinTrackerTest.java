@@ -0,0 +1,55 @@
+package org.example.model;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WinTrackerTest {
+
+    @Test
+    void recordMove_detectsRowColumnAndDiagonals() {
+        WinTracker rowTracker = new WinTracker(3);
+        assertFalse(rowTracker.recordMove(1, 0, CellValue.X));
+        assertFalse(rowTracker.recordMove(1, 1, CellValue.X));
+        assertTrue(rowTracker.recordMove(1, 2, CellValue.X));
+
+        WinTracker columnTracker = new WinTracker(3);
+        assertFalse(columnTracker.recordMove(0, 2, CellValue.O));
+        assertFalse(columnTracker.recordMove(1, 2, CellValue.O));
+        assertTrue(columnTracker.recordMove(2, 2, CellValue.O));
+
+        WinTracker antiDiagonalTracker = new WinTracker(3);
+        assertFalse(antiDiagonalTracker.recordMove(0, 2, CellValue.X));
+        assertFalse(antiDiagonalTracker.recordMove(1, 1, CellValue.X));
+        assertTrue(antiDiagonalTracker.recordMove(2, 0, CellValue.X));
+    }
+
+    @Test
+    void recordMove_doesNotMixMarks() {
+        WinTracker winTracker = new WinTracker(3);
+        winTracker.recordMove(0, 0, CellValue.X);
+        winTracker.recordMove(1, 1, CellValue.O);
+        assertFalse(winTracker.recordMove(2, 2, CellValue.X));
+    }
+
+    @Test
+    void isWinningMove() {
+        WinTracker winTracker = new WinTracker(3);
+        winTracker.recordMove(0, 0, CellValue.X);
+        winTracker.recordMove(1, 1, CellValue.X);
+
+        assertTrue(winTracker.isWinningMove(2, 2, CellValue.X));
+        assertFalse(winTracker.isWinningMove(2, 2, CellValue.O));
+        assertFalse(winTracker.isWinningMove(0, 1, CellValue.X));
+    }
+
+    @Test
+    void removeMove_undoesACount() {
+        WinTracker winTracker = new WinTracker(3);
+        winTracker.recordMove(0, 0, CellValue.X);
+        winTracker.recordMove(0, 1, CellValue.X);
+        winTracker.removeMove(0, 1, CellValue.X);
+        assertFalse(winTracker.recordMove(0, 2, CellValue.X));
+        assertTrue(winTracker.recordMove(0, 1, CellValue.X));
+    }
+}
@@ -0,0 +1,135 @@
+package org.example.repository;
+
+import org.example.model.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrentGameRepositoryImplTest {
+    private static final int THREADS = 16;
+
+    ConcurrentGameRepositoryImpl repository;
+    ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        repository = new ConcurrentGameRepositoryImpl(64);
+        executor = Executors.newFixedThreadPool(THREADS);
+    }
+
+    private Game newGame(int numberOfCellsPerRow) {
+        Player player1 = repository.addPlayer(Player.builder().name("Player1").playerType(PlayerType.HUMAN).markCellValueAs(CellValue.X).build());
+        Player player2 = repository.addPlayer(Player.builder().name("Player2").playerType(PlayerType.COMPUTER).build());
+        return repository.initialiseGame(player1, player2, numberOfCellsPerRow, player1);
+    }
+
+    private void runConcurrently(List<Callable<Void>> tasks) throws InterruptedException, ExecutionException {
+        for (Future<Void> future : executor.invokeAll(tasks)) {
+            future.get();
+        }
+        executor.shutdown();
+    }
+
+    @Test
+    void initialiseGame_concurrentlyCreatesDistinctRetrievableGames() throws Exception {
+        Set<String> gameIds = ConcurrentHashMap.newKeySet();
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (int thread = 0; thread < THREADS; thread++) {
+            tasks.add(() -> {
+                for (int index = 0; index < 500; index++) {
+                    gameIds.add(newGame(3).getId());
+                }
+                return null;
+            });
+        }
+
+        runConcurrently(tasks);
+
+        assertEquals(THREADS * 500, gameIds.size());
+        for (String gameId : gameIds) {
+            assertEquals(gameId, repository.getGameFromId(gameId).getId());
+        }
+    }
+
+    @Test
+    void addMoveToMovesList_keepsEveryMoveAndEachWritersOrderWithinAGame() throws Exception {
+        int numberOfCellsPerRow = 100;
+        List<Game> games = new ArrayList<>();
+        for (int index = 0; index < 4; index++) {
+            games.add(newGame(numberOfCellsPerRow));
+        }
+        int movesPerThread = 2000;
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (int thread = 0; thread < THREADS; thread++) {
+            int writer = thread;
+            tasks.add(() -> {
+                Player player = Player.builder().id(String.valueOf(writer)).build();
+                for (int sequence = 0; sequence < movesPerThread; sequence++) {
+                    Game game = games.get(sequence % games.size());
+                    // Cells of one writer are distinct and increasing, the writer is the cell modulo THREADS
+                    int cellIndex = (sequence / games.size()) * THREADS + writer;
+                    repository.addMoveToMovesList(game.getId(),
+                            repository.createMove(player, cellIndex / numberOfCellsPerRow, cellIndex % numberOfCellsPerRow));
+                }
+                return null;
+            });
+        }
+
+        runConcurrently(tasks);
+
+        for (Game game : games) {
+            MoveHistory moveHistory = game.getMoveHistory();
+            assertEquals(THREADS * movesPerThread / games.size(), moveHistory.size());
+            Set<Integer> cellIndices = new HashSet<>();
+            Map<Integer, Integer> lastCellByWriter = new HashMap<>();
+            for (int index = 0; index < moveHistory.size(); index++) {
+                int cellIndex = moveHistory.getCellIndex(index);
+                assertTrue(cellIndices.add(cellIndex), "move was recorded twice");
+                Integer lastCellIndex = lastCellByWriter.put(cellIndex % THREADS, cellIndex);
+                assertTrue(lastCellIndex == null || lastCellIndex < cellIndex, "moves of one writer were reordered");
+            }
+            assertEquals(THREADS, lastCellByWriter.size());
+        }
+    }
+
+    @Test
+    void updateGameBoardWithMove_concurrentWritesToOneBoardAreAllKept() throws Exception {
+        int numberOfCellsPerRow = 8;
+        Game game = newGame(numberOfCellsPerRow);
+        Board board = game.getBoard();
+        Player xPlayer = Player.builder().markCellValueAs(CellValue.X).build();
+        Player oPlayer = Player.builder().markCellValueAs(CellValue.O).build();
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (int thread = 0; thread < THREADS; thread++) {
+            int writer = thread;
+            tasks.add(() -> {
+                for (int cell = writer; cell < numberOfCellsPerRow * numberOfCellsPerRow; cell += THREADS) {
+                    Player player = cell % 2 == 0 ? xPlayer : oPlayer;
+                    repository.updateGameBoardWithMove(repository.createMove(player, cell / numberOfCellsPerRow, cell % numberOfCellsPerRow), board);
+                }
+                return null;
+            });
+        }
+
+        runConcurrently(tasks);
+
+        for (int cell = 0; cell < numberOfCellsPerRow * numberOfCellsPerRow; cell++) {
+            CellValue expected = cell % 2 == 0 ? CellValue.X : CellValue.O;
+            assertEquals(expected, board.getCellValue(cell / numberOfCellsPerRow, cell % numberOfCellsPerRow));
+        }
+    }
+
+    @Test
+    void getStripeIndex_isStableAndWithinBounds() {
+        Game game = newGame(3);
+        int stripeIndex = repository.getStripeIndex(game.getId());
+
+        assertEquals(64, repository.getNumberOfStripes());
+        assertTrue(stripeIndex >= 0 && stripeIndex < 64);
+        assertEquals(stripeIndex, repository.getStripeIndex(game.getId()));
+    }
+}
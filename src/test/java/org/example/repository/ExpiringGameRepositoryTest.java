@@ -0,0 +1,185 @@
+package org.example.repository;
+
+import org.example.exception.UserException;
+import org.example.metrics.GameMetrics;
+import org.example.model.*;
+import org.example.service.GameHost;
+import org.example.service.GameService;
+import org.example.service.GameServiceImpl;
+import org.example.strategy.MoveStrategyRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExpiringGameRepositoryTest {
+    private static final GameLifecyclePolicy POLICY = GameLifecyclePolicy.builder()
+            .finishedGameTtlMillis(1_000)
+            .idleGameTimeoutMillis(10_000)
+            .idlePlayerTimeoutMillis(5_000)
+            .tickMillis(100)
+            .numberOfSlots(16)
+            .build();
+
+    @TempDir
+    Path archiveDirectory;
+
+    private final AtomicLong nowMillis = new AtomicLong(1_000_000);
+
+    @Test
+    void expire_archivesAndEvictsFinishedGames_thenAbandonedGames_thenTheirIdlePlayers() throws IOException {
+        Path archiveFile = archiveDirectory.resolve("games.bin");
+        ExpiringGameRepository repository;
+        try (FileGameArchive gameArchive = new FileGameArchive(archiveFile)) {
+            repository = new ExpiringGameRepository(new ConcurrentGameRepositoryImpl(), POLICY, gameArchive, nowMillis::get);
+            GameService gameService = new GameServiceImpl(repository);
+            Player alice = gameService.addPlayer("Alice", PlayerType.HUMAN, MoveStrategyType.CONSOLE);
+            Player bob = gameService.addPlayer("Bob", PlayerType.COMPUTER, MoveStrategyType.CONSOLE);
+            Game finished = gameService.initialiseGame(alice, bob, 3, alice);
+            Game abandoned = gameService.initialiseGame(alice, bob, 3, alice);
+            Game active = gameService.initialiseGame(alice, bob, 3, alice);
+            for (int cell : new int[]{0, 3, 1, 4, 2}) {
+                gameService.playMove(finished.getId(), cell);
+            }
+            gameService.playMove(abandoned.getId(), 4);
+
+            advance(repository, 1_500);
+            assertEquals(1, repository.getEvictedGames());
+            assertThrows(UserException.class, () -> repository.getGameFromId(finished.getId()));
+
+            // moves keep a game alive past the idle timeout
+            for (int cell : new int[]{0, 1, 2}) {
+                advance(repository, 4_000);
+                gameService.playMove(active.getId(), cell);
+            }
+            assertThrows(UserException.class, () -> repository.getGameFromId(abandoned.getId()));
+            assertSame(active, repository.getGameFromId(active.getId()));
+            assertSame(alice, repository.getPlayerFromId(alice.getId()));
+
+            repository.removeGame(active.getId());
+            advance(repository, 4_000);
+            assertEquals(alice, repository.getPlayerFromId(alice.getId()));
+            advance(repository, 1_500);
+            assertThrows(UserException.class, () -> repository.getPlayerFromId(alice.getId()));
+            assertEquals(2, repository.getEvictedPlayers());
+            assertEquals(2, repository.getEvictedGames());
+            assertEquals(1, repository.getArchivedGames());
+        }
+
+        List<Game> archivedGames = new ArrayList<>();
+        List<Long> finishTimes = new ArrayList<>();
+        FileGameArchive.forEachGame(archiveFile, (game, finishedAtMillis) -> {
+            archivedGames.add(game);
+            finishTimes.add(finishedAtMillis);
+        });
+        assertEquals(1, archivedGames.size());
+        assertEquals(GameState.WINNER_PLAYER_HUMAN, archivedGames.get(0).getGameState());
+        assertEquals(5, archivedGames.get(0).getMoveHistory().size());
+        assertEquals(1_000_000L, finishTimes.get(0));
+    }
+
+    @Test
+    void expire_keepsAFinishedGameWhoseArchivingFails() {
+        ExpiringGameRepository repository = new ExpiringGameRepository(new GameRepositoryImpl(), POLICY,
+                (game, finishedAtMillis) -> {
+                    throw new IOException("cold store unavailable");
+                }, nowMillis::get);
+        GameService gameService = new GameServiceImpl(repository);
+        Player alice = gameService.addPlayer("Alice", PlayerType.HUMAN, MoveStrategyType.CONSOLE);
+        Player bob = gameService.addPlayer("Bob", PlayerType.COMPUTER, MoveStrategyType.CONSOLE);
+        Game game = gameService.initialiseGame(alice, bob, 2, alice);
+        gameService.playMove(game.getId(), 0);
+        gameService.playMove(game.getId(), 1);
+        gameService.playMove(game.getId(), 2);
+        assertNotEquals(GameState.ONGOING, game.getGameState());
+
+        advance(repository, 5_000);
+
+        assertSame(game, repository.getGameFromId(game.getId()));
+        assertEquals(0, repository.getEvictedGames());
+    }
+
+    @Test
+    void expire_stopsHostingAnEvictedAbandonedGame() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            ExpiringGameRepository repository = new ExpiringGameRepository(new ConcurrentGameRepositoryImpl(), POLICY, null, nowMillis::get);
+            GameService gameService = new GameServiceImpl(repository);
+            GameHost gameHost = new GameHost(gameService, executor);
+            repository.addGameEvictionListener(gameHost::endGame);
+            Player alice = gameService.addPlayer("Alice", PlayerType.HUMAN, MoveStrategyType.CONSOLE);
+            Player bob = gameService.addPlayer("Bob", PlayerType.COMPUTER, MoveStrategyType.RANDOM);
+            Game game = gameService.initialiseGame(alice, bob, 3, alice);
+            CompletableFuture<Game> result = gameHost.startGame(game.getId());
+            gameHost.submitMove(game.getId(), 4).get(5, TimeUnit.SECONDS);
+
+            advance(repository, 11_000);
+
+            assertEquals(1, repository.getEvictedGames());
+            assertEquals(0, gameHost.getNumberOfHostedGames());
+            ExecutionException exception = assertThrows(ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS));
+            assertTrue(exception.getCause() instanceof UserException);
+            assertThrows(UserException.class, () -> gameHost.submitMove(game.getId(), 0));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void expire_stopsCountingAnEvictedAbandonedGameAsActive() {
+        GameMetrics gameMetrics = new GameMetrics(true);
+        ExpiringGameRepository repository = new ExpiringGameRepository(new GameRepositoryImpl(), POLICY, null, nowMillis::get, gameMetrics);
+        GameService gameService = new GameServiceImpl(repository, MoveStrategyRegistry.withDefaults(), gameMetrics);
+        Player alice = gameService.addPlayer("Alice", PlayerType.HUMAN, MoveStrategyType.CONSOLE);
+        Player bob = gameService.addPlayer("Bob", PlayerType.COMPUTER, MoveStrategyType.CONSOLE);
+        Game finished = gameService.initialiseGame(alice, bob, 2, alice);
+        gameService.playMove(finished.getId(), 0);
+        gameService.playMove(finished.getId(), 1);
+        gameService.playMove(finished.getId(), 2);
+        gameService.initialiseGame(alice, bob, 3, alice);
+        assertEquals(1, gameMetrics.getActiveGames());
+
+        advance(repository, 11_000);
+
+        assertEquals(2, repository.getEvictedGames());
+        assertEquals(0, gameMetrics.getActiveGames());
+    }
+
+    @Test
+    void expire_tellsThePlayerEvictionListenersWhichPlayersItEvicted() {
+        ExpiringGameRepository repository = new ExpiringGameRepository(new GameRepositoryImpl(), POLICY, null, nowMillis::get);
+        List<String> evictedPlayerIds = new ArrayList<>();
+        repository.addPlayerEvictionListener(evictedPlayerIds::add);
+        repository.addPlayerEvictionListener(playerId -> {
+            throw new IllegalStateException("listener failed");
+        });
+        GameService gameService = new GameServiceImpl(repository);
+        Player alice = gameService.addPlayer("Alice", PlayerType.HUMAN, MoveStrategyType.CONSOLE);
+
+        advance(repository, 11_000);
+
+        assertEquals(List.of(alice.getId()), evictedPlayerIds);
+        assertEquals(1, repository.getEvictedPlayers());
+    }
+
+    /**
+     * Moves the clock in steps of a tick, expiring as the background thread would
+     */
+    private void advance(ExpiringGameRepository repository, long millis) {
+        for (long step = 0; step < millis; step += POLICY.getTickMillis()) {
+            nowMillis.addAndGet(POLICY.getTickMillis());
+            repository.expire();
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package org.example.repository;
+
+import org.example.model.*;
+import org.example.service.GameService;
+import org.example.service.GameServiceImpl;
+import org.example.service.JournalRecovery;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameSnapshotterTest {
+    private static final int SMALL_SEGMENT_SIZE = 8 * GameJournal.RECORD_SIZE;
+
+    @TempDir
+    Path directory;
+
+    private JournaledGameRepository open(GameRepository gameRepository) throws IOException {
+        return new JournaledGameRepository(gameRepository, new GameJournal(directory, SMALL_SEGMENT_SIZE, 1000));
+    }
+
+    private Game newGame(GameService gameService, MoveStrategyType moveStrategyType) {
+        Player player1 = gameService.addPlayer("Alice", PlayerType.HUMAN, MoveStrategyType.CONSOLE);
+        Player player2 = gameService.addPlayer("Computer", PlayerType.COMPUTER, moveStrategyType);
+        return gameService.initialiseGame(player1, player2, 3, player1);
+    }
+
+    @Test
+    void loadLatest_withoutSnapshot_replaysWholeJournal() throws IOException {
+        assertEquals(0, GameSnapshotter.loadLatest(directory, new GameRepositoryImpl()));
+    }
+
+    @Test
+    void restart_loadsSnapshotAndReplaysOnlyTheJournalTail() throws IOException {
+        String finishedGameId;
+        String ongoingGameId;
+        String laterGameId;
+        try (JournaledGameRepository repository = open(new GameRepositoryImpl());
+             GameSnapshotter snapshotter = new GameSnapshotter(directory, repository)) {
+            GameService gameService = new GameServiceImpl(repository);
+            Game finished = newGame(gameService, MoveStrategyType.RANDOM);
+            for (int cell : new int[]{0, 3, 1, 4, 2}) {
+                gameService.playMove(finished.getId(), cell);
+            }
+            assertEquals(GameState.WINNER_PLAYER_HUMAN, finished.getGameState());
+            finishedGameId = finished.getId();
+
+            Game ongoing = newGame(gameService, MoveStrategyType.LOOKUP_TABLE);
+            gameService.playMove(ongoing.getId(), 4);
+            gameService.playAutomatedMoves(ongoing.getId());
+            ongoingGameId = ongoing.getId();
+
+            long segmentId = snapshotter.snapshot();
+            assertEquals(1, repository.getGameJournal().getNumberOfSegments());
+            assertTrue(segmentId > 0);
+
+            // written after the snapshot, so only found in the journal
+            gameService.playMove(ongoingGameId, firstEmptyCell(ongoing));
+            laterGameId = newGame(gameService, MoveStrategyType.LOOKUP_TABLE).getId();
+        }
+
+        GameRepository restored = new GameRepositoryImpl();
+        long fromSegmentId = GameSnapshotter.loadLatest(directory, restored);
+        assertTrue(fromSegmentId > 0);
+        try (JournaledGameRepository repository = open(restored)) {
+            GameService gameService = new GameServiceImpl(repository);
+            assertEquals(1, new JournalRecovery(repository).recover(fromSegmentId));
+
+            Game finished = gameService.getGameFromId(finishedGameId);
+            assertNotEquals(GameState.ONGOING, finished.getGameState());
+            assertEquals(finished.getWinner(), finished.getMoves().get(finished.getMoves().size() - 1).getPlayer());
+
+            Game ongoing = gameService.getGameFromId(ongoingGameId);
+            assertEquals(GameState.ONGOING, ongoing.getGameState());
+            assertEquals(3, ongoing.getMoves().size());
+            assertEquals(CellValue.X, ongoing.getBoard().getCellValue(1, 1));
+            assertEquals(1, ongoing.getCurrentPlayerIndex());
+
+            assertEquals(0, gameService.getGameFromId(laterGameId).getMoves().size());
+        }
+    }
+
+    @Test
+    void compact_keepsMovesOfAGameWhoseGameRecordIsInTheSnapshot() throws IOException {
+        String gameId;
+        try (JournaledGameRepository repository = open(new GameRepositoryImpl());
+             GameSnapshotter snapshotter = new GameSnapshotter(directory, repository)) {
+            GameService gameService = new GameServiceImpl(repository);
+            gameId = newGame(gameService, MoveStrategyType.RANDOM).getId();
+            snapshotter.snapshot();
+
+            for (int cell : new int[]{0, 3, 1, 4, 2}) {
+                gameService.playMove(gameId, cell);
+            }
+            assertEquals(GameState.WINNER_PLAYER_HUMAN, gameService.getGameFromId(gameId).getGameState());
+            // roll the segment holding the moves so it can be compacted
+            for (int index = 0; index < 8; index++) {
+                gameService.addPlayer("Filler" + index, PlayerType.COMPUTER);
+            }
+            repository.compact();
+        }
+
+        GameRepository restored = new GameRepositoryImpl();
+        long fromSegmentId = GameSnapshotter.loadLatest(directory, restored);
+        try (JournaledGameRepository repository = open(restored)) {
+            GameService gameService = new GameServiceImpl(repository);
+            new JournalRecovery(repository).recover(fromSegmentId);
+
+            Game game = gameService.getGameFromId(gameId);
+            assertEquals(GameState.WINNER_PLAYER_HUMAN, game.getGameState());
+            assertEquals(5, game.getMoves().size());
+        }
+    }
+
+    @Test
+    void loadLatest_restoresEveryPlayerOfAThreePlayerGame() throws IOException {
+        String gameId;
+        try (JournaledGameRepository repository = open(new GameRepositoryImpl());
+             GameSnapshotter snapshotter = new GameSnapshotter(directory, repository)) {
+            GameService gameService = new GameServiceImpl(repository);
+            Player player1 = gameService.addPlayer("Alice", PlayerType.HUMAN, MoveStrategyType.CONSOLE);
+            Player player2 = gameService.addPlayer("Bob", PlayerType.HUMAN, MoveStrategyType.CONSOLE);
+            Player player3 = gameService.addPlayer("Carol", PlayerType.HUMAN, MoveStrategyType.CONSOLE);
+            gameId = gameService.initialiseGame(Arrays.asList(player1, player2, player3), 5, 5, 4).getId();
+            for (int cell : new int[]{0, 5, 10, 1}) {
+                gameService.playMove(gameId, cell);
+            }
+            snapshotter.snapshot();
+        }
+
+        GameRepository restored = new GameRepositoryImpl();
+        assertTrue(GameSnapshotter.loadLatest(directory, restored) > 0);
+        Game game = restored.getGameFromId(gameId);
+        assertEquals(3, game.getPlayers().size());
+        assertEquals("Carol", game.getPlayers().get(2).getName());
+        assertEquals(2, game.getBoard().getSymbol(2, 0));
+        assertEquals(0, game.getBoard().getSymbol(0, 1));
+        assertEquals(1, game.getCurrentPlayerIndex());
+        assertEquals(4, game.getBoard().getWinLength());
+    }
+
+    private static int firstEmptyCell(Game game) {
+        for (int cell = 0; cell < 9; cell++) {
+            if (game.getBoard().getCellValue(cell / 3, cell % 3) == CellValue.EMPTY) {
+                return cell;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,311 @@
+package org.example.repository;
+
+import org.example.exception.UserException;
+import org.example.metrics.GameMetrics;
+import org.example.model.*;
+import org.example.service.GameService;
+import org.example.service.GameServiceImpl;
+import org.example.service.JournalRecovery;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JournaledGameRepositoryTest {
+    private static final int SMALL_SEGMENT_SIZE = 8 * GameJournal.RECORD_SIZE;
+
+    @TempDir
+    Path journalDirectory;
+
+    private JournaledGameRepository open() throws IOException {
+        return new JournaledGameRepository(new GameRepositoryImpl(), new GameJournal(journalDirectory, SMALL_SEGMENT_SIZE, 1000));
+    }
+
+    private Game newGame(GameService gameService, MoveStrategyType moveStrategyType) {
+        Player player1 = gameService.addPlayer("Alice", PlayerType.HUMAN, MoveStrategyType.CONSOLE);
+        Player player2 = gameService.addPlayer("Computer", PlayerType.COMPUTER, moveStrategyType);
+        return gameService.initialiseGame(player1, player2, 3, player1);
+    }
+
+    @Test
+    void recover_rebuildsOngoingAndFinishedGamesAcrossSegments() throws IOException {
+        String ongoingGameId;
+        String finishedGameId;
+        try (JournaledGameRepository repository = open()) {
+            GameService gameService = new GameServiceImpl(repository);
+            Game ongoing = newGame(gameService, MoveStrategyType.LOOKUP_TABLE);
+            gameService.playMove(ongoing.getId(), 0);
+            gameService.playAutomatedMoves(ongoing.getId());
+            ongoingGameId = ongoing.getId();
+
+            Game finished = newGame(gameService, MoveStrategyType.RANDOM);
+            for (int cell : new int[]{0, 4, 8, 2, 6, 3, 5, 7, 1}) {
+                if (gameService.getGameFromId(finished.getId()).getGameState() == GameState.ONGOING) {
+                    if (finished.getBoard().getCellValue(cell / 3, cell % 3) == CellValue.EMPTY) {
+                        gameService.playMove(finished.getId(), cell);
+                        gameService.playAutomatedMoves(finished.getId());
+                    }
+                }
+            }
+            finishedGameId = finished.getId();
+            assertNotEquals(GameState.ONGOING, finished.getGameState());
+            assertTrue(repository.getGameJournal().getNumberOfSegments() > 1);
+        }
+
+        try (JournaledGameRepository repository = open()) {
+            GameService gameService = new GameServiceImpl(repository);
+            assertEquals(2, new JournalRecovery(repository).recover());
+
+            Game ongoing = gameService.getGameFromId(ongoingGameId);
+            assertEquals(GameState.ONGOING, ongoing.getGameState());
+            assertEquals(2, ongoing.getMoves().size());
+            assertEquals(CellValue.X, ongoing.getBoard().getCellValue(0, 0));
+            assertEquals(0, ongoing.getCurrentPlayerIndex());
+
+            Game finished = gameService.getGameFromId(finishedGameId);
+            assertNotEquals(GameState.ONGOING, finished.getGameState());
+
+            // the recovered game keeps going and its new moves are journaled
+            gameService.playMove(ongoingGameId, firstEmptyCell(ongoing));
+        }
+
+        try (JournaledGameRepository repository = open()) {
+            GameService gameService = new GameServiceImpl(repository);
+            new JournalRecovery(repository).recover();
+            assertEquals(3, gameService.getGameFromId(ongoingGameId).getMoves().size());
+        }
+    }
+
+    @Test
+    void compact_dropsFinishedGamesAndKeepsOngoingOnes() throws IOException {
+        String ongoingGameId;
+        try (JournaledGameRepository repository = open()) {
+            GameService gameService = new GameServiceImpl(repository);
+            for (int index = 0; index < 5; index++) {
+                Game finished = newGame(gameService, MoveStrategyType.RANDOM);
+                finished.getPlayers().get(0).setMoveStrategyType(MoveStrategyType.RANDOM);
+                gameService.playAutomatedMoves(finished.getId());
+                assertNotEquals(GameState.ONGOING, finished.getGameState());
+            }
+            Game ongoing = newGame(gameService, MoveStrategyType.LOOKUP_TABLE);
+            gameService.playMove(ongoing.getId(), 4);
+            gameService.playAutomatedMoves(ongoing.getId());
+            ongoingGameId = ongoing.getId();
+            // roll the segment holding the ongoing game so it can be compacted too
+            for (int index = 0; index < 16; index++) {
+                gameService.addPlayer("Filler" + index, PlayerType.COMPUTER);
+            }
+
+            int segmentsBefore = repository.getGameJournal().getNumberOfSegments();
+            assertTrue(repository.compact() > 0);
+            assertTrue(repository.getGameJournal().getNumberOfSegments() < segmentsBefore);
+        }
+
+        try (JournaledGameRepository repository = open()) {
+            GameService gameService = new GameServiceImpl(repository);
+            assertEquals(1, new JournalRecovery(repository).recover());
+            assertEquals(2, gameService.getGameFromId(ongoingGameId).getMoves().size());
+        }
+    }
+
+    @Test
+    void recover_replaysUndoneMoves() throws IOException {
+        String gameId;
+        try (JournaledGameRepository repository = open()) {
+            GameService gameService = new GameServiceImpl(repository);
+            Game game = newGame(gameService, MoveStrategyType.LOOKUP_TABLE);
+            gameId = game.getId();
+            gameService.playMove(gameId, 0);
+            gameService.playAutomatedMoves(gameId);
+            gameService.undoLastMove(gameId);
+            gameService.undoLastMove(gameId);
+            gameService.playMove(gameId, 8);
+            assertThrows(UserException.class, () -> gameService.undoLastMove(newGame(gameService, MoveStrategyType.RANDOM).getId()));
+        }
+
+        try (JournaledGameRepository repository = open()) {
+            GameService gameService = new GameServiceImpl(repository);
+            new JournalRecovery(repository).recover();
+            Game game = gameService.getGameFromId(gameId);
+            assertEquals(1, game.getMoves().size());
+            assertEquals(CellValue.EMPTY, game.getBoard().getCellValue(0, 0));
+            assertEquals(CellValue.X, game.getBoard().getCellValue(2, 2));
+            assertEquals(1, game.getCurrentPlayerIndex());
+        }
+    }
+
+    @Test
+    void recover_keepsTheBoardShapeAndWinLength() throws IOException {
+        String gameId;
+        try (JournaledGameRepository repository = open()) {
+            GameService gameService = new GameServiceImpl(repository);
+            Player player1 = gameService.addPlayer("Alice", PlayerType.HUMAN, MoveStrategyType.CONSOLE);
+            Player player2 = gameService.addPlayer("Bob", PlayerType.HUMAN, MoveStrategyType.CONSOLE);
+            gameId = gameService.initialiseGame(player1, player2, 6, 10, 4, player1).getId();
+            for (int cell : new int[]{11, 0, 12, 1, 13}) {
+                gameService.playMove(gameId, cell);
+            }
+        }
+
+        try (JournaledGameRepository repository = open()) {
+            GameService gameService = new GameServiceImpl(repository);
+            new JournalRecovery(repository).recover();
+            Game game = gameService.getGameFromId(gameId);
+            Board board = game.getBoard();
+            assertEquals(6, board.getNumberOfRows());
+            assertEquals(10, board.getNumberOfCellsPerRow());
+            assertEquals(4, board.getWinLength());
+            assertEquals(GameState.ONGOING, game.getGameState());
+
+            gameService.playMove(gameId, 2);
+            gameService.playMove(gameId, 14);
+            assertEquals(GameState.WINNER_PLAYER_HUMAN, game.getGameState());
+        }
+    }
+
+    @Test
+    void recover_keepsEveryPlayerOfAThreePlayerGame() throws IOException {
+        String gameId;
+        try (JournaledGameRepository repository = open()) {
+            GameService gameService = new GameServiceImpl(repository);
+            Player player1 = gameService.addPlayer("Alice", PlayerType.HUMAN, MoveStrategyType.CONSOLE);
+            Player player2 = gameService.addPlayer("Bob", PlayerType.HUMAN, MoveStrategyType.CONSOLE);
+            Player player3 = gameService.addPlayer("Carol", PlayerType.HUMAN, MoveStrategyType.CONSOLE);
+            gameId = gameService.initialiseGame(Arrays.asList(player3, player1, player2), 4, 4, 3).getId();
+            for (int cell : new int[]{0, 4, 8, 1, 5}) {
+                gameService.playMove(gameId, cell);
+            }
+        }
+
+        try (JournaledGameRepository repository = open()) {
+            GameService gameService = new GameServiceImpl(repository);
+            new JournalRecovery(repository).recover();
+            Game game = gameService.getGameFromId(gameId);
+            assertEquals(Arrays.asList("Carol", "Alice", "Bob"),
+                    game.getPlayers().stream().map(Player::getName).collect(Collectors.toList()));
+            assertEquals(2, game.getBoard().getSymbol(2, 0));
+            assertEquals(GameState.ONGOING, game.getGameState());
+
+            gameService.playMove(gameId, 9);
+            gameService.playMove(gameId, 2);
+            assertEquals("Carol", game.getWinner().getName());
+        }
+    }
+
+    @Test
+    void recover_forgetsRemovedGames() throws IOException {
+        String removedGameId;
+        String keptGameId;
+        try (JournaledGameRepository repository = open()) {
+            GameService gameService = new GameServiceImpl(repository);
+            removedGameId = newGame(gameService, MoveStrategyType.RANDOM).getId();
+            gameService.playMove(removedGameId, 4);
+            keptGameId = newGame(gameService, MoveStrategyType.RANDOM).getId();
+            repository.removeGame(removedGameId);
+        }
+
+        try (JournaledGameRepository repository = open()) {
+            GameService gameService = new GameServiceImpl(repository);
+            assertEquals(1, new JournalRecovery(repository).recover());
+            assertThrows(UserException.class, () -> gameService.getGameFromId(removedGameId));
+            assertEquals(GameState.ONGOING, gameService.getGameFromId(keptGameId).getGameState());
+        }
+    }
+
+    @Test
+    void recover_countsOnlyTheOngoingGamesAsActive() throws IOException {
+        try (JournaledGameRepository repository = open()) {
+            GameService gameService = new GameServiceImpl(repository);
+            gameService.playMove(newGame(gameService, MoveStrategyType.RANDOM).getId(), 4);
+            String finishedGameId = newGame(gameService, MoveStrategyType.CONSOLE).getId();
+            for (int cell : new int[]{0, 3, 1, 4, 2}) {
+                gameService.playMove(finishedGameId, cell);
+            }
+            assertEquals(GameState.WINNER_PLAYER_HUMAN, gameService.getGameFromId(finishedGameId).getGameState());
+        }
+
+        try (JournaledGameRepository repository = open()) {
+            GameMetrics gameMetrics = new GameMetrics(true);
+            assertEquals(2, new JournalRecovery(repository, gameMetrics).recover());
+            assertEquals(1, gameMetrics.getActiveGames());
+            assertEquals(0, gameMetrics.getMoveLatency().getCount(), "replayed moves were timed when first played");
+            assertEquals(0L, gameMetrics.getGamesFinished().get(GameState.WINNER_PLAYER_HUMAN.name()));
+        }
+    }
+
+    @Test
+    void initialiseGame_rejectsAnIdTheJournalCannotStoreBeforeCreatingTheGame() throws IOException {
+        try (JournaledGameRepository repository = open()) {
+            GameService gameService = new GameServiceImpl(repository);
+            Player alice = gameService.addPlayer("Alice", PlayerType.HUMAN, MoveStrategyType.CONSOLE);
+            Player bob = gameService.addPlayer("Bob", PlayerType.HUMAN, MoveStrategyType.CONSOLE);
+
+            assertThrows(IllegalArgumentException.class, () -> repository.initialiseGame("lobby-1", Arrays.asList(alice, bob), 3, 3, 3, alice));
+            assertThrows(UserException.class, () -> repository.getGameFromId("lobby-1"));
+            assertThrows(IllegalArgumentException.class, () -> repository.addPlayer(Player.builder().id("carol").name("Carol").build()));
+            assertThrows(UserException.class, () -> repository.getPlayerFromId("carol"));
+        }
+    }
+
+    @Test
+    void recover_keepsEveryMoveOfGamesPlayedFromManyThreadsAcrossSegments() throws Exception {
+        int numberOfGames = 8;
+        int numberOfMoves = 40;
+        List<String> gameIds = new ArrayList<>();
+        ExecutorService executor = Executors.newFixedThreadPool(numberOfGames);
+        try (JournaledGameRepository repository = new JournaledGameRepository(new ConcurrentGameRepositoryImpl(),
+                new GameJournal(journalDirectory, SMALL_SEGMENT_SIZE, 1000))) {
+            GameService gameService = new GameServiceImpl(repository);
+            Player alice = gameService.addPlayer("Alice", PlayerType.HUMAN, MoveStrategyType.CONSOLE);
+            Player bob = gameService.addPlayer("Bob", PlayerType.HUMAN, MoveStrategyType.CONSOLE);
+            List<Future<?>> games = new ArrayList<>();
+            for (int index = 0; index < numberOfGames; index++) {
+                // filling a 10x10 board row by row leaves each column to one player, four cells high, so nobody wins
+                String gameId = gameService.initialiseGame(alice, bob, 10, 10, 10, alice).getId();
+                gameIds.add(gameId);
+                games.add(executor.submit(() -> {
+                    for (int cell = 0; cell < numberOfMoves; cell++) {
+                        gameService.playMove(gameId, cell);
+                    }
+                }));
+            }
+            for (Future<?> game : games) {
+                game.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        try (JournaledGameRepository repository = new JournaledGameRepository(new ConcurrentGameRepositoryImpl(),
+                new GameJournal(journalDirectory, SMALL_SEGMENT_SIZE, 1000))) {
+            assertEquals(numberOfGames, new JournalRecovery(repository).recover());
+            for (String gameId : gameIds) {
+                MoveHistory moveHistory = repository.getGameFromId(gameId).getMoveHistory();
+                assertEquals(numberOfMoves, moveHistory.size());
+                for (int index = 0; index < numberOfMoves; index++) {
+                    assertEquals(index, moveHistory.getCellIndex(index));
+                }
+            }
+        }
+    }
+
+    private static int firstEmptyCell(Game game) {
+        for (int cell = 0; cell < 9; cell++) {
+            if (game.getBoard().getCellValue(cell / 3, cell % 3) == CellValue.EMPTY) {
+                return cell;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,156 @@
+package org.example.server;
+
+import org.example.controller.GameController;
+import org.example.model.LoadTestResult;
+import org.example.model.MoveStrategyType;
+import org.example.repository.ConcurrentGameRepositoryImpl;
+import org.example.service.GameServiceImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameServerTest {
+    GameServer gameServer;
+    ConcurrentGameRepositoryImpl gameRepository;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        gameRepository = new ConcurrentGameRepositoryImpl();
+        gameServer = new GameServer(new GameController(new GameServiceImpl(gameRepository)),
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        gameServer.close();
+    }
+
+    @Test
+    void remotePlayers_joinPlayAndReceiveStatePushes() throws IOException {
+        try (Client alice = new Client(); Client bob = new Client()) {
+            alice.send("CREATE Alice 3 3 3 OPEN");
+            String lobbyId = alice.expect("WAITING")[1];
+            bob.send("JOIN " + lobbyId + " Bob");
+            String[] aliceStarted = alice.expect("STARTED");
+            String[] bobStarted = bob.expect("STARTED");
+            String gameId = aliceStarted[1];
+            assertEquals(gameId, bobStarted[1]);
+
+            String[] state = alice.expect("STATE");
+            bob.expect("STATE");
+            assertEquals("ONGOING", state[2]);
+            assertEquals(".........", state[5]);
+            Client first = Integer.parseInt(state[3]) == Integer.parseInt(aliceStarted[2]) ? alice : bob;
+            Client second = first == alice ? bob : alice;
+
+            second.send("MOVE " + gameId + " 4");
+            assertTrue(second.expect("ERROR")[1].startsWith("Not"));
+
+            int[] cells = {0, 3, 1, 4, 2};
+            for (int index = 0; index < cells.length; index++) {
+                (index % 2 == 0 ? first : second).send("MOVE " + gameId + " " + cells[index]);
+                state = first.expect("STATE");
+                assertArrayEquals(state, second.expect("STATE"));
+            }
+            assertEquals("WINNER_PLAYER_HUMAN", state[2]);
+            assertEquals("XXXOO....", state[5]);
+
+            first.send("MOVE " + gameId + " 8");
+            first.expect("ERROR");
+            first.send("FOLD");
+            assertEquals("ERROR Unknown request: FOLD", String.join(" ", first.expect("ERROR")));
+        }
+    }
+
+    @Test
+    void create_rejectsBoardsLargerThanTheLimit_andStateAnswersTheLastPush() throws IOException {
+        try (Client alice = new Client()) {
+            alice.send("CREATE Alice 65536 65536 5 RANDOM");
+            assertEquals("ERROR A board holds at most " + GameServer.MAX_NUMBER_OF_CELLS + " cells", String.join(" ", alice.expect("ERROR")));
+
+            alice.send("CREATE Alice 4 4 3 OPEN");
+            alice.expect("WAITING");
+            alice.send("CREATE Alice 3 3 3 LOOKUP_TABLE");
+            String gameId = alice.expect("STARTED")[1];
+            String[] pushed = alice.expect("STATE");
+            alice.send("STATE " + gameId);
+            assertArrayEquals(pushed, alice.expect("STATE"));
+        }
+    }
+
+    @Test
+    void create_rejectsInvalidBoardsBeforeAddingThePlayerOrOpeningALobby() throws IOException {
+        try (Client alice = new Client(); Client bob = new Client()) {
+            alice.send("CREATE Alice 0 3 3 OPEN");
+            assertEquals("ERROR numberOfRows and numberOfColumns must be positive", String.join(" ", alice.expect("ERROR")));
+            alice.send("CREATE Alice 3 -3 3 RANDOM");
+            assertEquals("ERROR numberOfRows and numberOfColumns must be positive", String.join(" ", alice.expect("ERROR")));
+            alice.send("CREATE Alice 3 3 4 OPEN");
+            assertEquals("ERROR winLength must be between 1 and the longer side of the board", String.join(" ", alice.expect("ERROR")));
+            alice.send("CREATE Alice 3 3 0 RANDOM");
+            alice.expect("ERROR");
+            alice.send("CREATE Alice 3 3 3 CONSOLE");
+            alice.expect("ERROR");
+            assertTrue(gameRepository.getPlayers().isEmpty());
+
+            alice.send("CREATE Alice 3 4 4 OPEN");
+            bob.send("JOIN " + alice.expect("WAITING")[1] + " Bob");
+            bob.expect("STARTED");
+            assertEquals(2, gameRepository.getPlayers().size());
+        }
+    }
+
+    @Test
+    void loadGenerator_holdsThousandsOfConnectionsPlayingAtOnce() throws Exception {
+        LoadTestResult result = new LoadGenerator(gameServer.getAddress(), 2_000, 3, 1, 3, MoveStrategyType.RANDOM)
+                .run(60, TimeUnit.SECONDS);
+
+        assertTrue(result.isCompleted());
+        assertEquals(0, result.getErrors());
+        assertEquals(6_000, result.getGames());
+        assertEquals(2_000, result.getPeakOpenConnections());
+        assertTrue(result.getMoves() >= 6_000);
+    }
+
+    private class Client implements AutoCloseable {
+        private final Socket socket;
+        private final BufferedReader input;
+        private final PrintWriter output;
+
+        private Client() throws IOException {
+            socket = new Socket(InetAddress.getLoopbackAddress(), gameServer.getAddress().getPort());
+            socket.setSoTimeout(5_000);
+            input = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+            output = new PrintWriter(socket.getOutputStream(), true);
+        }
+
+        private void send(String line) {
+            output.println(line);
+        }
+
+        private String[] expect(String type) throws IOException {
+            String line = input.readLine();
+            assertNotNull(line);
+            String[] arguments = line.split(" ");
+            assertEquals(type, arguments[0], line);
+            return arguments;
+        }
+
+        @Override
+        public void close() throws IOException {
+            socket.close();
+        }
+    }
+}
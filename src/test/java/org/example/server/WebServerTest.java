@@ -0,0 +1,204 @@
+package org.example.server;
+
+import org.example.controller.GameController;
+import org.example.repository.ConcurrentGameRepositoryImpl;
+import org.example.service.GameServiceImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.WebSocket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WebServerTest {
+    private static final Pattern CELL_INDEX = Pattern.compile("\"cellIndex\":(\\d+)");
+
+    WebServer webServer;
+    HttpClient httpClient;
+    String baseUri;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        webServer = new WebServer(new GameController(new GameServiceImpl(new ConcurrentGameRepositoryImpl())),
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 2);
+        httpClient = HttpClient.newHttpClient();
+        baseUri = "http://127.0.0.1:" + webServer.getAddress().getPort();
+    }
+
+    @AfterEach
+    void tearDown() {
+        webServer.close();
+    }
+
+    @Test
+    void browserClient_playsOverHttpAndFollowsBoardDiffsOverWebSocket() throws Exception {
+        HttpResponse<String> alice = post("/players", "{\"name\": \"Alice\", \"playerType\": \"HUMAN\"}");
+        assertEquals(201, alice.statusCode());
+        String aliceId = field(alice.body(), "id");
+        String computerId = field(post("/players", "{\"name\":\"Computer\",\"playerType\":\"COMPUTER\",\"moveStrategyType\":\"HEURISTIC\"}").body(), "id");
+
+        HttpResponse<String> created = post("/games", "{\"player1Id\":\"" + aliceId + "\",\"player2Id\":\"" + computerId
+                + "\",\"numberOfRows\":3,\"tossWinnerId\":\"" + aliceId + "\"}");
+        assertEquals(201, created.statusCode());
+        assertTrue(created.body().contains("\"cells\":\".........\""), created.body());
+        assertTrue(created.body().contains("\"winLength\":3"), created.body());
+        String gameId = field(created.body(), "id");
+
+        BlockingQueue<String> pushes = new LinkedBlockingQueue<>();
+        WebSocket webSocket = httpClient.newWebSocketBuilder()
+                .buildAsync(URI.create(baseUri.replace("http", "ws") + "/games/" + gameId + "/events"), new WebSocket.Listener() {
+                    @Override
+                    public CompletionStage<?> onText(WebSocket webSocket, CharSequence data, boolean last) {
+                        pushes.add(data.toString());
+                        webSocket.request(1);
+                        return null;
+                    }
+                }).get(5, TimeUnit.SECONDS);
+        String snapshot = pushes.poll(5, TimeUnit.SECONDS);
+        assertTrue(snapshot.startsWith("{\"type\":\"game\",\"id\":\"" + gameId + "\""), snapshot);
+        assertTrue(snapshot.contains("\"numberOfMoves\":0"), snapshot);
+
+        HttpResponse<String> moved = post("/games/" + gameId + "/moves", "{\"playerId\":\"" + aliceId + "\",\"cellIndex\":4}");
+        assertEquals(200, moved.statusCode(), moved.body());
+        assertTrue(moved.body().startsWith("{\"type\":\"moves\",\"gameId\":\"" + gameId + "\",\"from\":0,\"moves\":[{\"cellIndex\":4,\"symbol\":\"X\"},{"),
+                moved.body());
+        assertTrue(moved.body().contains("\"numberOfMoves\":2"), moved.body());
+        assertEquals(moved.body(), pushes.poll(5, TimeUnit.SECONDS));
+
+        HttpResponse<String> outOfTurn = post("/games/" + gameId + "/moves", "{\"playerId\":\"" + computerId + "\",\"cellIndex\":0}");
+        assertEquals(400, outOfTurn.statusCode());
+        assertTrue(outOfTurn.body().startsWith("{\"error\":\"Not your turn"), outOfTurn.body());
+
+        List<Integer> playedCells = cellIndices(moved.body());
+        int freeCell = 0;
+        while (playedCells.contains(freeCell)) {
+            freeCell++;
+        }
+        webSocket.sendText("{\"playerId\":\"" + aliceId + "\",\"cellIndex\":" + freeCell + "}", true).get(5, TimeUnit.SECONDS);
+        String diff = pushes.poll(5, TimeUnit.SECONDS);
+        assertTrue(diff.startsWith("{\"type\":\"moves\",\"gameId\":\"" + gameId + "\",\"from\":2,\"moves\":[{\"cellIndex\":" + freeCell + ",\"symbol\":\"X\"}"),
+                diff);
+
+        webSocket.sendText("{\"playerId\":\"" + aliceId + "\",\"cellIndex\":4}", true).get(5, TimeUnit.SECONDS);
+        assertTrue(pushes.poll(5, TimeUnit.SECONDS).startsWith("{\"error\":"));
+
+        HttpResponse<String> game = get("/games/" + gameId);
+        assertEquals(200, game.statusCode());
+        assertTrue(game.body().contains("\"numberOfMoves\":4"), game.body());
+        webSocket.sendClose(WebSocket.NORMAL_CLOSURE, "").get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void badRequests_areAnsweredWithJsonErrors() throws Exception {
+        assertEquals(404, get("/boards").statusCode());
+        assertEquals(405, get("/players").statusCode());
+        HttpResponse<String> malformed = post("/players", "{\"name\": \"Alice\"");
+        assertEquals(400, malformed.statusCode());
+        assertTrue(malformed.body().startsWith("{\"error\":\"Malformed JSON"), malformed.body());
+        HttpResponse<String> unknownPlayer = post("/toss", "{\"player1Id\":\"a\",\"player2Id\":\"b\"}");
+        assertEquals(400, unknownPlayer.statusCode());
+        assertEquals("{\"error\":\"Player id not found: a\"}", unknownPlayer.body());
+        assertEquals(400, get("/games/missing").statusCode());
+
+        String aliceId = field(post("/players", "{\"name\": \"Alice\", \"playerType\": \"HUMAN\"}").body(), "id");
+        String bobId = field(post("/players", "{\"name\": \"Bob\", \"playerType\": \"HUMAN\"}").body(), "id");
+        HttpResponse<String> hugeBoard = post("/games", "{\"player1Id\":\"" + aliceId + "\",\"player2Id\":\"" + bobId
+                + "\",\"numberOfRows\":65536,\"numberOfColumns\":65536,\"winLength\":5}");
+        assertEquals(400, hugeBoard.statusCode());
+        assertTrue(hugeBoard.body().startsWith("{\"error\":\"A board holds at most"), hugeBoard.body());
+    }
+
+    @Test
+    void startGame_rejectsAPlayerAlreadyInAnOngoingGame_andForgetsRemovedPlayers() throws Exception {
+        String aliceId = field(post("/players", "{\"name\": \"Alice\", \"playerType\": \"HUMAN\"}").body(), "id");
+        String bobId = field(post("/players", "{\"name\": \"Bob\", \"playerType\": \"HUMAN\"}").body(), "id");
+        String carolId = field(post("/players", "{\"name\": \"Carol\", \"playerType\": \"HUMAN\"}").body(), "id");
+        HttpResponse<String> first = post("/games", "{\"player1Id\":\"" + aliceId + "\",\"player2Id\":\"" + bobId
+                + "\",\"numberOfRows\":3,\"tossWinnerId\":\"" + aliceId + "\"}");
+        assertEquals(201, first.statusCode(), first.body());
+
+        HttpResponse<String> second = post("/games", "{\"player1Id\":\"" + carolId + "\",\"player2Id\":\"" + bobId
+                + "\",\"numberOfRows\":3,\"tossWinnerId\":\"" + carolId + "\"}");
+        assertEquals(400, second.statusCode());
+        assertEquals("{\"error\":\"Player is already in a game: " + bobId + "\"}", second.body());
+        HttpResponse<String> againstItself = post("/games", "{\"player1Id\":\"" + carolId + "\",\"player2Id\":\"" + carolId
+                + "\",\"numberOfRows\":3,\"tossWinnerId\":\"" + carolId + "\"}");
+        assertEquals(400, againstItself.statusCode());
+        // the first game still holds the marks it was started with
+        String gameId = field(first.body(), "id");
+        HttpResponse<String> moved = post("/games/" + gameId + "/moves", "{\"playerId\":\"" + aliceId + "\",\"cellIndex\":4}");
+        assertEquals(200, moved.statusCode(), moved.body());
+        assertTrue(moved.body().contains("{\"cellIndex\":4,\"symbol\":\"X\"}"), moved.body());
+
+        webServer.removePlayer(carolId);
+        HttpResponse<String> removed = post("/toss", "{\"player1Id\":\"" + carolId + "\",\"player2Id\":\"" + aliceId + "\"}");
+        assertEquals("{\"error\":\"Player id not found: " + carolId + "\"}", removed.body());
+    }
+
+    @Test
+    void metrics_areServedInThePrometheusTextFormat() throws Exception {
+        HttpResponse<String> metrics = get("/metrics");
+
+        assertEquals(200, metrics.statusCode());
+        assertTrue(metrics.headers().firstValue("Content-Type").orElse("").startsWith("text/plain; version=0.0.4"));
+        assertTrue(metrics.body().contains("# TYPE tictactoe_games_started_total counter\n"), metrics.body());
+    }
+
+    @Test
+    void jsonWriter_escapesWhatJsonReaderReadsBack() {
+        String name = "A \"quoted\"\\ name\n\u0001";
+        String json = new JsonWriter(8).beginObject()
+                .name("name").value(name)
+                .name("count").value(3)
+                .name("missing").value((String) null)
+                .endObject().toString();
+
+        assertEquals("{\"name\":\"A \\\"quoted\\\"\\\\ name\\n\\u0001\",\"count\":3,\"missing\":null}", json);
+        Map<String, String> members = JsonReader.parseObject(json);
+        assertEquals(name, members.get("name"));
+        assertEquals(3, JsonReader.getRequiredInt(members, "count"));
+        assertFalse(members.containsKey("missing"));
+        assertThrows(IllegalArgumentException.class, () -> JsonReader.parseObject("{\"moves\": [1]}"));
+    }
+
+    private HttpResponse<String> post(String path, String body) throws IOException, InterruptedException {
+        return httpClient.send(HttpRequest.newBuilder(URI.create(baseUri + path)).POST(HttpRequest.BodyPublishers.ofString(body)).build(),
+                HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpResponse<String> get(String path) throws IOException, InterruptedException {
+        return httpClient.send(HttpRequest.newBuilder(URI.create(baseUri + path)).GET().build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static String field(String json, String name) {
+        Matcher matcher = Pattern.compile("\"" + name + "\":\"([^\"]*)\"").matcher(json);
+        assertTrue(matcher.find(), json);
+        return matcher.group(1);
+    }
+
+    private static List<Integer> cellIndices(String json) {
+        List<Integer> cellIndices = new ArrayList<>();
+        Matcher matcher = CELL_INDEX.matcher(json);
+        while (matcher.find()) {
+            cellIndices.add(Integer.parseInt(matcher.group(1)));
+        }
+        return cellIndices;
+    }
+}
@@ -0,0 +1,165 @@
+package org.example.service;
+
+import org.example.controller.GameController;
+import org.example.exception.UserException;
+import org.example.model.*;
+import org.example.repository.ConcurrentGameRepositoryImpl;
+import org.example.strategy.MoveStrategyRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameHostTest {
+    ExecutorService executor;
+    ConcurrentGameRepositoryImpl gameRepository;
+    GameService gameService;
+    GameController gameController;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newFixedThreadPool(4);
+        gameRepository = new ConcurrentGameRepositoryImpl();
+        gameService = new GameServiceImpl(gameRepository);
+        gameController = new GameController(gameService, new GameHost(gameService, executor));
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    private Game newGame(PlayerType firstPlayerType, MoveStrategyType secondPlayerStrategy) {
+        Player player1 = gameController.addPlayer("Player", firstPlayerType);
+        Player player2 = gameController.addPlayer("Computer", PlayerType.COMPUTER, secondPlayerStrategy);
+        Player tossWinner = firstPlayerType == PlayerType.HUMAN ? player1 : player2;
+        return gameController.initialiseGame(player1, player2, 3, tossWinner);
+    }
+
+    @Test
+    void hostGame_playsComputerOnlyGameToTheEnd() {
+        Game game = newGame(PlayerType.COMPUTER, MoveStrategyType.LOOKUP_TABLE);
+
+        gameController.hostGame(game.getId());
+
+        Game result = gameController.awaitResult(game.getId(), 5, TimeUnit.SECONDS);
+        assertEquals(GameState.DRAW, result.getGameState());
+    }
+
+    @Test
+    void submitMove_rejectsCapturedCellAndKeepsGameGoing() throws Exception {
+        Game game = newGame(PlayerType.HUMAN, MoveStrategyType.LOOKUP_TABLE);
+        gameController.hostGame(game.getId());
+        Game afterReply = gameController.submitMove(game.getId(), 0).get(5, TimeUnit.SECONDS);
+        assertEquals(2, afterReply.getMoves().size());
+
+        CompletableFuture<Game> rejected = gameController.submitMove(game.getId(), 0);
+
+        ExecutionException exception = assertThrows(ExecutionException.class, () -> rejected.get(5, TimeUnit.SECONDS));
+        assertTrue(exception.getCause() instanceof IllegalArgumentException);
+        assertEquals(GameState.ONGOING, gameService.getGameFromId(game.getId()).getGameState());
+    }
+
+    @Test
+    void submitMove_toAGameRemovedFromTheRepository_failsTheMoveAndTheResult() throws Exception {
+        Queue<Runnable> tasks = new ArrayDeque<>();
+        GameHost gameHost = new GameHost(gameService, tasks::add);
+        Game game = newGame(PlayerType.HUMAN, MoveStrategyType.LOOKUP_TABLE);
+        CompletableFuture<Game> result = gameHost.startGame(game.getId());
+        CompletableFuture<Game> applied = gameHost.submitMove(game.getId(), 0);
+        runTasks(tasks);
+        assertTrue(applied.isDone());
+        gameRepository.removeGame(game.getId());
+
+        CompletableFuture<Game> rejected = gameHost.submitMove(game.getId(), 1);
+        runTasks(tasks);
+
+        ExecutionException exception = assertThrows(ExecutionException.class, () -> rejected.get(0, TimeUnit.SECONDS));
+        assertTrue(exception.getCause() instanceof UserException);
+        assertTrue(result.isCompletedExceptionally());
+        assertEquals(0, gameHost.getNumberOfHostedGames());
+        assertThrows(UserException.class, () -> gameHost.submitMove(game.getId(), 2));
+    }
+
+    @Test
+    void submitMove_whoseEngineReplyFails_completesTheMoveAndFailsTheHostedGame() throws Exception {
+        GameService failingEngineService = new GameServiceImpl(gameRepository, MoveStrategyRegistry.withDefaults()
+                .register(MoveStrategyType.RANDOM, (game, player) -> {
+                    throw new IOException("engine unavailable");
+                }));
+        Queue<Runnable> tasks = new ArrayDeque<>();
+        GameHost gameHost = new GameHost(failingEngineService, tasks::add);
+        Game game = newGame(PlayerType.HUMAN, MoveStrategyType.RANDOM);
+        List<Game> notified = new ArrayList<>();
+        CompletableFuture<Game> result = gameHost.startGame(game.getId(), notified::add);
+        CompletableFuture<Game> applied = gameHost.submitMove(game.getId(), 4);
+        CompletableFuture<Game> queued = gameHost.submitMove(game.getId(), 0);
+
+        runTasks(tasks);
+
+        assertEquals(1, applied.get(0, TimeUnit.SECONDS).getMoves().size());
+        assertEquals(2, notified.size());
+        assertTrue(queued.isCompletedExceptionally());
+        ExecutionException exception = assertThrows(ExecutionException.class, () -> result.get(0, TimeUnit.SECONDS));
+        assertTrue(exception.getCause() instanceof IOException);
+        assertEquals(0, gameHost.getNumberOfHostedGames());
+    }
+
+    /**
+     * Runs the host's drains on this thread, failing if they keep rescheduling themselves
+     */
+    private static void runTasks(Queue<Runnable> tasks) {
+        for (int run = 0; !tasks.isEmpty(); run++) {
+            assertTrue(run < 10, "drain keeps rescheduling itself");
+            tasks.poll().run();
+        }
+    }
+
+    @Test
+    void hostGame_runsThousandsOfIdleGamesOnAFewThreads() throws Exception {
+        int numberOfGames = 5000;
+        List<Game> games = new ArrayList<>();
+        for (int index = 0; index < numberOfGames; index++) {
+            Game game = newGame(PlayerType.HUMAN, MoveStrategyType.RANDOM);
+            gameController.hostGame(game.getId());
+            games.add(game);
+        }
+
+        // every human won the toss, so each game waits for its human; play them all, one move per game per round
+        boolean anyOngoing = true;
+        while (anyOngoing) {
+            anyOngoing = false;
+            List<CompletableFuture<Game>> round = new ArrayList<>();
+            for (Game game : games) {
+                Game current = gameService.getGameFromId(game.getId());
+                if (current.getGameState() == GameState.ONGOING) {
+                    round.add(gameController.submitMove(game.getId(), firstEmptyCell(current)));
+                    anyOngoing = true;
+                }
+            }
+            CompletableFuture.allOf(round.toArray(new CompletableFuture[0])).get(30, TimeUnit.SECONDS);
+        }
+
+        for (Game game : games) {
+            assertNotEquals(GameState.ONGOING, gameController.awaitResult(game.getId(), 5, TimeUnit.SECONDS).getGameState());
+        }
+    }
+
+    private static int firstEmptyCell(Game game) {
+        Board board = game.getBoard();
+        for (int cell = 0; cell < 9; cell++) {
+            if (board.getCellValue(cell / 3, cell % 3) == CellValue.EMPTY) {
+                return cell;
+            }
+        }
+        return -1;
+    }
+}
@@ -1,7 +1,13 @@
 package org.example.service;
 
+import org.example.metrics.GameMetrics;
 import org.example.model.*;
+import org.example.repository.ConcurrentGameRepositoryImpl;
 import org.example.repository.GameRepository;
+import org.example.repository.GameRepositoryImpl;
+import org.example.strategy.MoveStrategy;
+import org.example.strategy.MoveStrategyRegistry;
+import org.example.strategy.PositionCache;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
@@ -68,6 +74,20 @@ class GameServiceImplTest {
         verifyNoInteractions(mockRepo);
     }
 
+    @Test
+    void conductTossToDecideTurnOrder() {
+        List<Player> players = Arrays.asList(
+                Player.builder().name("Player1").playerType(PlayerType.HUMAN).build(),
+                Player.builder().name("Player2").playerType(PlayerType.COMPUTER).build(),
+                Player.builder().name("Player3").playerType(PlayerType.COMPUTER).build());
+
+        List<Player> playersInTurnOrder = gameService.conductTossToDecideTurnOrder(players);
+
+        assertEquals(3, playersInTurnOrder.size());
+        assertTrue(playersInTurnOrder.containsAll(players));
+        assertEquals("Player1", players.get(0).getName());
+        verifyNoInteractions(mockRepo);
+    }
 
     @Test
     void startGameFromId_throwsIllegalArgumentException() throws IOException {
@@ -99,12 +119,6 @@ class GameServiceImplTest {
 
         when(mockGame.getBoard()).thenReturn(mockBoard);
         when(mockBoard.getNumberOfCellsPerRow()).thenReturn(3);
-        CellValue[][] cellValues = {
-                {CellValue.X, CellValue.O, CellValue.EMPTY},
-                {CellValue.EMPTY, CellValue.X, CellValue.O},
-                {CellValue.O, CellValue.EMPTY, CellValue.X}
-        };
-        when(mockBoard.getCellValues()).thenReturn(cellValues);
         when(mockRepo.getBoardFromGame(mockGame)).thenReturn(mockBoard);
 
         Move mockMove = mock(Move.class);
@@ -116,7 +130,7 @@ class GameServiceImplTest {
         doNothing().when(gameService).printBoard(any(Game.class));
 
         // Stubbing getCurrentPlayerPosition to return an invalid position to trigger IllegalArgumentException
-        doReturn("invalid").when(gameService).getCurrentPlayerPosition(any(Player.class), any(Game.class));
+        doReturn(-1).when(gameService).getCurrentPlayerPosition(any(Player.class), any(Game.class));
 
         // Asserting that IllegalArgumentException is thrown
         assertThrows(IllegalArgumentException.class, () -> {
@@ -148,20 +162,181 @@ class GameServiceImplTest {
     @Test
     void printBoard() {
         Game mockGame = mock(Game.class);
-        Board mockBoard = mock(Board.class);
-        when(mockGame.getBoard()).thenReturn(mockBoard);
-        when(mockRepo.getBoardFromGame(mockGame)).thenReturn(mockBoard);
-        when(mockBoard.getNumberOfCellsPerRow()).thenReturn(3);
+        Board board = Board.builder().cells(BoardCells.forSize(3)).numberOfRows(3).numberOfCellsPerRow(3).winLength(3).build();
         CellValue[][] cellValues = {
                 {CellValue.X, CellValue.O, CellValue.EMPTY},
                 {CellValue.EMPTY, CellValue.X, CellValue.O},
                 {CellValue.O, CellValue.EMPTY, CellValue.X}
         };
-        when(mockBoard.getCellValues()).thenReturn(cellValues);
+        for (int row = 0; row < 3; row++) {
+            for (int col = 0; col < 3; col++) {
+                board.setCellValue(row, col, cellValues[row][col]);
+            }
+        }
+        when(mockGame.getBoard()).thenReturn(board);
+        when(mockRepo.getBoardFromGame(mockGame)).thenReturn(board);
 
         gameService.printBoard(mockGame);
 
         verify(mockRepo, times(1)).getBoardFromGame(mockGame);
     }
 
+    @Test
+    void playMove_onGomokuBoard_winsWithFiveOnAnyDiagonal() {
+        GameServiceImpl service = new GameServiceImpl(new GameRepositoryImpl());
+        Player human = service.addPlayer("Alice", PlayerType.HUMAN, MoveStrategyType.CONSOLE);
+        Player computer = service.addPlayer("Bob", PlayerType.COMPUTER, MoveStrategyType.CONSOLE);
+        Game game = service.initialiseGame(human, computer, 15, 15, 5, human);
+
+        int[] xCells = {7 * 15 + 3, 6 * 15 + 4, 5 * 15 + 5, 4 * 15 + 6, 3 * 15 + 7};
+        for (int index = 0; index < xCells.length; index++) {
+            assertEquals(GameState.ONGOING, game.getGameState());
+            service.playMove(game.getId(), xCells[index]);
+            if (index < xCells.length - 1) {
+                service.playMove(game.getId(), 14 * 15 + index);
+            }
+        }
+
+        assertEquals(GameState.WINNER_PLAYER_HUMAN, game.getGameState());
+        assertEquals(human, game.getWinner());
+        assertNull(game.getWinTracker());
+    }
+
+    @Test
+    void playMove_onRectangularBoard_drawsWhenEveryCellIsPlayed() {
+        GameServiceImpl service = new GameServiceImpl(new GameRepositoryImpl());
+        Player human = service.addPlayer("Alice", PlayerType.HUMAN, MoveStrategyType.CONSOLE);
+        Player computer = service.addPlayer("Bob", PlayerType.COMPUTER, MoveStrategyType.CONSOLE);
+        Game game = service.initialiseGame(human, computer, 2, 3, 3, human);
+
+        // X O X / O X O: no three in a row on a 2 x 3 board
+        for (int cell : new int[]{0, 1, 2, 3, 4, 5}) {
+            service.playMove(game.getId(), cell);
+        }
+
+        assertEquals(GameState.DRAW, game.getGameState());
+        assertThrows(IllegalArgumentException.class, () -> service.initialiseGame(human, computer, 2, 3, 4, human));
+    }
+
+    @Test
+    void playMove_withThreePlayers_takesTurnsWithOneSymbolEach() {
+        GameServiceImpl service = new GameServiceImpl(new GameRepositoryImpl());
+        Player alice = service.addPlayer("Alice", PlayerType.HUMAN, MoveStrategyType.CONSOLE);
+        Player bob = service.addPlayer("Bob", PlayerType.COMPUTER, MoveStrategyType.CONSOLE);
+        Player carol = service.addPlayer("Carol", PlayerType.COMPUTER, MoveStrategyType.CONSOLE);
+        Game game = service.initialiseGame(Arrays.asList(bob, carol, alice), 4, 4, 3);
+
+        // Bob, Carol and Alice fill rows 0, 1 and 2 in turn, Bob completes his row first
+        for (int cell : new int[]{0, 4, 8, 1, 5, 9}) {
+            service.playMove(game.getId(), cell);
+        }
+        assertEquals(GameState.ONGOING, game.getGameState());
+        service.playMove(game.getId(), 2);
+
+        assertEquals(0, bob.getSymbol());
+        assertEquals(1, carol.getSymbol());
+        assertEquals(2, alice.getSymbol());
+        assertEquals(2, game.getBoard().getSymbol(2, 1));
+        assertEquals(bob, game.getWinner());
+        assertEquals(GameState.WINNER_PLAYER_COMPUTER, game.getGameState());
+    }
+
+    @Test
+    void playMoves_looksUpAndWritesEachGameOnce_andRejectsMovesAfterARejectedOne() {
+        GameRepository repository = Mockito.spy(new ConcurrentGameRepositoryImpl());
+        GameServiceImpl service = new GameServiceImpl(repository);
+        Player human = service.addPlayer("Alice", PlayerType.HUMAN, MoveStrategyType.CONSOLE);
+        Player computer = service.addPlayer("Bob", PlayerType.COMPUTER, MoveStrategyType.CONSOLE);
+        Game firstGame = service.initialiseGame(human, computer, 3, human);
+        Game secondGame = service.initialiseGame(human, computer, 3, computer);
+
+        // X wins the first game with its third move, so the move after it is rejected; the second game repeats a cell
+        List<MoveResult> moveResults = service.playMoves(Arrays.asList(
+                new MoveRequest(firstGame.getId(), null, 0),
+                new MoveRequest(secondGame.getId(), computer.getId(), 4),
+                new MoveRequest(firstGame.getId(), null, 3),
+                new MoveRequest(secondGame.getId(), human.getId(), 4),
+                new MoveRequest(firstGame.getId(), null, 1),
+                new MoveRequest(secondGame.getId(), human.getId(), 0),
+                new MoveRequest(firstGame.getId(), null, 4),
+                new MoveRequest(firstGame.getId(), null, 2),
+                new MoveRequest(firstGame.getId(), null, 8),
+                new MoveRequest("unknown", null, 0)));
+
+        assertEquals(10, moveResults.size());
+        assertTrue(moveResults.subList(0, 3).stream().allMatch(MoveResult::isApplied));
+        assertEquals("Input position entered is already captured", moveResults.get(3).getError());
+        assertFalse(moveResults.get(5).isApplied());
+        assertEquals(GameState.WINNER_PLAYER_HUMAN, moveResults.get(7).getGameState());
+        assertEquals("Game is already over: " + firstGame.getId(), moveResults.get(8).getError());
+        assertEquals("Game id not found: unknown", moveResults.get(9).getError());
+
+        assertEquals(human, firstGame.getWinner());
+        assertEquals(5, firstGame.getMoveHistory().size());
+        assertEquals(1, secondGame.getMoveHistory().size());
+        assertEquals(human, secondGame.getPlayers().get(secondGame.getCurrentPlayerIndex()));
+        verify(repository, times(1)).getGameFromId(firstGame.getId());
+        verify(repository, times(1)).getGameFromId(secondGame.getId());
+        verify(repository, times(2)).addMovesToMovesList(any(Game.class), anyList());
+        verify(repository, never()).addMoveToMovesList(anyString(), any(Move.class));
+    }
+
+    @Test
+    void undoLastMove_withThreePlayers_givesTheTurnBack() {
+        GameServiceImpl service = new GameServiceImpl(new GameRepositoryImpl());
+        Player alice = service.addPlayer("Alice", PlayerType.HUMAN, MoveStrategyType.CONSOLE);
+        Player bob = service.addPlayer("Bob", PlayerType.COMPUTER, MoveStrategyType.CONSOLE);
+        Player carol = service.addPlayer("Carol", PlayerType.COMPUTER, MoveStrategyType.CONSOLE);
+        Game game = service.initialiseGame(Arrays.asList(alice, bob, carol), 3, 3, 3);
+
+        service.playMove(game.getId(), 0);
+        service.playMove(game.getId(), 4);
+        service.playMove(game.getId(), 8);
+        service.undoLastMove(game.getId());
+
+        assertEquals(CellValue.EMPTY_SYMBOL, game.getBoard().getSymbol(2, 2));
+        assertEquals(2, game.getMoveHistory().getNextPlayerIndex());
+        service.playMove(game.getId(), 2);
+        assertEquals(2, game.getBoard().getSymbol(0, 2));
+    }
+
+    @Test
+    void getCurrentPlayerPosition_servesRotatedPositionsFromThePositionCache() throws IOException {
+        MoveStrategy cornerStrategy = Mockito.mock(MoveStrategy.class);
+        when(cornerStrategy.isCacheable()).thenReturn(true);
+        // O answers X's first corner with the opposite corner
+        when(cornerStrategy.chooseScoredMove(any(Game.class), any(Player.class))).thenReturn(PositionCache.entry(8, 0));
+        GameServiceImpl service = new GameServiceImpl(new GameRepositoryImpl(),
+                MoveStrategyRegistry.withDefaults().register(MoveStrategyType.MINIMAX, cornerStrategy), GameMetrics.get(), new PositionCache(64));
+        Player human = service.addPlayer("Alice", PlayerType.HUMAN, MoveStrategyType.CONSOLE);
+        Player computer = service.addPlayer("Bob", PlayerType.COMPUTER, MoveStrategyType.MINIMAX);
+
+        Game firstGame = service.initialiseGame(human, computer, 3, human);
+        service.playMove(firstGame.getId(), 0);
+        assertEquals(8, service.getCurrentPlayerPosition(computer, firstGame));
+        Game rotatedGame = service.initialiseGame(human, computer, 3, human);
+        service.playMove(rotatedGame.getId(), 2);
+        assertEquals(6, service.getCurrentPlayerPosition(computer, rotatedGame));
+
+        verify(cornerStrategy, times(1)).chooseScoredMove(any(Game.class), any(Player.class));
+    }
+
+    @Test
+    void getCurrentPlayerPosition_keepsUnscoredMovesOutOfThePositionCache() throws IOException {
+        MoveStrategy guessingStrategy = Mockito.mock(MoveStrategy.class);
+        when(guessingStrategy.isCacheable()).thenReturn(true);
+        when(guessingStrategy.chooseScoredMove(any(Game.class), any(Player.class))).thenReturn(PositionCache.entry(8, PositionCache.UNSCORED));
+        GameServiceImpl service = new GameServiceImpl(new GameRepositoryImpl(),
+                MoveStrategyRegistry.withDefaults().register(MoveStrategyType.MINIMAX, guessingStrategy), GameMetrics.get(), new PositionCache(64));
+        Player human = service.addPlayer("Alice", PlayerType.HUMAN, MoveStrategyType.CONSOLE);
+        Player computer = service.addPlayer("Bob", PlayerType.COMPUTER, MoveStrategyType.MINIMAX);
+
+        for (int round = 0; round < 2; round++) {
+            Game game = service.initialiseGame(human, computer, 3, human);
+            service.playMove(game.getId(), 0);
+            assertEquals(8, service.getCurrentPlayerPosition(computer, game));
+        }
+
+        verify(guessingStrategy, times(2)).chooseScoredMove(any(Game.class), any(Player.class));
+    }
 }
@@ -0,0 +1,48 @@
+package org.example.service;
+
+import org.example.model.MoveStrategyType;
+import org.example.model.SimulationResult;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SelfPlaySimulatorTest {
+    private final SelfPlaySimulator selfPlaySimulator = new SelfPlaySimulator();
+
+    @Test
+    void simulate_perfectPlayOn3x3_alwaysDraws() {
+        SimulationResult result = selfPlaySimulator.simulate(MoveStrategyType.LOOKUP_TABLE, MoveStrategyType.LOOKUP_TABLE, 3, 10_000);
+
+        assertEquals(10_000, result.getDraws());
+        assertEquals(0, result.getStrategyType1Wins() + result.getStrategyType2Wins());
+    }
+
+    @Test
+    void simulate_perfectPlayAgainstRandom_neverLoses() {
+        SimulationResult result = selfPlaySimulator.simulate(MoveStrategyType.LOOKUP_TABLE, MoveStrategyType.RANDOM, 3, 20_000);
+
+        assertEquals(0, result.getStrategyType2Wins());
+        assertTrue(result.getStrategyType1Wins() > result.getDraws());
+    }
+
+    @Test
+    void simulate_everyPairingAndBoardSize_countsEveryGame() {
+        List<SimulationResult> results = selfPlaySimulator.simulate(
+                Arrays.asList(MoveStrategyType.RANDOM, MoveStrategyType.HEURISTIC), Arrays.asList(3, 4), 1_000);
+
+        assertEquals(6, results.size());
+        for (SimulationResult result : results) {
+            assertEquals(1_000, result.getStrategyType1Wins() + result.getStrategyType2Wins() + result.getDraws());
+        }
+    }
+
+    @Test
+    void simulate_consoleStrategy_isRejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> selfPlaySimulator.simulate(Collections.singletonList(MoveStrategyType.CONSOLE), Collections.singletonList(3), 1));
+    }
+}
@@ -0,0 +1,85 @@
+package org.example.strategy;
+
+import org.example.model.Board;
+import org.example.model.BoardCells;
+import org.example.model.CellValue;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MonteCarloTreeSearchTest {
+    private final MonteCarloTreeSearch monteCarloTreeSearch = new MonteCarloTreeSearch(50, TimeUnit.MILLISECONDS, 2);
+
+    private static Board board(int numberOfRows, int numberOfCellsPerRow, int winLength, int numberOfPlayers, String marks) {
+        Board board = Board.builder()
+                .cells(BoardCells.forShape(numberOfRows, numberOfCellsPerRow, winLength, numberOfPlayers))
+                .numberOfRows(numberOfRows)
+                .numberOfCellsPerRow(numberOfCellsPerRow)
+                .winLength(winLength)
+                .build();
+        for (int cell = 0; cell < marks.length(); cell++) {
+            char mark = marks.charAt(cell);
+            if (mark != '.') {
+                board.setSymbol(cell / numberOfCellsPerRow, cell % numberOfCellsPerRow, "XOA".indexOf(mark));
+            }
+        }
+        return board;
+    }
+
+    @Test
+    void findBestMove_takesWinBeforeBlocking() {
+        Board board = board(3, 3, 3, 2, "XX." + "OO." + "...");
+        assertEquals(2, monteCarloTreeSearch.findBestMove(board, 0, 2));
+        assertEquals(5, monteCarloTreeSearch.findBestMove(board, 1, 2));
+    }
+
+    @Test
+    void findBestMove_onGomokuBoard_blocksAFour() {
+        Board board = board(15, 15, 5, 2, ".".repeat(15 * 7) + "...XOOOO......." + ".".repeat(15 * 7));
+        assertEquals(15 * 7 + 8, monteCarloTreeSearch.findBestMove(board, 0, 2));
+    }
+
+    @Test
+    void playsAgainstRandomMoves_withTreeReuse_withoutLosing() {
+        for (int game = 0; game < 3; game++) {
+            Board board = board(3, 3, 3, 2, ".........");
+            String gameId = "game-" + game;
+            int winner = CellValue.EMPTY_SYMBOL;
+            for (int turn = 0; turn < 9 && winner == CellValue.EMPTY_SYMBOL; turn++) {
+                int symbol = turn % 2;
+                int cell = symbol == 0 ? monteCarloTreeSearch.findBestMove(gameId, board, symbol, 2) : randomEmptyCell(board);
+                assertEquals(CellValue.EMPTY_SYMBOL, board.getSymbol(cell / 3, cell % 3));
+                if (board.completesLine(cell / 3, cell % 3, symbol)) {
+                    winner = symbol;
+                }
+                board.setSymbol(cell / 3, cell % 3, symbol);
+            }
+            assertNotEquals(1, winner);
+        }
+    }
+
+    @Test
+    void findBestMove_withThreePlayers_blocksTheNextPlayer() {
+        Board board = board(4, 4, 3, 3, "X..." + ".AAX" + "O..." + "....");
+        // O to move cannot win, A moves next and would complete its row
+        assertEquals(4, new MonteCarloTreeSearch(50, TimeUnit.MILLISECONDS, 1).findBestMove(board, 1, 3));
+    }
+
+    @Test
+    void findBestMove_onFullOrAlmostFullBoard_needsNoSearch() {
+        assertEquals(-1, monteCarloTreeSearch.findBestMove(board(2, 2, 2, 2, "XOOX"), 0, 2));
+        assertEquals(3, monteCarloTreeSearch.findBestMove(board(2, 2, 2, 2, "XOO."), 1, 2));
+    }
+
+    private static int randomEmptyCell(Board board) {
+        while (true) {
+            int cell = ThreadLocalRandom.current().nextInt(board.getNumberOfCells());
+            if (board.getSymbol(cell / board.getNumberOfCellsPerRow(), cell % board.getNumberOfCellsPerRow()) == CellValue.EMPTY_SYMBOL) {
+                return cell;
+            }
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package org.example.strategy;
+
+import org.example.model.Board;
+import org.example.model.BoardCells;
+import org.example.model.CellValue;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NegamaxSearchTest {
+    private final NegamaxSearch negamaxSearch = new NegamaxSearch();
+
+    private static Board board(int numberOfCellsPerRow, String marks) {
+        return board(numberOfCellsPerRow, numberOfCellsPerRow, numberOfCellsPerRow, marks);
+    }
+
+    private static Board board(int numberOfRows, int numberOfCellsPerRow, int winLength, String marks) {
+        Board board = Board.builder()
+                .cells(BoardCells.forShape(numberOfRows, numberOfCellsPerRow, winLength))
+                .numberOfRows(numberOfRows)
+                .numberOfCellsPerRow(numberOfCellsPerRow)
+                .winLength(winLength)
+                .build();
+        for (int cell = 0; cell < marks.length(); cell++) {
+            char mark = marks.charAt(cell);
+            if (mark != '.') {
+                board.setCellValue(cell / numberOfCellsPerRow, cell % numberOfCellsPerRow, mark == 'X' ? CellValue.X : CellValue.O);
+            }
+        }
+        return board;
+    }
+
+    @Test
+    void findBestMove_takesWinBeforeBlocking() {
+        Board board = board(3, "XX." + "OO." + "...");
+        assertEquals(2, negamaxSearch.findBestMove(board, CellValue.X));
+        assertEquals(5, negamaxSearch.findBestMove(board, CellValue.O));
+    }
+
+    @Test
+    void findBestMove_blocksForkSetup() {
+        // X holds opposite corners, O must take an edge rather than a corner to avoid a fork
+        Board board = board(3, "X..." + "O..." + "X");
+        int move = negamaxSearch.findBestMove(board, CellValue.O);
+        assertTrue(move == 1 || move == 3 || move == 5 || move == 7, "expected an edge but got " + move);
+    }
+
+    @Test
+    void selfPlay_on3x3_isAlwaysADraw() {
+        Board board = board(3, ".........");
+        CellValue cellValue = CellValue.X;
+        for (int turn = 0; turn < 9; turn++) {
+            int cell = negamaxSearch.findBestMove(board, cellValue);
+            board.setCellValue(cell / 3, cell % 3, cellValue);
+            assertFalse(board.completesLine(cell / 3, cell % 3, cellValue), "no side should win with perfect play");
+            cellValue = cellValue == CellValue.X ? CellValue.O : CellValue.X;
+        }
+        assertEquals(-1, negamaxSearch.findBestMove(board, cellValue));
+    }
+
+    @Test
+    void findBestMove_withWinLength_completesAndBlocksShortDiagonals() {
+        // 4 rows by 6 columns, 3 in a row wins: X threatens the diagonal 1, 8, 15 which is not a main diagonal
+        Board board = board(4, 6, 3, ".X...." + "..X..." + "......" + "O....O");
+        assertEquals(15, negamaxSearch.findBestMove(board, CellValue.X));
+        assertEquals(15, negamaxSearch.findBestMove(board, CellValue.O));
+    }
+
+    @Test
+    void findBestScoredMove_scoresOnlySolvedPositions() {
+        assertEquals(0, PositionCache.score(negamaxSearch.findBestScoredMove(board(3, "........."), CellValue.X.getSymbol())));
+        NegamaxSearch outOfTime = new NegamaxSearch(1, TimeUnit.MICROSECONDS);
+        long scoredMove = outOfTime.findBestScoredMove(board(7, ""), CellValue.X.getSymbol());
+        assertNotEquals(-1, PositionCache.move(scoredMove));
+        assertEquals(PositionCache.UNSCORED, PositionCache.score(scoredMove), "a search cut short by its budget has not solved the position");
+    }
+
+    @Test
+    void findBestScoredMove_keepsTheTableEntriesOfShapesWithTheSameNumberOfCellsApart() {
+        Board threeInARow = board(3, 3, 3, ".........");
+        Board twoInARow = board(3, 3, 2, ".........");
+        long fresh = new NegamaxSearch().findBestScoredMove(twoInARow, CellValue.X.getSymbol());
+
+        negamaxSearch.findBestScoredMove(threeInARow, CellValue.X.getSymbol());
+        long afterAnotherShape = negamaxSearch.findBestScoredMove(twoInARow, CellValue.X.getSymbol());
+
+        assertTrue(PositionCache.score(fresh) > 0, "two in a row on 3x3 is a forced win");
+        assertEquals(PositionCache.score(fresh), PositionCache.score(afterAnotherShape));
+    }
+
+    @Test
+    void findBestMove_onLargeBoard_returnsWithinBudget() {
+        NegamaxSearch quickSearch = new NegamaxSearch(20, TimeUnit.MILLISECONDS);
+        Board board = board(15, "");
+        long start = System.nanoTime();
+        int move = quickSearch.findBestMove(board, CellValue.X);
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertTrue(move >= 0 && move < 225);
+        assertTrue(elapsedMillis < 1000, "search took " + elapsedMillis + "ms");
+    }
+}
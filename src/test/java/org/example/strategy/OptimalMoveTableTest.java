@@ -0,0 +1,87 @@
+package org.example.strategy;
+
+import org.example.model.Board;
+import org.example.model.BoardCells;
+import org.example.model.CellValue;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OptimalMoveTableTest {
+
+    @Test
+    void getBestMove_blocksOpponentLines() {
+        Board board = Board.builder().cells(BoardCells.forSize(3)).numberOfRows(3).numberOfCellsPerRow(3).winLength(3).build();
+        board.setCellValue(0, 0, CellValue.X);
+        board.setCellValue(1, 1, CellValue.O);
+        board.setCellValue(0, 1, CellValue.X);
+
+        assertEquals(2, OptimalMoveTable.getBestMove(board));
+
+        board.setCellValue(0, 2, CellValue.O);
+        assertEquals(6, OptimalMoveTable.getBestMove(board));
+    }
+
+    @Test
+    void tablePlayer_neverLosesAgainstAnyReplies() {
+        assertEquals(0, losses(new int[9], 1, 1));
+        assertEquals(0, losses(new int[9], 1, 2));
+    }
+
+    /**
+     * Plays the table for tableMark against every possible reply of the other player
+     * @return number of lines of play the table player loses
+     */
+    private static int losses(int[] cells, int mark, int tableMark) {
+        int index = 0;
+        for (int cell = 8; cell >= 0; cell--) {
+            index = index * 3 + cells[cell];
+        }
+        int losses = 0;
+        if (mark == tableMark) {
+            int move = OptimalMoveTable.getBestMove(index);
+            assertTrue(move >= 0 && cells[move] == 0, "table returned an invalid move for position " + index);
+            losses += play(cells, move, mark, tableMark);
+        } else {
+            for (int cell = 0; cell < 9; cell++) {
+                if (cells[cell] == 0) {
+                    losses += play(cells, cell, mark, tableMark);
+                }
+            }
+        }
+        return losses;
+    }
+
+    private static int play(int[] cells, int cell, int mark, int tableMark) {
+        cells[cell] = mark;
+        int losses;
+        if (isWinner(cells, mark)) {
+            losses = mark == tableMark ? 0 : 1;
+        } else if (isFull(cells)) {
+            losses = 0;
+        } else {
+            losses = losses(cells, 3 - mark, tableMark);
+        }
+        cells[cell] = 0;
+        return losses;
+    }
+
+    private static boolean isWinner(int[] cells, int mark) {
+        int[][] lines = {{0, 1, 2}, {3, 4, 5}, {6, 7, 8}, {0, 3, 6}, {1, 4, 7}, {2, 5, 8}, {0, 4, 8}, {2, 4, 6}};
+        for (int[] line : lines) {
+            if (cells[line[0]] == mark && cells[line[1]] == mark && cells[line[2]] == mark) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isFull(int[] cells) {
+        for (int cell : cells) {
+            if (cell == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
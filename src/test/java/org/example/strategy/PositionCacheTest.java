@@ -0,0 +1,118 @@
+package org.example.strategy;
+
+import org.example.model.Board;
+import org.example.model.BoardCells;
+import org.example.model.MoveStrategyType;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PositionCacheTest {
+
+    private static Board board(int numberOfCellsPerRow, String marks) {
+        Board board = Board.builder()
+                .cells(BoardCells.forSize(numberOfCellsPerRow))
+                .numberOfRows(numberOfCellsPerRow)
+                .numberOfCellsPerRow(numberOfCellsPerRow)
+                .winLength(numberOfCellsPerRow)
+                .build();
+        for (int cell = 0; cell < marks.length(); cell++) {
+            char mark = marks.charAt(cell);
+            if (mark != '.') {
+                board.setSymbol(cell / numberOfCellsPerRow, cell % numberOfCellsPerRow, "XO".indexOf(mark));
+            }
+        }
+        return board;
+    }
+
+    /**
+     * Key of the position at index on a 3x3 board, with the identity symmetry, to fill cache slots directly
+     */
+    private static long slotKey(long index) {
+        return index << 14 | 2L << 11;
+    }
+
+    @Test
+    void rotationsAndReflections_shareAnEntry_withTheMoveMappedBack() {
+        PositionCache positionCache = new PositionCache(64);
+        // X in a corner and O beside it under the 8 symmetries, with the cell completing their row mapped along
+        String[] symmetricBoards = {"XO.......", "..X..O...", ".......OX", "...O..X..", ".OX......", "......XO.", "X..O.....", ".....O..X"};
+        int[] mappedMoves = {2, 8, 6, 0, 0, 8, 6, 2};
+        positionCache.store(PositionCache.positionKey(MoveStrategyType.MINIMAX, board(3, symmetricBoards[0]), 0, 2), PositionCache.entry(2, 7));
+
+        for (int index = 0; index < symmetricBoards.length; index++) {
+            long entry = positionCache.probe(PositionCache.positionKey(MoveStrategyType.MINIMAX, board(3, symmetricBoards[index]), 0, 2));
+            assertEquals(mappedMoves[index], PositionCache.move(entry), symmetricBoards[index]);
+            assertEquals(7, PositionCache.score(entry));
+        }
+        assertEquals(8, positionCache.getHits());
+    }
+
+    @Test
+    void positionKey_separatesStrategiesSidesAndShapes_andSkipsUncachedBoards() {
+        Board board = board(3, "X...O....");
+        long key = PositionCache.positionKey(MoveStrategyType.MINIMAX, board, 0, 2);
+
+        assertNotEquals(key, PositionCache.positionKey(MoveStrategyType.MCTS, board, 0, 2));
+        assertNotEquals(key, PositionCache.positionKey(MoveStrategyType.MINIMAX, board, 1, 2));
+        assertNotEquals(key >>> 3, PositionCache.positionKey(MoveStrategyType.MINIMAX, board(4, "X...O..........."), 0, 2) >>> 3);
+        assertEquals(PositionCache.NO_KEY, PositionCache.positionKey(MoveStrategyType.MINIMAX, board, 0, 3));
+        assertEquals(PositionCache.NO_KEY, PositionCache.positionKey(MoveStrategyType.MINIMAX, board(6, ""), 0, 2));
+        assertEquals(PositionCache.MISS, new PositionCache(64).probe(key));
+    }
+
+    @Test
+    void fullBucket_evictsEntriesNotReadSinceTheClockHandPassed() {
+        // 8 entries make a single bucket
+        PositionCache positionCache = new PositionCache(8);
+        for (int index = 0; index < 8; index++) {
+            positionCache.store(slotKey(index), PositionCache.entry(index, index));
+        }
+        for (int index = 0; index < 4; index++) {
+            assertEquals(index, PositionCache.move(positionCache.probe(slotKey(index))));
+        }
+
+        for (int index = 8; index < 12; index++) {
+            positionCache.store(slotKey(index), PositionCache.entry(index % 9, index));
+        }
+
+        for (int index = 0; index < 4; index++) {
+            assertNotEquals(PositionCache.MISS, positionCache.probe(slotKey(index)), "read entry " + index + " was evicted");
+        }
+        for (int index = 4; index < 8; index++) {
+            assertEquals(PositionCache.MISS, positionCache.probe(slotKey(index)), "unread entry " + index + " was kept");
+        }
+    }
+
+    @Test
+    void concurrentStoresAndProbes_neverReturnAnotherPositionsEntry() throws InterruptedException {
+        PositionCache positionCache = new PositionCache(256);
+        AtomicInteger wrongEntries = new AtomicInteger();
+        List<Thread> threads = new ArrayList<>();
+        for (int thread = 0; thread < 4; thread++) {
+            threads.add(new Thread(() -> {
+                for (int round = 0; round < 200_000; round++) {
+                    long index = ThreadLocalRandom.current().nextInt(4096);
+                    long entry = positionCache.probe(slotKey(index));
+                    if (entry == PositionCache.MISS) {
+                        positionCache.store(slotKey(index), PositionCache.entry((int) (index % 9), (int) index));
+                    } else if (PositionCache.score(entry) != index || PositionCache.move(entry) != index % 9) {
+                        wrongEntries.incrementAndGet();
+                    }
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(0, wrongEntries.get());
+        assertTrue(positionCache.getHits() > 0);
+    }
+}
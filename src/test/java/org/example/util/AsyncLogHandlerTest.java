@@ -0,0 +1,105 @@
+package org.example.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AsyncLogHandlerTest {
+
+    @Test
+    void records_areWrittenInOrderOnTheWriterThread() {
+        CapturingHandler capturingHandler = new CapturingHandler();
+        AsyncLogHandler asyncLogHandler = new AsyncLogHandler(capturingHandler, 128);
+
+        for (int index = 0; index < 100; index++) {
+            LogRecord record = new LogRecord(Level.INFO, "Move {0}");
+            record.setParameters(new Object[]{index});
+            asyncLogHandler.publish(record);
+        }
+        asyncLogHandler.flush();
+
+        assertEquals(0, asyncLogHandler.getDroppedRecords());
+        assertEquals(100, capturingHandler.records.size());
+        int previous = -1;
+        for (LogRecord record : capturingHandler.records) {
+            int index = (Integer) record.getParameters()[0];
+            assertEquals(previous + 1, index);
+            previous = index;
+        }
+        assertTrue(capturingHandler.threadNames.stream().allMatch("async-log-writer"::equals));
+        asyncLogHandler.close();
+    }
+
+    @Test
+    void fullRing_dropsRecordsInsteadOfBlocking() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        CapturingHandler blockingHandler = new CapturingHandler() {
+            @Override
+            public void publish(LogRecord record) {
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                super.publish(record);
+            }
+        };
+        AsyncLogHandler asyncLogHandler = new AsyncLogHandler(blockingHandler, 4);
+
+        for (int index = 0; index < 20; index++) {
+            asyncLogHandler.publish(new LogRecord(Level.INFO, "record " + index));
+        }
+        release.countDown();
+        asyncLogHandler.flush();
+
+        assertTrue(asyncLogHandler.getDroppedRecords() >= 20 - 5, "dropped " + asyncLogHandler.getDroppedRecords());
+        assertTrue(blockingHandler.records.stream().anyMatch(record -> record.getMessage().contains("log records dropped")));
+        asyncLogHandler.close();
+    }
+
+    @Test
+    void packageLevel_guardsSuppliersOfLoggersBelowIt() {
+        Logger logger = Logger.getLogger("org.example.util.quiet.Component");
+        LoggerConfig.configureLogger(logger);
+        AtomicInteger calls = new AtomicInteger();
+
+        LoggerConfig.setLevel("org.example.util.quiet", Level.WARNING);
+        logger.log(Level.FINE, () -> "expensive " + calls.incrementAndGet());
+        assertEquals(0, calls.get());
+        assertFalse(logger.isLoggable(Level.INFO));
+
+        LoggerConfig.setLevel("org.example.util.quiet", Level.FINE);
+        assertTrue(logger.isLoggable(Level.FINE));
+        assertFalse(Logger.getLogger("org.example.util.Other").isLoggable(Level.FINE));
+        LoggerConfig.setLevel("org.example.util.quiet", Level.OFF);
+    }
+
+    private static class CapturingHandler extends Handler {
+        final List<LogRecord> records = new CopyOnWriteArrayList<>();
+        final List<String> threadNames = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void publish(LogRecord record) {
+            records.add(record);
+            threadNames.add(Thread.currentThread().getName());
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
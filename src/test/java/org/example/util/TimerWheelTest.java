@@ -0,0 +1,57 @@
+package org.example.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimerWheelTest {
+
+    @Test
+    void advance_expiresTimeoutsOnceTheirDeadlinePasses_includingThoseTurnsOfTheWheelAway() {
+        TimerWheel<String> timerWheel = new TimerWheel<>(10, 8, 1_000);
+        timerWheel.schedule("soon", 1_025);
+        timerWheel.schedule("next turn", 1_105);
+        timerWheel.schedule("overdue", 900);
+        List<String> expired = new ArrayList<>();
+
+        assertEquals(1, timerWheel.advance(1_020, expired::add));
+        assertEquals(Collections.singletonList("overdue"), expired);
+        assertEquals(2, timerWheel.size());
+
+        // 1_105 shares the slot of 1_025 one turn later, and stays there
+        timerWheel.advance(1_030, expired::add);
+        assertEquals(Arrays.asList("overdue", "soon"), expired);
+        timerWheel.advance(1_100, expired::add);
+        assertEquals(2, expired.size());
+        timerWheel.advance(1_110, expired::add);
+        assertEquals(Arrays.asList("overdue", "soon", "next turn"), expired);
+        assertEquals(0, timerWheel.size());
+    }
+
+    @Test
+    void advance_afterMoreThanATurn_visitsEverySlotOnce() {
+        TimerWheel<Integer> timerWheel = new TimerWheel<>(1, 4, 0);
+        for (int deadline = 1; deadline <= 20; deadline++) {
+            timerWheel.schedule(deadline, deadline);
+        }
+        List<Integer> expired = new ArrayList<>();
+
+        assertEquals(12, timerWheel.advance(12, expired::add));
+        assertTrue(expired.stream().allMatch(deadline -> deadline <= 12));
+        // a value expiring may be scheduled again from the callback
+        timerWheel.advance(100, deadline -> {
+            expired.add(deadline);
+            if (deadline == 20) {
+                timerWheel.schedule(deadline, 150);
+            }
+        });
+        assertEquals(20, expired.size());
+        timerWheel.advance(150, expired::add);
+        assertEquals(21, expired.size());
+    }
+}